@@ -18,6 +18,8 @@ import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
@@ -53,6 +55,12 @@ public final class BasicEventList<E> extends AbstractEventList<E> implements Ser
     /** the underlying data list */
     private List<E> data;
 
+    /** whether the underlying data list was provided by the user, and so cannot be discarded */
+    private transient boolean dataShared;
+
+    /** the last snapshot handed out, which is a view of the data list until the next change copies it */
+    private transient List<E> copyOnWriteSnapshot;
+
     /**
      * Creates a {@link BasicEventList}.
      */
@@ -116,6 +124,7 @@ public final class BasicEventList<E> extends AbstractEventList<E> implements Ser
     public BasicEventList(List<E> list) {
         super(null);
         this.data = list;
+        this.dataShared = true;
         this.readWriteLock = LockFactory.DEFAULT.createReadWriteLock();
     }
 
@@ -126,6 +135,7 @@ public final class BasicEventList<E> extends AbstractEventList<E> implements Ser
         updates.beginEvent();
         updates.elementInserted(index, element);
         // do the actual add
+        copyOnWrite();
         data.add(index, element);
         // fire the event
         updates.commitEvent();
@@ -138,6 +148,7 @@ public final class BasicEventList<E> extends AbstractEventList<E> implements Ser
         updates.beginEvent();
         updates.elementInserted(size(), element);
         // do the actual add
+        copyOnWrite();
         boolean result = data.add(element);
         // fire the event
         updates.commitEvent();
@@ -156,17 +167,18 @@ public final class BasicEventList<E> extends AbstractEventList<E> implements Ser
         // don't do an add of an empty set
         if(collection.size() == 0) return false;
 
+        // take a snapshot of the values, which is referenced by the event
+        final List<E> values = new ArrayList<E>(collection);
+
         // create the change event
         updates.beginEvent();
-        for(Iterator<? extends E> i = collection.iterator(); i.hasNext(); ) {
-            E value = i.next();
-            updates.elementInserted(index, value);
-            data.add(index, value);
-            index++;
-        }
+        updates.elementsInserted(index, values);
+        // do the actual add, shifting the following elements only once
+        copyOnWrite();
+        data.addAll(index, values);
         // fire the event
         updates.commitEvent();
-        return !collection.isEmpty();
+        return true;
     }
 
     /** {@inheritDoc} */
@@ -175,6 +187,7 @@ public final class BasicEventList<E> extends AbstractEventList<E> implements Ser
         // create the change event
         updates.beginEvent();
         // do the actual remove
+        copyOnWrite();
         E removed = data.remove(index);
         // fire the event
         updates.elementDeleted(index, removed);
@@ -198,11 +211,15 @@ public final class BasicEventList<E> extends AbstractEventList<E> implements Ser
         if(isEmpty()) return;
         // create the change event
         updates.beginEvent();
-        for(int i = 0, size = size(); i < size; i++) {
-            updates.elementDeleted(0, get(i));
+        if(dataShared) {
+            updates.elementsDeleted(0, new ArrayList<E>(data));
+            data.clear();
+        } else {
+            // hand the removed elements to the event rather than copying them
+            updates.elementsDeleted(0, data);
+            data = new ArrayList<E>();
+            copyOnWriteSnapshot = null;
         }
-        // do the actual clear
-        data.clear();
         // fire the event
         updates.commitEvent();
     }
@@ -213,6 +230,7 @@ public final class BasicEventList<E> extends AbstractEventList<E> implements Ser
         // create the change event
         updates.beginEvent();
         // do the actual set
+        copyOnWrite();
         E previous = data.set(index, element);
         // fire the event
         updates.elementUpdated(index, previous);
@@ -232,43 +250,113 @@ public final class BasicEventList<E> extends AbstractEventList<E> implements Ser
         return data.size();
     }
 
-    /** {@inheritDoc} */
+    /**
+     * {@inheritDoc}
+     *
+     * <p>When <code>collection</code> is a {@link List}, its elements are
+     * looked up in a {@link HashSet} copy rather than with
+     * {@link List#contains}. This relies on the elements' <code>hashCode()</code>
+     * being consistent with their <code>equals()</code>.
+     */
     @Override
     public boolean removeAll(Collection<?> collection) {
-        boolean changed = false;
-        updates.beginEvent();
-        for(Iterator i = collection.iterator(); i.hasNext(); ) {
-            Object value = i.next();
-            int index = -1;
-            while((index = indexOf(value)) != -1) {
-                E removed = data.remove(index);
-                updates.elementDeleted(index, removed);
-                changed = true;
-            }
-        }
-        updates.commitEvent();
-        return changed;
+        return removeMatching(collection, false);
     }
 
-    /** {@inheritDoc} */
+    /**
+     * {@inheritDoc}
+     *
+     * <p>When <code>collection</code> is a {@link List}, its elements are
+     * looked up in a {@link HashSet} copy rather than with
+     * {@link List#contains}. This relies on the elements' <code>hashCode()</code>
+     * being consistent with their <code>equals()</code>.
+     */
     @Override
     public boolean retainAll(Collection<?> collection) {
-        boolean changed = false;
+        return removeMatching(collection, true);
+    }
+
+    /**
+     * Remove the elements that are contained in <code>collection</code>, or
+     * that are not if <code>retain</code> is <code>true</code>, in a single
+     * pass. Adjacent removed elements are reported as one block.
+     */
+    private boolean removeMatching(Collection<?> collection, boolean retain) {
+        // a List finds its elements by equals(), so a HashSet of them gives the
+        // same answers in constant time, provided that hashCode() is consistent
+        // with equals(); other collections may use a comparator or identity,
+        // so they answer for themselves
+        final Collection<?> lookup = collection instanceof List ? new HashSet<Object>(collection) : collection;
+
         updates.beginEvent();
-        int index = 0;
-        while(index < data.size()) {
-            if(collection.contains(data.get(index))) {
-                index++;
+        copyOnWrite();
+        // compact the kept elements to the front, remembering the removed runs
+        int kept = 0;
+        List<E> removed = null;
+        for(int i = 0, size = data.size(); i < size; i++) {
+            E element = data.get(i);
+            if(lookup.contains(element) == retain) {
+                if(removed != null) {
+                    updates.elementsDeleted(kept, removed);
+                    removed = null;
+                }
+                if(kept != i) data.set(kept, element);
+                kept++;
             } else {
-                E removed = data.remove(index);
-                updates.elementDeleted(index, removed);
-                changed = true;
+                if(removed == null) removed = new ArrayList<E>();
+                removed.add(element);
             }
         }
+        if(removed != null) {
+            updates.elementsDeleted(kept, removed);
+        }
+
+        // drop the leftover elements at the end in one go
+        boolean changed = kept < data.size();
+        if(changed) data.subList(kept, data.size()).clear();
         updates.commitEvent();
         return changed;
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * <p>This is a copy-on-write snapshot: it is a read-only view of the
+     * elements of this list, so taking it costs constant time, but the next
+     * change to this list first copies all of its elements, which costs
+     * linear time. Nothing is shared after that copy, so a list that is
+     * snapshotted between every pair of changes copies itself on every change.
+     * A list created on a user supplied {@link List} can't replace it, and
+     * copies on every snapshot instead.
+     */
+    @Override
+    @Deprecated
+    public List<E> snapshot() {
+        getReadWriteLock().readLock().lock();
+        try {
+            if(dataShared) return Collections.unmodifiableList(new ArrayList<E>(data));
+
+            List<E> result = copyOnWriteSnapshot;
+            if(result == null) {
+                result = Collections.unmodifiableList(data);
+                copyOnWriteSnapshot = result;
+            }
+            return result;
+        } finally {
+            getReadWriteLock().readLock().unlock();
+        }
+    }
+
+    /**
+     * Copy the underlying data list before it is changed, if the last
+     * snapshot is still a view of it.
+     */
+    private void copyOnWrite() {
+        if(copyOnWriteSnapshot == null) return;
+        data = new ArrayList<E>(data);
+        copyOnWriteSnapshot = null;
+    }
+
     /**
      * This method does nothing. It is not necessary to dispose a BasicEventList.
      */
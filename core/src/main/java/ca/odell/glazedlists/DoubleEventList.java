@@ -0,0 +1,187 @@
+/* Glazed Lists                                                 (c) 2003-2006 */
+/* http://publicobject.com/glazedlists/                      publicobject.com,*/
+/*                                                     O'Dell Engineering Ltd.*/
+package ca.odell.glazedlists;
+
+import ca.odell.glazedlists.event.ListEventPublisher;
+import ca.odell.glazedlists.util.concurrent.ReadWriteLock;
+
+import java.util.Arrays;
+
+/**
+ * An {@link EventList} of <code>double</code> values, stored unboxed in a
+ * growable <code>double[]</code> rather than as {@link Double} objects. It is
+ * intended for large lists of numbers, which take a fraction of the memory of
+ * a {@link BasicEventList} of the same values and create no garbage when
+ * they're written and read with the primitive methods such as
+ * {@link #getDouble} and {@link #addAll(double[])}.
+ *
+ * <p>It is otherwise an ordinary {@link EventList} of {@link Double}s, so it
+ * can be the source of any other list such as {@link SortedList} or
+ * {@link FilterList}. Values are only boxed when they're read through the
+ * {@link java.util.List} methods, or by listeners that read the values of its
+ * {@link ca.odell.glazedlists.event.ListEvent}s. It does not support
+ * <code>null</code> elements.
+ *
+ * <p><table border="1" width="100%" cellpadding="3" cellspacing="0">
+ * <tr class="TableHeadingColor"><td colspan=2><font size="+2"><b>EventList Overview</b></font></td></tr>
+ * <tr><td class="TableSubHeadingColor"><b>Writable:</b></td><td>yes</td></tr>
+ * <tr><td class="TableSubHeadingColor"><b>Concurrency:</b></td><td>thread ready, not thread safe</td></tr>
+ * <tr><td class="TableSubHeadingColor"><b>Performance:</b></td><td>reads: O(1), writes O(1) amortized</td></tr>
+ * <tr><td class="TableSubHeadingColor"><b>Memory:</b></td><td>8 bytes per element</td></tr>
+ * <tr><td class="TableSubHeadingColor"><b>Unit Tests:</b></td><td>PrimitiveEventListTest</td></tr>
+ * <tr><td class="TableSubHeadingColor"><b>Issues:</b></td><td>N/A</td></tr>
+ * </table>
+ */
+public final class DoubleEventList extends PrimitiveEventList<Double, double[]> {
+
+    /**
+     * Creates an empty {@link DoubleEventList}.
+     */
+    public DoubleEventList() {
+        this(10, null, null);
+    }
+
+    /**
+     * Creates an empty {@link DoubleEventList} that uses the specified
+     * {@link ReadWriteLock} for concurrent access.
+     */
+    public DoubleEventList(ReadWriteLock readWriteLock) {
+        this(10, null, readWriteLock);
+    }
+
+    /**
+     * Creates an empty {@link DoubleEventList} with room for the specified
+     * number of values, using the specified {@link ListEventPublisher} and
+     * {@link ReadWriteLock}, either of which may be <code>null</code>.
+     */
+    public DoubleEventList(int initialCapacity, ListEventPublisher publisher, ReadWriteLock readWriteLock) {
+        super(initialCapacity, publisher, readWriteLock);
+    }
+
+    /**
+     * Returns the value at the specified index, without boxing it.
+     */
+    public double getDouble(int index) {
+        checkIndex(index, size);
+        return data[index];
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Double set(int index, Double element) {
+        return Double.valueOf(setDouble(index, element.doubleValue()));
+    }
+
+    /**
+     * Replaces the value at the specified index.
+     *
+     * @return the previous value
+     */
+    public double setDouble(int index, double value) {
+        checkIndex(index, size);
+        final double previous = data[index];
+        updates.beginEvent();
+        data[index] = value;
+        updates.elementUpdated(index, Double.valueOf(previous), Double.valueOf(value));
+        updates.commitEvent();
+        return previous;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void add(int index, Double element) {
+        addDouble(index, element.doubleValue());
+    }
+
+    /**
+     * Appends the specified value to the end of this list.
+     */
+    public void addDouble(double value) {
+        addDouble(size, value);
+    }
+
+    /**
+     * Inserts the specified value at the specified index, shifting the
+     * following values.
+     */
+    public void addDouble(int index, double value) {
+        checkIndex(index, size + 1);
+        updates.beginEvent();
+        makeRoom(index, 1);
+        data[index] = value;
+        updates.elementInserted(index, Double.valueOf(value));
+        updates.commitEvent();
+    }
+
+    /**
+     * Appends all of the specified values to the end of this list, as a single
+     * change.
+     *
+     * @return <code>true</code> if this list changed
+     */
+    public boolean addAll(double[] values) {
+        return addAll(size, values);
+    }
+
+    /**
+     * Inserts all of the specified values at the specified index as a single
+     * change, shifting the following values only once.
+     *
+     * @return <code>true</code> if this list changed
+     */
+    public boolean addAll(int index, double[] values) {
+        // the event references a copy, so it is unaffected by later changes
+        return insertValues(index, values.clone(), values.length);
+    }
+
+    /**
+     * Removes the value at the specified index, shifting the following values.
+     *
+     * @return the removed value
+     */
+    public double removeDouble(int index) {
+        checkIndex(index, size);
+        final double removed = data[index];
+        removeValue(index, Double.valueOf(removed));
+        return removed;
+    }
+
+    /**
+     * Returns a copy of the values in this list.
+     */
+    public double[] toDoubleArray() {
+        return copyValues();
+    }
+
+    /**
+     * Returns the sum of the values in this list, without boxing them.
+     */
+    public double sum() {
+        double sum = 0;
+        for(int i = 0; i < size; i++) {
+            sum += data[i];
+        }
+        return sum;
+    }
+
+    @Override
+    double[] newArray(int length) {
+        return new double[length];
+    }
+
+    @Override
+    Double box(double[] values, int index) {
+        return Double.valueOf(values[index]);
+    }
+
+    @Override
+    void sortValues(double[] values) {
+        Arrays.sort(values);
+    }
+
+    @Override
+    int compare(double[] alphaValues, int alphaIndex, double[] betaValues, int betaIndex) {
+        return Double.compare(alphaValues[alphaIndex], betaValues[betaIndex]);
+    }
+}
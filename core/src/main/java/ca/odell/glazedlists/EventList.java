@@ -8,7 +8,9 @@ import ca.odell.glazedlists.event.ListEventListener;
 import ca.odell.glazedlists.event.ListEventPublisher;
 import ca.odell.glazedlists.util.concurrent.ReadWriteLock;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.function.Consumer;
 import java.util.function.Function;
@@ -182,4 +184,33 @@ public interface EventList<E> extends List<E> {
             getReadWriteLock().writeLock().unlock();    
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Returns an immutable copy of the current elements of this EventList,
+     * which can be read from any thread without holding any lock while this
+     * EventList keeps changing.
+     *
+     * <p>The snapshot is taken while holding the read lock of this EventList.
+     * By default, that copies all of the elements, so each snapshot costs
+     * linear time. This includes transformed lists such as {@link SortedList}
+     * and {@link FilterList}. {@link BasicEventList} takes copy-on-write
+     * snapshots instead: the snapshot is a view of its elements, and the next
+     * change copies them, so the cost moves to the first write after each
+     * snapshot. No implementation shares structure between the snapshot and
+     * the list after it changes.
+     *
+     * @return an unmodifiable {@link List} of the current elements, which
+     *      never changes
+     * @deprecated this is a <strong>developer preview</strong> API that is experimental and not yet
+     *             finalized
+     */
+    @Deprecated
+    default List<E> snapshot() {
+        getReadWriteLock().readLock().lock();
+        try {
+            return Collections.unmodifiableList(new ArrayList<E>(this));
+        } finally {
+            getReadWriteLock().readLock().unlock();
+        }
+    }
+}
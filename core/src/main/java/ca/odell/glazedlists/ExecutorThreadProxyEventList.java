@@ -0,0 +1,224 @@
+/* Glazed Lists                                                 (c) 2003-2006 */
+/* http://publicobject.com/glazedlists/                      publicobject.com,*/
+/*                                                     O'Dell Engineering Ltd.*/
+package ca.odell.glazedlists;
+
+import ca.odell.glazedlists.impl.gui.ThreadProxyEventList;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A {@link ThreadProxyEventList} that forwards the changes to its source on an
+ * {@link Executor}, for pipelines without a user interface thread. The writer
+ * of the source only enqueues its changes, and the listeners of this list
+ * handle them later on the {@link Executor}, without holding up the writer.
+ *
+ * <p>The flushes of this list and its {@link #addFlushListener flush listeners}
+ * run one at a time and in order, even on an {@link Executor} with many
+ * threads, so this list is confined to its {@link Executor}. This list only
+ * changes during a flush, so flush listeners can read it without acquiring
+ * the lock of the pipeline. That makes them the place for slow work such as
+ * persisting or publishing the changes, since they don't block changes to the
+ * source like the list's own listeners do.
+ *
+ * <p>This list keeps metrics for monitoring: the number of changes waiting to
+ * be flushed, and the number and latency of the flushes.
+ *
+ * <p><strong><font color="#FF0000">Warning:</font></strong> This list must be
+ * {@link #dispose disposed} before its {@link Executor} is shut down, since
+ * changes to the source fail once the {@link Executor} rejects their flush.
+ *
+ * <p><table border="1" width="100%" cellpadding="3" cellspacing="0">
+ * <tr class="TableHeadingColor"><td colspan=2><font size="+2"><b>EventList Overview</b></font></td></tr>
+ * <tr><td class="TableSubHeadingColor"><b>Writable:</b></td><td>yes</td></tr>
+ * <tr><td class="TableSubHeadingColor"><b>Concurrency:</b></td><td>thread ready, confined to its executor</td></tr>
+ * <tr><td class="TableSubHeadingColor"><b>Performance:</b></td><td>reads: O(log N), flushes O(log N) per change</td></tr>
+ * <tr><td class="TableSubHeadingColor"><b>Memory:</b></td><td>a copy of the source</td></tr>
+ * <tr><td class="TableSubHeadingColor"><b>Unit Tests:</b></td><td>ExecutorThreadProxyEventListTest</td></tr>
+ * <tr><td class="TableSubHeadingColor"><b>Issues:</b></td><td>N/A</td></tr>
+ * </table>
+ *
+ * @see GlazedLists#threadProxyList(EventList, Executor)
+ */
+public final class ExecutorThreadProxyEventList<E> extends ThreadProxyEventList<E> {
+
+    /** runs the flushes and flush listeners one at a time */
+    private final SerialExecutor executor;
+
+    /** run on the executor after each flush */
+    private final List<Runnable> flushListeners = new CopyOnWriteArrayList<Runnable>();
+
+    /** the metrics of the flushes so far, with latencies in nanoseconds */
+    private final AtomicLong flushCount = new AtomicLong();
+    private final AtomicLong flushedChangeCount = new AtomicLong();
+    private final AtomicLong totalFlushLatency = new AtomicLong();
+    private volatile long lastFlushLatency = 0;
+    private volatile long maximumFlushLatency = 0;
+
+    /**
+     * Creates a {@link ExecutorThreadProxyEventList} that forwards the changes
+     * to the specified source on the specified {@link Executor}.
+     */
+    public ExecutorThreadProxyEventList(EventList<E> source, Executor executor) {
+        super(source);
+        if(executor == null) throw new IllegalArgumentException("executor may not be null");
+        this.executor = new SerialExecutor(executor);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected void schedule(Runnable runnable) {
+        executor.execute(runnable);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected void flushed(int changes, long latency) {
+        flushCount.incrementAndGet();
+        flushedChangeCount.addAndGet(changes);
+        totalFlushLatency.addAndGet(latency);
+        lastFlushLatency = latency;
+        if(latency > maximumFlushLatency) maximumFlushLatency = latency;
+
+        for(Runnable flushListener : flushListeners) {
+            flushListener.run();
+        }
+    }
+
+    /**
+     * Registers the specified {@link Runnable} to be run on the
+     * {@link Executor} after each flush, once the lock of the pipeline has been
+     * released. Flush listeners and flushes never run concurrently, so a flush
+     * listener can read this list without acquiring its lock.
+     */
+    public void addFlushListener(Runnable flushListener) {
+        if(flushListener == null) throw new IllegalArgumentException("flushListener may not be null");
+        flushListeners.add(flushListener);
+    }
+
+    /**
+     * Removes the specified flush listener.
+     */
+    public void removeFlushListener(Runnable flushListener) {
+        flushListeners.remove(flushListener);
+    }
+
+    /**
+     * Gets the number of changes to the source that are waiting to be
+     * flushed. This is the same as {@link #getPendingChanges}.
+     */
+    public int getQueueDepth() {
+        return getPendingChanges();
+    }
+
+    /**
+     * Gets the number of flushes so far.
+     */
+    public long getFlushCount() {
+        return flushCount.get();
+    }
+
+    /**
+     * Gets the number of changes to the source that have been flushed so far.
+     */
+    public long getFlushedChangeCount() {
+        return flushedChangeCount.get();
+    }
+
+    /**
+     * Gets the latency of the last flush, which is the time from the first of
+     * its changes arriving until the flush completed.
+     */
+    public long getLastFlushLatency(TimeUnit unit) {
+        return unit.convert(lastFlushLatency, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Gets the greatest latency of any flush so far.
+     */
+    public long getMaximumFlushLatency(TimeUnit unit) {
+        return unit.convert(maximumFlushLatency, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Gets the mean latency of the flushes so far, or zero if there haven't
+     * been any.
+     */
+    public long getMeanFlushLatency(TimeUnit unit) {
+        final long count = flushCount.get();
+        return count == 0 ? 0 : unit.convert(totalFlushLatency.get() / count, TimeUnit.NANOSECONDS);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void dispose() {
+        flushListeners.clear();
+        super.dispose();
+    }
+
+    /**
+     * Runs tasks on another {@link Executor} one at a time, in the order that
+     * they were submitted.
+     */
+    private static final class SerialExecutor implements Executor {
+        private final Executor delegate;
+        private final ArrayDeque<Runnable> tasks = new ArrayDeque<Runnable>();
+
+        /** whether a drain of the tasks has been submitted to the delegate */
+        private boolean draining = false;
+
+        private final Runnable drain = new Runnable() {
+            @Override
+            public void run() {
+                drain();
+            }
+        };
+
+        SerialExecutor(Executor delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public synchronized void execute(Runnable task) {
+            tasks.add(task);
+            if(!draining) {
+                delegate.execute(drain);
+                draining = true;
+            }
+        }
+
+        private void drain() {
+            boolean completed = false;
+            try {
+                while(true) {
+                    final Runnable task;
+                    synchronized(this) {
+                        task = tasks.poll();
+                        if(task == null) {
+                            draining = false;
+                            completed = true;
+                            return;
+                        }
+                    }
+                    task.run();
+                }
+            } finally {
+                // a failed task doesn't stop the tasks after it
+                if(!completed) {
+                    synchronized(this) {
+                        if(tasks.isEmpty()) {
+                            draining = false;
+                        } else {
+                            delegate.execute(drain);
+                        }
+                    }
+                }
+            }
+        }
+    }
+}
@@ -6,10 +6,19 @@ package ca.odell.glazedlists;
 // the core Glazed Lists packages
 import ca.odell.glazedlists.event.ListEvent;
 import ca.odell.glazedlists.impl.adt.Barcode;
-import ca.odell.glazedlists.impl.adt.BarcodeIterator;
+import ca.odell.glazedlists.impl.adt.BitBarcode;
+import ca.odell.glazedlists.impl.adt.BlackWhiteIterator;
+import ca.odell.glazedlists.impl.adt.BlackWhiteList;
+import ca.odell.glazedlists.impl.filter.ParallelMatching;
+import ca.odell.glazedlists.impl.filter.TextIndex;
+import ca.odell.glazedlists.impl.filter.TextMatcher;
 import ca.odell.glazedlists.matchers.Matcher;
 import ca.odell.glazedlists.matchers.MatcherEditor;
 import ca.odell.glazedlists.matchers.Matchers;
+import ca.odell.glazedlists.matchers.TextMatcherEditor;
+
+import java.util.BitSet;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * An {@link EventList} that shows a subset of the elements of a source
@@ -51,7 +60,7 @@ import ca.odell.glazedlists.matchers.Matchers;
 public final class FilterList<E> extends TransformedList<E,E> {
 
     /** the flag list contains Barcode.BLACK for items that match the current filter and Barcode.WHITE for others */
-    private Barcode flagList = new Barcode();
+    private BlackWhiteList flagList = new Barcode();
 
     /** the matcher determines whether elements get filtered in or out */
     private Matcher<? super E> currentMatcher = Matchers.trueMatcher();
@@ -65,6 +74,21 @@ public final class FilterList<E> extends TransformedList<E,E> {
     /** is this list already disposed? */
     private volatile boolean disposed;
 
+    /** the number of threads that evaluate the matcher when the whole list is refiltered */
+    private volatile int parallelism = 1;
+
+    /** whether the flag list is a bit vector rather than a tree of sequences */
+    private boolean bitVector = false;
+
+    /** the type of the matcher change that was skipped because it was superseded, or -1 */
+    private int supersededChangeType = -1;
+
+    /** whether refilters by a text matcher use a text index */
+    private volatile boolean textIndexed = false;
+
+    /** the trigrams of the filter strings of the source, or null until a text matcher needs it */
+    private TextIndex<E> textIndex = null;
+
     /**
      * Creates a {@link FilterList} that includes a subset of the specified
      * source {@link EventList}.
@@ -90,7 +114,7 @@ public final class FilterList<E> extends TransformedList<E,E> {
         if (matcher == null) return;
 
         currentMatcher = matcher;
-        changed();
+        changed(null);
     }
 
     /**
@@ -106,7 +130,7 @@ public final class FilterList<E> extends TransformedList<E,E> {
         currentEditor = matcherEditor;
         currentEditor.addMatcherEditorListener(listener);
         currentMatcher = currentEditor.getMatcher();
-        changed();
+        changed(null);
     }
 
     /**
@@ -123,9 +147,9 @@ public final class FilterList<E> extends TransformedList<E,E> {
         }
 
         if (matcher != null)
-            changeMatcherWithLocks(currentEditor, matcher, MatcherEditor.Event.CHANGED);
+            changeMatcherWithLocks(currentEditor, matcher, MatcherEditor.Event.CHANGED, null);
         else
-            changeMatcherWithLocks(currentEditor, null, MatcherEditor.Event.MATCH_ALL);
+            changeMatcherWithLocks(currentEditor, null, MatcherEditor.Event.MATCH_ALL, null);
     }
 
     /**
@@ -145,12 +169,147 @@ public final class FilterList<E> extends TransformedList<E,E> {
 
         if (currentEditor != null) {
             currentEditor.addMatcherEditorListener(listener);
-            changeMatcherWithLocks(currentEditor, currentEditor.getMatcher(), MatcherEditor.Event.CHANGED);
+            changeMatcherWithLocks(currentEditor, currentEditor.getMatcher(), MatcherEditor.Event.CHANGED, null);
         } else {
-            changeMatcherWithLocks(currentEditor, null, MatcherEditor.Event.MATCH_ALL);
+            changeMatcherWithLocks(currentEditor, null, MatcherEditor.Event.MATCH_ALL, null);
+        }
+    }
+
+    /**
+     * Set the number of threads that evaluate the {@link Matcher} when
+     * the {@link Matcher} changes and the whole list has to be refiltered.
+     *
+     * <p>With a parallelism greater than 1, large refilters evaluate the
+     * {@link Matcher} for contiguous chunks of the source concurrently on the
+     * {@link ForkJoinPool#commonPool() common ForkJoinPool}, and then apply
+     * the results in order. The resulting {@link ListEvent} is identical to
+     * that of a sequential refilter. This is only worthwhile for expensive
+     * {@link Matcher}s over large lists.
+     *
+     * <p><strong><font color="#FF0000">Warning:</font></strong> with a
+     * parallelism greater than 1, both {@link Matcher#matches} and
+     * {@link EventList#get source.get()} are called from the threads of the
+     * common {@link ForkJoinPool}, while the refiltering thread holds the lock.
+     * So all {@link Matcher}s used by this list must be safe to use from
+     * multiple threads at once, and so must reading the source, which rules
+     * out sources that compute or cache their elements on access without
+     * synchronization. Changes to the source list are still processed on the
+     * calling thread.
+     *
+     * <p>This method doesn't acquire the lock. The new parallelism applies
+     * from the next refilter.
+     *
+     * @param parallelism the maximum number of chunks to evaluate concurrently,
+     *      1 to evaluate the {@link Matcher} on the calling thread only
+     * @throws IllegalArgumentException if <code>parallelism</code> is less than 1
+     */
+    public void setParallelism(int parallelism) {
+        if(parallelism < 1) throw new IllegalArgumentException("parallelism must be at least 1, but was " + parallelism);
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Get the maximum number of threads that evaluate the {@link Matcher}
+     * when the whole list is refiltered.
+     *
+     * @see #setParallelism(int)
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Set whether this list tracks which source elements match in a bit
+     * vector, rather than in a tree of the sequences of matching and
+     * non-matching elements.
+     *
+     * <p>The tree is compact when the matching elements are clustered, but
+     * needs a node for every sequence, so a filter that matches every other
+     * element uses a node per element. The bit vector uses a little over one
+     * bit per source element no matter how the matches are distributed, and
+     * gets the filtered index of a source element in constant time. But
+     * inserting or removing a source element shifts the bits of all the
+     * following elements, so it suits large, fragmented lists that change
+     * mostly by refiltering.
+     *
+     * @param bitVector <code>true</code> to track matches in a bit vector,
+     *      <code>false</code> to track them in a tree
+     */
+    public void setBitVector(boolean bitVector) {
+        getReadWriteLock().writeLock().lock();
+        try {
+            if(this.bitVector == bitVector) return;
+            this.bitVector = bitVector;
+
+            // copy the current flags into the new representation
+            BlackWhiteList previousFlagList = flagList;
+            flagList = createFlagList();
+            for(BlackWhiteIterator i = previousFlagList.iterator(); i.hasNext(); ) {
+                flagList.add(flagList.size(), i.next(), 1);
+            }
+        } finally {
+            getReadWriteLock().writeLock().unlock();
         }
     }
 
+    /**
+     * Get whether this list tracks which source elements match in a bit
+     * vector.
+     *
+     * @see #setBitVector(boolean)
+     */
+    public boolean isBitVector() {
+        return bitVector;
+    }
+
+    /**
+     * Set whether refilters by the {@link Matcher}s of a {@link TextMatcherEditor}
+     * use an index of the filter strings of the source elements. In
+     * {@link TextMatcherEditor#CONTAINS} mode the index is of the trigrams in
+     * the filter strings, and in {@link TextMatcherEditor#STARTS_WITH} mode
+     * it's of the filter strings in sorted order.
+     *
+     * <p>The index is built when it is first needed, and then kept up to date
+     * as the source changes. The rows that may match the search terms are
+     * found in the index, and the {@link Matcher} is only evaluated for those
+     * rows, rather than for every row. This makes refiltering a large list by
+     * a selective search term much faster, at the cost of the memory of the
+     * index, which grows with the total length of the filter strings. Negated
+     * search terms, and in {@link TextMatcherEditor#CONTAINS} mode search
+     * terms of fewer than three characters, don't benefit from the index.
+     *
+     * <p><strong><font color="#FF0000">Warning:</font></strong> the filter
+     * strings of a source element must not change without an update event
+     * for that element, or the index may miss it.
+     *
+     * <p>This method doesn't acquire the lock, so it may be called while
+     * holding either the read or the write lock. An index that is no longer
+     * used is discarded by the next change to the source or the filter.
+     *
+     * @param textIndexed <code>true</code> to index the filter strings,
+     *      <code>false</code> to discard the index
+     */
+    public void setTextIndexed(boolean textIndexed) {
+        this.textIndexed = textIndexed;
+    }
+
+    /**
+     * Get whether refilters by a text {@link Matcher} use an index of the
+     * filter strings.
+     *
+     * @see #setTextIndexed(boolean)
+     */
+    public boolean isTextIndexed() {
+        return textIndexed;
+    }
+
+    /**
+     * Create an empty flag list of the configured representation.
+     */
+    private BlackWhiteList createFlagList() {
+        return bitVector ? new BitBarcode() : new Barcode();
+    }
+
     /** @inheritDoc */
     @Override
     public void dispose() {
@@ -165,11 +324,18 @@ public final class FilterList<E> extends TransformedList<E,E> {
         disposed = true;
         currentEditor = null;
         currentMatcher = null;
+        textIndex = null;
     }
 
     /** {@inheritDoc} */
     @Override
     public final void listChanged(ListEvent<E> listChanges) {
+        // keep the text index in step with the source, or discard it if it's no longer used
+        if(textIndex != null) {
+            if(textIndexed) textIndex.listChanged(listChanges);
+            else textIndex = null;
+        }
+
         // all of these changes to this list happen "atomically"
         updates.beginEvent();
 
@@ -179,8 +345,8 @@ public final class FilterList<E> extends TransformedList<E,E> {
             int[] filterReorderMap = new int[flagList.blackSize()];
 
             // adjust the flaglist & construct a reorder map to propagate
-            Barcode previousFlagList = flagList;
-            flagList = new Barcode();
+            BlackWhiteList previousFlagList = flagList;
+            flagList = createFlagList();
             for(int i = 0; i < sourceReorderMap.length; i++) {
                 Object flag = previousFlagList.get(sourceReorderMap[i]);
                 flagList.add(i, flag, 1);
@@ -270,10 +436,10 @@ public final class FilterList<E> extends TransformedList<E,E> {
      * an appropriate delegate method to perform the correct work for each of
      * the possible <code>changeType</code>s.
      */
-    private void changeMatcherWithLocks(MatcherEditor<? super E> matcherEditor, Matcher<? super E> matcher, int changeType) {
+    private void changeMatcherWithLocks(MatcherEditor<? super E> matcherEditor, Matcher<? super E> matcher, int changeType, MatcherEditor.Event<?> matcherEvent) {
         getReadWriteLock().writeLock().lock();
         try {
-            changeMatcher(matcherEditor, matcher, changeType);
+            changeMatcher(matcherEditor, matcher, changeType, matcherEvent);
         } finally {
             getReadWriteLock().writeLock().unlock();
         }
@@ -284,17 +450,46 @@ public final class FilterList<E> extends TransformedList<E,E> {
      * correct work for each of the possible <code>changeType</code>s. This
      * method does <strong>NOT</strong> acquire any locks and is thus used
      * during initialization of FilterList.
+     *
+     * <p>When the change comes from a <code>matcherEvent</code> that may be
+     * superseded, the new {@link Matcher} is evaluated before anything is
+     * changed, and the change is skipped if the event is superseded in the
+     * meantime. It's also evaluated up front when a text index narrows the
+     * elements to match. Otherwise it's evaluated in a single pass as the
+     * elements are changed.
      */
-    private void changeMatcher(MatcherEditor<? super E> matcherEditor, Matcher<? super E> matcher, int changeType) {
+    private void changeMatcher(MatcherEditor<? super E> matcherEditor, Matcher<? super E> matcher, int changeType, MatcherEditor.Event<?> matcherEvent) {
         // first check if this list is already disposed
         if (!disposed) {
             // ensure the MatcherEvent is from OUR MatcherEditor
             if (currentEditor != matcherEditor) throw new IllegalStateException();
 
+            // a skipped change is combined with the change that supersedes it
+            if (supersededChangeType != -1 && supersededChangeType != changeType
+                    && changeType != MatcherEditor.Event.MATCH_ALL && changeType != MatcherEditor.Event.MATCH_NONE) {
+                changeType = MatcherEditor.Event.CHANGED;
+            }
+
+            // evaluate the new matcher up front, so that nothing changes if the event is superseded
+            boolean[] matches = null;
+            if (changeType == MatcherEditor.Event.CONSTRAINED || changeType == MatcherEditor.Event.RELAXED || changeType == MatcherEditor.Event.CHANGED) {
+                final BitSet candidates = textCandidates(matcher);
+                final boolean supersedable = matcherEvent != null && matcherEvent.isSupersedable();
+                if (supersedable || candidates != null) {
+                    final Object colour = changeType == MatcherEditor.Event.CONSTRAINED ? Barcode.BLACK : changeType == MatcherEditor.Event.RELAXED ? Barcode.WHITE : null;
+                    matches = matchUpFront(matcher, colour, candidates, supersedable ? matcherEvent : null);
+                }
+            }
+            if (matcherEvent != null && matcherEvent.isSuperseded()) {
+                supersededChangeType = changeType;
+                return;
+            }
+            supersededChangeType = -1;
+
             switch (changeType) {
-                case MatcherEditor.Event.CONSTRAINED: currentMatcher = matcher; this.constrained(); break;
-                case MatcherEditor.Event.RELAXED: currentMatcher = matcher; this.relaxed(); break;
-                case MatcherEditor.Event.CHANGED: currentMatcher = matcher; this.changed(); break;
+                case MatcherEditor.Event.CONSTRAINED: currentMatcher = matcher; this.constrained(matches); break;
+                case MatcherEditor.Event.RELAXED: currentMatcher = matcher; this.relaxed(matches); break;
+                case MatcherEditor.Event.CHANGED: currentMatcher = matcher; this.changed(matches); break;
                 case MatcherEditor.Event.MATCH_ALL: currentMatcher = Matchers.trueMatcher(); this.matchAll(); break;
                 case MatcherEditor.Event.MATCH_NONE: currentMatcher = Matchers.falseMatcher(); this.matchNone(); break;
             }
@@ -341,7 +536,7 @@ public final class FilterList<E> extends TransformedList<E,E> {
         // fact that i.getIndex() == i.blackIndex() when all flags before
         // are conceptually black. Otherwise we would need to change flags
         // to black as we go so that flag offsets are correct
-        for(BarcodeIterator i = flagList.iterator(); i.hasNextWhite();) {
+        for(BlackWhiteIterator i = flagList.iterator(); i.hasNextWhite();) {
             i.nextWhite();
             int index = i.getIndex();
             updates.elementInserted(index, source.get(index));
@@ -357,16 +552,23 @@ public final class FilterList<E> extends TransformedList<E,E> {
      * Handles a relaxing or widening of the filter. This may change the
      * contents of this {@link EventList} as filtered elements are unfiltered
      * due to the relaxation of the filter.
+     *
+     * @param matches the results of the matcher for the filtered out elements,
+     *      or <code>null</code> if they haven't been evaluated yet
      */
-    private void relaxed() {
+    private void relaxed(boolean[] matches) {
+        // evaluate the matcher up front if we're allowed to do it concurrently
+        if(matches == null) matches = matchConcurrently(Barcode.WHITE);
+        int matchIndex = 0;
+
         // all of these changes to this list happen "atomically"
         updates.beginEvent();
 
         // for all filtered items, see what the change is
-        for(BarcodeIterator i = flagList.iterator(); i.hasNextWhite();) {
+        for(BlackWhiteIterator i = flagList.iterator(); i.hasNextWhite();) {
             i.nextWhite();
             E element = source.get(i.getIndex());
-            if(currentMatcher.matches(element)) {
+            if(matches != null ? matches[matchIndex++] : currentMatcher.matches(element)) {
                 updates.elementInserted(i.setBlack(), element);
             }
         }
@@ -379,16 +581,23 @@ public final class FilterList<E> extends TransformedList<E,E> {
      * Handles a constraining or narrowing of the filter. This may change the
      * contents of this {@link EventList} as elements are further filtered due
      * to the constraining of the filter.
+     *
+     * @param matches the results of the matcher for the unfiltered elements,
+     *      or <code>null</code> if they haven't been evaluated yet
      */
-    private void constrained() {
+    private void constrained(boolean[] matches) {
+        // evaluate the matcher up front if we're allowed to do it concurrently
+        if(matches == null) matches = matchConcurrently(Barcode.BLACK);
+        int matchIndex = 0;
+
         // all of these changes to this list happen "atomically"
         updates.beginEvent();
 
         // for all unfiltered items, see what the change is
-        for(BarcodeIterator i = flagList.iterator(); i.hasNextBlack();) {
+        for(BlackWhiteIterator i = flagList.iterator(); i.hasNextBlack();) {
             i.nextBlack();
             E value = source.get(i.getIndex());
-            if(!currentMatcher.matches(value)) {
+            if(!(matches != null ? matches[matchIndex++] : currentMatcher.matches(value))) {
                 int blackIndex = i.getBlackIndex();
                 i.setWhite();
                 updates.elementDeleted(blackIndex, value);
@@ -402,13 +611,19 @@ public final class FilterList<E> extends TransformedList<E,E> {
     /**
      * Handles changes to the behavior of the filter. This may change the contents
      * of this {@link EventList} as elements are filtered and unfiltered.
+     *
+     * @param matches the results of the matcher for all elements, or
+     *      <code>null</code> if they haven't been evaluated yet
      */
-    private void changed() {
+    private void changed(boolean[] matches) {
+        // evaluate the matcher up front if we're allowed to do it concurrently
+        if(matches == null) matches = matchConcurrently(null);
+
         // all of these changes to this list happen "atomically"
         updates.beginEvent();
 
         // for all source items, see what the change is
-        for(BarcodeIterator i = flagList.iterator();i.hasNext();) {
+        for(BlackWhiteIterator i = flagList.iterator();i.hasNext();) {
             i.next();
 
             // determine if this value was already filtered out or not
@@ -416,7 +631,7 @@ public final class FilterList<E> extends TransformedList<E,E> {
             boolean wasIncluded = filteredIndex != -1;
             // whether we should add this item
             E value = source.get(i.getIndex());
-            boolean include = currentMatcher.matches(value);
+            boolean include = matches != null ? matches[i.getIndex()] : currentMatcher.matches(value);
 
             // this element is being removed as a result of the change
             if(wasIncluded && !include) {
@@ -433,6 +648,100 @@ public final class FilterList<E> extends TransformedList<E,E> {
         updates.commitEvent();
     }
 
+    /**
+     * Evaluates the current {@link Matcher} for all source elements of the
+     * specified colour concurrently, if this list is configured to do so.
+     *
+     * @param colour the colour of the elements to match, or <code>null</code>
+     *      to match all elements
+     * @return the results in source order, or <code>null</code> if the
+     *      {@link Matcher} should be evaluated on the calling thread instead
+     */
+    private boolean[] matchConcurrently(Object colour) {
+        final int count = colour == null ? flagList.size() : flagList.colourSize(colour);
+        if(parallelism == 1 || count <= ParallelMatching.MINIMUM_CHUNK_SIZE) return null;
+
+        return ParallelMatching.matches(currentMatcher, source, sourceIndices(colour, count), parallelism, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Evaluates the specified {@link Matcher} for all source elements of the
+     * specified colour, concurrently if this list is configured to do so.
+     * Elements that aren't <code>candidates</code> don't match, without
+     * evaluating the {@link Matcher}. The <code>matcherEvent</code> is
+     * checked between chunks of elements, so that a superseded refilter is
+     * abandoned quickly.
+     *
+     * @param colour the colour of the elements to match, or <code>null</code>
+     *      to match all elements
+     * @param candidates the source indices of the only elements that may
+     *      match, or <code>null</code> if any element may match
+     * @param matcherEvent the event of the change if it may be superseded,
+     *      or <code>null</code>
+     * @return the results in source order, or <code>null</code> if the
+     *      <code>matcherEvent</code> was superseded
+     */
+    private boolean[] matchUpFront(Matcher<? super E> matcher, Object colour, BitSet candidates, MatcherEditor.Event<?> matcherEvent) {
+        final int count = colour == null ? flagList.size() : flagList.colourSize(colour);
+        if(candidates == null && parallelism > 1 && count > ParallelMatching.MINIMUM_CHUNK_SIZE) {
+            return ParallelMatching.matches(matcher, source, sourceIndices(colour, count), parallelism, ForkJoinPool.commonPool(), matcherEvent);
+        }
+
+        final boolean[] matches = new boolean[count];
+        int m = 0;
+        for(BlackWhiteIterator i = flagList.iterator(); colour == null ? i.hasNext() : i.hasNextColour(colour);) {
+            if(colour == null) i.next();
+            else i.nextColour(colour);
+            if(matcherEvent != null && m % ParallelMatching.MINIMUM_CHUNK_SIZE == 0 && matcherEvent.isSuperseded()) return null;
+            final int sourceIndex = i.getIndex();
+            matches[m++] = (candidates == null || candidates.get(sourceIndex)) && matcher.matches(source.get(sourceIndex));
+        }
+        return matches;
+    }
+
+    /**
+     * Finds the source elements that the specified {@link Matcher} may match
+     * with the text index, building the index for the filter strings that
+     * the {@link Matcher} searches if necessary.
+     *
+     * @return the source indices of the candidates, or <code>null</code> if
+     *      the text index can't narrow them
+     */
+    private BitSet textCandidates(Matcher<? super E> matcher) {
+        if(!textIndexed) {
+            textIndex = null;
+            return null;
+        }
+        if(!(matcher instanceof TextMatcher)) return null;
+        final TextMatcher<? super E> textMatcher = (TextMatcher<? super E>) matcher;
+        final int mode = textMatcher.getMode();
+        if(mode != TextMatcherEditor.CONTAINS && mode != TextMatcherEditor.STARTS_WITH) return null;
+
+        if(textIndex == null || !textIndex.isIndexed(textMatcher)) {
+            final Object strategy = textMatcher.getStrategy();
+            if(strategy != TextMatcherEditor.IDENTICAL_STRATEGY && strategy != TextMatcherEditor.NORMALIZED_STRATEGY) return null;
+            textIndex = new TextIndex<E>(source, (TextFilterator<? super E>) textMatcher.getFilterator(), mode, strategy);
+        }
+        return textIndex.candidates(textMatcher);
+    }
+
+    /**
+     * Collects the source indices of the elements of the specified colour.
+     *
+     * @return the indices in increasing order, or <code>null</code> for all
+     *      elements if <code>colour</code> is <code>null</code>
+     */
+    private int[] sourceIndices(Object colour, int count) {
+        if(colour == null) return null;
+        final int[] sourceIndices = new int[count];
+        int s = 0;
+        for(BlackWhiteIterator i = flagList.iterator(); i.hasNextColour(colour);) {
+            i.nextColour(colour);
+            sourceIndices[s++] = i.getIndex();
+        }
+        return sourceIndices;
+    }
+
     /**
      * Listens to changes from the current {@link MatcherEditor} and handles them.
      */
@@ -451,7 +760,7 @@ public final class FilterList<E> extends TransformedList<E,E> {
             final Matcher<? super E> matcher = matcherEvent.getMatcher();
             final int changeType = matcherEvent.getType();
 
-            changeMatcherWithLocks(matcherEditor, matcher, changeType);
+            changeMatcherWithLocks(matcherEditor, matcher, changeType, matcherEvent);
         }
     }
 
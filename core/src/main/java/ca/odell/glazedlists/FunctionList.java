@@ -4,10 +4,16 @@
 package ca.odell.glazedlists;
 
 import ca.odell.glazedlists.event.ListEvent;
+import ca.odell.glazedlists.impl.adt.IndexedCache;
+import ca.odell.glazedlists.impl.adt.IntArrayList;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.RandomAccess;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 
 /**
  * This List is meant to simplify the task of transforming each element of a
@@ -45,6 +51,22 @@ import java.util.RandomAccess;
  * {@link Function} to decide <stong>if</strong> and <stong>how</strong> to
  * preserve the relationship of their identities after their transformation.
  *
+ * <p>A FunctionList created by {@link #createLazy} doesn't evaluate the
+ * forward {@link Function} until an element is read, and then caches only a
+ * bounded number of the most recently read results. This suits expensive
+ * functions over large lists where only a few elements are ever read, such
+ * as the rows of a table that are visible on screen. A lazy FunctionList
+ * doesn't know its elements' values until they're read, so its
+ * {@link ListEvent}s report values that haven't been read as
+ * {@link ListEvent#UNKNOWN_VALUE}. The {@link AdvancedFunction#dispose}
+ * method is called when a result is evicted from the cache, and
+ * {@link AdvancedFunction#reevaluate} is only called for results that are
+ * still cached when their source element is updated.
+ *
+ * <p>An eager FunctionList can evaluate a thread safe forward
+ * {@link Function} in parallel when many source elements change at once. See
+ * {@link #setEvaluationExecutor}.
+ *
  * <p><strong><font color="#FF0000">Warning:</font></strong> This class is
  * thread ready but not thread safe. See {@link EventList} for an example
  * of thread safe code.
@@ -63,17 +85,29 @@ import java.util.RandomAccess;
  */
 public final class FunctionList<S, E> extends TransformedList<S, E> implements RandomAccess {
 
+    /** The fewest elements to evaluate at once on the {@link #evaluationExecutor}. */
+    private static final int PARALLEL_EVALUATION_THRESHOLD = 1000;
+
+    /** The most elements to evaluate in a single task on the {@link #evaluationExecutor}. */
+    private static final int PARALLEL_EVALUATION_CHUNK = 4096;
+
     private final List<S> sourceElements;
 
     /** A list of the Objects produced by running the source elements through the {@link #forward} Function. */
     private final List<E> mappedElements;
 
+    /** The recently read results of the {@link #forward} Function when it is evaluated lazily, or null. */
+    private final IndexedCache<Mapping<S,E>> cache;
+
     /** The Function that maps source elements to FunctionList elements. */
     private AdvancedFunction<S,E> forward;
 
     /** The Function that maps FunctionList elements back to source elements. It may be null. */
     private Function<E,S> reverse;
 
+    /** Evaluates the {@link #forward} Function for large batches of source elements, or null. */
+    private Executor evaluationExecutor;
+
     /**
      * Construct a {@link FunctionList} which stores the result of transforming
      * each source element using the given forward {@link Function}. No reverse
@@ -106,23 +140,140 @@ public final class FunctionList<S, E> extends TransformedList<S, E> implements R
      *      element values in the source list
      */
     public FunctionList(EventList<S> source, Function<S,E> forward, Function<E,S> reverse) {
+        this(source, forward, reverse, -1);
+    }
+
+    /**
+     * Construct a {@link FunctionList} which transforms each source element
+     * using the given forward {@link Function}, either eagerly, or lazily with
+     * a bounded cache.
+     *
+     * @param maximumCacheSize the most results to cache when evaluating
+     *      lazily, or -1 to evaluate every element eagerly
+     */
+    private FunctionList(EventList<S> source, Function<S,E> forward, Function<E,S> reverse, int maximumCacheSize) {
         super(source);
 
         updateForwardFunction(forward);
         setReverseFunction(reverse);
 
-        // save a reference to the source elements
-        this.sourceElements = new ArrayList<S>(source);
+        if (maximumCacheSize == -1) {
+            this.cache = null;
+
+            // save a reference to the source elements
+            this.sourceElements = new ArrayList<S>(source);
 
-        // map all of the elements within source
-        this.mappedElements = new ArrayList<E>(source.size());
-        for (int i = 0, n = source.size(); i < n; i++) {
-            this.mappedElements.add(forward(source.get(i)));
+            // map all of the elements within source
+            this.mappedElements = new ArrayList<E>(source.size());
+            for (int i = 0, n = source.size(); i < n; i++) {
+                this.mappedElements.add(forward(source.get(i)));
+            }
+        } else {
+            // nothing is mapped until it is read
+            this.cache = new IndexedCache<Mapping<S,E>>(maximumCacheSize);
+            this.cache.addUncached(0, source.size());
+            this.sourceElements = null;
+            this.mappedElements = null;
         }
 
         source.addListEventListener(this);
     }
 
+    /**
+     * Creates a {@link FunctionList} which evaluates the forward
+     * {@link Function} for each element only when it is read, and caches the
+     * results of the most recently read elements.
+     *
+     * @param source the EventList to decorate with a function transformation
+     * @param forward the function to execute on each source element
+     * @param reverse the function to map elements of FunctionList back to
+     *      element values in the source list, or <code>null</code>
+     * @param maximumCacheSize the most results of the forward function to
+     *      keep at once, or zero to evaluate the forward function on every
+     *      read without keeping or disposing of any results
+     */
+    public static <S, E> FunctionList<S, E> createLazy(EventList<S> source, Function<S,E> forward, Function<E,S> reverse, int maximumCacheSize) {
+        if (maximumCacheSize < 0)
+            throw new IllegalArgumentException("maximumCacheSize may not be negative");
+
+        return new FunctionList<S,E>(source, forward, reverse, maximumCacheSize);
+    }
+
+    /**
+     * Returns <code>true</code> if this {@link FunctionList} evaluates the
+     * forward {@link Function} only when elements are read.
+     */
+    public boolean isLazy() {
+        return cache != null;
+    }
+
+    /**
+     * Returns the most results of the forward {@link Function} that this lazy
+     * {@link FunctionList} keeps at once.
+     *
+     * @throws IllegalStateException if this {@link FunctionList} is not lazy
+     */
+    public int getMaximumCacheSize() {
+        if (cache == null)
+            throw new IllegalStateException("Only a lazy FunctionList has a cache");
+
+        return cache.getMaximumSize();
+    }
+
+    /**
+     * Changes the most results of the forward {@link Function} that this lazy
+     * {@link FunctionList} keeps at once, discarding the least recently read
+     * results as necessary.
+     *
+     * @throws IllegalStateException if this {@link FunctionList} is not lazy
+     */
+    public void setMaximumCacheSize(int maximumCacheSize) {
+        if (cache == null)
+            throw new IllegalStateException("Only a lazy FunctionList has a cache");
+        if (maximumCacheSize < 0)
+            throw new IllegalArgumentException("maximumCacheSize may not be negative");
+
+        final List<Mapping<S,E>> evicted;
+        synchronized (cache) {
+            evicted = cache.setMaximumSize(maximumCacheSize);
+        }
+        dispose(evicted);
+    }
+
+    /**
+     * Evaluates the forward {@link Function} on the specified {@link Executor}
+     * whenever many source elements are inserted or updated at once, or the
+     * forward {@link Function} is changed. Those elements are split among
+     * several tasks that run in parallel, and their results are stored and
+     * reported in index order, just as if they had been evaluated one at a
+     * time. Small changes are still evaluated on the thread that makes them.
+     * A lazy {@link FunctionList} ignores the executor, since it evaluates
+     * elements only as they're read.
+     *
+     * <p>Only specify an executor if the forward {@link Function} is safe to
+     * call from many threads at once. It must not read from this list's
+     * pipeline, because the thread that changes the source holds the
+     * pipeline's write lock while it waits for the executor.
+     * {@link java.util.concurrent.ForkJoinPool#commonPool()} is a suitable
+     * executor for most functions.
+     *
+     * @param evaluationExecutor the executor to evaluate large batches of
+     *      elements on, or <code>null</code> to evaluate every element on the
+     *      thread that changes the source
+     */
+    public void setEvaluationExecutor(Executor evaluationExecutor) {
+        this.evaluationExecutor = evaluationExecutor;
+    }
+
+    /**
+     * Returns the {@link Executor} that evaluates the forward {@link Function}
+     * for large batches of elements, or <code>null</code> if every element is
+     * evaluated on the thread that changes the source.
+     */
+    public Executor getEvaluationExecutor() {
+        return evaluationExecutor;
+    }
+
     /**
      * A convenience method to map a source element to a {@link FunctionList}
      * element using the forward {@link Function}.
@@ -170,13 +321,29 @@ public final class FunctionList<S, E> extends TransformedList<S, E> implements R
      * function using {@link #setReverseFunction} if one exists.
      */
     public void setForwardFunction(Function<S,E> forward) {
+        if (cache != null) {
+            // discard the old results, and remap elements when they are read
+            final List<Mapping<S,E>> discarded = cache.uncacheAll();
+            dispose(discarded);
+            updateForwardFunction(forward);
+
+            updates.beginEvent(true);
+            for (int i = 0, n = source.size(); i < n; i++) {
+                updates.elementUpdated(i, ListEvent.<E>unknownValue(), ListEvent.<E>unknownValue());
+            }
+            updates.commitEvent();
+            return;
+        }
+
         updateForwardFunction(forward);
 
         updates.beginEvent(true);
 
         // remap all of the elements within source
-        for (int i = 0, n = source.size(); i < n; i++) {
-            final E oldValue = this.mappedElements.set(i, forward(source.get(i)));
+        final List<S> sourceValues = new ArrayList<S>(source);
+        final List<E> newValues = forwardAll(sourceValues, null, new boolean[sourceValues.size()]);
+        for (int i = 0; i < newValues.size(); i++) {
+            final E oldValue = this.mappedElements.set(i, newValues.get(i));
             updates.elementUpdated(i, oldValue);
         }
 
@@ -248,6 +415,11 @@ public final class FunctionList<S, E> extends TransformedList<S, E> implements R
     /** {@inheritDoc} */
     @Override
     public void listChanged(ListEvent<S> listChanges) {
+        if (cache != null) {
+            lazyListChanged(listChanges);
+            return;
+        }
+
         updates.beginEvent(true);
 
         if (listChanges.isReordering()) {
@@ -259,6 +431,9 @@ public final class FunctionList<S, E> extends TransformedList<S, E> implements R
             }
             updates.reorder(reorderMap);
 
+        } else if (evaluationExecutor != null) {
+            batchListChanged(listChanges);
+
         } else {
             while (listChanges.next()) {
                 final int changeIndex = listChanges.getIndex();
@@ -290,10 +465,222 @@ public final class FunctionList<S, E> extends TransformedList<S, E> implements R
         updates.commitEvent();
     }
 
+    /**
+     * Handles changes to the source by first applying them all, and then
+     * evaluating the forward {@link Function} for every inserted and updated
+     * element at once, so that a large batch can be evaluated in parallel.
+     * The changes are then reported in their original order.
+     */
+    private void batchListChanged(ListEvent<S> listChanges) {
+        // the type, index and previous mapped element of each change
+        final IntArrayList changeTypes = new IntArrayList();
+        final IntArrayList changeIndices = new IntArrayList();
+        final List<E> oldValuesTransformed = new ArrayList<E>();
+        int evaluationCount = 0;
+
+        // apply the changes, leaving space for the elements still to be mapped.
+        // Later changes never move the earlier inserts and updates, since a
+        // ListEvent's changes are in increasing order
+        while (listChanges.next()) {
+            final int changeIndex = listChanges.getIndex();
+            final int changeType = listChanges.getType();
+            E oldValueTransformed = null;
+
+            if (changeType == ListEvent.INSERT) {
+                sourceElements.add(changeIndex, source.get(changeIndex));
+                mappedElements.add(changeIndex, null);
+                evaluationCount++;
+
+            } else if (changeType == ListEvent.UPDATE) {
+                oldValueTransformed = mappedElements.get(changeIndex);
+                sourceElements.set(changeIndex, source.get(changeIndex));
+                evaluationCount++;
+
+            } else if (changeType == ListEvent.DELETE) {
+                final S oldValue = sourceElements.remove(changeIndex);
+                oldValueTransformed = mappedElements.remove(changeIndex);
+                forward.dispose(oldValue, oldValueTransformed);
+            }
+
+            changeTypes.add(changeType);
+            changeIndices.add(changeIndex);
+            oldValuesTransformed.add(oldValueTransformed);
+        }
+
+        // map the inserted and updated elements
+        final List<S> sourceValues = new ArrayList<S>(evaluationCount);
+        final List<E> previousValues = new ArrayList<E>(evaluationCount);
+        final boolean[] reevaluate = new boolean[evaluationCount];
+        for (int c = 0; c < changeTypes.size(); c++) {
+            if (changeTypes.get(c) == ListEvent.DELETE) continue;
+            reevaluate[sourceValues.size()] = changeTypes.get(c) == ListEvent.UPDATE;
+            sourceValues.add(sourceElements.get(changeIndices.get(c)));
+            previousValues.add(oldValuesTransformed.get(c));
+        }
+        final List<E> newValues = forwardAll(sourceValues, previousValues, reevaluate);
+
+        // store the results and report the changes in order
+        for (int c = 0, e = 0; c < changeTypes.size(); c++) {
+            final int changeType = changeTypes.get(c);
+            final int changeIndex = changeIndices.get(c);
+
+            if (changeType == ListEvent.INSERT) {
+                final E newValueTransformed = newValues.get(e++);
+                mappedElements.set(changeIndex, newValueTransformed);
+                updates.elementInserted(changeIndex, newValueTransformed);
+
+            } else if (changeType == ListEvent.UPDATE) {
+                final E newValueTransformed = newValues.get(e++);
+                mappedElements.set(changeIndex, newValueTransformed);
+                updates.elementUpdated(changeIndex, oldValuesTransformed.get(c), newValueTransformed);
+
+            } else if (changeType == ListEvent.DELETE) {
+                updates.elementDeleted(changeIndex, oldValuesTransformed.get(c));
+            }
+        }
+    }
+
+    /**
+     * Maps each of the specified source elements using the forward
+     * {@link Function}, in parallel on the {@link #evaluationExecutor} if
+     * there are enough of them.
+     *
+     * @param previousValues the prior result of mapping each source element,
+     *      used where <code>reevaluate</code> is set
+     * @param reevaluate whether to remap each source element with its prior
+     *      result rather than map it anew
+     * @return the results, in the same order as the source elements
+     */
+    private List<E> forwardAll(final List<S> sourceValues, final List<E> previousValues, final boolean[] reevaluate) {
+        // each task sets the results of its own range, which doesn't change the list's structure
+        final List<E> results = new ArrayList<E>(Collections.<E>nCopies(sourceValues.size(), null));
+        final int count = sourceValues.size();
+        if (evaluationExecutor == null || count < PARALLEL_EVALUATION_THRESHOLD) {
+            forwardRange(sourceValues, previousValues, reevaluate, results, 0, count);
+            return results;
+        }
+
+        // split the elements into tasks, keeping the first one for this thread
+        final int tasks = Math.max(2, Math.min(4 * Runtime.getRuntime().availableProcessors(), (count + PARALLEL_EVALUATION_CHUNK - 1) / PARALLEL_EVALUATION_CHUNK));
+        final int taskSize = (count + tasks - 1) / tasks;
+        final List<CompletableFuture<Void>> futures = new ArrayList<CompletableFuture<Void>>(tasks);
+        for (int start = taskSize; start < count; start += taskSize) {
+            final int from = start;
+            final int to = Math.min(count, start + taskSize);
+            futures.add(CompletableFuture.runAsync(() -> forwardRange(sourceValues, previousValues, reevaluate, results, from, to), evaluationExecutor));
+        }
+        Throwable failure = null;
+        try {
+            forwardRange(sourceValues, previousValues, reevaluate, results, 0, Math.min(count, taskSize));
+        } catch (RuntimeException | Error e) {
+            failure = e;
+        }
+
+        // wait for every task, so that none is still running if one failed
+        for (int f = 0; f < futures.size(); f++) {
+            try {
+                futures.get(f).join();
+            } catch (CompletionException e) {
+                if (failure == null) failure = e.getCause();
+            }
+        }
+        if (failure instanceof RuntimeException) throw (RuntimeException) failure;
+        if (failure instanceof Error) throw (Error) failure;
+        if (failure != null) throw new IllegalStateException(failure);
+        return results;
+    }
+
+    /**
+     * Maps the source elements in the specified range, storing each result
+     * at the same index.
+     */
+    private void forwardRange(List<S> sourceValues, List<E> previousValues, boolean[] reevaluate, List<E> results, int from, int to) {
+        for (int i = from; i < to; i++) {
+            final S sourceValue = sourceValues.get(i);
+            results.set(i, reevaluate[i] ? forward(previousValues.get(i), sourceValue) : forward(sourceValue));
+        }
+    }
+
+    /**
+     * Handles changes to the source when the forward {@link Function} is
+     * evaluated lazily. Inserted elements are left unmapped, and updated
+     * elements are only remapped if their results are cached.
+     */
+    private void lazyListChanged(ListEvent<S> listChanges) {
+        updates.beginEvent(true);
+
+        if (listChanges.isReordering()) {
+            final int[] reorderMap = listChanges.getReorderMap();
+            cache.reorder(reorderMap);
+            updates.reorder(reorderMap);
+
+        } else {
+            while (listChanges.next()) {
+                final int changeIndex = listChanges.getIndex();
+                final int changeType = listChanges.getType();
+
+                if (changeType == ListEvent.INSERT) {
+                    cache.addUncached(changeIndex, 1);
+                    updates.elementInserted(changeIndex, ListEvent.<E>unknownValue());
+
+                } else if (changeType == ListEvent.UPDATE) {
+                    final Mapping<S,E> oldMapping = cache.uncache(changeIndex);
+                    if (oldMapping == null) {
+                        updates.elementUpdated(changeIndex, ListEvent.<E>unknownValue(), ListEvent.<E>unknownValue());
+                    } else {
+                        final S newValue = source.get(changeIndex);
+                        final E newValueTransformed = forward(oldMapping.mapped, newValue);
+                        final Mapping<S,E> evicted = cache.put(changeIndex, new Mapping<S,E>(newValue, newValueTransformed));
+                        if (evicted != null) forward.dispose(evicted.source, evicted.mapped);
+                        updates.elementUpdated(changeIndex, oldMapping.mapped, newValueTransformed);
+                    }
+
+                } else if (changeType == ListEvent.DELETE) {
+                    final Mapping<S,E> oldMapping = cache.remove(changeIndex);
+                    if (oldMapping == null) {
+                        updates.elementDeleted(changeIndex, ListEvent.<E>unknownValue());
+                    } else {
+                        forward.dispose(oldMapping.source, oldMapping.mapped);
+                        updates.elementDeleted(changeIndex, oldMapping.mapped);
+                    }
+                }
+            }
+        }
+        updates.commitEvent();
+    }
+
+    /**
+     * Disposes of the specified results of the forward {@link Function}.
+     */
+    private void dispose(List<Mapping<S,E>> mappings) {
+        for (int i = 0, n = mappings.size(); i < n; i++) {
+            final Mapping<S,E> mapping = mappings.get(i);
+            forward.dispose(mapping.source, mapping.mapped);
+        }
+    }
+
     /** {@inheritDoc} */
     @Override
     public E get(int index) {
-        return mappedElements.get(index);
+        if (cache == null)
+            return mappedElements.get(index);
+
+        // concurrent readers may all be filling the cache
+        Mapping<S,E> evicted;
+        Mapping<S,E> mapping;
+        synchronized (cache) {
+            final Mapping<S,E> cached = cache.get(index);
+            if (cached != null)
+                return cached.mapped;
+
+            final S sourceValue = source.get(index);
+            mapping = new Mapping<S,E>(sourceValue, forward(sourceValue));
+            evicted = cache.put(index, mapping);
+        }
+        // a cache with a maximum size of zero gives back the new mapping,
+        // which belongs to the caller rather than being disposed
+        if (evicted != null && evicted != mapping) forward.dispose(evicted.source, evicted.mapped);
+        return mapping.mapped;
     }
 
     /** {@inheritDoc} */
@@ -384,6 +771,20 @@ public final class FunctionList<S, E> extends TransformedList<S, E> implements R
         public void dispose(A sourceValue, B transformedValue);
     }
 
+    /**
+     * A source element and the result of mapping it with the forward
+     * {@link Function}, as cached by a lazy {@link FunctionList}.
+     */
+    private static final class Mapping<A,B> {
+        private final A source;
+        private final B mapped;
+
+        Mapping(A source, B mapped) {
+            this.source = source;
+            this.mapped = mapped;
+        }
+    }
+
     /**
      * This class adapts an implementation of the simple {@link Function}
      * interface to the {@link AdvancedFunction} interface. This is purely to
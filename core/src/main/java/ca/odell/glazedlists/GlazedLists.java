@@ -33,6 +33,7 @@ import ca.odell.glazedlists.impl.sort.BeanPropertyComparator;
 import ca.odell.glazedlists.impl.sort.BooleanComparator;
 import ca.odell.glazedlists.impl.sort.ComparableComparator;
 import ca.odell.glazedlists.impl.sort.ComparatorChain;
+import ca.odell.glazedlists.impl.sort.FunctionComparator;
 import ca.odell.glazedlists.impl.sort.ReverseComparator;
 import ca.odell.glazedlists.matchers.Matcher;
 import ca.odell.glazedlists.matchers.MatcherEditor;
@@ -52,6 +53,7 @@ import java.util.Map;
 import java.util.Observable;
 import java.util.Set;
 import java.util.SortedSet;
+import java.util.concurrent.Executor;
 
 /**
  * A factory for creating all sorts of objects to be used with Glazed Lists.
@@ -226,6 +228,37 @@ public final class GlazedLists {
         return booleanComparator;
     }
 
+    /**
+     * Creates a {@link Comparator} that compares objects by the keys that the
+     * specified {@link FunctionList.Function} extracts from them, using the
+     * specified {@link Comparator} on the keys.
+     *
+     * <p>A {@link SortedList} sorted by this {@link Comparator} can extract the
+     * key of each element only when the element is inserted or updated, and
+     * compare the cached keys, see {@link SortedList#setSortKeysCached}. This
+     * is useful when keys are expensive to extract, or cheaper to compare than
+     * the elements themselves. The following example sorts Customers by a
+     * {@link java.text.CollationKey} of their names:
+     *
+     * <pre>
+     *    final Collator collator = Collator.getInstance();
+     *    FunctionList.Function<Customer, CollationKey> nameKey = new FunctionList.Function<Customer, CollationKey>() {
+     *        public CollationKey evaluate(Customer customer) {
+     *            return collator.getCollationKey(customer.getName());
+     *        }
+     *    };
+     *    SortedList<Customer> sorted = new SortedList<Customer>(customers, GlazedLists.keyComparator(nameKey, GlazedLists.comparableComparator()));
+     *    sorted.setSortKeysCached(true);
+     * </pre>
+     *
+     * @param keyFunction the {@link FunctionList.Function} that extracts the
+     *      key of each object
+     * @param keyComparator the {@link Comparator} that compares the keys
+     */
+    public static <T, K> Comparator<T> keyComparator(FunctionList.Function<? super T, ? extends K> keyFunction, Comparator<? super K> keyComparator) {
+        return new FunctionComparator<T,K>(keyFunction, keyComparator);
+    }
+
     /**
      * Creates a {@link Comparator} that compares {@link String} objects in
      * a case-insensitive way.  This {@link Comparator} is equivalent to using
@@ -519,6 +552,25 @@ public final class GlazedLists {
         return new ThreadSafeList<E>((EventList<E>) source);
     }
 
+    /**
+     * Wraps the source in an {@link EventList} that forwards its changes on the
+     * specified {@link Executor}, such as a single thread executor. The writer
+     * of the source doesn't wait for the listeners of the returned list, which
+     * handle the changes one flush at a time on the {@link Executor}.
+     *
+     * <p>The returned {@link ExecutorThreadProxyEventList} also keeps metrics
+     * of its pending changes and the latency of its flushes.
+     *
+     * <p><strong><font color="#FF0000">Warning:</font></strong> The source
+     * must be locked for reading while this list is created, and the returned
+     * list must be disposed before the {@link Executor} is shut down.
+     *
+     * @see ExecutorThreadProxyEventList
+     */
+    public static <E> ExecutorThreadProxyEventList<E> threadProxyList(EventList<E> source, Executor executor) {
+        return new ExecutorThreadProxyEventList<E>(source, executor);
+    }
+
     /**
      * Returns a {@link TransformedList} that maps each element of the source list to a target
      * element by use of a specified {@link Function}.
@@ -0,0 +1,187 @@
+/* Glazed Lists                                                 (c) 2003-2006 */
+/* http://publicobject.com/glazedlists/                      publicobject.com,*/
+/*                                                     O'Dell Engineering Ltd.*/
+package ca.odell.glazedlists;
+
+import ca.odell.glazedlists.event.ListEventPublisher;
+import ca.odell.glazedlists.util.concurrent.ReadWriteLock;
+
+import java.util.Arrays;
+
+/**
+ * An {@link EventList} of <code>int</code> values, stored unboxed in a
+ * growable <code>int[]</code> rather than as {@link Integer} objects. It is
+ * intended for large lists of numbers, which take a fraction of the memory of
+ * a {@link BasicEventList} of the same values and create no garbage when
+ * they're written and read with the primitive methods such as
+ * {@link #getInt} and {@link #addAll(int[])}.
+ *
+ * <p>It is otherwise an ordinary {@link EventList} of {@link Integer}s, so it
+ * can be the source of any other list such as {@link SortedList} or
+ * {@link FilterList}. Values are only boxed when they're read through the
+ * {@link java.util.List} methods, or by listeners that read the values of its
+ * {@link ca.odell.glazedlists.event.ListEvent}s. It does not support
+ * <code>null</code> elements.
+ *
+ * <p><table border="1" width="100%" cellpadding="3" cellspacing="0">
+ * <tr class="TableHeadingColor"><td colspan=2><font size="+2"><b>EventList Overview</b></font></td></tr>
+ * <tr><td class="TableSubHeadingColor"><b>Writable:</b></td><td>yes</td></tr>
+ * <tr><td class="TableSubHeadingColor"><b>Concurrency:</b></td><td>thread ready, not thread safe</td></tr>
+ * <tr><td class="TableSubHeadingColor"><b>Performance:</b></td><td>reads: O(1), writes O(1) amortized</td></tr>
+ * <tr><td class="TableSubHeadingColor"><b>Memory:</b></td><td>4 bytes per element</td></tr>
+ * <tr><td class="TableSubHeadingColor"><b>Unit Tests:</b></td><td>PrimitiveEventListTest</td></tr>
+ * <tr><td class="TableSubHeadingColor"><b>Issues:</b></td><td>N/A</td></tr>
+ * </table>
+ */
+public final class IntEventList extends PrimitiveEventList<Integer, int[]> {
+
+    /**
+     * Creates an empty {@link IntEventList}.
+     */
+    public IntEventList() {
+        this(10, null, null);
+    }
+
+    /**
+     * Creates an empty {@link IntEventList} that uses the specified
+     * {@link ReadWriteLock} for concurrent access.
+     */
+    public IntEventList(ReadWriteLock readWriteLock) {
+        this(10, null, readWriteLock);
+    }
+
+    /**
+     * Creates an empty {@link IntEventList} with room for the specified
+     * number of values, using the specified {@link ListEventPublisher} and
+     * {@link ReadWriteLock}, either of which may be <code>null</code>.
+     */
+    public IntEventList(int initialCapacity, ListEventPublisher publisher, ReadWriteLock readWriteLock) {
+        super(initialCapacity, publisher, readWriteLock);
+    }
+
+    /**
+     * Returns the value at the specified index, without boxing it.
+     */
+    public int getInt(int index) {
+        checkIndex(index, size);
+        return data[index];
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Integer set(int index, Integer element) {
+        return Integer.valueOf(setInt(index, element.intValue()));
+    }
+
+    /**
+     * Replaces the value at the specified index.
+     *
+     * @return the previous value
+     */
+    public int setInt(int index, int value) {
+        checkIndex(index, size);
+        final int previous = data[index];
+        updates.beginEvent();
+        data[index] = value;
+        updates.elementUpdated(index, Integer.valueOf(previous), Integer.valueOf(value));
+        updates.commitEvent();
+        return previous;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void add(int index, Integer element) {
+        addInt(index, element.intValue());
+    }
+
+    /**
+     * Appends the specified value to the end of this list.
+     */
+    public void addInt(int value) {
+        addInt(size, value);
+    }
+
+    /**
+     * Inserts the specified value at the specified index, shifting the
+     * following values.
+     */
+    public void addInt(int index, int value) {
+        checkIndex(index, size + 1);
+        updates.beginEvent();
+        makeRoom(index, 1);
+        data[index] = value;
+        updates.elementInserted(index, Integer.valueOf(value));
+        updates.commitEvent();
+    }
+
+    /**
+     * Appends all of the specified values to the end of this list, as a single
+     * change.
+     *
+     * @return <code>true</code> if this list changed
+     */
+    public boolean addAll(int[] values) {
+        return addAll(size, values);
+    }
+
+    /**
+     * Inserts all of the specified values at the specified index as a single
+     * change, shifting the following values only once.
+     *
+     * @return <code>true</code> if this list changed
+     */
+    public boolean addAll(int index, int[] values) {
+        // the event references a copy, so it is unaffected by later changes
+        return insertValues(index, values.clone(), values.length);
+    }
+
+    /**
+     * Removes the value at the specified index, shifting the following values.
+     *
+     * @return the removed value
+     */
+    public int removeInt(int index) {
+        checkIndex(index, size);
+        final int removed = data[index];
+        removeValue(index, Integer.valueOf(removed));
+        return removed;
+    }
+
+    /**
+     * Returns a copy of the values in this list.
+     */
+    public int[] toIntArray() {
+        return copyValues();
+    }
+
+    /**
+     * Returns the sum of the values in this list, without boxing them.
+     */
+    public long sum() {
+        long sum = 0;
+        for(int i = 0; i < size; i++) {
+            sum += data[i];
+        }
+        return sum;
+    }
+
+    @Override
+    int[] newArray(int length) {
+        return new int[length];
+    }
+
+    @Override
+    Integer box(int[] values, int index) {
+        return Integer.valueOf(values[index]);
+    }
+
+    @Override
+    void sortValues(int[] values) {
+        Arrays.sort(values);
+    }
+
+    @Override
+    int compare(int[] alphaValues, int alphaIndex, int[] betaValues, int betaIndex) {
+        return Integer.compare(alphaValues[alphaIndex], betaValues[betaIndex]);
+    }
+}
@@ -0,0 +1,187 @@
+/* Glazed Lists                                                 (c) 2003-2006 */
+/* http://publicobject.com/glazedlists/                      publicobject.com,*/
+/*                                                     O'Dell Engineering Ltd.*/
+package ca.odell.glazedlists;
+
+import ca.odell.glazedlists.event.ListEventPublisher;
+import ca.odell.glazedlists.util.concurrent.ReadWriteLock;
+
+import java.util.Arrays;
+
+/**
+ * An {@link EventList} of <code>long</code> values, stored unboxed in a
+ * growable <code>long[]</code> rather than as {@link Long} objects. It is
+ * intended for large lists of numbers, which take a fraction of the memory of
+ * a {@link BasicEventList} of the same values and create no garbage when
+ * they're written and read with the primitive methods such as
+ * {@link #getLong} and {@link #addAll(long[])}.
+ *
+ * <p>It is otherwise an ordinary {@link EventList} of {@link Long}s, so it
+ * can be the source of any other list such as {@link SortedList} or
+ * {@link FilterList}. Values are only boxed when they're read through the
+ * {@link java.util.List} methods, or by listeners that read the values of its
+ * {@link ca.odell.glazedlists.event.ListEvent}s. It does not support
+ * <code>null</code> elements.
+ *
+ * <p><table border="1" width="100%" cellpadding="3" cellspacing="0">
+ * <tr class="TableHeadingColor"><td colspan=2><font size="+2"><b>EventList Overview</b></font></td></tr>
+ * <tr><td class="TableSubHeadingColor"><b>Writable:</b></td><td>yes</td></tr>
+ * <tr><td class="TableSubHeadingColor"><b>Concurrency:</b></td><td>thread ready, not thread safe</td></tr>
+ * <tr><td class="TableSubHeadingColor"><b>Performance:</b></td><td>reads: O(1), writes O(1) amortized</td></tr>
+ * <tr><td class="TableSubHeadingColor"><b>Memory:</b></td><td>8 bytes per element</td></tr>
+ * <tr><td class="TableSubHeadingColor"><b>Unit Tests:</b></td><td>PrimitiveEventListTest</td></tr>
+ * <tr><td class="TableSubHeadingColor"><b>Issues:</b></td><td>N/A</td></tr>
+ * </table>
+ */
+public final class LongEventList extends PrimitiveEventList<Long, long[]> {
+
+    /**
+     * Creates an empty {@link LongEventList}.
+     */
+    public LongEventList() {
+        this(10, null, null);
+    }
+
+    /**
+     * Creates an empty {@link LongEventList} that uses the specified
+     * {@link ReadWriteLock} for concurrent access.
+     */
+    public LongEventList(ReadWriteLock readWriteLock) {
+        this(10, null, readWriteLock);
+    }
+
+    /**
+     * Creates an empty {@link LongEventList} with room for the specified
+     * number of values, using the specified {@link ListEventPublisher} and
+     * {@link ReadWriteLock}, either of which may be <code>null</code>.
+     */
+    public LongEventList(int initialCapacity, ListEventPublisher publisher, ReadWriteLock readWriteLock) {
+        super(initialCapacity, publisher, readWriteLock);
+    }
+
+    /**
+     * Returns the value at the specified index, without boxing it.
+     */
+    public long getLong(int index) {
+        checkIndex(index, size);
+        return data[index];
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Long set(int index, Long element) {
+        return Long.valueOf(setLong(index, element.longValue()));
+    }
+
+    /**
+     * Replaces the value at the specified index.
+     *
+     * @return the previous value
+     */
+    public long setLong(int index, long value) {
+        checkIndex(index, size);
+        final long previous = data[index];
+        updates.beginEvent();
+        data[index] = value;
+        updates.elementUpdated(index, Long.valueOf(previous), Long.valueOf(value));
+        updates.commitEvent();
+        return previous;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void add(int index, Long element) {
+        addLong(index, element.longValue());
+    }
+
+    /**
+     * Appends the specified value to the end of this list.
+     */
+    public void addLong(long value) {
+        addLong(size, value);
+    }
+
+    /**
+     * Inserts the specified value at the specified index, shifting the
+     * following values.
+     */
+    public void addLong(int index, long value) {
+        checkIndex(index, size + 1);
+        updates.beginEvent();
+        makeRoom(index, 1);
+        data[index] = value;
+        updates.elementInserted(index, Long.valueOf(value));
+        updates.commitEvent();
+    }
+
+    /**
+     * Appends all of the specified values to the end of this list, as a single
+     * change.
+     *
+     * @return <code>true</code> if this list changed
+     */
+    public boolean addAll(long[] values) {
+        return addAll(size, values);
+    }
+
+    /**
+     * Inserts all of the specified values at the specified index as a single
+     * change, shifting the following values only once.
+     *
+     * @return <code>true</code> if this list changed
+     */
+    public boolean addAll(int index, long[] values) {
+        // the event references a copy, so it is unaffected by later changes
+        return insertValues(index, values.clone(), values.length);
+    }
+
+    /**
+     * Removes the value at the specified index, shifting the following values.
+     *
+     * @return the removed value
+     */
+    public long removeLong(int index) {
+        checkIndex(index, size);
+        final long removed = data[index];
+        removeValue(index, Long.valueOf(removed));
+        return removed;
+    }
+
+    /**
+     * Returns a copy of the values in this list.
+     */
+    public long[] toLongArray() {
+        return copyValues();
+    }
+
+    /**
+     * Returns the sum of the values in this list, without boxing them.
+     */
+    public long sum() {
+        long sum = 0;
+        for(int i = 0; i < size; i++) {
+            sum += data[i];
+        }
+        return sum;
+    }
+
+    @Override
+    long[] newArray(int length) {
+        return new long[length];
+    }
+
+    @Override
+    Long box(long[] values, int index) {
+        return Long.valueOf(values[index]);
+    }
+
+    @Override
+    void sortValues(long[] values) {
+        Arrays.sort(values);
+    }
+
+    @Override
+    int compare(long[] alphaValues, int alphaIndex, long[] betaValues, int betaIndex) {
+        return Long.compare(alphaValues[alphaIndex], betaValues[betaIndex]);
+    }
+}
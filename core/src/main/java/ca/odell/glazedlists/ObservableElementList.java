@@ -6,10 +6,17 @@ package ca.odell.glazedlists;
 import ca.odell.glazedlists.event.ListEvent;
 import ca.odell.glazedlists.impl.adt.Barcode;
 import ca.odell.glazedlists.impl.adt.BarcodeIterator;
+import ca.odell.glazedlists.impl.adt.barcode2.Element;
+import ca.odell.glazedlists.impl.adt.barcode2.SimpleTree;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.EventListener;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * A list that fires update events whenever elements are modified in place.
@@ -30,8 +37,8 @@ import java.util.List;
  * <tr class="TableHeadingColor"><td colspan=2><font size="+2"><b>EventList Overview</b></font></td></tr>
  * <tr><td class="TableSubHeadingColor"><b>Writable:</b></td><td>yes</td></tr>
  * <tr><td class="TableSubHeadingColor"><b>Concurrency:</b></td><td>thread ready, not thread safe; elementChanged(), however, is thread ready</td></tr>
- * <tr><td class="TableSubHeadingColor"><b>Performance:</b></td><td>inserts: O(1), deletes: O(1), updates: O(1), elementChanged: O(n)</td></tr>
- * <tr><td class="TableSubHeadingColor"><b>Memory:</b></td><td>8 bytes per element</td></tr>
+ * <tr><td class="TableSubHeadingColor"><b>Performance:</b></td><td>inserts: O(log n), deletes: O(log n), updates: O(log n), elementChanged: O(log n)</td></tr>
+ * <tr><td class="TableSubHeadingColor"><b>Memory:</b></td><td>56 bytes per element</td></tr>
  * <tr><td class="TableSubHeadingColor"><b>Unit Tests:</b></td><td>ObservableElementListTest</td></tr>
  * <tr><td class="TableSubHeadingColor"><b>Issues:</b></td><td>N/A</td></tr>
  * </table>
@@ -51,8 +58,34 @@ public class ObservableElementList<E> extends TransformedList<E, E> implements O
      * the removed element as part of the ListEvent. We use this list to locate
      * removed elements for the purpose of unregistering listeners from them.
      * todo remove this list when ListEvent can reliably furnish us with a deleted value
+     *
+     * <p>Each element is held in a tree node, so that the current index of
+     * an element can be found from its node in O(log n).
+     */
+    private SimpleTree<E> observedElements;
+
+    /**
+     * The tree node of each observed element, keyed by identity so that
+     * {@link #elementChanged(Object)} can locate the element without scanning
+     * the list. An element that is in the list once maps to a singleton
+     * {@link List}, which is replaced by a mutable one when the element is
+     * added again.
+     */
+    private Map<Object, List<Element<E>>> elementNodes;
+
+    /**
+     * <tt>true</tt> indicates that {@link #elementChanged(Object)} only
+     * records the changed element, and the updates are fired by
+     * {@link #flushElementChanges()}.
+     */
+    private volatile boolean batchElementChanges = false;
+
+    /**
+     * The elements that have changed since the last
+     * {@link #flushElementChanges()}, by identity. Access is guarded by
+     * synchronizing on the set.
      */
-    private List<E> observedElements;
+    private final Set<Object> changedElements = Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>());
 
     /**
      * The connector object containing the logic for registering and
@@ -117,8 +150,8 @@ public class ObservableElementList<E> extends TransformedList<E, E> implements O
         // which List to notify of their modifications
         this.elementConnector.setObservableElementList(this);
 
-        // for speed, we add all source elements together, rather than individually
-        this.observedElements = new ArrayList<E>(source);
+        this.observedElements = new SimpleTree<E>();
+        this.elementNodes = new IdentityHashMap<Object, List<Element<E>>>(source.size());
 
         // we initialize the single EventListener registry, as we optimistically
         // assume we'll be using a single listener for all observed elements
@@ -127,8 +160,11 @@ public class ObservableElementList<E> extends TransformedList<E, E> implements O
 
         // add listeners to all source list elements
         for (int i = 0, n = size(); i < n; i++) {
+            final E element = get(i);
+            this.addObservedElement(i, element);
+
             // connect a listener to the element
-            final EventListener listener = this.connectElement(get(i));
+            final EventListener listener = this.connectElement(element);
 
             // record the listener in the registry
             this.registerListener(i, listener, false);
@@ -151,7 +187,7 @@ public class ObservableElementList<E> extends TransformedList<E, E> implements O
             // register a listener on the inserted object
             if (changeType == ListEvent.INSERT) {
                 final E inserted = get(changeIndex);
-                this.observedElements.add(changeIndex, inserted);
+                this.addObservedElement(changeIndex, inserted);
 
                 // connect a listener to the freshly inserted element
                 final EventListener listener = this.connectElement(inserted);
@@ -162,7 +198,7 @@ public class ObservableElementList<E> extends TransformedList<E, E> implements O
             } else if (changeType == ListEvent.DELETE) {
                 // try to get the previous value through the ListEvent
                 E deleted = listChanges.getOldValue();
-                E deletedElementFromPrivateCopy = this.observedElements.remove(changeIndex);
+                E deletedElementFromPrivateCopy = this.removeObservedElement(changeIndex);
 
                 // if the ListEvent could give us the previous value, use the value from our private copy of the source
                 if (deleted == ListEvent.UNKNOWN_VALUE)
@@ -179,13 +215,14 @@ public class ObservableElementList<E> extends TransformedList<E, E> implements O
 
                 // if the ListEvent could give us the previous value, use the value from our private copy of the source
                 if (previousValue == ListEvent.UNKNOWN_VALUE)
-                    previousValue = this.observedElements.get(changeIndex);
+                    previousValue = this.observedElements.get(changeIndex).get();
 
                 final E newValue = get(changeIndex);
 
                 // if a different object is present at the index
                 if (newValue != previousValue) {
-                    this.observedElements.set(changeIndex, newValue);
+                    this.removeObservedElement(changeIndex);
+                    this.addObservedElement(changeIndex, newValue);
 
                     // disconnect the listener from the previous element at the index
                     this.disconnectElement(previousValue, this.getListener(changeIndex));
@@ -201,6 +238,49 @@ public class ObservableElementList<E> extends TransformedList<E, E> implements O
         this.updates.forwardEvent(listChanges);
     }
 
+    /**
+     * Records the <code>element</code> at the given <code>index</code> in the
+     * private copy of the source and in the index of element nodes.
+     */
+    private void addObservedElement(int index, E element) {
+        final Element<E> node = this.observedElements.add(index, element, 1);
+
+        final List<Element<E>> nodes = this.elementNodes.get(element);
+        if (nodes == null) {
+            this.elementNodes.put(element, Collections.singletonList(node));
+        } else if (nodes.size() == 1) {
+            final List<Element<E>> allNodes = new ArrayList<Element<E>>(2);
+            allNodes.add(nodes.get(0));
+            allNodes.add(node);
+            this.elementNodes.put(element, allNodes);
+        } else {
+            nodes.add(node);
+        }
+    }
+
+    /**
+     * Removes the element at the given <code>index</code> from the private
+     * copy of the source and from the index of element nodes.
+     *
+     * @return the removed element
+     */
+    private E removeObservedElement(int index) {
+        final Element<E> node = this.observedElements.get(index);
+        final E element = node.get();
+        this.observedElements.remove(node);
+
+        final List<Element<E>> nodes = this.elementNodes.get(element);
+        if (nodes.size() == 1) {
+            this.elementNodes.remove(element);
+        } else {
+            nodes.remove(node);
+            if (nodes.size() == 1)
+                this.elementNodes.put(element, Collections.singletonList(nodes.get(0)));
+        }
+
+        return element;
+    }
+
     /**
      * A convenience method for adding a listener into the appropriate listener
      * registry. The <code>listener</code> will be registered at the specified
@@ -381,7 +461,7 @@ public class ObservableElementList<E> extends TransformedList<E, E> implements O
 
         // then remove all listeners from all list elements
         for (int i = 0, n = this.observedElements.size(); i < n; i++) {
-            final E element = this.observedElements.get(i);
+            final E element = this.observedElements.get(i).get();
             final EventListener listener = this.getListener(i);
             this.disconnectElement(element, listener);
         }
@@ -391,6 +471,7 @@ public class ObservableElementList<E> extends TransformedList<E, E> implements O
 
         // null out all references to internal data structures
         this.observedElements = null;
+        this.elementNodes = null;
         this.multiEventListenerRegistry = null;
         this.singleEventListener = null;
         this.singleEventListenerRegistry = null;
@@ -411,6 +492,9 @@ public class ObservableElementList<E> extends TransformedList<E, E> implements O
      * the caller in achieving multi-threaded correctness, this method is
      * Thread ready.
      *
+     * <p>In batch mode, this method only records the <code>listElement</code>
+     * and the update is broadcast by the next {@link #flushElementChanges()}.
+     *
      * @param listElement the list element which has been modified
      */
     @Override
@@ -418,24 +502,117 @@ public class ObservableElementList<E> extends TransformedList<E, E> implements O
         if (this.observedElements == null)
             throw new IllegalStateException("This list has been disposed and can no longer be used.");
 
+        // in batch mode, just remember the element until the next flush
+        if (this.batchElementChanges) {
+            synchronized (this.changedElements) {
+                this.changedElements.add(listElement);
+            }
+            return;
+        }
+
         getReadWriteLock().writeLock().lock();
         try {
             this.updates.beginEvent();
+            this.elementUpdated(listElement);
+            this.updates.commitEvent();
+        } finally {
+            getReadWriteLock().writeLock().unlock();
+        }
+    }
 
-            // locate all indexes containing the given listElement
-            for (int i = 0, n = size(); i < n; i++) {
-            	final E currentElement = get(i);
-                if (listElement == currentElement) {
-                    this.updates.elementUpdated(i, currentElement);
-                }
-            }
+    /**
+     * Set whether changes reported to {@link #elementChanged(Object)} are
+     * collected and fired together by {@link #flushElementChanges()}, rather
+     * than fired immediately.
+     *
+     * <p>When elements change many times a second, firing a {@link ListEvent}
+     * for each change can overwhelm the listeners of this list. In batch mode,
+     * {@link #elementChanged(Object)} only records the changed element, without
+     * acquiring the write lock. Calling {@link #flushElementChanges()}
+     * periodically, such as from a timer, then fires a single
+     * {@link ListEvent} with an update for every location of every element
+     * that changed since the previous flush, however often it changed.
+     *
+     * <p>Turning batch mode off flushes any pending changes.
+     *
+     * @param batchElementChanges <tt>true</tt> to collect changed elements
+     *      until the next flush, <tt>false</tt> to fire each change immediately
+     */
+    public void setBatchElementChanges(boolean batchElementChanges) {
+        this.batchElementChanges = batchElementChanges;
+        if (!batchElementChanges)
+            this.flushElementChanges();
+    }
+
+    /**
+     * Get whether changed elements are collected until the next
+     * {@link #flushElementChanges()}.
+     *
+     * @see #setBatchElementChanges(boolean)
+     */
+    public boolean isBatchElementChanges() {
+        return this.batchElementChanges;
+    }
+
+    /**
+     * Fires a single {@link ListEvent} with an update at every location of
+     * every element that has changed since the previous flush. This does
+     * nothing if no element has changed.
+     *
+     * <p>This method acquires the write lock for this list, and like
+     * {@link #elementChanged(Object)} it may be called on any Thread.
+     *
+     * @see #setBatchElementChanges(boolean)
+     */
+    public void flushElementChanges() {
+        final Object[] changed;
+        synchronized (this.changedElements) {
+            if (this.changedElements.isEmpty())
+                return;
+            changed = this.changedElements.toArray();
+            this.changedElements.clear();
+        }
+
+        getReadWriteLock().writeLock().lock();
+        try {
+            // changed elements may have been removed, or this list disposed, since
+            if (this.observedElements == null)
+                return;
 
+            this.updates.beginEvent();
+            for (int i = 0; i < changed.length; i++)
+                this.elementUpdated(changed[i]);
             this.updates.commitEvent();
         } finally {
             getReadWriteLock().writeLock().unlock();
         }
     }
 
+    /**
+     * Adds an update to the current event at every location of the given
+     * <code>listElement</code>, in increasing order.
+     */
+    private void elementUpdated(Object listElement) {
+        final List<Element<E>> nodes = this.elementNodes.get(listElement);
+        if (nodes == null)
+            return;
+
+        if (nodes.size() == 1) {
+            final Element<E> node = nodes.get(0);
+            this.updates.elementUpdated(this.observedElements.indexOfNode(node, (byte)1), node.get());
+            return;
+        }
+
+        final int[] indices = new int[nodes.size()];
+        for (int i = 0; i < indices.length; i++)
+            indices[i] = this.observedElements.indexOfNode(nodes.get(i), (byte)1);
+        Arrays.sort(indices);
+
+        final E element = nodes.get(0).get();
+        for (int i = 0; i < indices.length; i++)
+            this.updates.elementUpdated(indices[i], element);
+    }
+
 
     /**
      * An interface defining the methods required for registering and
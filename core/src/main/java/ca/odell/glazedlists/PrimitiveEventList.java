@@ -0,0 +1,249 @@
+/* Glazed Lists                                                 (c) 2003-2006 */
+/* http://publicobject.com/glazedlists/                      publicobject.com,*/
+/*                                                     O'Dell Engineering Ltd.*/
+package ca.odell.glazedlists;
+
+import ca.odell.glazedlists.event.ListEventPublisher;
+import ca.odell.glazedlists.util.concurrent.LockFactory;
+import ca.odell.glazedlists.util.concurrent.ReadWriteLock;
+
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
+/**
+ * The shared implementation of the {@link EventList}s that store their values
+ * unboxed in a growable primitive array, such as {@link IntEventList}. This
+ * manages the array, fires the events and sorts the values. The subclasses
+ * only add the methods that read and write values of their primitive type.
+ *
+ * @param <E> the boxed type of the values
+ * @param <A> the primitive array type that holds the values
+ */
+abstract class PrimitiveEventList<E, A> extends AbstractEventList<E> implements RandomAccess {
+
+    /** the values, followed by unused capacity */
+    A data;
+
+    /** the number of values */
+    int size;
+
+    /** the length of {@link #data} */
+    private int capacity;
+
+    /**
+     * Creates an empty list with room for the specified number of values,
+     * using the specified {@link ListEventPublisher} and
+     * {@link ReadWriteLock}, either of which may be <code>null</code>.
+     */
+    PrimitiveEventList(int initialCapacity, ListEventPublisher publisher, ReadWriteLock readWriteLock) {
+        super(publisher);
+        if(initialCapacity < 0) throw new IllegalArgumentException("Illegal capacity: " + initialCapacity);
+        this.data = newArray(initialCapacity);
+        this.capacity = initialCapacity;
+        this.readWriteLock = (readWriteLock == null) ? LockFactory.DEFAULT.createReadWriteLock() : readWriteLock;
+    }
+
+    /**
+     * Creates an array of the primitive type with the specified length.
+     */
+    abstract A newArray(int length);
+
+    /**
+     * Boxes the value at the specified index of the specified array.
+     */
+    abstract E box(A values, int index);
+
+    /**
+     * Sorts the specified array into the order of {@link #compare}.
+     */
+    abstract void sortValues(A values);
+
+    /**
+     * Compares the value at <code>alphaIndex</code> of <code>alphaValues</code>
+     * to the value at <code>betaIndex</code> of <code>betaValues</code>, in the
+     * natural order of the boxed type.
+     */
+    abstract int compare(A alphaValues, int alphaIndex, A betaValues, int betaIndex);
+
+    /** {@inheritDoc} */
+    @Override
+    public final int size() {
+        return size;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final E get(int index) {
+        checkIndex(index, size);
+        return box(data, index);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final E remove(int index) {
+        checkIndex(index, size);
+        final E removed = box(data, index);
+        removeValue(index, removed);
+        return removed;
+    }
+
+    /**
+     * Removes the value at the specified index, which has been checked,
+     * shifting the following values.
+     *
+     * @param removed the boxed value, for the event
+     */
+    final void removeValue(int index, E removed) {
+        updates.beginEvent();
+        System.arraycopy(data, index + 1, data, index, size - index - 1);
+        size--;
+        updates.elementDeleted(index, removed);
+        updates.commitEvent();
+    }
+
+    /**
+     * Inserts the first <code>length</code> of the specified values at the
+     * specified index as a single change, shifting the following values only
+     * once. The event references the values, so they must not be changed
+     * later.
+     *
+     * @return <code>true</code> if this list changed
+     */
+    final boolean insertValues(int index, A values, int length) {
+        checkIndex(index, size + 1);
+        if(length == 0) return false;
+
+        updates.beginEvent();
+        makeRoom(index, length);
+        System.arraycopy(values, 0, data, index, length);
+        updates.elementsInserted(index, new Boxed(values, length));
+        updates.commitEvent();
+        return true;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void clear() {
+        if(size == 0) return;
+
+        // hand the removed values to the event rather than copying them
+        updates.beginEvent();
+        updates.elementsDeleted(0, new Boxed(data, size));
+        data = newArray(0);
+        capacity = 0;
+        size = 0;
+        updates.commitEvent();
+    }
+
+    /**
+     * Returns a copy of the values in this list.
+     */
+    final A copyValues() {
+        final A copy = newArray(size);
+        System.arraycopy(data, 0, copy, 0, size);
+        return copy;
+    }
+
+    /**
+     * Sorts the values in this list into ascending order, as ordered by the
+     * <code>compare</code> method of the boxed type, and fires a single
+     * reordering event. Equal values keep their relative order. This is much
+     * faster than sorting the list with {@link java.util.Collections#sort},
+     * which boxes every value and fires an update for each index.
+     */
+    public final void sort() {
+        // don't fire an event for a list that's already sorted
+        boolean sorted = true;
+        for(int i = 1; i < size && sorted; i++) {
+            sorted = compare(data, i - 1, data, i) <= 0;
+        }
+        if(sorted) return;
+
+        final A sortedData = copyValues();
+        sortValues(sortedData);
+
+        // each value moves to the next free index in its run of equal values
+        final int[] reorderMap = new int[size];
+        final int[] runLengths = new int[size];
+        for(int i = 0; i < size; i++) {
+            final int runStart = firstIndexOf(sortedData, i);
+            reorderMap[runStart + runLengths[runStart]] = i;
+            runLengths[runStart]++;
+        }
+
+        updates.beginEvent();
+        System.arraycopy(sortedData, 0, data, 0, size);
+        updates.reorder(reorderMap);
+        updates.commitEvent();
+    }
+
+    /**
+     * Returns the first index in the sorted values of the value at the
+     * specified index of this list.
+     */
+    private int firstIndexOf(A sortedValues, int index) {
+        int low = 0;
+        int high = size;
+        while(low < high) {
+            final int mid = (low + high) >>> 1;
+            if(compare(sortedValues, mid, data, index) < 0) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+
+    /**
+     * Opens a gap of the specified length at the specified index, growing the
+     * array if necessary.
+     */
+    final void makeRoom(int index, int length) {
+        final int newSize = size + length;
+        if(newSize > capacity) {
+            final int newCapacity = Math.max(newSize, capacity + (capacity >> 1) + 1);
+            final A grown = newArray(newCapacity);
+            System.arraycopy(data, 0, grown, 0, index);
+            System.arraycopy(data, index, grown, index + length, size - index);
+            data = grown;
+            capacity = newCapacity;
+        } else {
+            System.arraycopy(data, index, data, index + length, size - index);
+        }
+        size = newSize;
+    }
+
+    final void checkIndex(int index, int limit) {
+        if(index < 0 || index >= limit) throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    }
+
+    /**
+     * This method does nothing. It is not necessary to dispose a list of
+     * primitive values.
+     */
+    @Override
+    public final void dispose() { }
+
+    /**
+     * A read-only view of values in an array that is no longer changed, which
+     * boxes each value only as it's read.
+     */
+    private final class Boxed extends AbstractList<E> implements RandomAccess {
+        private final A values;
+        private final int size;
+
+        Boxed(A values, int size) {
+            this.values = values;
+            this.size = size;
+        }
+
+        @Override
+        public E get(int index) {
+            if(index < 0 || index >= size) throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+            return box(values, index);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
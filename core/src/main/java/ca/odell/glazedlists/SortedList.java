@@ -8,6 +8,8 @@ import ca.odell.glazedlists.impl.GlazedListsImpl;
 import ca.odell.glazedlists.impl.adt.barcode2.Element;
 import ca.odell.glazedlists.impl.adt.barcode2.SimpleTree;
 import ca.odell.glazedlists.impl.adt.barcode2.SimpleTreeIterator;
+import ca.odell.glazedlists.impl.sort.KeyComparator;
+import ca.odell.glazedlists.impl.sort.KeyComparators;
 
 import java.util.*;
 
@@ -58,6 +60,14 @@ public final class SortedList<E> extends TransformedList<E,E> {
     private static final byte ALL_COLORS = 1;
     private static final Element EMPTY_ELEMENT = null;
 
+    /** the fewest inserts in one event that are merged into the sorted tree at once */
+    private static final int MERGE_INSERTS_MINIMUM = 64;
+    /**
+     * inserts are merged into the sorted tree at once when there are at least
+     * this many elements in the tree for each insert
+     */
+    private static final int MERGE_INSERTS_RATIO = 32;
+
     /**
      * Sorting mode where elements are always in sorted order, even if this
      * requires that elements be moved from one index to another when their
@@ -81,6 +91,18 @@ public final class SortedList<E> extends TransformedList<E,E> {
     /** the comparator that this list uses for sorting */
     private Comparator<? super E> comparator = null;
 
+    /** whether the keys of a {@link KeyComparator} are cached, see {@link #setSortKeysCached} */
+    private boolean sortKeysCached = false;
+
+    /**
+     * the comparator viewed as a {@link KeyComparator} whose keys are cached
+     * in {@link #sortKeys}, or <code>null</code> if keys aren't cached
+     */
+    private KeyComparator<? super E,?> keyComparator = null;
+
+    /** the cached key of each element, by unsorted node */
+    private final Map<Element<?>,Object> sortKeys = new IdentityHashMap<Element<?>,Object>();
+
     /** one of {@link #STRICT_SORT_ORDER} or {@link #AVOID_MOVING_ELEMENTS}. */
     private int mode = STRICT_SORT_ORDER;
 
@@ -149,6 +171,43 @@ public final class SortedList<E> extends TransformedList<E,E> {
         return this.mode;
     }
 
+    /**
+     * Sets whether this {@link SortedList} caches the sort key of each
+     * element. This applies when the {@link Comparator} compares keys
+     * extracted from the elements, such as one from
+     * {@link GlazedLists#keyComparator}, {@link GlazedLists#beanPropertyComparator}
+     * or a {@link ca.odell.glazedlists.gui.TableFormat TableFormat} column,
+     * or a chain or reverse of such {@link Comparator}s. The key of each
+     * element is then extracted only when it's inserted or updated, rather
+     * than on every comparison.
+     *
+     * <p><strong><font color="#FF0000">Warning:</font></strong> While keys are
+     * cached, an element's key must not change unless the source fires an
+     * update for that element. Otherwise the element keeps the position of its
+     * stale key. Keys are not cached by default.
+     *
+     * @param sortKeysCached <tt>true</tt> to cache the sort keys
+     */
+    public void setSortKeysCached(boolean sortKeysCached) {
+        if(sortKeysCached == this.sortKeysCached) return;
+        this.sortKeysCached = sortKeysCached;
+
+        // re-sort to extract or drop the keys
+        if(comparator != null) {
+            setComparator(comparator);
+        }
+    }
+
+    /**
+     * Gets whether this {@link SortedList} caches the sort key of each
+     * element.
+     *
+     * @see #setSortKeysCached(boolean)
+     */
+    public boolean isSortKeysCached() {
+        return sortKeysCached;
+    }
+
     /** {@inheritDoc} */
     @Override
     public void listChanged(ListEvent<E> listChanges) {
@@ -179,6 +238,16 @@ public final class SortedList<E> extends TransformedList<E,E> {
                 Element<Element> unsortedNode = i.node();
                 unsortedNodes[index] = unsortedNode;
             }
+            // the cached keys follow their elements to their new indices
+            if(keyComparator != null) {
+                Object[] previousKeys = new Object[unsortedNodes.length];
+                for(int i = 0; i < unsortedNodes.length; i++) {
+                    previousKeys[i] = sortKeys.get(unsortedNodes[i]);
+                }
+                for(int i = 0; i < unsortedNodes.length; i++) {
+                    sortKeys.put(unsortedNodes[i], previousKeys[sourceReorder[i]]);
+                }
+            }
             Arrays.sort(unsortedNodes, sorted.getComparator());
 
             // create a new reorder map to send the changes forward
@@ -247,11 +316,13 @@ public final class SortedList<E> extends TransformedList<E,E> {
             // on insert, insert the index node
             if(changeType == ListEvent.INSERT) {
                 Element<Element> unsortedNode = unsorted.add(unsortedIndex, EMPTY_ELEMENT, 1);
+                if(keyComparator != null) sortKeys.put(unsortedNode, keyComparator.getKey(source.get(unsortedIndex)));
                 insertNodes.addLast(unsortedNode);
 
             // on update, mark the updated node as unsorted and save it so it can be moved
             } else if(changeType == ListEvent.UPDATE) {
                 Element<Element> unsortedNode = unsorted.get(unsortedIndex);
+                if(keyComparator != null) sortKeys.put(unsortedNode, keyComparator.getKey(source.get(unsortedIndex)));
                 Element sortedNode = unsortedNode.get();
                 sortedNode.setSorted(Element.PENDING);
                 updateNodes.add(sortedNode);
@@ -262,6 +333,7 @@ public final class SortedList<E> extends TransformedList<E,E> {
                 Element<Element> unsortedNode = unsorted.get(unsortedIndex);
                 E deleted = listChanges.getOldValue();
                 unsorted.remove(unsortedNode);
+                if(keyComparator != null) sortKeys.remove(unsortedNode);
                 int deleteSortedIndex = deleteByUnsortedNode(unsortedNode);
                 updates.elementDeleted(deleteSortedIndex, deleted);
 
@@ -346,11 +418,20 @@ public final class SortedList<E> extends TransformedList<E,E> {
             }
         }
 
-        // fire insert events
-        while(!insertNodes.isEmpty()) {
-            Element insertNode = insertNodes.removeFirst();
-            int insertedIndex = insertByUnsortedNode(insertNode);
-            updates.addInsert(insertedIndex);
+        // fire insert events, merging many inserts into the tree at once when
+        // that's cheaper than searching for the location of each one
+        if(mode == STRICT_SORT_ORDER && insertNodes.size() >= MERGE_INSERTS_MINIMUM
+                && insertNodes.size() * MERGE_INSERTS_RATIO >= sorted.size()) {
+            int[] insertedIndices = mergeByUnsortedNodes(insertNodes.toArray(new Element<?>[insertNodes.size()]));
+            for(int i = 0; i < insertedIndices.length; i++) {
+                updates.addInsert(insertedIndices[i]);
+            }
+        } else {
+            while(!insertNodes.isEmpty()) {
+                Element insertNode = insertNodes.removeFirst();
+                int insertedIndex = insertByUnsortedNode(insertNode);
+                updates.addInsert(insertedIndex);
+            }
         }
 
         // commit the changes and notify listeners
@@ -419,6 +500,8 @@ public final class SortedList<E> extends TransformedList<E,E> {
      * sort the source {@link EventList} into a new order.
      *
      * <p>Performance Note: sorting will take <code>O(N * Log N)</code> time.
+     * If the {@link Comparator} compares keys extracted from the elements,
+     * the keys can be cached, see {@link #setSortKeysCached}.
      *
      * <p><strong><font color="#FF0000">Warning:</font></strong> This method is
      * thread ready but not thread safe. See {@link EventList} for an example
@@ -433,22 +516,21 @@ public final class SortedList<E> extends TransformedList<E,E> {
     public void setComparator(Comparator<? super E> comparator) {
         // save this comparator
         this.comparator = comparator;
+        this.keyComparator = sortKeysCached && comparator != null ? KeyComparators.forComparator(comparator) : null;
         // keep the old trees to construct the reordering
-        SimpleTree previousSorted = sorted;
+        SimpleTree<Element> previousSorted = sorted;
         // create the sorted list with a simple comparator
         final Comparator treeComparator;
-        if(comparator != null) treeComparator = new ElementComparator(comparator);
+        if(keyComparator != null) treeComparator = elementKeyComparator(keyComparator);
+        else if(comparator != null) treeComparator = new ElementComparator(comparator);
         else treeComparator = new ElementRawOrderComparator();
         sorted = new SimpleTree<Element>(treeComparator);
 
         // create a list which knows the offsets of the indexes to initialize this list
         if(previousSorted == null && unsorted == null) {
             unsorted = new SimpleTree<Element>();
-            // add all elements in the source list, in order
-            for(int i = 0, n = source.size(); i < n; i++) {
-                Element unsortedNode = unsorted.add(i, EMPTY_ELEMENT, 1);
-                insertByUnsortedNode(unsortedNode);
-            }
+            unsorted.bulkLoad(Collections.<Element<?>>nCopies(source.size(), null));
+            buildSortedTree(unsortedNodes());
             // this is the first sort so we're done
             return;
         }
@@ -456,23 +538,22 @@ public final class SortedList<E> extends TransformedList<E,E> {
         // if the lists are empty, we're done
         if(source.isEmpty()) return;
 
-        // rebuild the sorted tree to reflect the new Comparator
-        for(SimpleTreeIterator<Element> i = new SimpleTreeIterator<Element>(unsorted); i.hasNext(); ) {
-            i.next();
-            Element unsortedNode = i.node();
-            insertByUnsortedNode(unsortedNode);
+        // remember where each element was in the previous sort order
+        Element<?>[] unsortedNodes = unsortedNodes();
+        Map<Element<?>,Integer> unsortedIndices = unsortedIndices(unsortedNodes);
+        Element<?>[] previousSortedValues = sortedTreeValues(previousSorted);
+        int[] previousSortedIndices = new int[unsortedNodes.length];
+        for(int i = 0; i < previousSortedValues.length; i++) {
+            previousSortedIndices[unsortedIndices.get(previousSortedValues[i]).intValue()] = i;
         }
 
+        // rebuild the sorted tree to reflect the new Comparator
+        int[] sortedOrder = buildSortedTree(unsortedNodes);
+
         // construct the reorder map
-        int[] reorderMap = new int[size()];
-        int oldSortedIndex = 0;
-        for(SimpleTreeIterator<Element> i = new SimpleTreeIterator<Element>(previousSorted); i.hasNext(); oldSortedIndex++) {
-            i.next();
-            Element oldSortedNode = i.node();
-            Element unsortedNode = (Element)oldSortedNode.get();
-            Element newSortedNode = (Element)unsortedNode.get();
-            int newSortedIndex = sorted.indexOfNode(newSortedNode, ALL_COLORS);
-            reorderMap[newSortedIndex] = oldSortedIndex;
+        int[] reorderMap = new int[sortedOrder.length];
+        for(int i = 0; i < sortedOrder.length; i++) {
+            reorderMap[i] = previousSortedIndices[sortedOrder[i]];
         }
 
         // notification about the big change
@@ -481,6 +562,232 @@ public final class SortedList<E> extends TransformedList<E,E> {
         updates.commitEvent();
     }
 
+    /**
+     * Fills the empty sorted tree with a node for each unsorted node, in the
+     * order of the current {@link Comparator}, and links the nodes of both
+     * trees to each other.
+     *
+     * <p>Rather than inserting the nodes one at a time, this sorts the source
+     * indices and loads the sorted tree in a single pass.
+     *
+     * @param unsortedNodes the nodes of the unsorted tree, from {@link #unsortedNodes()}
+     * @return the unsorted index of each element, in sorted order
+     */
+    private int[] buildSortedTree(Element<?>[] unsortedNodes) {
+        // cache the key of each element, dropping the keys of a previous comparator
+        sortKeys.clear();
+        if(keyComparator != null) {
+            for(int i = 0; i < unsortedNodes.length; i++) {
+                sortKeys.put(unsortedNodes[i], keyComparator.getKey(source.get(i)));
+            }
+        }
+
+        int[] sortedOrder = sortedOrder(sortValues(unsortedNodes));
+        Element<?>[] sortedValues = new Element<?>[sortedOrder.length];
+        for(int i = 0; i < sortedOrder.length; i++) {
+            sortedValues[i] = unsortedNodes[sortedOrder[i]];
+        }
+        loadSortedTree(sortedValues);
+        return sortedOrder;
+    }
+
+    /**
+     * Fills the empty sorted tree with the specified unsorted nodes, in order,
+     * and links each unsorted node to its new sorted node.
+     */
+    @SuppressWarnings("unchecked")
+    private void loadSortedTree(Element<?>[] sortedValues) {
+        Element<?>[] sortedNodes = sorted.bulkLoad(Arrays.asList(sortedValues));
+        for(int i = 0; i < sortedNodes.length; i++) {
+            ((Element<Object>)sortedValues[i]).set(sortedNodes[i]);
+        }
+    }
+
+    /**
+     * Gets the nodes of the unsorted tree, in the order of their unsorted
+     * indices.
+     */
+    @SuppressWarnings("rawtypes")
+    private Element<?>[] unsortedNodes() {
+        Element<?>[] unsortedNodes = new Element<?>[unsorted.size()];
+        int index = 0;
+        for(SimpleTreeIterator<Element> i = new SimpleTreeIterator<Element>(unsorted); i.hasNext(); index++) {
+            i.next();
+            unsortedNodes[index] = i.node();
+        }
+        return unsortedNodes;
+    }
+
+    /**
+     * Gets the values of the specified sorted tree, which are unsorted nodes,
+     * in sorted order.
+     */
+    @SuppressWarnings("rawtypes")
+    private static Element<?>[] sortedTreeValues(SimpleTree<Element> sortedTree) {
+        Element<?>[] sortedValues = new Element<?>[sortedTree.size()];
+        int index = 0;
+        for(SimpleTreeIterator<Element> i = new SimpleTreeIterator<Element>(sortedTree); i.hasNext(); index++) {
+            i.next();
+            sortedValues[index] = i.value();
+        }
+        return sortedValues;
+    }
+
+    /**
+     * Maps each of the specified unsorted nodes to its unsorted index, so
+     * that many nodes can be located in O(n) overall rather than with an
+     * O(log n) {@link SimpleTree#indexOfNode} each.
+     *
+     * @param unsortedNodes the nodes of the unsorted tree, from {@link #unsortedNodes()}
+     */
+    private static Map<Element<?>,Integer> unsortedIndices(Element<?>[] unsortedNodes) {
+        Map<Element<?>,Integer> unsortedIndices = new IdentityHashMap<Element<?>,Integer>(unsortedNodes.length);
+        for(int i = 0; i < unsortedNodes.length; i++) {
+            unsortedIndices.put(unsortedNodes[i], Integer.valueOf(i));
+        }
+        return unsortedIndices;
+    }
+
+    /**
+     * Sorts the indices of the source elements using the current
+     * {@link Comparator}. The values to compare are fetched once up front,
+     * rather than for each comparison.
+     *
+     * @param values the values from {@link #sortValues}
+     * @return the unsorted index of each element, in sorted order
+     */
+    private int[] sortedOrder(Object[] values) {
+        int[] unsortedIndices = new int[source.size()];
+        for(int i = 0; i < unsortedIndices.length; i++) {
+            unsortedIndices[i] = i;
+        }
+        return sortedOrder(values, unsortedIndices);
+    }
+
+    /**
+     * Gets the values compared when sorting, by unsorted index. These are the
+     * cached keys if there are any, or the source values otherwise.
+     *
+     * @param unsortedNodes the nodes of the unsorted tree, from {@link #unsortedNodes()}
+     * @return the values, or <code>null</code> if there is no {@link Comparator}
+     */
+    private Object[] sortValues(Element<?>[] unsortedNodes) {
+        if(comparator == null) return null;
+        if(keyComparator == null) return source.toArray();
+
+        Object[] keys = new Object[unsortedNodes.length];
+        for(int i = 0; i < unsortedNodes.length; i++) {
+            keys[i] = sortKeys.get(unsortedNodes[i]);
+        }
+        return keys;
+    }
+
+    /**
+     * Sorts elements by their values, breaking ties by their unsorted index
+     * just like the {@link ElementComparator}.
+     *
+     * @param values the values of the source, by unsorted index, or
+     *      <code>null</code> if there is no {@link Comparator}
+     * @param unsortedIndices the unsorted indices of the elements to sort
+     * @return the positions in <code>unsortedIndices</code>, in sorted order
+     */
+    private int[] sortedOrder(final Object[] values, final int[] unsortedIndices) {
+        final Integer[] order = new Integer[unsortedIndices.length];
+        for(int i = 0; i < order.length; i++) {
+            order[i] = Integer.valueOf(i);
+        }
+
+        Arrays.sort(order, (alpha, beta) -> compareUnsorted(values, unsortedIndices[alpha.intValue()], unsortedIndices[beta.intValue()]));
+
+        int[] result = new int[order.length];
+        for(int i = 0; i < order.length; i++) {
+            result[i] = order[i].intValue();
+        }
+        return result;
+    }
+
+    /**
+     * Compares the elements at the specified unsorted indices in the same
+     * way as the {@link ElementComparator} or the
+     * {@link ElementRawOrderComparator}, using values fetched up front.
+     *
+     * @param values the values from {@link #sortValues}
+     */
+    private int compareUnsorted(Object[] values, int alphaIndex, int betaIndex) {
+        if(values != null) {
+            int result = compareSortValues(values[alphaIndex], values[betaIndex]);
+            if(result != 0) return result;
+        }
+        return alphaIndex - betaIndex;
+    }
+
+    /**
+     * Compares two values from {@link #sortValues}, which are the cached keys
+     * of the {@link #keyComparator} if there is one, or elements otherwise.
+     */
+    @SuppressWarnings("unchecked")
+    private int compareSortValues(Object alpha, Object beta) {
+        if(keyComparator != null) return KeyComparators.compareKey(keyComparator, alpha, beta);
+        return comparator.compare((E)alpha, (E)beta);
+    }
+
+    /**
+     * Inserts many unsorted nodes at once by sorting them, merging them
+     * with the elements already in the sorted tree in a single ordered pass,
+     * and loading the merged sequence into a rebuilt sorted tree. This only
+     * works when every element in the tree is in sorted order.
+     *
+     * <p>For <code>k</code> inserts into a list of <code>n</code> elements,
+     * this takes <code>O(n + k log k)</code> time: the unsorted indices are
+     * found in a single walk of the unsorted tree, and only the inserted
+     * nodes are sorted.
+     *
+     * @return the sorted index of each inserted node, in increasing order
+     */
+    private int[] mergeByUnsortedNodes(Element<?>[] insertNodes) {
+        // find the unsorted index of every node in one walk of the unsorted tree
+        Element<?>[] unsortedNodes = unsortedNodes();
+        Object[] values = sortValues(unsortedNodes);
+        Map<Element<?>,Integer> unsortedIndices = unsortedIndices(unsortedNodes);
+
+        // sort the inserted nodes
+        int[] insertIndices = new int[insertNodes.length];
+        for(int i = 0; i < insertNodes.length; i++) {
+            insertIndices[i] = unsortedIndices.get(insertNodes[i]).intValue();
+        }
+        int[] insertOrder = sortedOrder(values, insertIndices);
+
+        // collect the nodes already in the tree, in sorted order
+        Element<?>[] existingNodes = sortedTreeValues(sorted);
+        int existingSize = existingNodes.length;
+        int[] existingIndices = new int[existingSize];
+        for(int i = 0; i < existingSize; i++) {
+            existingIndices[i] = unsortedIndices.get(existingNodes[i]).intValue();
+        }
+
+        // merge the two sequences
+        Element<?>[] mergedNodes = new Element<?>[existingSize + insertNodes.length];
+        int[] insertedAt = new int[insertNodes.length];
+        int existing = 0;
+        int inserted = 0;
+        for(int merged = 0; merged < mergedNodes.length; merged++) {
+            if(inserted < insertOrder.length && (existing == existingSize
+                    || compareUnsorted(values, insertIndices[insertOrder[inserted]], existingIndices[existing]) < 0)) {
+                mergedNodes[merged] = insertNodes[insertOrder[inserted]];
+                insertedAt[inserted] = merged;
+                inserted++;
+            } else {
+                mergedNodes[merged] = existingNodes[existing];
+                existing++;
+            }
+        }
+
+        // rebuild the sorted tree and link it to the unsorted nodes
+        sorted.clear();
+        loadSortedTree(mergedNodes);
+        return insertedAt;
+    }
+
     /** {@inheritDoc} */
     @Override
     public int indexOf(Object object) {
@@ -602,6 +909,64 @@ public final class SortedList<E> extends TransformedList<E,E> {
     }
 
 
+    /**
+     * Creates an {@link ElementKeyComparator}, naming the type of the keys.
+     */
+    private <K> ElementKeyComparator<K> elementKeyComparator(KeyComparator<? super E,K> keyComparator) {
+        return new ElementKeyComparator<K>(keyComparator);
+    }
+
+    /**
+     * A comparator that compares the cached keys of unsorted nodes, and
+     * extracts the keys of other objects. Like the {@link ElementComparator},
+     * it breaks ties between nodes by their indices, but it only looks up the
+     * indices for ties.
+     */
+    private class ElementKeyComparator<K> implements Comparator<Object> {
+
+        /** extracts the keys of objects that aren't nodes */
+        private final KeyComparator<? super E,K> keyComparator;
+
+        /** compares the keys */
+        private final Comparator<? super K> comparator;
+
+        public ElementKeyComparator(KeyComparator<? super E,K> keyComparator) {
+            this.keyComparator = keyComparator;
+            this.comparator = keyComparator.getKeyComparator();
+        }
+
+        /**
+         * Compares the key of object alpha to the key of object beta.
+         */
+        @Override
+        public int compare(Object alpha, Object beta) {
+            int result = comparator.compare(getKey(alpha), getKey(beta));
+            if(result != 0) return result;
+            if(alpha instanceof Element && beta instanceof Element) {
+                return unsortedIndexOf((Element<?>)alpha) - unsortedIndexOf((Element<?>)beta);
+            }
+            return 0;
+        }
+
+        /**
+         * Gets the cached key of an unsorted node, or extracts the key of any
+         * other object, which is an element of this list.
+         */
+        @SuppressWarnings("unchecked")
+        private K getKey(Object object) {
+            if(object instanceof Element) return (K)sortKeys.get(object);
+            return keyComparator.getKey((E)object);
+        }
+
+        /**
+         * Gets the unsorted index of an unsorted node.
+         */
+        @SuppressWarnings({"rawtypes", "unchecked"})
+        private int unsortedIndexOf(Element<?> unsortedNode) {
+            return unsorted.indexOfNode((Element<Element>)unsortedNode, ALL_COLORS);
+        }
+    }
+
     /**
      * A comparator that takes an indexed node, and compares the value
      * of an object in a list that has the index of that node.
@@ -136,6 +136,30 @@ public final class ListEventAssembler<E> {
         addChange(ListEvent.DELETE, index, index, oldValue, ListEvent.<E>unknownValue());
     }
 
+    /**
+     * Add to the current ListEvent the insert of a range of elements starting
+     * at the specified index, with the specified new values. This is recorded
+     * as a single block where possible, rather than one change per element.
+     *
+     * @param newValues the inserted values, which must not be modified
+     *      afterwards since they are referenced by the ListEvent
+     */
+    public void elementsInserted(int index, List<? extends E> newValues) {
+        addChangeRange(ListEvent.INSERT, index, null, newValues);
+    }
+    /**
+     * Add to the current ListEvent the removal of a range of elements starting
+     * at the specified index, with the specified previous values. This is
+     * recorded as a single block where possible, rather than one change per
+     * element.
+     *
+     * @param oldValues the removed values, which must not be modified
+     *      afterwards since they are referenced by the ListEvent
+     */
+    public void elementsDeleted(int index, List<? extends E> oldValues) {
+        addChangeRange(ListEvent.DELETE, index, oldValues, null);
+    }
+
     /**
      * @deprecated replaced with {@link #elementUpdated(int, Object, Object)}.
      */
@@ -248,6 +272,33 @@ public final class ListEventAssembler<E> {
         }
     }
 
+    /**
+     * Adds a block of changes where each element has its own values.
+     */
+    private void addChangeRange(int type, int startIndex, List<? extends E> oldValues, List<? extends E> newValues) {
+        final int length = (type == ListEvent.DELETE ? oldValues : newValues).size();
+        if(length == 0) return;
+
+        // try the linear holder first
+        if(useListBlocksLinear) {
+            final boolean success = blockSequence.addChangeRange(type, startIndex, startIndex + length, oldValues, newValues);
+            if (success)
+                return;
+
+            // convert from linear to tree4deltas
+            listDeltas.addAll(blockSequence);
+            useListBlocksLinear = false;
+        }
+
+        // the tree stores one value per change
+        for(int i = 0; i < length; i++) {
+            final E oldValue = oldValues == null ? ListEvent.<E>unknownValue() : oldValues.get(i);
+            final E newValue = newValues == null ? ListEvent.<E>unknownValue() : newValues.get(i);
+            final int index = type == ListEvent.DELETE ? startIndex : startIndex + i;
+            addChange(type, index, index, oldValue, newValue);
+        }
+    }
+
     /**
      * Sets the current event as a reordering. Reordering events cannot be
      * combined with other events.
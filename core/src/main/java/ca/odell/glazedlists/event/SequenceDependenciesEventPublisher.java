@@ -4,7 +4,6 @@
 package ca.odell.glazedlists.event;
 
 import ca.odell.glazedlists.EventList;
-import ca.odell.glazedlists.impl.adt.IdentityMultimap;
 
 import java.io.ObjectStreamException;
 import java.io.Serializable;
@@ -59,13 +58,38 @@ final class SequenceDependenciesEventPublisher implements ListEventPublisher, Se
     /** the last listener notified, the next one will be beyond it in the list */
     private transient int nextToNotify;
 
+    /** the positions in subjectsAndListenersForCurrentEvent of all listeners with a pending event */
+    private transient final BitSet pendingPositions = new BitSet();
+
+    /**
+     * The dependency graph: every subject and every related subject of a
+     * listener, each with the pairs it takes part in. The graph is kept in
+     * topological order as pairs are added and removed, so it never has to
+     * be sorted from scratch.
+     */
+    private transient final Map<Object,Node> nodes = new IdentityHashMap<Object,Node>();
+
+    /** the order for the next new node, greater than that of all existing nodes */
+    private transient int nextOrder;
+
+    /** whether the graph has changed since subjectAndListeners was last built from it */
+    private transient volatile boolean graphChanged;
+
     /**
      * A mix of different subjects and listeners pairs in a deliberate order.
      * We should be careful not to make changes to this list directly and instead
-     * create a copy as necessary
+     * create a copy as necessary. This is rebuilt from the dependency graph
+     * before the first event that follows a change to the graph.
      */
     private transient List<SubjectAndListener> subjectAndListeners = Collections.emptyList();
 
+    /**
+     * For each subject, the positions of its listeners in subjectAndListeners
+     * in increasing order. This is rebuilt whenever subjectAndListeners is
+     * replaced, so that firing an event doesn't need to scan all listeners.
+     */
+    private transient Map<Object,int[]> subjectsToPositions = Collections.emptyMap();
+
     /**
      * We use copy-on-write on the listeners list. This is a copy of the
      * listeners list as it looked immediately before the current change
@@ -74,110 +98,228 @@ final class SequenceDependenciesEventPublisher implements ListEventPublisher, Se
      */
     private transient List<SubjectAndListener> subjectsAndListenersForCurrentEvent;
 
+    /** the subjectsToPositions index that matches subjectsAndListenersForCurrentEvent */
+    private transient Map<Object,int[]> subjectsToPositionsForCurrentEvent;
+
     /** Returns a proper initialized publisher object during deserialization. */
     private Object readResolve() throws ObjectStreamException {
         return new SequenceDependenciesEventPublisher();
     }
 
     /**
-     * Rebuild the subject and listeners list so that all required invariants
-     * are met with respect to notification order. That is, for any listener
-     * T, all of the subjects S that T listens to have been updated before T
-     * receives a change event from any S.
+     * Add the specified pair to the dependency graph, restoring the
+     * topological order if necessary. That is, for any listener T, all of the
+     * subjects S that T listens to must be updated before T receives a change
+     * event from any S.
      *
-     * <p>This implementation still has some problems and work left to do:
-     *  <li>it's big! Can we optimize it? Perhaps shortcutting all the graph
-     *     work for simple cases (the 99% case)
-     *  <li>it's complex! Can we simplify it?
-     *  <li>could we keep the datastructures around? it may be wasteful to
-     *     reconstruct them every single time a listener is added
+     * @throws IllegalStateException if the pair would create a cycle, in
+     *      which case the graph is left unchanged
      */
-    private List<SubjectAndListener> orderSubjectsAndListeners(List<SubjectAndListener> subjectsAndListeners) {
+    private void addEdge(SubjectAndListener subjectAndListener) {
+        Node source = getOrCreateNode(subjectAndListener.subject);
+        Node target = getOrCreateNode(getRelatedSubject(subjectAndListener.listener));
+        try {
+            if(source == target) {
+                throw new IllegalStateException("Listener cycle detected, " + subjectAndListener);
+            }
+            if(source.order > target.order) {
+                reorder(source, target, subjectAndListener);
+            }
+        } catch(IllegalStateException e) {
+            removeIfUnused(source);
+            removeIfUnused(target);
+            throw e;
+        }
+        subjectAndListener.source = source;
+        subjectAndListener.target = target;
+        source.outgoing.add(subjectAndListener);
+        target.incoming.add(subjectAndListener);
+    }
 
-        // since we're regenerating the subjectAndListeners list, clear it and re-add the elements
-        List<SubjectAndListener> result = new ArrayList<SubjectAndListener>();
+    /**
+     * Remove the specified pair from the dependency graph. The topological
+     * order remains valid when a pair is removed.
+     */
+    private void removeEdge(SubjectAndListener subjectAndListener) {
+        Node source = subjectAndListener.source;
+        Node target = subjectAndListener.target;
+        removeByIdentity(source.outgoing, subjectAndListener);
+        removeByIdentity(target.incoming, subjectAndListener);
+        removeIfUnused(source);
+        removeIfUnused(target);
+    }
 
-        // HashMaps of unprocessed elements, keyed by both source and target
-        IdentityMultimap<Object,SubjectAndListener> sourceToPairs = new IdentityMultimap<Object,SubjectAndListener>();
-        IdentityMultimap<Object,SubjectAndListener> targetToPairs = new IdentityMultimap<Object,SubjectAndListener>();
+    private Node getOrCreateNode(Object subject) {
+        Node node = nodes.get(subject);
+        if(node == null) {
+            node = new Node(subject, nextOrder++);
+            nodes.put(subject, node);
+        }
+        return node;
+    }
 
-        // everything that has all of its listeners already notified in subjectAndListeners
-        Map<Object,Boolean> satisfied = new IdentityHashMap<Object,Boolean>();
-        // everything that has a listener already notified
-        List<Object> satisfiedToDo = new ArrayList<Object>();
+    private void removeIfUnused(Node node) {
+        if(node.outgoing.isEmpty() && node.incoming.isEmpty()) {
+            nodes.remove(node.subject);
+        }
+    }
 
-        // prepare the initial collections: maps that show how each element is
-        // used as source and target in directed edges, plus a list of nodes
-        // that have no incoming edges
-        for(int i = 0, size = subjectsAndListeners.size(); i < size; i++) {
-            SubjectAndListener subjectAndListener = subjectsAndListeners.get(i);
-            Object source = subjectAndListener.subject;
-            Object target = getRelatedSubject(subjectAndListener.listener);
-            sourceToPairs.addValue(source, subjectAndListener);
-            targetToPairs.addValue(target, subjectAndListener);
-
-            satisfied.remove(target);
-            if(targetToPairs.count(source) == 0) {
-                satisfied.put(source, Boolean.TRUE);
+    private static void removeByIdentity(List<SubjectAndListener> pairs, SubjectAndListener subjectAndListener) {
+        for(int i = 0, n = pairs.size(); i < n; i++) {
+            if(pairs.get(i) == subjectAndListener) {
+                pairs.remove(i);
+                return;
             }
         }
+    }
 
-        // start with the initial set of sources that don't have dependencies
-        satisfiedToDo.addAll(satisfied.keySet());
-
-        // We have a subject which has all of its dependencies satisfied.
-        // ie. all edges where this subject is a target are already in
-        // subjectAndListeners. Now we want to find further edges from this
-        // subject to further objects. We find all of its listeners, and look
-        // for one of them where all of its dependencies are in the
-        // satisfied list. If we find such a listener, add all its edges
-        // to subjectAndListeners and enque it to find it's listeners
-        // iteratively
-        while(!satisfiedToDo.isEmpty()) {
-
-            // for everything that's not a target,
-            Object subject = satisfiedToDo.remove(0);
-
-            // get all listeners to this subject, we try this set because
-            // we know at least one of their edges is satisfied, and
-            // we hope that all of their edges is satisfied.
-            List<SubjectAndListener> sourceTargets = sourceToPairs.get(subject);
-
-            // can we satisfy this target?
-            tryEachTarget:
-            for(int t = 0, targetsSize = sourceTargets.size(); t < targetsSize; t++) {
-                Object sourceTarget = getRelatedSubject(sourceTargets.get(t).listener);
-
-                // make sure we can satisfy this if all its sources are in satisfiedSources
-                List<SubjectAndListener> allSourcesForSourceTarget = targetToPairs.get(sourceTarget);
-                // we've since processed this entire target, we shouldn't process it twice
-                if(allSourcesForSourceTarget.size() == 0) continue;
-                for(int s = 0, sourcesSize = allSourcesForSourceTarget.size(); s < sourcesSize; s++) {
-                    SubjectAndListener sourceAndTarget = allSourcesForSourceTarget.get(s);
-                    if(!satisfied.containsKey(sourceAndTarget.subject)) {
-                        continue tryEachTarget;
-                    }
-                }
+    /**
+     * Restore the topological order for a new pair from <code>source</code>
+     * to <code>target</code>, where <code>target</code> is currently ordered
+     * before <code>source</code>.
+     *
+     * <p>This is the dynamic topological sort of Pearce and Kelly. Only the
+     * nodes ordered between <code>target</code> and <code>source</code> that
+     * are reachable from <code>target</code> or that reach <code>source</code>
+     * are affected. They swap their orders among themselves so that those
+     * reaching <code>source</code> come first.
+     */
+    private static void reorder(Node source, Node target, SubjectAndListener subjectAndListener) {
+        List<Node> forward = new ArrayList<Node>();
+        List<Node> backward = new ArrayList<Node>();
+        try {
+            if(!collect(target, source.order, true, forward, source)) {
+                throw new IllegalStateException("Listener cycle detected, " + subjectAndListener);
+            }
+            collect(source, target.order, false, backward, null);
+        } finally {
+            for(int i = 0, n = forward.size(); i < n; i++) forward.get(i).visited = false;
+            for(int i = 0, n = backward.size(); i < n; i++) backward.get(i).visited = false;
+        }
 
-                // we know we can satisfy this target, add all its edges
-                result.addAll(allSourcesForSourceTarget);
-                targetToPairs.remove(sourceTarget);
+        // hand out the pooled orders, first to the nodes that reach source
+        Collections.sort(forward, NODE_ORDER);
+        Collections.sort(backward, NODE_ORDER);
+        int[] orders = new int[forward.size() + backward.size()];
+        int o = 0;
+        for(int i = 0, n = backward.size(); i < n; i++) orders[o++] = backward.get(i).order;
+        for(int i = 0, n = forward.size(); i < n; i++) orders[o++] = forward.get(i).order;
+        Arrays.sort(orders);
+        o = 0;
+        for(int i = 0, n = backward.size(); i < n; i++) backward.get(i).order = orders[o++];
+        for(int i = 0, n = forward.size(); i < n; i++) forward.get(i).order = orders[o++];
+    }
 
-                // this target is no longer considered a target, since all
-                // its dependencies are satisfied
-                satisfiedToDo.add(sourceTarget);
-                satisfied.put(sourceTarget, Boolean.TRUE);
+    /**
+     * Collect <code>start</code> and all nodes reachable from it, following
+     * pairs forward or backward, that are ordered between <code>start</code>
+     * and <code>bound</code>.
+     *
+     * @return <code>false</code> if <code>cycle</code> is reachable, in which
+     *      case the collected nodes are incomplete
+     */
+    private static boolean collect(Node start, int bound, boolean forward, List<Node> result, Node cycle) {
+        start.visited = true;
+        result.add(start);
+        // an explicit stack, pipelines can be deep
+        List<Node> stack = new ArrayList<Node>();
+        stack.add(start);
+        while(!stack.isEmpty()) {
+            Node node = stack.remove(stack.size() - 1);
+            List<SubjectAndListener> pairs = forward ? node.outgoing : node.incoming;
+            for(int i = 0, n = pairs.size(); i < n; i++) {
+                Node next = forward ? pairs.get(i).target : pairs.get(i).source;
+                if(next == cycle) return false;
+                if(next.visited) continue;
+                if(forward ? next.order >= bound : next.order <= bound) continue;
+                next.visited = true;
+                result.add(next);
+                stack.add(next);
             }
         }
+        return true;
+    }
 
-        // if there's remaining targets, we never covered everything
-        if(!targetToPairs.isEmpty()) {
-            throw new IllegalStateException("Listener cycle detected, " + targetToPairs.values());
+    /**
+     * Rebuild the subject and listeners list from the dependency graph if it
+     * has changed. Stale listeners are removed from the graph first.
+     */
+    private synchronized void updateSubjectsAndListeners() {
+        if(!graphChanged) return;
+        graphChanged = false;
+
+        // remove the stale listeners, such as those from weak references
+        List<SubjectAndListener> stale = new ArrayList<SubjectAndListener>();
+        for(Iterator<Node> n = nodes.values().iterator(); n.hasNext(); ) {
+            List<SubjectAndListener> outgoing = n.next().outgoing;
+            for(int i = 0, size = outgoing.size(); i < size; i++) {
+                SubjectAndListener subjectAndListener = outgoing.get(i);
+                if(subjectAndListener.eventFormat.isStale(subjectAndListener.subject, subjectAndListener.listener)) {
+                    stale.add(subjectAndListener);
+                }
+            }
+        }
+        for(int i = 0, size = stale.size(); i < size; i++) {
+            removeEdge(stale.get(i));
+        }
+
+        // walk the nodes in order, compacting their orders as we go
+        Node[] ordered = new Node[nextOrder];
+        for(Iterator<Node> n = nodes.values().iterator(); n.hasNext(); ) {
+            Node node = n.next();
+            ordered[node.order] = node;
+        }
+        List<SubjectAndListener> result = new ArrayList<SubjectAndListener>(subjectAndListeners.size() + 1);
+        int order = 0;
+        for(int i = 0; i < ordered.length; i++) {
+            Node node = ordered[i];
+            if(node == null) continue;
+            node.order = order++;
+            result.addAll(node.incoming);
         }
+        nextOrder = order;
 
-        // success!
+        setSubjectsAndListeners(result);
+    }
+
+    /**
+     * Index the positions of each subject's listeners within the specified
+     * ordered list of subjects and listeners.
+     */
+    private static Map<Object,int[]> indexSubjects(List<SubjectAndListener> subjectsAndListeners) {
+        // count the listeners of each subject
+        Map<Object,int[]> counts = new IdentityHashMap<Object,int[]>();
+        for(int i = 0, size = subjectsAndListeners.size(); i < size; i++) {
+            Object subject = subjectsAndListeners.get(i).subject;
+            int[] count = counts.get(subject);
+            if(count == null) counts.put(subject, new int[] { 1 });
+            else count[0]++;
+        }
+
+        // record the positions, which are visited in increasing order
+        Map<Object,int[]> result = new IdentityHashMap<Object,int[]>(counts.size());
+        for(int i = 0, size = subjectsAndListeners.size(); i < size; i++) {
+            Object subject = subjectsAndListeners.get(i).subject;
+            int[] positions = result.get(subject);
+            if(positions == null) {
+                positions = new int[counts.get(subject)[0]];
+                result.put(subject, positions);
+            }
+            // the count is reused as the number of positions still to record
+            positions[positions.length - counts.get(subject)[0]--] = i;
+        }
         return result;
     }
+
+    /**
+     * Replace the subjects and listeners with the specified ordered list,
+     * rebuilding the index into it.
+     */
+    private void setSubjectsAndListeners(List<SubjectAndListener> subjectsAndListeners) {
+        subjectAndListeners = subjectsAndListeners;
+        subjectsToPositions = indexSubjects(subjectsAndListeners);
+    }
+
     private Object getRelatedSubject(Object listener) {
         Object subject = listenersToRelatedSubjects.get(listener);
         if(subject == null) return listener;
@@ -189,8 +331,8 @@ final class SequenceDependenciesEventPublisher implements ListEventPublisher, Se
      * subject whenever they are fired.
      */
     public synchronized <Subject,Listener,Event> void addListener(Subject subject, Listener listener, EventFormat<Subject,Listener,Event> eventFormat) {
-        List<SubjectAndListener> unordered = updateListEventListeners(subject, listener, null, eventFormat);
-        subjectAndListeners = orderSubjectsAndListeners(unordered);
+        addEdge(new SubjectAndListener<Subject,Listener,Event>(subject, listener, eventFormat));
+        graphChanged = true;
     }
 
     /**
@@ -198,52 +340,25 @@ final class SequenceDependenciesEventPublisher implements ListEventPublisher, Se
      * subject.
      */
     public synchronized void removeListener(Object subject, Object listener) {
-        subjectAndListeners = updateListEventListeners(subject, null, listener, null);
-    }
-
-    /**
-     * Support method for adding and removing listeners, that also cleans up
-     * stale listeners, such as those from weak references.
-     *
-     * @param listenerToAdd a listener to be added, or <code>null</code>
-     * @param listenerToRemove a listener to be removed, or <code>null</code>
-     */
-    private <Subject,Listener,Event> List<SubjectAndListener> updateListEventListeners(Subject subject, Listener listenerToAdd, Listener listenerToRemove, EventFormat<Subject,Listener,Event> eventFormat) {
-        // we'll want to output a copy of all the listeners
-        int anticipatedSize = this.subjectAndListeners.size() + (listenerToAdd == null ? - 1 : 1);
-        List<SubjectAndListener> result = new ArrayList<SubjectAndListener>(anticipatedSize);
-
-        // walk through, adding all the old listeners to the new listeners list,
-        // unless a particular listener is slated for removal for some reaosn
-        for(int i = 0, n = subjectAndListeners.size(); i < n; i++) {
-            final SubjectAndListener originalSubjectAndListener = subjectAndListeners.get(i);
-
-            // if we're supposed to remove this listener, skip it
-            if(originalSubjectAndListener.listener == listenerToRemove && originalSubjectAndListener.subject == subject) {
-                listenerToRemove = null;
-                continue;
-            }
-
-            // if this listener is stale, skip it
-            if(originalSubjectAndListener.eventFormat.isStale(originalSubjectAndListener.subject, originalSubjectAndListener.listener)) {
-                continue;
+        // stale listeners are cleaned up whenever the graph changes
+        graphChanged = true;
+
+        Node source = nodes.get(subject);
+        if(source != null) {
+            for(int i = 0, n = source.outgoing.size(); i < n; i++) {
+                SubjectAndListener subjectAndListener = source.outgoing.get(i);
+                if(subjectAndListener.listener == listener) {
+                    removeEdge(subjectAndListener);
+                    return;
+                }
             }
-
-            // this listener's still good, keep it!
-            result.add(originalSubjectAndListener);
-        }
-
-        // sanity check to ensure we found the listener we were asked to remove, if any
-        if(DO_NONEXISTENT_LISTENER_CHECK && listenerToRemove != null) {
-            throw new IllegalArgumentException("Cannot remove nonexistent listener " + listenerToRemove);
         }
 
-        // add the listener we were asked to add, if any
-        if(listenerToAdd != null) {
-            result.add(new SubjectAndListener(subject, listenerToAdd, eventFormat));
+        // sanity check to ensure we found the listener we were asked to remove,
+        // removing from a publisher without any listeners has always failed
+        if(DO_NONEXISTENT_LISTENER_CHECK || nodes.isEmpty()) {
+            throw new IllegalArgumentException("Cannot remove nonexistent listener " + listener);
         }
-
-        return result;
     }
 
     /** {@inheritDoc} */
@@ -273,9 +388,64 @@ final class SequenceDependenciesEventPublisher implements ListEventPublisher, Se
         // do nothing
     }
 
-    /** {@inheritDoc} */
+    /**
+     * {@inheritDoc}
+     *
+     * <p>If the listener is already registered, its pairs are moved in the
+     * dependency graph to the new related subject.
+     *
+     * @throws IllegalStateException if the new related subject would create a
+     *      cycle, in which case the related subject is left unchanged
+     */
     @Override
-    public void setRelatedSubject(Object listener, Object relatedSubject) {
+    public synchronized void setRelatedSubject(Object listener, Object relatedSubject) {
+        relateSubject(listener, relatedSubject);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>If the listener is already registered, its pairs are moved in the
+     * dependency graph back to the listener itself.
+     */
+    @Override
+    public synchronized void clearRelatedSubject(Object listener) {
+        relateSubject(listener, null);
+    }
+
+    /**
+     * Change the related subject of the specified listener, and rewire the
+     * pairs it is already registered in to the new related subject.
+     */
+    private void relateSubject(Object listener, Object relatedSubject) {
+        Object previous = listenersToRelatedSubjects.get(listener);
+
+        // find the pairs of this listener, they all lead to the same node
+        List<SubjectAndListener> pairs = new ArrayList<SubjectAndListener>();
+        Node target = nodes.get(getRelatedSubject(listener));
+        if(target != null) {
+            for(int i = 0, n = target.incoming.size(); i < n; i++) {
+                SubjectAndListener subjectAndListener = target.incoming.get(i);
+                if(subjectAndListener.listener == listener) pairs.add(subjectAndListener);
+            }
+        }
+
+        for(int i = 0, n = pairs.size(); i < n; i++) removeEdge(pairs.get(i));
+        putRelatedSubject(listener, relatedSubject);
+        int added = 0;
+        try {
+            for(int n = pairs.size(); added < n; added++) addEdge(pairs.get(added));
+        } catch(IllegalStateException e) {
+            // restore the pairs as they were, which can't create a cycle
+            for(int i = 0; i < added; i++) removeEdge(pairs.get(i));
+            putRelatedSubject(listener, previous);
+            for(int i = 0, n = pairs.size(); i < n; i++) addEdge(pairs.get(i));
+            throw e;
+        }
+        if(!pairs.isEmpty()) graphChanged = true;
+    }
+
+    private void putRelatedSubject(Object listener, Object relatedSubject) {
         if(relatedSubject != null) {
             listenersToRelatedSubjects.put(listener, relatedSubject);
         } else {
@@ -283,20 +453,16 @@ final class SequenceDependenciesEventPublisher implements ListEventPublisher, Se
         }
     }
 
-    /** {@inheritDoc} */
-    @Override
-    public void clearRelatedSubject(Object listener) {
-        listenersToRelatedSubjects.remove(listener);
-    }
-
     /**
      * Get all listeners of the specified object.
      */
     public synchronized <Listener> List<Listener> getListeners(Object subject) {
+        updateSubjectsAndListeners();
         List<Listener> result = new ArrayList<Listener>();
-        for(int i = 0, size = subjectAndListeners.size(); i < size; i++) {
-            SubjectAndListener<?,Listener,?> subjectAndListener = subjectAndListeners.get(i);
-            if(subjectAndListener.subject != subject) continue;
+        int[] positions = subjectsToPositions.get(subject);
+        if(positions == null) return result;
+        for(int p = 0; p < positions.length; p++) {
+            SubjectAndListener<?,Listener,?> subjectAndListener = subjectAndListeners.get(positions[p]);
             result.add(subjectAndListener.listener);
         }
         return result;
@@ -314,8 +480,11 @@ final class SequenceDependenciesEventPublisher implements ListEventPublisher, Se
         // keep the subjects and listeners as they are at the beginning of
         // the topmost event, the list won't change because we copy on write
         if(reentrantFireEventCount == 0) {
+            if(graphChanged) updateSubjectsAndListeners();
             subjectsAndListenersForCurrentEvent = subjectAndListeners;
+            subjectsToPositionsForCurrentEvent = subjectsToPositions;
             nextToNotify = Integer.MAX_VALUE;
+            pendingPositions.clear();
         }
 
         // keep track of whether this method is being reentered because one
@@ -328,13 +497,15 @@ final class SequenceDependenciesEventPublisher implements ListEventPublisher, Se
             if(previous != null) throw new IllegalStateException("Reentrant fireEvent() by \"" + subject + "\"");
 
             // Mark the listeners who need this event
-            int subjectAndListenersSize = subjectsAndListenersForCurrentEvent.size();
-            // was i = lastNotified + 1
-            for(int i = 0; i < subjectAndListenersSize; i++) {
-                SubjectAndListener subjectAndListener = subjectsAndListenersForCurrentEvent.get(i);
-                if(subjectAndListener.subject != subject) continue;
-                if(i < nextToNotify) nextToNotify = i;
-                subjectAndListener.addPendingEvent(event);
+            int[] positions = subjectsToPositionsForCurrentEvent.get(subject);
+            if(positions != null) {
+                for(int p = 0; p < positions.length; p++) {
+                    int i = positions[p];
+                    SubjectAndListener subjectAndListener = subjectsAndListenersForCurrentEvent.get(i);
+                    if(i < nextToNotify) nextToNotify = i;
+                    subjectAndListener.addPendingEvent(event);
+                    pendingPositions.set(i);
+                }
             }
 
             // If this method is reentrant, let someone higher up the stack handle this
@@ -345,20 +516,15 @@ final class SequenceDependenciesEventPublisher implements ListEventPublisher, Se
 
             // fire events to listeners in order
             while(true) {
-                SubjectAndListener nextToFire = null;
-
                 // find the next listener still pending
-                for(int i = nextToNotify; i < subjectAndListenersSize; i++) {
-                    SubjectAndListener subjectAndListener = subjectsAndListenersForCurrentEvent.get(i);
-                    if(subjectAndListener.hasPendingEvent()) {
-                        nextToFire = subjectAndListener;
-                        nextToNotify = i + 1;
-                        break;
-                    }
-                }
+                int i = pendingPositions.nextSetBit(nextToNotify);
 
                 // there's nobody to notify, we're done firing events
-                if(nextToFire == null) break;
+                if(i == -1) break;
+
+                SubjectAndListener nextToFire = subjectsAndListenersForCurrentEvent.get(i);
+                pendingPositions.clear(i);
+                nextToNotify = i + 1;
 
                 // notify this listener
                 try {
@@ -381,6 +547,7 @@ final class SequenceDependenciesEventPublisher implements ListEventPublisher, Se
 
             // this event is completely finished
             subjectsAndListenersForCurrentEvent = null;
+            subjectsToPositionsForCurrentEvent = null;
 
             // rethrow any exceptions
             if(toRethrow != null) throw toRethrow;
@@ -446,6 +613,9 @@ final class SequenceDependenciesEventPublisher implements ListEventPublisher, Se
         private final Listener listener;
         private final EventFormat<Subject,Listener,Event> eventFormat;
         private Event pendingEvent;
+        /** the nodes of the subject and of the listener's related subject */
+        private Node source;
+        private Node target;
 
         public SubjectAndListener(Subject subject, Listener listener, EventFormat<Subject,Listener,Event> eventFormat) {
             this.subject = subject;
@@ -478,4 +648,37 @@ final class SequenceDependenciesEventPublisher implements ListEventPublisher, Se
             return subject + separator + listener;
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * A subject in the dependency graph, with the pairs it takes part in.
+     */
+    private static class Node {
+        private final Object subject;
+        /** the position of this node in topological order, not necessarily contiguous */
+        private int order;
+        /** pairs where this node is the subject, in the order they were added */
+        private final List<SubjectAndListener> outgoing = new ArrayList<SubjectAndListener>(2);
+        /** pairs where this node is the listener's related subject, in the order they were added */
+        private final List<SubjectAndListener> incoming = new ArrayList<SubjectAndListener>(2);
+        /** marks nodes already collected while reordering */
+        private boolean visited;
+
+        public Node(Object subject, int order) {
+            this.subject = subject;
+            this.order = order;
+        }
+
+        @Override
+        public String toString() {
+            return order + ":" + subject;
+        }
+    }
+
+    /** sorts {@link Node}s in topological order */
+    private static final Comparator<Node> NODE_ORDER = new Comparator<Node>() {
+        @Override
+        public int compare(Node a, Node b) {
+            return a.order < b.order ? -1 : (a.order == b.order ? 0 : 1);
+        }
+    };
+}
@@ -6,9 +6,11 @@ package ca.odell.glazedlists.impl;
 import ca.odell.glazedlists.EventList;
 import ca.odell.glazedlists.TransformedList;
 import ca.odell.glazedlists.event.ListEvent;
+import ca.odell.glazedlists.util.concurrent.OptimisticReadWriteLock;
 import ca.odell.glazedlists.util.concurrent.ReadWriteLock;
 
 import java.util.Collection;
+import java.util.List;
 
 /**
  * An {@link EventList} that obtains a {@link ReadWriteLock} for all operations.
@@ -67,9 +69,27 @@ public final class ThreadSafeList<E> extends TransformedList<E, E> {
         }
     }
 
-    /** {@inheritDoc} */
+    /**
+     * {@inheritDoc}
+     *
+     * <p>With an {@link OptimisticReadWriteLock}, this reads the size
+     * without acquiring the read lock, unless a writer intervenes.
+     */
     @Override
     public int size() {
+        if(getReadWriteLock() instanceof OptimisticReadWriteLock) {
+            final OptimisticReadWriteLock lock = (OptimisticReadWriteLock)getReadWriteLock();
+            final long stamp = lock.tryOptimisticRead();
+            if(stamp != 0L) {
+                try {
+                    final int size = source.size();
+                    if(lock.validate(stamp)) return size;
+                } catch(RuntimeException e) {
+                    // the source was read mid-change, so read it again with the lock
+                }
+            }
+        }
+
         getReadWriteLock().readLock().lock();
         try {
             return source.size();
@@ -84,6 +104,13 @@ public final class ThreadSafeList<E> extends TransformedList<E, E> {
         return true;
     }
 
+    /** {@inheritDoc} */
+    @Override
+    @Deprecated
+    public List<E> snapshot() {
+        return source.snapshot();
+    }
+
     /** {@inheritDoc} */
     @Override
     public boolean contains(Object object) {
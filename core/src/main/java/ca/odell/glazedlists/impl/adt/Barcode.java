@@ -45,7 +45,7 @@ import java.util.Iterator;
  * @author <a href="mailto:kevin@swank.ca">Kevin Maltby</a>
  *
  */
-public final class Barcode {
+public final class Barcode implements BlackWhiteList {
 
     /** barcode colour constants */
     public static final Object WHITE = Boolean.FALSE;
@@ -80,6 +80,7 @@ public final class Barcode {
     /**
      * Gets the size of this barcode
      */
+    @Override
     public int size() {
         return treeSize + whiteSpace;
     }
@@ -101,6 +102,7 @@ public final class Barcode {
     /**
      * Gets the size of the black portion of this barcode
      */
+    @Override
     public int blackSize() {
         return root == null ? 0 : root.blackSize();
     }
@@ -108,6 +110,7 @@ public final class Barcode {
     /**
      * Gets the size of the given colour portion of this barcode
      */
+    @Override
     public int colourSize(Object colour) {
         if(colour == WHITE) return whiteSize();
         else return blackSize();
@@ -116,6 +119,7 @@ public final class Barcode {
     /**
      * Inserts a sequence of the specified colour into the barcode
      */
+    @Override
     public void add(int index, Object colour, int length) {
         if(colour == WHITE) addWhite(index, length);
         else addBlack(index, length);
@@ -124,6 +128,7 @@ public final class Barcode {
     /**
      * Inserts a sequence of white into the list
      */
+    @Override
     public void addWhite(int index, int length) {
         if(length < 0) throw new IllegalStateException();
         if(length == 0) return;
@@ -143,6 +148,7 @@ public final class Barcode {
     /**
      * Inserts a sequence of black into the list
      */
+    @Override
     public void addBlack(int index, int length) {
         if(length < 0) throw new IllegalArgumentException();
         if(length == 0) return;
@@ -171,6 +177,7 @@ public final class Barcode {
     /**
      * Gets the value in this list at the given index
      */
+    @Override
     public Object get(int index) {
         if(getBlackIndex(index) == -1) return WHITE;
         return BLACK;
@@ -208,6 +215,7 @@ public final class Barcode {
     /**
      * Sets all of the values between index and index + length to WHITE
      */
+    @Override
     public void setWhite(int index, int length) {
         set(index, WHITE, length);
     }
@@ -215,6 +223,7 @@ public final class Barcode {
     /**
      * Sets all of the values between index and index + length to WHITE
      */
+    @Override
     public void setBlack(int index, int length) {
         set(index, BLACK, length);
     }
@@ -222,6 +231,7 @@ public final class Barcode {
     /**
      * Removes the values from the given index to index + length
      */
+    @Override
     public void remove(int index, int length) {
         if(length < 1) throw new IllegalArgumentException();
 
@@ -248,6 +258,7 @@ public final class Barcode {
     /**
      * Clears the list
      */
+    @Override
     public void clear() {
         treeSize = 0;
         whiteSpace = 0;
@@ -293,6 +304,7 @@ public final class Barcode {
     /**
      * Gets the real index of an element given the black index or white index.
      */
+    @Override
     public int getIndex(int colourIndex, Object colour) {
         // Get the real index of a WHITE element
         if(colour == WHITE) {
@@ -358,6 +370,7 @@ public final class Barcode {
      *
      * @return The black index of the element at index or -1 if that element is WHITE.
      */
+    @Override
     public int getBlackIndex(int index) {
         if(root != null && index < treeSize) return root.getBlackIndex(index);
         else return -1;
@@ -504,6 +517,7 @@ public final class Barcode {
      * {@link Barcode} to provide high performance access to {@link Barcode}
      * functionality.
      */
+    @Override
     public BarcodeIterator iterator() {
         return new BarcodeIterator(this);
     }
@@ -12,7 +12,7 @@ import java.util.NoSuchElementException;
  *
  * @author <a href="mailto:kevin@swank.ca">Kevin Maltby</a>
  */
-public class BarcodeIterator implements Iterator {
+public class BarcodeIterator implements BlackWhiteIterator {
 
     /** keep a reference for removes in the trailing whitespace */
     private Barcode barcode = null;
@@ -60,6 +60,7 @@ public class BarcodeIterator implements Iterator {
      * Returns true if there are more BLACK elements in the {@link Barcode} to
      * move the {@link Iterator} to.
      */
+    @Override
     public boolean hasNextBlack() {
         if(getIndex() >= barcode.treeSize() - 1) return false;
         else if(currentNode == null) return false;
@@ -70,6 +71,7 @@ public class BarcodeIterator implements Iterator {
      * Returns true if there are more WHITE elements in the {@link Barcode} to
      * move the {@link Iterator} to.
      */
+    @Override
     public boolean hasNextWhite() {
         if(barcode.size() != barcode.treeSize()) return hasNext();
         else if(currentNode == null) return false;
@@ -81,6 +83,7 @@ public class BarcodeIterator implements Iterator {
      * Returns true if there are more elements in the {@link Barcode} to
      * move the {@link Iterator} to that match the provided colour.
      */
+    @Override
     public boolean hasNextColour(Object colour) {
         if(colour == Barcode.BLACK) return hasNextBlack();
         return hasNextWhite();
@@ -142,6 +145,7 @@ public class BarcodeIterator implements Iterator {
      *
      * @throws NoSuchElementException if hasNextBlack() returns false.
      */
+    @Override
     public Object nextBlack() {
         // iterate on this node
         localIndex++;
@@ -177,6 +181,7 @@ public class BarcodeIterator implements Iterator {
      *
      * @throws NoSuchElementException if hasNextWhite() returns false.
      */
+    @Override
     public Object nextWhite() {
         // iterate on this node
         localIndex++;
@@ -228,6 +233,7 @@ public class BarcodeIterator implements Iterator {
      *
      * @throws NoSuchElementException if hasNextColour(colour) returns false.
      */
+    @Override
     public Object nextColour(Object colour) {
         if(colour == Barcode.BLACK) return nextBlack();
         return nextWhite();
@@ -285,6 +291,7 @@ public class BarcodeIterator implements Iterator {
      * Sets the most recently viewed element to WHITE and returns the white-centric
      * index of the element after the set is complete.
      */
+    @Override
     public int setWhite() {
         // Fast fail for a non-existant element
         if(localIndex == -1) {
@@ -357,6 +364,7 @@ public class BarcodeIterator implements Iterator {
      * Sets the most recently viewed element to BLACK and returns the white-centric
      * index of the element after the set is complete.
      */
+    @Override
     public int setBlack() {
         // Fast fail for a non-existant element
         if(localIndex == -1) {
@@ -443,6 +451,7 @@ public class BarcodeIterator implements Iterator {
     /**
      * Gets the index of the last element visited.
      */
+    @Override
     public int getIndex() {
         return blackSoFar + whiteSoFar + localIndex;
     }
@@ -451,6 +460,7 @@ public class BarcodeIterator implements Iterator {
      * Gets the black-centric index of the last element visited or -1 if that
      * element is white.
      */
+    @Override
     public int getBlackIndex() {
         if(localIndex == -1) {
             return blackSoFar - 1;
@@ -465,6 +475,7 @@ public class BarcodeIterator implements Iterator {
      * Gets the white-centric index of the last element visited or -1 if that
      * element is black.
      */
+    @Override
     public int getWhiteIndex() {
         if(currentNode == null) {
             if(localIndex == -1 && whiteSoFar != 0) return whiteSoFar - 1;
@@ -0,0 +1,564 @@
+/* Glazed Lists                                                 (c) 2003-2006 */
+/* http://publicobject.com/glazedlists/                      publicobject.com,*/
+/*                                                     O'Dell Engineering Ltd.*/
+package ca.odell.glazedlists.impl.adt;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * A {@link BlackWhiteList} that stores one bit per element in packed
+ * <code>long</code> words, plus the number of BLACK elements before each
+ * block of 512 elements.
+ *
+ * <p>The memory usage and lookup costs of {@link Barcode} grow with the number
+ * of sequences of BLACK elements, so it degenerates to one tree node per
+ * element when every other element is BLACK. This class uses about 1.06 bits
+ * per element regardless of the sequences. Getting the black index of an
+ * element takes constant time. Getting the element at a colour-based index
+ * takes a binary search over the block counts, followed by a scan of at most
+ * one block. Inserting or removing elements shifts all of the following bits,
+ * which takes time linear in the size of the list, albeit 64 elements at a
+ * time.
+ *
+ * <p>The block counts are maintained lazily. A change invalidates the counts
+ * of all following blocks, and they are recounted up to the block that the
+ * next lookup needs.
+ *
+ * <p>Like {@link Barcode}, this ADT does NOT validate the arguments passed to
+ * its methods.
+ */
+public final class BitBarcode implements BlackWhiteList {
+
+    /** the number of elements in each counted block, as a power of two */
+    private static final int BLOCK_SHIFT = 9;
+
+    /** the number of words in each counted block */
+    private static final int WORDS_PER_BLOCK = 1 << (BLOCK_SHIFT - 6);
+
+    /** the colour of each element, one bit per element, set for BLACK elements */
+    private long[] words = new long[WORDS_PER_BLOCK];
+
+    /** the number of BLACK elements before each block */
+    private int[] blackBeforeBlock = new int[2];
+
+    /** the number of leading entries in {@link #blackBeforeBlock} that are up to date */
+    private int validBlocks = 1;
+
+    /** the number of elements */
+    private int size = 0;
+
+    /** the number of BLACK elements */
+    private int blackSize = 0;
+
+    /**
+     * Gets the size of this barcode
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Whether or not this barcode is empty
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Gets the size of the white portion of this barcode
+     */
+    public int whiteSize() {
+        return size - blackSize;
+    }
+
+    /**
+     * Gets the size of the black portion of this barcode
+     */
+    @Override
+    public int blackSize() {
+        return blackSize;
+    }
+
+    /**
+     * Gets the size of the given colour portion of this barcode
+     */
+    @Override
+    public int colourSize(Object colour) {
+        if(colour == Barcode.WHITE) return whiteSize();
+        else return blackSize();
+    }
+
+    /**
+     * Gets the value in this list at the given index
+     */
+    @Override
+    public Object get(int index) {
+        return isBlack(index) ? Barcode.BLACK : Barcode.WHITE;
+    }
+
+    /**
+     * Whether the element at the given index is BLACK.
+     */
+    private boolean isBlack(int index) {
+        return (words[index >>> 6] & (1L << index)) != 0;
+    }
+
+    /**
+     * Inserts a sequence of the specified colour into the barcode
+     */
+    @Override
+    public void add(int index, Object colour, int length) {
+        insert(index, length, colour != Barcode.WHITE);
+    }
+
+    /**
+     * Inserts a sequence of white into the list
+     */
+    @Override
+    public void addWhite(int index, int length) {
+        insert(index, length, false);
+    }
+
+    /**
+     * Inserts a sequence of black into the list
+     */
+    @Override
+    public void addBlack(int index, int length) {
+        insert(index, length, true);
+    }
+
+    /**
+     * Shift the elements from index onwards up by length, and fill the gap
+     * with the specified colour.
+     */
+    private void insert(int index, int length, boolean black) {
+        if(length < 0) throw new IllegalStateException();
+        if(length == 0) return;
+
+        int newSize = size + length;
+        ensureCapacity(newSize);
+
+        // shift the words from the highest down, so every word is read
+        // before it is overwritten
+        int firstWord = (index + length) >>> 6;
+        for(int w = (newSize - 1) >>> 6; w >= firstWord; w--) {
+            long shifted = bitsAt((w << 6) - length);
+            if(w == firstWord) {
+                long unchanged = ~(-1L << (index + length));
+                shifted = (shifted & ~unchanged) | (words[w] & unchanged);
+            }
+            words[w] = shifted;
+        }
+        fill(index, index + length, black);
+
+        size = newSize;
+        if(black) blackSize += length;
+        invalidate(index);
+    }
+
+    /**
+     * Sets all of the values between index and index + length to either
+     * WHITE or BLACK depending on the value of colour
+     */
+    public void set(int index, Object colour, int length) {
+        if(length < 1) throw new IllegalArgumentException();
+        boolean black = colour != Barcode.WHITE;
+
+        blackSize += (black ? length : 0) - count(index, index + length);
+        fill(index, index + length, black);
+        invalidate(index);
+    }
+
+    /**
+     * Sets all of the values between index and index + length to WHITE
+     */
+    @Override
+    public void setWhite(int index, int length) {
+        set(index, Barcode.WHITE, length);
+    }
+
+    /**
+     * Sets all of the values between index and index + length to BLACK
+     */
+    @Override
+    public void setBlack(int index, int length) {
+        set(index, Barcode.BLACK, length);
+    }
+
+    /**
+     * Removes the values from the given index to index + length
+     */
+    @Override
+    public void remove(int index, int length) {
+        if(length < 1) throw new IllegalArgumentException();
+        blackSize -= count(index, index + length);
+
+        // shift the words from the lowest up, so every word is read before
+        // it is overwritten. The bits beyond size are always clear, so they
+        // clear the vacated bits at the end
+        int firstWord = index >>> 6;
+        for(int w = firstWord, lastWord = (size - 1) >>> 6; w <= lastWord; w++) {
+            long shifted = bitsAt((w << 6) + length);
+            if(w == firstWord) {
+                long unchanged = ~(-1L << index);
+                shifted = (shifted & ~unchanged) | (words[w] & unchanged);
+            }
+            words[w] = shifted;
+        }
+
+        size -= length;
+        invalidate(index);
+    }
+
+    /**
+     * Clears the list
+     */
+    @Override
+    public void clear() {
+        Arrays.fill(words, 0, (size + 63) >>> 6, 0L);
+        size = 0;
+        blackSize = 0;
+        validBlocks = 1;
+    }
+
+    /**
+     * Gets the real index of an element given the black index or white index.
+     */
+    @Override
+    public int getIndex(int colourIndex, Object colour) {
+        boolean black = colour != Barcode.WHITE;
+        int lastBlock = (size - 1) >>> BLOCK_SHIFT;
+        countBlocks(lastBlock);
+
+        // find the last block with at most colourIndex elements of the colour before it
+        int low = 0;
+        int high = lastBlock;
+        while(low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if(colourBeforeBlock(middle, black) <= colourIndex) low = middle;
+            else high = middle - 1;
+        }
+
+        // scan the words of that block
+        int remaining = colourIndex - colourBeforeBlock(low, black);
+        for(int w = low * WORDS_PER_BLOCK; true; w++) {
+            long word = black ? words[w] : ~words[w];
+            int count = Long.bitCount(word);
+            if(remaining < count) {
+                for( ; remaining > 0; remaining--) word &= word - 1;
+                return (w << 6) + Long.numberOfTrailingZeros(word);
+            }
+            remaining -= count;
+        }
+    }
+
+    /**
+     * The number of elements of the colour before the specified block, which
+     * must have been counted.
+     */
+    private int colourBeforeBlock(int block, boolean black) {
+        return black ? blackBeforeBlock[block] : (block << BLOCK_SHIFT) - blackBeforeBlock[block];
+    }
+
+    /**
+     * Gets the colour-based index of the element with the given real
+     * index, or -1 if that element does not match the given colour.
+     */
+    public int getColourIndex(int index, Object colour) {
+        if(colour == Barcode.WHITE) return getWhiteIndex(index);
+        else return getBlackIndex(index);
+    }
+
+    /**
+     * Gets the white index of the element with the given real index, or -1
+     * if that element is BLACK.
+     */
+    public int getWhiteIndex(int index) {
+        if(isBlack(index)) return -1;
+        return index - blackBefore(index);
+    }
+
+    /**
+     * Gets the black index of the element with the given real index, or -1
+     * if that element is WHITE.
+     */
+    @Override
+    public int getBlackIndex(int index) {
+        if(!isBlack(index)) return -1;
+        return blackBefore(index);
+    }
+
+    /**
+     * The number of BLACK elements before the specified index.
+     */
+    private int blackBefore(int index) {
+        int block = index >>> BLOCK_SHIFT;
+        countBlocks(block);
+
+        int result = blackBeforeBlock[block];
+        int word = index >>> 6;
+        for(int w = block * WORDS_PER_BLOCK; w < word; w++) {
+            result += Long.bitCount(words[w]);
+        }
+        return result + Long.bitCount(words[word] & ~(-1L << index));
+    }
+
+    /**
+     * Make sure the counts up to and including the specified block are up
+     * to date.
+     */
+    private void countBlocks(int block) {
+        for( ; validBlocks <= block; validBlocks++) {
+            int previous = validBlocks - 1;
+            int count = blackBeforeBlock[previous];
+            for(int w = previous * WORDS_PER_BLOCK, end = w + WORDS_PER_BLOCK; w < end; w++) {
+                count += Long.bitCount(words[w]);
+            }
+            blackBeforeBlock[validBlocks] = count;
+        }
+    }
+
+    /**
+     * Mark the counts of all blocks after the one containing the specified
+     * index as stale.
+     */
+    private void invalidate(int index) {
+        validBlocks = Math.min(validBlocks, (index >>> BLOCK_SHIFT) + 1);
+    }
+
+    /**
+     * Make sure there are words for the specified number of elements, in
+     * whole blocks.
+     */
+    private void ensureCapacity(int newSize) {
+        int blocks = (newSize + (1 << BLOCK_SHIFT) - 1) >>> BLOCK_SHIFT;
+        if(blocks * WORDS_PER_BLOCK <= words.length) return;
+
+        blocks = Math.max(blocks, words.length / WORDS_PER_BLOCK * 3 / 2);
+        words = Arrays.copyOf(words, blocks * WORDS_PER_BLOCK);
+        blackBeforeBlock = Arrays.copyOf(blackBeforeBlock, blocks + 1);
+    }
+
+    /**
+     * Get the 64 bits starting at the specified position, which may be
+     * negative. Positions outside of the words are clear.
+     */
+    private long bitsAt(int position) {
+        if(position <= -64) return 0L;
+        if(position < 0) return words[0] << -position;
+
+        int word = position >>> 6;
+        if(word >= words.length) return 0L;
+        long result = words[word] >>> position;
+        if((position & 63) != 0 && word + 1 < words.length) result |= words[word + 1] << -position;
+        return result;
+    }
+
+    /**
+     * Count the BLACK elements from <code>from</code> (inclusive) to
+     * <code>to</code> (exclusive).
+     */
+    private int count(int from, int to) {
+        int fromWord = from >>> 6;
+        int toWord = (to - 1) >>> 6;
+        long firstMask = -1L << from;
+        long lastMask = -1L >>> -to;
+        if(fromWord == toWord) return Long.bitCount(words[fromWord] & firstMask & lastMask);
+
+        int result = Long.bitCount(words[fromWord] & firstMask);
+        for(int w = fromWord + 1; w < toWord; w++) result += Long.bitCount(words[w]);
+        return result + Long.bitCount(words[toWord] & lastMask);
+    }
+
+    /**
+     * Set the elements from <code>from</code> (inclusive) to <code>to</code>
+     * (exclusive) to the specified colour.
+     */
+    private void fill(int from, int to, boolean black) {
+        int fromWord = from >>> 6;
+        int toWord = (to - 1) >>> 6;
+        long firstMask = -1L << from;
+        long lastMask = -1L >>> -to;
+        if(fromWord == toWord) {
+            fillWord(fromWord, firstMask & lastMask, black);
+            return;
+        }
+
+        fillWord(fromWord, firstMask, black);
+        Arrays.fill(words, fromWord + 1, toWord, black ? -1L : 0L);
+        fillWord(toWord, lastMask, black);
+    }
+
+    private void fillWord(int word, long mask, boolean black) {
+        if(black) words[word] |= mask;
+        else words[word] &= ~mask;
+    }
+
+    /**
+     * Gets the index of the first BLACK element at or after the specified
+     * index, or -1 if there is none.
+     */
+    private int nextBlackIndex(int from) {
+        if(from >= size) return -1;
+        int w = from >>> 6;
+        long word = words[w] & (-1L << from);
+        while(word == 0) {
+            if(++w >= words.length) return -1;
+            word = words[w];
+        }
+        return (w << 6) + Long.numberOfTrailingZeros(word);
+    }
+
+    /**
+     * Gets the index of the first WHITE element at or after the specified
+     * index, or the size if there is none.
+     */
+    private int nextWhiteIndex(int from) {
+        if(from >= size) return size;
+        int w = from >>> 6;
+        long word = ~words[w] & (-1L << from);
+        while(word == 0) {
+            if(++w >= words.length) return size;
+            word = ~words[w];
+        }
+        return Math.min((w << 6) + Long.numberOfTrailingZeros(word), size);
+    }
+
+    /**
+     * Gets an iterator to move over this barcode efficiently.
+     */
+    @Override
+    public BlackWhiteIterator iterator() {
+        return new BitBarcodeIterator();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+        StringBuffer result = new StringBuffer();
+        for(int i = 0; i < size; i++) {
+            result.append(isBlack(i) ? 'B' : 'W');
+        }
+        return result.toString();
+    }
+
+    /**
+     * Moves over the bits one element at a time, or from one element of a
+     * colour to the next, keeping count of the BLACK elements passed.
+     */
+    private class BitBarcodeIterator implements BlackWhiteIterator {
+
+        /** the index of the current element */
+        private int index = -1;
+
+        /** the number of BLACK elements up to and including the current element */
+        private int blackSoFar = 0;
+
+        @Override
+        public boolean hasNext() {
+            return index + 1 < size;
+        }
+
+        @Override
+        public Object next() {
+            if(!hasNext()) throw new NoSuchElementException();
+            index++;
+            if(isBlack(index)) {
+                blackSoFar++;
+                return Barcode.BLACK;
+            }
+            return Barcode.WHITE;
+        }
+
+        @Override
+        public boolean hasNextBlack() {
+            return nextBlackIndex(index + 1) != -1;
+        }
+
+        @Override
+        public boolean hasNextWhite() {
+            return nextWhiteIndex(index + 1) < size;
+        }
+
+        @Override
+        public boolean hasNextColour(Object colour) {
+            if(colour == Barcode.BLACK) return hasNextBlack();
+            return hasNextWhite();
+        }
+
+        @Override
+        public Object nextBlack() {
+            int next = nextBlackIndex(index + 1);
+            if(next == -1) throw new NoSuchElementException();
+            index = next;
+            blackSoFar++;
+            return Barcode.BLACK;
+        }
+
+        @Override
+        public Object nextWhite() {
+            int next = nextWhiteIndex(index + 1);
+            if(next == size) throw new NoSuchElementException();
+            blackSoFar += next - index - 1;
+            index = next;
+            return Barcode.WHITE;
+        }
+
+        @Override
+        public Object nextColour(Object colour) {
+            if(colour == Barcode.BLACK) return nextBlack();
+            return nextWhite();
+        }
+
+        @Override
+        public void remove() {
+            if(index == -1) throw new NoSuchElementException("Cannot call remove() before next() is called.");
+            if(isBlack(index)) blackSoFar--;
+            BitBarcode.this.remove(index, 1);
+            index--;
+        }
+
+        @Override
+        public int setWhite() {
+            if(index == -1) throw new NoSuchElementException("Cannot call setWhite() before next() is called.");
+            if(isBlack(index)) {
+                words[index >>> 6] &= ~(1L << index);
+                blackSoFar--;
+                blackSize--;
+                invalidate(index);
+            }
+            return index - blackSoFar;
+        }
+
+        @Override
+        public int setBlack() {
+            if(index == -1) throw new NoSuchElementException("Cannot call setBlack() before next() is called.");
+            if(!isBlack(index)) {
+                words[index >>> 6] |= 1L << index;
+                blackSoFar++;
+                blackSize++;
+                invalidate(index);
+            }
+            return blackSoFar - 1;
+        }
+
+        @Override
+        public int getIndex() {
+            return index;
+        }
+
+        @Override
+        public int getBlackIndex() {
+            if(index == -1 || !isBlack(index)) return -1;
+            return blackSoFar - 1;
+        }
+
+        @Override
+        public int getWhiteIndex() {
+            if(index == -1 || isBlack(index)) return -1;
+            return index - blackSoFar;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+/* Glazed Lists                                                 (c) 2003-2006 */
+/* http://publicobject.com/glazedlists/                      publicobject.com,*/
+/*                                                     O'Dell Engineering Ltd.*/
+package ca.odell.glazedlists.impl.adt;
+
+import java.util.Iterator;
+
+/**
+ * An {@link Iterator} over a {@link BlackWhiteList} that can skip to the next
+ * element of a colour and change the colour of the current element.
+ */
+public interface BlackWhiteIterator extends Iterator {
+
+    /**
+     * Returns true if there are more BLACK elements to move to.
+     */
+    boolean hasNextBlack();
+
+    /**
+     * Returns true if there are more WHITE elements to move to.
+     */
+    boolean hasNextWhite();
+
+    /**
+     * Returns true if there are more elements of the given colour to move to.
+     */
+    boolean hasNextColour(Object colour);
+
+    /**
+     * Moves to the next BLACK element.
+     */
+    Object nextBlack();
+
+    /**
+     * Moves to the next WHITE element.
+     */
+    Object nextWhite();
+
+    /**
+     * Moves to the next element of the given colour.
+     */
+    Object nextColour(Object colour);
+
+    /**
+     * Sets the most recently viewed element to WHITE and returns the white-centric
+     * index of the element after the set is complete.
+     */
+    int setWhite();
+
+    /**
+     * Sets the most recently viewed element to BLACK and returns the black-centric
+     * index of the element after the set is complete.
+     */
+    int setBlack();
+
+    /**
+     * Gets the index of the last element visited.
+     */
+    int getIndex();
+
+    /**
+     * Gets the black-centric index of the last element visited or -1 if that
+     * element is white.
+     */
+    int getBlackIndex();
+
+    /**
+     * Gets the white-centric index of the last element visited or -1 if that
+     * element is black.
+     */
+    int getWhiteIndex();
+}
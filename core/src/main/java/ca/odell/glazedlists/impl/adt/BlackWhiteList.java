@@ -0,0 +1,86 @@
+/* Glazed Lists                                                 (c) 2003-2006 */
+/* http://publicobject.com/glazedlists/                      publicobject.com,*/
+/*                                                     O'Dell Engineering Ltd.*/
+package ca.odell.glazedlists.impl.adt;
+
+/**
+ * A list of {@link Barcode#BLACK} and {@link Barcode#WHITE} values that can
+ * be accessed both by real index and by colour-based index.
+ *
+ * <p>This is implemented by {@link Barcode}, whose memory usage is bound to
+ * the number of sequences of BLACK elements, and by {@link BitBarcode}, whose
+ * memory usage is bound to the number of elements.
+ */
+public interface BlackWhiteList {
+
+    /**
+     * Gets the size of this list
+     */
+    int size();
+
+    /**
+     * Gets the size of the black portion of this list
+     */
+    int blackSize();
+
+    /**
+     * Gets the size of the given colour portion of this list
+     */
+    int colourSize(Object colour);
+
+    /**
+     * Gets the value in this list at the given index
+     */
+    Object get(int index);
+
+    /**
+     * Inserts a sequence of the specified colour into the list
+     */
+    void add(int index, Object colour, int length);
+
+    /**
+     * Inserts a sequence of white into the list
+     */
+    void addWhite(int index, int length);
+
+    /**
+     * Inserts a sequence of black into the list
+     */
+    void addBlack(int index, int length);
+
+    /**
+     * Sets all of the values between index and index + length to WHITE
+     */
+    void setWhite(int index, int length);
+
+    /**
+     * Sets all of the values between index and index + length to BLACK
+     */
+    void setBlack(int index, int length);
+
+    /**
+     * Removes the values from the given index to index + length
+     */
+    void remove(int index, int length);
+
+    /**
+     * Clears the list
+     */
+    void clear();
+
+    /**
+     * Gets the real index of an element given the black index or white index.
+     */
+    int getIndex(int colourIndex, Object colour);
+
+    /**
+     * Gets the black index of the element with the given real index, or -1
+     * if that element is WHITE.
+     */
+    int getBlackIndex(int index);
+
+    /**
+     * Gets an iterator to move over this list efficiently.
+     */
+    BlackWhiteIterator iterator();
+}
@@ -0,0 +1,249 @@
+/* Glazed Lists                                                 (c) 2003-2006 */
+/* http://publicobject.com/glazedlists/                      publicobject.com,*/
+/*                                                     O'Dell Engineering Ltd.*/
+package ca.odell.glazedlists.impl.adt;
+
+import ca.odell.glazedlists.impl.adt.barcode2.Element;
+import ca.odell.glazedlists.impl.adt.barcode2.FourColorTree;
+import ca.odell.glazedlists.impl.adt.barcode2.ListToByteCoder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A cache of values by list index, holding at most a fixed number of values.
+ * When the cache is full, the least recently used value is evicted. Inserting
+ * and removing indices shifts the cached values along with the list, so the
+ * cache can follow a list as it changes.
+ *
+ * <p>Runs of indices without a cached value are stored as single nodes of a
+ * {@link FourColorTree}, so the cache takes space proportional to the number
+ * of values it holds rather than the number of indices it covers.
+ */
+public final class IndexedCache<V> {
+
+    private static final ListToByteCoder<String> BYTE_CODER = new ListToByteCoder<String>(Arrays.asList("U", "C"));
+    private static final byte UNCACHED = BYTE_CODER.colorToByte("U");
+    private static final byte CACHED = BYTE_CODER.colorToByte("C");
+    private static final byte ALL_COLORS = BYTE_CODER.colorsToByte(BYTE_CODER.getColors());
+
+    /** the shared value of all uncached nodes, so that adjacent ones are merged */
+    private final Entry<V> notCached = new Entry<V>(null);
+
+    /** the uncached runs and cached entries, by index */
+    private final FourColorTree<Entry<V>> tree = new FourColorTree<Entry<V>>(BYTE_CODER);
+
+    /** the most and least recently used entries */
+    private Entry<V> mostRecent = null;
+    private Entry<V> leastRecent = null;
+
+    /** the most values to hold at once */
+    private int maximumSize;
+
+    /**
+     * Creates an empty cache that holds at most the specified number of values.
+     */
+    public IndexedCache(int maximumSize) {
+        if(maximumSize < 0) throw new IllegalArgumentException("maximumSize may not be negative");
+        this.maximumSize = maximumSize;
+    }
+
+    /**
+     * Gets the number of indices covered by this cache.
+     */
+    public int size() {
+        return tree.size(ALL_COLORS);
+    }
+
+    /**
+     * Gets the number of values held by this cache.
+     */
+    public int cachedSize() {
+        return tree.size(CACHED);
+    }
+
+    /**
+     * Gets the most values this cache holds at once.
+     */
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+
+    /**
+     * Sets the most values this cache holds at once, evicting the least
+     * recently used values as necessary.
+     *
+     * @return the evicted values
+     */
+    public List<V> setMaximumSize(int maximumSize) {
+        if(maximumSize < 0) throw new IllegalArgumentException("maximumSize may not be negative");
+        this.maximumSize = maximumSize;
+
+        final List<V> evicted = new ArrayList<V>();
+        while(cachedSize() > maximumSize) {
+            evicted.add(evict());
+        }
+        return evicted;
+    }
+
+    /**
+     * Inserts indices without cached values, shifting the following indices.
+     */
+    public void addUncached(int index, int count) {
+        if(index < 0 || index > size()) throw new IndexOutOfBoundsException("cannot insert at " + index + " on cache of size " + size());
+        if(count > 0) tree.add(index, ALL_COLORS, UNCACHED, notCached, count);
+    }
+
+    /**
+     * Gets the value cached for the specified index and marks it as the most
+     * recently used, or returns <code>null</code> if there is no such value.
+     */
+    public V get(int index) {
+        final Entry<V> entry = tree.get(index, ALL_COLORS).get();
+        if(entry == notCached) return null;
+
+        unlink(entry);
+        linkMostRecent(entry);
+        return entry.value;
+    }
+
+    /**
+     * Caches a value for the specified index, which must not have a value
+     * already. If that fills the cache beyond its maximum size, then the least
+     * recently used value is evicted.
+     *
+     * @return the evicted value, or <code>null</code> if no value was evicted
+     */
+    public V put(int index, V value) {
+        if(value == null) throw new IllegalArgumentException("value may not be null");
+        if(tree.get(index, ALL_COLORS).get() != notCached) throw new IllegalStateException("index " + index + " already has a value");
+        if(maximumSize == 0) return value;
+
+        final Entry<V> entry = new Entry<V>(value);
+        entry.node = tree.set(index, ALL_COLORS, CACHED, entry, 1);
+        linkMostRecent(entry);
+        return cachedSize() > maximumSize ? evict() : null;
+    }
+
+    /**
+     * Removes the value cached for the specified index, leaving the index in
+     * place.
+     *
+     * @return the removed value, or <code>null</code> if there was no value
+     */
+    public V uncache(int index) {
+        final Entry<V> entry = tree.get(index, ALL_COLORS).get();
+        if(entry == notCached) return null;
+
+        unlink(entry);
+        tree.set(index, ALL_COLORS, UNCACHED, notCached, 1);
+        return entry.value;
+    }
+
+    /**
+     * Removes the specified index, shifting the following indices.
+     *
+     * @return the value that was cached for the index, or <code>null</code> if
+     *      there was no value
+     */
+    public V remove(int index) {
+        final Entry<V> entry = tree.get(index, ALL_COLORS).get();
+        tree.remove(index, ALL_COLORS, 1);
+        if(entry == notCached) return null;
+
+        unlink(entry);
+        return entry.value;
+    }
+
+    /**
+     * Removes all values, leaving the indices in place.
+     *
+     * @return the removed values
+     */
+    public List<V> uncacheAll() {
+        final List<V> removed = new ArrayList<V>(cachedSize());
+        for(Entry<V> entry = mostRecent; entry != null; entry = entry.lessRecent) {
+            removed.add(entry.value);
+        }
+        final int size = size();
+        tree.clear();
+        if(size > 0) tree.add(0, ALL_COLORS, UNCACHED, notCached, size);
+        mostRecent = null;
+        leastRecent = null;
+        return removed;
+    }
+
+    /**
+     * Moves the cached values to follow a reordering of the indices.
+     *
+     * @param reorderMap the previous index of the value at each index, as in
+     *      {@link ca.odell.glazedlists.event.ListEvent#getReorderMap()}
+     */
+    public void reorder(int[] reorderMap) {
+        final int size = size();
+        if(reorderMap.length != size) throw new IllegalArgumentException("reorder map has length " + reorderMap.length + " for cache of size " + size);
+
+        // find the new index of each cached value
+        final int[] newIndices = new int[size];
+        for(int i = 0; i < reorderMap.length; i++) {
+            newIndices[reorderMap[i]] = i;
+        }
+        final List<Entry<V>> entries = new ArrayList<Entry<V>>(cachedSize());
+        final int[] entryIndices = new int[cachedSize()];
+        for(Entry<V> entry = mostRecent; entry != null; entry = entry.lessRecent) {
+            entryIndices[entries.size()] = newIndices[tree.indexOfNode(entry.node, ALL_COLORS)];
+            entries.add(entry);
+        }
+
+        // rebuild the tree with the values in their new places
+        tree.clear();
+        if(size > 0) tree.add(0, ALL_COLORS, UNCACHED, notCached, size);
+        for(int e = 0; e < entries.size(); e++) {
+            final Entry<V> entry = entries.get(e);
+            entry.node = tree.set(entryIndices[e], ALL_COLORS, CACHED, entry, 1);
+        }
+    }
+
+    /**
+     * Removes the least recently used value.
+     */
+    private V evict() {
+        final Entry<V> entry = leastRecent;
+        unlink(entry);
+        tree.set(tree.indexOfNode(entry.node, ALL_COLORS), ALL_COLORS, UNCACHED, notCached, 1);
+        return entry.value;
+    }
+
+    private void linkMostRecent(Entry<V> entry) {
+        entry.lessRecent = mostRecent;
+        entry.moreRecent = null;
+        if(mostRecent != null) mostRecent.moreRecent = entry;
+        else leastRecent = entry;
+        mostRecent = entry;
+    }
+
+    private void unlink(Entry<V> entry) {
+        if(entry.moreRecent != null) entry.moreRecent.lessRecent = entry.lessRecent;
+        else mostRecent = entry.lessRecent;
+        if(entry.lessRecent != null) entry.lessRecent.moreRecent = entry.moreRecent;
+        else leastRecent = entry.moreRecent;
+        entry.moreRecent = null;
+        entry.lessRecent = null;
+    }
+
+    /**
+     * A cached value, linked into the order of use. Each entry is a distinct
+     * node value, so the tree never merges cached indices.
+     */
+    private static final class Entry<V> {
+        private final V value;
+        private Element<Entry<V>> node;
+        private Entry<V> moreRecent;
+        private Entry<V> lessRecent;
+
+        Entry(V value) {
+            this.value = value;
+        }
+    }
+}
@@ -4,7 +4,9 @@
 package ca.odell.glazedlists.impl.adt.barcode2;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
 
 import ca.odell.glazedlists.GlazedLists;
@@ -755,6 +757,56 @@ public class BciiTree/*[ TYPELIST_START ]*/ <T0,T1> /*[ TYPELIST_END ]*/ {
         root = null;
     }
 
+    /**
+     * Fill this empty tree with a node of size 1 for each of the specified
+     * values, in iteration order. This builds a perfectly balanced tree in
+     * linear time, which is much faster than adding the values one at a time
+     * since no descents or rotations are necessary.
+     *
+     * <p>The values are not compared, so for a sorted tree they must already
+     * be in sorted order.
+     *
+     * @param color the color of every node
+     * @param values the values of the nodes
+     * @return the elements holding the values, in the same order
+     * @throws IllegalStateException if this tree is not empty
+     */
+    public Element<T0>[] bulkLoad(/*[ COLORED_START ]*/ byte color, /*[ COLORED_END ]*/ Collection<? extends T0> values) {
+        if(root != null) throw new IllegalStateException("Only an empty tree can be bulk loaded.");
+
+        @SuppressWarnings("unchecked")
+        Element<T0>[] nodes = (Element<T0>[])new Element<?>[values.size()];
+        root = bulkLoad(/*[ COLORED_START ]*/ color, /*[ COLORED_END ]*/ values.iterator(), nodes, 0, nodes.length, null);
+        assert(valid());
+        return nodes;
+    }
+
+    /**
+     * Build a balanced subtree of the next values, for the elements from
+     * <code>start</code> (inclusive) to <code>end</code> (exclusive), recording
+     * each node.
+     *
+     * @return the root of the subtree, or <code>null</code> if it is empty
+     */
+    private /*[ NODENAME_START ]*/ BciiNode<T0,T1> /*[ NODENAME_END ]*/ bulkLoad(/*[ COLORED_START ]*/ byte color, /*[ COLORED_END ]*/ Iterator<? extends T0> values, Element<T0>[] nodes, int start, int end, /*[ NODENAME_START ]*/ BciiNode<T0,T1> /*[ NODENAME_END ]*/ parent) {
+        if(start == end) return null;
+
+        // the left subtree takes the values before this node's
+        int middle = (start + end) >>> 1;
+        /*[ NODENAME_START ]*/ BciiNode<T0,T1> /*[ NODENAME_END ]*/ node = new /*[ NODENAME_START ]*/ BciiNode<T0,T1> /*[ NODENAME_END ]*/(/*[ COLORED_START ]*/ color, /*[ COLORED_END ]*/ 1, null, parent);
+        node.left = bulkLoad(/*[ COLORED_START ]*/ color, /*[ COLORED_END ]*/ values, nodes, start, middle, node);
+        node.t0 = values.next();
+        nodes[middle] = node;
+        node.right = bulkLoad(/*[ COLORED_START ]*/ color, /*[ COLORED_END ]*/ values, nodes, middle + 1, end, node);
+
+        // a subtree of n nodes with halves that differ by at most one is balanced
+        /*[ REFRESH_COUNTS(node) ]*/ node.refreshCounts(); /*[ EXAMPLE_END ]*/
+        byte leftHeight = node.left != null ? node.left.height : 0;
+        byte rightHeight = node.right != null ? node.right.height : 0;
+        node.height = (byte)(Math.max(leftHeight, rightHeight) + 1);
+        return node;
+    }
+
     /**
      * Get the index of the specified element, counting only the colors
      * specified.
@@ -9,6 +9,8 @@ import java.lang.reflect.Modifier;
 import java.lang.reflect.UndeclaredThrowableException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import ca.odell.glazedlists.impl.reflect.J2SE50ReturnTypeResolver;
 import ca.odell.glazedlists.impl.reflect.ReturnTypeResolver;
@@ -22,6 +24,17 @@ public class BeanProperty<T> {
 
     private static final ReturnTypeResolver TYPE_RESOLVER = new J2SE50ReturnTypeResolver();
 
+    /**
+     * the compiled getters of each class, by property name, shared by all
+     * properties so that each chain is resolved and compiled only once
+     */
+    private static final ClassValue<ConcurrentMap<String,CompiledGetter>> GETTERS = new ClassValue<ConcurrentMap<String,CompiledGetter>>() {
+        @Override
+        protected ConcurrentMap<String,CompiledGetter> computeValue(Class<?> beanClass) {
+            return new ConcurrentHashMap<String,CompiledGetter>();
+        }
+    };
+
     /** the target class */
     private final Class<T> beanClass;
     /** the property name */
@@ -33,8 +46,8 @@ public class BeanProperty<T> {
     /** the value class */
     private Class valueClass = null;
 
-    /** the chain of methods for the getter */
-    private List<Method> getterChain = null;
+    /** the compiled chain of methods for the getter */
+    private CompiledGetter getter = null;
 
     /** the chain of methods for the setter */
     private List<Method> setterChain = null;
@@ -62,39 +75,63 @@ public class BeanProperty<T> {
         if (identityProperty && writable)
             throw new IllegalArgumentException("The identity property name (this) cannot be writable");
 
-        // look up the common chain
-        final String[] propertyParts = propertyName.split("\\.");
-        final List<Method> commonChain = new ArrayList<Method>(propertyParts.length);
-        Class currentClass = beanClass;
-        for(int p = 0; p < propertyParts.length - 1; p++) {
-            Method partGetter = findGetterMethod(currentClass, propertyParts[p]);
-            commonChain.add(partGetter);
-            currentClass = TYPE_RESOLVER.getReturnType(currentClass, partGetter);
-        }
-
-        // look up the final getter
+        // look up the getter, compiling it the first time it's needed
         if(readable) {
             if (identityProperty) {
                 valueClass = beanClass;
             } else {
-                getterChain = new ArrayList<Method>();
-                getterChain.addAll(commonChain);
-                Method lastGetter = findGetterMethod(currentClass, propertyParts[propertyParts.length - 1]);
-                getterChain.add(lastGetter);
-                valueClass = TYPE_RESOLVER.getReturnType(currentClass, lastGetter);
+                final ConcurrentMap<String,CompiledGetter> getters = GETTERS.get(beanClass);
+                getter = getters.get(propertyName);
+                if(getter == null) {
+                    getter = compileGetter();
+                    final CompiledGetter existing = getters.putIfAbsent(propertyName, getter);
+                    if(existing != null) getter = existing;
+                }
+                valueClass = getter.getValueClass();
             }
         }
 
-        // look up the final setter
+        // look up the setter
         if(writable) {
-            setterChain = new ArrayList<Method>();
-            setterChain.addAll(commonChain);
+            final String[] propertyParts = propertyName.split("\\.");
+            final List<Method> setterChain = new ArrayList<Method>(propertyParts.length);
+            final Class<?> currentClass = findCommonChain(propertyParts, setterChain);
             Method lastSetter = findSetterMethod(currentClass, propertyParts[propertyParts.length - 1]);
             setterChain.add(lastSetter);
+            this.setterChain = setterChain;
             if(valueClass == null) valueClass = TYPE_RESOLVER.getFirstParameterType(currentClass, lastSetter);
         }
     }
 
+    /**
+     * Looks up the chain of getters for this property and compiles it.
+     */
+    private CompiledGetter compileGetter() {
+        final String[] propertyParts = propertyName.split("\\.");
+        final List<Method> getterChain = new ArrayList<Method>(propertyParts.length);
+        final Class<?> currentClass = findCommonChain(propertyParts, getterChain);
+        Method lastGetter = findGetterMethod(currentClass, propertyParts[propertyParts.length - 1]);
+        getterChain.add(lastGetter);
+        return new CompiledGetter(getterChain, TYPE_RESOLVER.getReturnType(currentClass, lastGetter));
+    }
+
+    /**
+     * Looks up the getters for all but the last of the specified property
+     * parts, which are common to the getter and the setter.
+     *
+     * @param chain the list to add the getters to
+     * @return the class that declares the last property part
+     */
+    private Class<?> findCommonChain(String[] propertyParts, List<Method> chain) {
+        Class<?> currentClass = beanClass;
+        for(int p = 0; p < propertyParts.length - 1; p++) {
+            Method partGetter = findGetterMethod(currentClass, propertyParts[p]);
+            chain.add(partGetter);
+            currentClass = TYPE_RESOLVER.getReturnType(currentClass, partGetter);
+        }
+        return currentClass;
+    }
+
     /**
      * Finds a getter of the specified property on the specified class.
      */
@@ -226,7 +263,7 @@ public class BeanProperty<T> {
      * Gets whether this property can get get.
      */
     public boolean isReadable() {
-        return getterChain != null || identityProperty;
+        return getter != null || identityProperty;
     }
 
     /**
@@ -246,24 +283,8 @@ public class BeanProperty<T> {
         if (identityProperty)
             return member;
 
-        try {
-            // do all the getters in sequence
-            Object currentMember = member;
-            for(int i = 0, n = getterChain.size(); i < n; i++) {
-                Method currentMethod = getterChain.get(i);
-                currentMember = currentMethod.invoke(currentMember, EMPTY_ARGUMENTS);
-                if(currentMember == null) return null;
-            }
-
-            // return the result of the last getter
-            return currentMember;
-        } catch(IllegalAccessException e) {
-            SecurityException se = new SecurityException();
-            se.initCause(e);
-            throw se;
-        } catch(InvocationTargetException e) {
-            throw new UndeclaredThrowableException(e.getCause());
-        }
+        // do all the getters in sequence
+        return getter.get(member);
     }
 
     /**
@@ -0,0 +1,157 @@
+/* Glazed Lists                                                 (c) 2003-2006 */
+/* http://publicobject.com/glazedlists/                      publicobject.com,*/
+/*                                                     O'Dell Engineering Ltd.*/
+package ca.odell.glazedlists.impl.beans;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.List;
+
+/**
+ * A chain of getter methods, each compiled once into a class generated by
+ * the {@link LambdaMetafactory} that calls the getter directly. Unlike
+ * {@link Method#invoke}, these calls can be inlined by the JIT.
+ *
+ * <p>Getters of classes that aren't visible from this class' loader are
+ * called through a {@link MethodHandle} instead, and getters that can't be
+ * accessed at all are called by reflection, which fails as it always has.
+ */
+final class CompiledGetter {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    /** the getters, in the order they're called */
+    private final Method[] methods;
+
+    /** the compiled getters */
+    private final Hop[] hops;
+
+    /** the class that declares each getter */
+    private final Class<?>[] receiverTypes;
+
+    /** the type of the value returned by the last getter */
+    private final Class<?> valueClass;
+
+    /**
+     * Compiles the specified chain of getters.
+     *
+     * @param valueClass the resolved type of the value returned by the last
+     *      getter
+     */
+    CompiledGetter(List<Method> methods, Class<?> valueClass) {
+        this.methods = methods.toArray(new Method[methods.size()]);
+        this.hops = new Hop[this.methods.length];
+        this.receiverTypes = new Class<?>[this.methods.length];
+        this.valueClass = valueClass;
+        for(int i = 0; i < this.methods.length; i++) {
+            hops[i] = compile(this.methods[i]);
+            receiverTypes[i] = this.methods[i].getDeclaringClass();
+        }
+    }
+
+    /**
+     * Gets the chain of getters.
+     */
+    Method[] getMethods() {
+        return methods;
+    }
+
+    /**
+     * Gets the resolved type of the value returned by the last getter.
+     */
+    Class<?> getValueClass() {
+        return valueClass;
+    }
+
+    /**
+     * Calls the getters in sequence, starting with the specified bean.
+     * This returns <code>null</code> if any getter returns <code>null</code>.
+     */
+    Object get(Object bean) {
+        Object current = bean;
+        for(int i = 0; i < hops.length; i++) {
+            if(!receiverTypes[i].isInstance(current)) {
+                if(current == null && i > 0) return null;
+                if(current == null) throw new NullPointerException();
+                throw new IllegalArgumentException("object is not an instance of declaring class");
+            }
+
+            try {
+                current = hops[i].get(current);
+            } catch(IllegalAccessException e) {
+                SecurityException se = new SecurityException();
+                se.initCause(e);
+                throw se;
+            } catch(InvocationTargetException e) {
+                throw new UndeclaredThrowableException(e.getCause());
+            } catch(Throwable e) {
+                throw new UndeclaredThrowableException(e);
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Compiles the specified getter into the fastest {@link Hop} that can call it.
+     */
+    private static Hop compile(final Method method) {
+        final MethodHandle handle;
+        try {
+            handle = LOOKUP.unreflect(method);
+        } catch(IllegalAccessException e) {
+            return new Hop() {
+                @Override
+                public Object get(Object bean) throws Throwable {
+                    return method.invoke(bean);
+                }
+            };
+        }
+
+        if(isVisible(method.getDeclaringClass()) && isVisible(method.getReturnType())) {
+            try {
+                final CallSite callSite = LambdaMetafactory.metafactory(LOOKUP, "get",
+                        MethodType.methodType(Hop.class), MethodType.methodType(Object.class, Object.class),
+                        handle, handle.type().wrap());
+                return (Hop)callSite.getTarget().invoke();
+            } catch(Throwable e) {
+                // fall through to the method handle
+            }
+        }
+
+        final MethodHandle genericHandle = handle.asType(MethodType.methodType(Object.class, Object.class));
+        return new Hop() {
+            @Override
+            public Object get(Object bean) throws Throwable {
+                return genericHandle.invokeExact(bean);
+            }
+        };
+    }
+
+    /**
+     * Returns <code>true</code> if classes generated alongside this class can
+     * refer to the specified class by name.
+     */
+    private static boolean isVisible(Class<?> type) {
+        if(type.isPrimitive()) return true;
+        try {
+            return Class.forName(type.getName(), false, CompiledGetter.class.getClassLoader()) == type;
+        } catch(ClassNotFoundException e) {
+            return false;
+        } catch(LinkageError e) {
+            return false;
+        }
+    }
+
+    /**
+     * Calls a single getter.
+     */
+    interface Hop {
+        Object get(Object bean) throws Throwable;
+    }
+}
@@ -26,6 +26,12 @@ public class BlockSequence<E> {
     /** the impacted values */
     private List<E> oldValues = new ArrayList<E>();
     private List<E> newValues = new ArrayList<E>();
+    /**
+     * the impacted values of blocks with a value per element, <code>null</code>
+     * for blocks where all elements share the value above
+     */
+    private List<List<? extends E>> oldValueRanges = new ArrayList<List<? extends E>>();
+    private List<List<? extends E>> newValueRanges = new ArrayList<List<? extends E>>();
 
     /**
      * @param startIndex the first updated element, inclusive
@@ -59,6 +65,29 @@ public class BlockSequence<E> {
      *      if no change was made because this change could not be handled.
      */
     public boolean addChange(int type, int startIndex, int endIndex, E oldValue, E newValue) {
+        return addChange(type, startIndex, endIndex, oldValue, newValue, null, null);
+    }
+
+    /**
+     * Add a change where each element has its own value, or return
+     * <code>false</code> if that failed because the change is not in
+     * increasing order. The lists of values are referenced rather than copied,
+     * so they must not be modified afterwards. This allows a large change to
+     * be recorded in constant space, for example with a view of the removed
+     * elements or with a list that computes its values on demand.
+     *
+     * @param oldValues the old value of each element from <code>startIndex</code>
+     *      to <code>endIndex</code>, or <code>null</code> if they are unknown
+     * @param newValues the new value of each element from <code>startIndex</code>
+     *      to <code>endIndex</code>, or <code>null</code> if they are unknown
+     * @return true if the change was successfully applied, or <code>false</code>
+     *      if no change was made because this change could not be handled.
+     */
+    public boolean addChangeRange(int type, int startIndex, int endIndex, List<? extends E> oldValues, List<? extends E> newValues) {
+        return addChange(type, startIndex, endIndex, ListEvent.<E>unknownValue(), ListEvent.<E>unknownValue(), oldValues, newValues);
+    }
+
+    private boolean addChange(int type, int startIndex, int endIndex, E oldValue, E newValue, List<? extends E> oldValueRange, List<? extends E> newValueRange) {
         // remind ourselves of the most recent change
         int lastType;
         int lastStartIndex;
@@ -87,22 +116,26 @@ public class BlockSequence<E> {
         // to a more powerful list blocks manager
         if(startIndex < lastChangedIndex) {
             return false;
+        }
 
-        // concatenate this change on to the previous one
-        } else if(lastChangedIndex == startIndex && lastType == type && oldValue == lastOldValue && newValue == lastNewValue) {
+        // concatenate this change on to the previous one, which is only
+        // possible if they share the same values
+        if(lastChangedIndex == startIndex && lastType == type && oldValue == lastOldValue && newValue == lastNewValue
+                && oldValueRange == null && newValueRange == null && oldValueRanges.get(size - 1) == null && newValueRanges.get(size - 1) == null) {
             int newLength = (lastEndIndex - lastStartIndex) + (endIndex - startIndex);
             ends.set(size - 1, lastStartIndex + newLength);
             return true;
+        }
 
         // add this change to the end of the list
-        } else {
-            starts.add(startIndex);
-            ends.add(endIndex);
-            types.add(type);
-            oldValues.add(oldValue);
-            newValues.add(newValue);
-            return true;
-        }
+        starts.add(startIndex);
+        ends.add(endIndex);
+        types.add(type);
+        oldValues.add(oldValue);
+        newValues.add(newValue);
+        oldValueRanges.add(oldValueRange);
+        newValueRanges.add(newValueRange);
+        return true;
     }
 
     public boolean isEmpty() {
@@ -115,6 +148,8 @@ public class BlockSequence<E> {
         types.clear();
         oldValues.clear();
         newValues.clear();
+        oldValueRanges.clear();
+        newValueRanges.clear();
     }
 
     public Iterator iterator() {
@@ -193,10 +228,33 @@ public class BlockSequence<E> {
             return type;
         }
         public E getOldValue() {
-            return oldValues.get(blockIndex);
+            return getOldValue(offset);
         }
         public E getNewValue() {
-            return newValues.get(blockIndex);
+            return getNewValue(offset);
+        }
+        /**
+         * @return the old value of the element at <code>offset</code> in the
+         *      current block
+         */
+        public E getOldValue(int offset) {
+            final List<? extends E> range = oldValueRanges.get(blockIndex);
+            return range == null ? oldValues.get(blockIndex) : range.get(offset);
+        }
+        /**
+         * @return the new value of the element at <code>offset</code> in the
+         *      current block
+         */
+        public E getNewValue(int offset) {
+            final List<? extends E> range = newValueRanges.get(blockIndex);
+            return range == null ? newValues.get(blockIndex) : range.get(offset);
+        }
+        /**
+         * @return true if each element of the current block has its own
+         *      values, rather than all sharing the same values
+         */
+        public boolean hasValuePerElement() {
+            return oldValueRanges.get(blockIndex) != null || newValueRanges.get(blockIndex) != null;
         }
 
         /**
@@ -267,4 +325,4 @@ public class BlockSequence<E> {
             return false;
         }
     }
-}
\ No newline at end of file
+}
@@ -211,6 +211,23 @@ public class Tree4Deltas<E> {
             int blockStart = i.getBlockStart();
             int blockEnd = i.getBlockEnd();
             int type = i.getType();
+
+            // blocks with a value per element are added one element at a time
+            if(i.hasValuePerElement()) {
+                for(int offset = 0; offset < blockEnd - blockStart; offset++) {
+                    if(type == ListEvent.INSERT) {
+                        targetInsert(blockStart + offset, blockStart + offset + 1, i.getNewValue(offset));
+                    } else if(type == ListEvent.UPDATE) {
+                        targetUpdate(blockStart + offset, blockStart + offset + 1, i.getOldValue(offset), i.getNewValue(offset));
+                    } else if(type == ListEvent.DELETE) {
+                        targetDelete(blockStart, blockStart + 1, i.getOldValue(offset));
+                    } else {
+                        throw new IllegalStateException();
+                    }
+                }
+                continue;
+            }
+
             E oldValue = i.getOldValue();
             E newValue = i.getNewValue();
 
@@ -36,6 +36,19 @@ abstract class AbstractTextSearchStrategy implements TextSearchStrategy {
         this.characterMap = characterMap;
     }
 
+    /**
+     * Searches the <code>text</code> with {@link #indexOf(CharSequence)},
+     * which all subclasses implement without copying the text.
+     */
+    @Override
+    public int indexOf(String text) {
+        return indexOf((CharSequence) text);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public abstract int indexOf(CharSequence text);
+
     /**
      * A convenience method to map the given character if a character map has
      * been specified. If either a character map does not exist, or the
@@ -78,7 +78,7 @@ public class BoyerMooreCaseInsensitiveTextSearchStrategy extends AbstractTextSea
 
     /** {@inheritDoc} */
     @Override
-    public int indexOf(String text) {
+    public int indexOf(CharSequence text) {
         // ensure we are in a state to search the text
         if(this.subtextCharsUpper == null) {
             throw new IllegalStateException("setSubtext must be called with a valid value before this method can operate");
@@ -22,7 +22,7 @@ public class ExactCaseInsensitiveTextSearchStrategy extends StartsWithCaseInsens
     }
 
     @Override
-    public int indexOf(String text) {
+    public int indexOf(CharSequence text) {
         if (text.length() != subtextLength)
             return -1;
 
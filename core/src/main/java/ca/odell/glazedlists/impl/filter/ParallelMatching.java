@@ -0,0 +1,126 @@
+/* Glazed Lists                                                 (c) 2003-2006 */
+/* http://publicobject.com/glazedlists/                      publicobject.com,*/
+/*                                                     O'Dell Engineering Ltd.*/
+package ca.odell.glazedlists.impl.filter;
+
+import ca.odell.glazedlists.matchers.Matcher;
+import ca.odell.glazedlists.matchers.MatcherEditor;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Evaluates a {@link Matcher} over many elements of a {@link List} using
+ * the threads of a {@link ForkJoinPool}.
+ *
+ * <p>The elements are split into contiguous chunks which are evaluated
+ * concurrently. The results are returned in the order of the elements, so
+ * callers can apply them exactly as if the matcher had been evaluated
+ * sequentially. The {@link Matcher} must be safe to use from multiple
+ * threads at once, and the {@link List} must not change while the elements
+ * are evaluated.
+ */
+public final class ParallelMatching {
+
+    /** lists with fewer elements than this are not worth splitting */
+    public static final int MINIMUM_CHUNK_SIZE = 1024;
+
+    /**
+     * A dummy constructor to prevent instantiation of this class
+     */
+    private ParallelMatching() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Evaluate the <code>matcher</code> for the elements of <code>source</code>.
+     *
+     * @param matcher a thread-safe matcher
+     * @param source the list whose elements are to be matched
+     * @param sourceIndices the indices of the elements to match in increasing
+     *      order, or <code>null</code> to match all elements of <code>source</code>
+     * @param parallelism the maximum number of chunks to evaluate concurrently
+     * @param pool the pool to evaluate the chunks with
+     * @return an array with one entry per matched element, in the same order
+     *      as <code>sourceIndices</code> or <code>source</code> respectively
+     */
+    public static <E> boolean[] matches(Matcher<? super E> matcher, List<? extends E> source, int[] sourceIndices, int parallelism, ForkJoinPool pool) {
+        return matches(matcher, source, sourceIndices, parallelism, pool, null);
+    }
+
+    /**
+     * Evaluate the <code>matcher</code> for the elements of <code>source</code>,
+     * giving up as soon as the specified event is superseded. Each chunk checks
+     * the event every {@link #MINIMUM_CHUNK_SIZE} elements.
+     *
+     * @param matcherEvent the event that the elements are matched for, or
+     *      <code>null</code> to match all the elements regardless
+     * @return an array with one entry per matched element, or <code>null</code>
+     *      if the <code>matcherEvent</code> was superseded
+     * @see #matches(Matcher, List, int[], int, ForkJoinPool)
+     */
+    public static <E> boolean[] matches(Matcher<? super E> matcher, List<? extends E> source, int[] sourceIndices, int parallelism, ForkJoinPool pool, MatcherEditor.Event<?> matcherEvent) {
+        final int count = sourceIndices == null ? source.size() : sourceIndices.length;
+        final boolean[] result = new boolean[count];
+        final int chunkSize = Math.max(MINIMUM_CHUNK_SIZE, (count + parallelism - 1) / parallelism);
+        final MatchChunk<E> task = new MatchChunk<E>(matcher, source, sourceIndices, result, 0, count, chunkSize, matcherEvent);
+        if(count <= chunkSize) {
+            task.compute();
+        } else {
+            pool.invoke(task);
+        }
+
+        // chunks stop early once the event is superseded, and it stays superseded
+        if(matcherEvent != null && matcherEvent.isSuperseded()) return null;
+        return result;
+    }
+
+    /**
+     * Matches the elements from <code>start</code> to <code>end</code>,
+     * splitting itself recursively until the chunks are small enough.
+     */
+    private static final class MatchChunk<E> extends RecursiveAction {
+
+        /** For versioning as a {@link java.io.Serializable} */
+        private static final long serialVersionUID = 2658243375361087412L;
+
+        private final Matcher<? super E> matcher;
+        private final List<? extends E> source;
+        private final int[] sourceIndices;
+        private final boolean[] result;
+        private final int start;
+        private final int end;
+        private final int chunkSize;
+        private final MatcherEditor.Event<?> matcherEvent;
+
+        MatchChunk(Matcher<? super E> matcher, List<? extends E> source, int[] sourceIndices, boolean[] result, int start, int end, int chunkSize, MatcherEditor.Event<?> matcherEvent) {
+            this.matcher = matcher;
+            this.source = source;
+            this.sourceIndices = sourceIndices;
+            this.result = result;
+            this.start = start;
+            this.end = end;
+            this.chunkSize = chunkSize;
+            this.matcherEvent = matcherEvent;
+        }
+
+        @Override
+        protected void compute() {
+            // split into two halves that are evaluated concurrently
+            if(end - start > chunkSize) {
+                final int middle = (start + end) >>> 1;
+                invokeAll(new MatchChunk<E>(matcher, source, sourceIndices, result, start, middle, chunkSize, matcherEvent),
+                        new MatchChunk<E>(matcher, source, sourceIndices, result, middle, end, chunkSize, matcherEvent));
+                return;
+            }
+
+            // evaluate this chunk on the current thread
+            for(int i = start; i < end; i++) {
+                if(matcherEvent != null && (i - start) % MINIMUM_CHUNK_SIZE == 0 && matcherEvent.isSuperseded()) return;
+                final int sourceIndex = sourceIndices == null ? i : sourceIndices[i];
+                result[i] = matcher.matches(source.get(sourceIndex));
+            }
+        }
+    }
+}
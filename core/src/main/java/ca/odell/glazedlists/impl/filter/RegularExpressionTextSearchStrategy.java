@@ -11,19 +11,37 @@ import java.util.regex.Matcher;
  * against a regular expression. If the regular expression matches, the start
  * position of the match is returned. If there is no match, -1 is returned.
  *
+ * <p>Since a regular expression {@link Matcher} is stateful, each thread
+ * searching with this strategy reuses a {@link Matcher} of its own.
+ *
  * @author Wim Deblauwe
  */
 public class RegularExpressionTextSearchStrategy extends AbstractTextSearchStrategy {
 
-    private Matcher matcher;
+    /** the compiled regular expression, shared by all threads */
+    private Pattern pattern;
+
+    /** the recycled matchers of {@link #pattern}, one per thread */
+    private final ThreadLocal<Matcher> matchers = new ThreadLocal<Matcher>();
 
     @Override
     public void setSubtext(String regex) {
-        matcher = Pattern.compile(regex).matcher("");
+        pattern = Pattern.compile(regex);
+        matchers.remove();
     }
 
     @Override
-    public int indexOf(String text) {
-        return matcher.reset(text).matches() ? matcher.start() : -1;
+    public int indexOf(CharSequence text) {
+        Matcher matcher = matchers.get();
+        if (matcher == null || matcher.pattern() != pattern) {
+            matcher = pattern.matcher(text);
+            matchers.set(matcher);
+        } else {
+            matcher.reset(text);
+        }
+        final int result = matcher.matches() ? matcher.start() : -1;
+        // don't hold on to the text after it has been searched
+        matcher.reset("");
+        return result;
     }
 }
\ No newline at end of file
@@ -43,7 +43,7 @@ public class SingleCharacterCaseInsensitiveTextSearchStrategy extends AbstractTe
 
     /** {@inheritDoc} */
     @Override
-    public int indexOf(String text) {
+    public int indexOf(CharSequence text) {
         // ensure we are in a state to search the text
         if(!this.subtextInitialized) throw new IllegalStateException("setSubtext must be called with a valid value before this method can operate");
 
@@ -41,7 +41,7 @@ public class StartsWithCaseInsensitiveTextSearchStrategy extends AbstractTextSea
      *      was not
      */
     @Override
-    public int indexOf(String text) {
+    public int indexOf(CharSequence text) {
         // ensure we are in a state to search the text
         if (indexOfStrategy == null)
             throw new IllegalStateException("setSubtext must be called with a valid value before this method can operate");
@@ -54,7 +54,7 @@ public class StartsWithCaseInsensitiveTextSearchStrategy extends AbstractTextSea
      * for {@link StartsWithCaseInsensitiveTextSearchStrategy#indexOf}.
      */
     private interface IndexOfStrategy {
-        public int indexOf(String text);
+        public int indexOf(CharSequence text);
     }
 
     /**
@@ -72,7 +72,7 @@ public class StartsWithCaseInsensitiveTextSearchStrategy extends AbstractTextSea
         }
 
         @Override
-        public int indexOf(String text) {
+        public int indexOf(CharSequence text) {
             // if the text is not long enough to match the subtext, bail early
             if (text.length() < 1)
                 return -1;
@@ -105,7 +105,7 @@ public class StartsWithCaseInsensitiveTextSearchStrategy extends AbstractTextSea
         }
 
         @Override
-        public int indexOf(String text) {
+        public int indexOf(CharSequence text) {
             // if the text is not long enough to match the subtext, bail early
             if (text.length() < subtextLength)
                 return -1;
@@ -0,0 +1,573 @@
+/* Glazed Lists                                                 (c) 2003-2006 */
+/* http://publicobject.com/glazedlists/                      publicobject.com,*/
+/*                                                     O'Dell Engineering Ltd.*/
+package ca.odell.glazedlists.impl.filter;
+
+import ca.odell.glazedlists.EventList;
+import ca.odell.glazedlists.TextFilterable;
+import ca.odell.glazedlists.TextFilterator;
+import ca.odell.glazedlists.event.ListEvent;
+import ca.odell.glazedlists.impl.GlazedListsImpl;
+import ca.odell.glazedlists.impl.adt.barcode2.Element;
+import ca.odell.glazedlists.impl.adt.barcode2.SimpleTree;
+import ca.odell.glazedlists.matchers.TextMatcherEditor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * An index of the filter strings of the elements of a list, which finds the
+ * elements that a {@link TextMatcher} may match without searching the filter
+ * strings of every element.
+ *
+ * <p>In {@link TextMatcherEditor#CONTAINS} mode, each trigram, a sequence of
+ * three characters, maps to the postings of the rows with a filter string
+ * that contains it. A filter string can only contain a search term if it
+ * contains each of the term's trigrams, so the intersection of their postings
+ * is a superset of the rows that match.
+ *
+ * <p>In {@link TextMatcherEditor#STARTS_WITH} mode, the filter strings are
+ * kept in sorted order, each mapping to the postings of the rows with that
+ * filter string. The filter strings that start with a search term are a
+ * contiguous range of them, which is found in logarithmic time.
+ *
+ * <p>Either way, only the candidates need to be matched by the
+ * {@link TextMatcher}. The characters of the filter strings are folded to a
+ * single case, and stripped of their diacritics for the
+ * {@link TextMatcherEditor#NORMALIZED_STRATEGY}, so the candidates include
+ * every row that the {@link TextMatcher} would match.
+ *
+ * <p>Rows are identified by ids that don't change as other rows are
+ * inserted and deleted, and the ids are kept in a tree in list order to find
+ * the index of each row. The postings of deleted and updated rows are left in
+ * place until they make up half of the ids, when they're compacted.
+ *
+ * <p>The index is kept up to date with the {@link ListEvent}s of the indexed
+ * list. The filter strings of an element must not change without an update
+ * event for that element, or the index may be missing its new trigrams.
+ */
+public final class TextIndex<E> {
+
+    /** the number of characters in each indexed sequence */
+    private static final int GRAM_LENGTH = 3;
+
+    /** the number of leading characters of each filter string indexed for prefixes */
+    private static final int MAXIMUM_PREFIX_LENGTH = 32;
+
+    /** the postings are only compacted once there are at least this many stale ids */
+    private static final int MINIMUM_COMPACTION = 1024;
+
+    /** the color of all the nodes in the tree of rows */
+    private static final byte ALL_COLORS = 1;
+
+    /** orders postings from the shortest to the longest */
+    private static final Comparator<Postings> SIZE_COMPARATOR = new Comparator<Postings>() {
+        @Override
+        public int compare(Postings a, Postings b) {
+            return a.size - b.size;
+        }
+    };
+
+    /** either {@link TextMatcherEditor#CONTAINS} or {@link TextMatcherEditor#STARTS_WITH} */
+    private final int mode;
+
+    /** extracts the filter strings, or <code>null</code> if the elements are {@link TextFilterable} */
+    private final TextFilterator<? super E> filterator;
+
+    /** either {@link TextMatcherEditor#IDENTICAL_STRATEGY} or {@link TextMatcherEditor#NORMALIZED_STRATEGY} */
+    private final Object strategy;
+
+    /** maps the characters of the filter strings before they're folded, or <code>null</code> */
+    private final char[] characterMap;
+
+    /** the id of each row, in list order */
+    private final SimpleTree<Integer> rows = new SimpleTree<Integer>();
+
+    /** the node in {@link #rows} of each id, or <code>null</code> for stale ids */
+    private Element<Integer>[] rowsById;
+
+    /** the next id to assign to a row */
+    private int nextId;
+
+    /** the number of ids assigned to rows that have since been deleted or updated */
+    private int staleIds = 0;
+
+    /** the postings of each trigram, by {@link #gram key}, in CONTAINS mode */
+    private final Map<Long, Postings> postings = new HashMap<Long, Postings>();
+
+    /** the postings of each folded filter string prefix, in STARTS_WITH mode */
+    private final TreeMap<String, Postings> prefixes = new TreeMap<String, Postings>();
+
+    /** a recyclable List into which the filter Strings of an element are stored */
+    private final List<String> filterStrings = new ArrayList<String>();
+
+    /**
+     * Creates a {@link TextIndex} of the filter strings of the specified
+     * elements.
+     *
+     * @param elements the elements to index
+     * @param filterator the object that will extract filter Strings from each
+     *      element; <code>null</code> indicates the elements implement
+     *      {@link TextFilterable}
+     * @param mode either {@link TextMatcherEditor#CONTAINS} or
+     *      {@link TextMatcherEditor#STARTS_WITH}, which must be the mode of
+     *      the {@link TextMatcher}s that use this index
+     * @param strategy either {@link TextMatcherEditor#IDENTICAL_STRATEGY} or
+     *      {@link TextMatcherEditor#NORMALIZED_STRATEGY}, which must be the
+     *      strategy of the {@link TextMatcher}s that use this index
+     */
+    public TextIndex(List<? extends E> elements, TextFilterator<? super E> filterator, int mode, Object strategy) {
+        if(mode != TextMatcherEditor.CONTAINS && mode != TextMatcherEditor.STARTS_WITH) {
+            throw new IllegalArgumentException("Only the CONTAINS and STARTS_WITH modes can be indexed");
+        }
+        if(strategy != TextMatcherEditor.IDENTICAL_STRATEGY && strategy != TextMatcherEditor.NORMALIZED_STRATEGY) {
+            throw new IllegalArgumentException("Only the IDENTICAL_STRATEGY and NORMALIZED_STRATEGY can be indexed");
+        }
+        this.mode = mode;
+        this.filterator = filterator;
+        this.strategy = strategy;
+        this.characterMap = strategy == TextMatcherEditor.NORMALIZED_STRATEGY ? GlazedListsImpl.getLatinDiacriticsStripper() : null;
+
+        final Integer[] ids = new Integer[elements.size()];
+        for(int i = 0; i < ids.length; i++) {
+            ids[i] = Integer.valueOf(i);
+            indexRow(i, elements.get(i));
+        }
+        rowsById = rows.bulkLoad(Arrays.asList(ids));
+        nextId = ids.length;
+    }
+
+    /**
+     * Get the filterator of the indexed filter strings.
+     */
+    public TextFilterator<? super E> getFilterator() {
+        return filterator;
+    }
+
+    /**
+     * Get the mode of the {@link TextMatcher}s that use this index.
+     */
+    public int getMode() {
+        return mode;
+    }
+
+    /**
+     * Get the strategy of the indexed filter strings.
+     */
+    public Object getStrategy() {
+        return strategy;
+    }
+
+    /**
+     * Returns whether this index finds the candidates of the specified
+     * {@link TextMatcher}, which must search the same filter strings with the
+     * same strategy, in the same mode.
+     */
+    public boolean isIndexed(TextMatcher<?> matcher) {
+        return matcher.getMode() == mode
+                && matcher.getStrategy() == strategy
+                && matcher.getFilterator() == filterator;
+    }
+
+    /**
+     * Finds the rows that the specified {@link TextMatcher} may match. Negated
+     * search terms and search terms with a field don't narrow the candidates,
+     * and neither do search terms of fewer than three characters in
+     * {@link TextMatcherEditor#CONTAINS} mode.
+     *
+     * @return the indices of the candidate rows, or <code>null</code> if every
+     *      row is a candidate
+     * @throws IllegalArgumentException if the matcher isn't
+     *      {@link #isIndexed indexed}
+     */
+    public BitSet candidates(TextMatcher<?> matcher) {
+        if(!isIndexed(matcher)) throw new IllegalArgumentException("The matcher doesn't search the indexed filter strings");
+
+        // collect the postings of every trigram or prefix that must be found
+        final List<Postings> required = new ArrayList<Postings>();
+        final SearchTerm<?>[] searchTerms = matcher.getSearchTerms();
+        for(int t = 0; t < searchTerms.length; t++) {
+            if(searchTerms[t].isNegated() || searchTerms[t].getField() != null) continue;
+
+            // a trigram or prefix that isn't found anywhere means nothing matches
+            if(mode == TextMatcherEditor.CONTAINS) {
+                if(!addPostings(searchTerms[t].getText(), required)) return new BitSet();
+            } else {
+                final Postings prefixPostings = prefixPostings(searchTerms[t].getText());
+                if(prefixPostings == null) continue;
+                if(prefixPostings.size == 0) return new BitSet();
+                required.add(prefixPostings);
+            }
+        }
+        if(required.isEmpty()) return null;
+
+        // intersect the postings, starting with the most selective
+        Collections.sort(required, SIZE_COMPARATOR);
+        final Postings first = required.get(0);
+        int[] ids = Arrays.copyOf(first.ids, first.size);
+        int count = ids.length;
+        for(int p = 1; p < required.size() && count > 0; p++) {
+            count = required.get(p).retainAll(ids, count);
+        }
+
+        // convert the ids of the live candidates to indices
+        final BitSet candidates = new BitSet(rows.size());
+        if((long)count * 16 < rows.size()) {
+            for(int c = 0; c < count; c++) {
+                final Element<Integer> row = rowsById[ids[c]];
+                if(row != null) candidates.set(rows.indexOfNode(row, ALL_COLORS));
+            }
+        } else {
+            final BitSet candidateIds = new BitSet(nextId);
+            for(int c = 0; c < count; c++) {
+                candidateIds.set(ids[c]);
+            }
+            int index = 0;
+            for(Element<Integer> row = first(); row != null; row = row.next()) {
+                if(candidateIds.get(row.get().intValue())) candidates.set(index);
+                index++;
+            }
+        }
+        return candidates;
+    }
+
+    /**
+     * Adds the postings of the trigrams of the specified search term text.
+     * Characters that can't be folded consistently with the way the
+     * {@link TextSearchStrategy} compares them break the term into pieces.
+     *
+     * @return <code>false</code> if a trigram isn't in any row
+     */
+    private boolean addPostings(String text, List<Postings> required) {
+        // the search strategies compare with the upper and lower case of the text
+        final String upperCase = text.toUpperCase();
+        final String lowerCase = text.toLowerCase();
+        if(upperCase.length() != text.length() || lowerCase.length() != text.length()) return true;
+
+        long key = 0;
+        int length = 0;
+        for(int c = 0; c < text.length(); c++) {
+            final char folded = foldCase(upperCase.charAt(c));
+            if(folded != foldCase(lowerCase.charAt(c))) {
+                length = 0;
+                continue;
+            }
+
+            key = gram(key, folded);
+            if(++length < GRAM_LENGTH) continue;
+            final Postings gramPostings = postings.get(Long.valueOf(key));
+            if(gramPostings == null) return false;
+            required.add(gramPostings);
+        }
+        return true;
+    }
+
+    /**
+     * Returns the postings of the rows with a filter string that starts with
+     * the specified search term text, or <code>null</code> if the text has no
+     * prefix that can be folded consistently with the way the
+     * {@link TextSearchStrategy} compares it.
+     */
+    private Postings prefixPostings(String text) {
+        // the search strategies compare a single character with its own upper
+        // and lower case, and longer text with the upper and lower case of the text
+        final String upperCase;
+        final String lowerCase;
+        if(text.length() == 1) {
+            upperCase = String.valueOf(Character.toUpperCase(text.charAt(0)));
+            lowerCase = String.valueOf(Character.toLowerCase(text.charAt(0)));
+        } else {
+            upperCase = text.toUpperCase();
+            lowerCase = text.toLowerCase();
+            if(upperCase.length() != text.length() || lowerCase.length() != text.length()) return null;
+        }
+
+        final StringBuilder prefixBuilder = new StringBuilder(Math.min(text.length(), MAXIMUM_PREFIX_LENGTH));
+        for(int c = 0; c < text.length() && c < MAXIMUM_PREFIX_LENGTH; c++) {
+            final char folded = foldCase(upperCase.charAt(c));
+            if(folded != foldCase(lowerCase.charAt(c))) break;
+            prefixBuilder.append(folded);
+        }
+        if(prefixBuilder.length() == 0) return null;
+        final String prefix = prefixBuilder.toString();
+
+        // the filter strings with the prefix follow it in sorted order
+        final Postings result = new Postings();
+        for(Map.Entry<String, Postings> entry : prefixes.tailMap(prefix, true).entrySet()) {
+            if(!entry.getKey().startsWith(prefix)) break;
+            result.addAll(entry.getValue());
+        }
+        result.sortDistinct();
+        return result;
+    }
+
+    /**
+     * Updates this index with the changes to the indexed list.
+     */
+    public void listChanged(ListEvent<? extends E> listChanges) {
+        final EventList<? extends E> source = listChanges.getSourceList();
+
+        // a reordering moves the rows without changing them
+        if(listChanges.isReordering()) {
+            final int[] reorderMap = listChanges.getReorderMap();
+            final Integer[] previous = new Integer[rows.size()];
+            int index = 0;
+            for(Element<Integer> row = first(); row != null; row = row.next()) {
+                previous[index++] = row.get();
+            }
+            final Integer[] reordered = new Integer[reorderMap.length];
+            for(int i = 0; i < reorderMap.length; i++) {
+                reordered[i] = previous[reorderMap[i]];
+            }
+            rows.clear();
+            final Element<Integer>[] nodes = rows.bulkLoad(Arrays.asList(reordered));
+            for(int i = 0; i < nodes.length; i++) {
+                rowsById[reordered[i].intValue()] = nodes[i];
+            }
+            return;
+        }
+
+        while(listChanges.next()) {
+            final int index = listChanges.getIndex();
+            final int type = listChanges.getType();
+
+            if(type == ListEvent.DELETE) {
+                final Element<Integer> row = rows.get(index);
+                rowsById[row.get().intValue()] = null;
+                rows.remove(row);
+                staleIds++;
+
+            } else if(type == ListEvent.UPDATE) {
+                // the updated row gets a new id, so the old one's postings become stale
+                final Element<Integer> row = rows.get(index);
+                rowsById[row.get().intValue()] = null;
+                staleIds++;
+                final int id = assignId();
+                indexRow(id, source.get(index));
+                row.set(Integer.valueOf(id));
+                rowsById[id] = row;
+
+            } else if(type == ListEvent.INSERT) {
+                final int id = assignId();
+                indexRow(id, source.get(index));
+                rowsById[id] = rows.add(index, Integer.valueOf(id), 1);
+            }
+        }
+        listChanges.reset();
+
+        if(staleIds >= MINIMUM_COMPACTION && staleIds * 2 >= nextId) compact();
+    }
+
+    /**
+     * Returns the next unused id, making room for it in {@link #rowsById}.
+     */
+    private int assignId() {
+        if(nextId == rowsById.length) {
+            rowsById = Arrays.copyOf(rowsById, nextId + (nextId >> 1) + 16);
+        }
+        return nextId++;
+    }
+
+    /**
+     * Removes the stale ids from the postings, and renumbers the rows in list
+     * order.
+     */
+    private void compact() {
+        final int[] newIds = new int[nextId];
+        Arrays.fill(newIds, -1);
+        // copying the array keeps its element type, every slot is then overwritten
+        final Element<Integer>[] compacted = Arrays.copyOf(rowsById, rows.size() + (rows.size() >> 1) + 16);
+        int id = 0;
+        for(Element<Integer> row = first(); row != null; row = row.next()) {
+            newIds[row.get().intValue()] = id;
+            row.set(Integer.valueOf(id));
+            compacted[id] = row;
+            id++;
+        }
+        Arrays.fill(compacted, id, compacted.length, null);
+
+        renumber(postings.values().iterator(), newIds);
+        renumber(prefixes.values().iterator(), newIds);
+
+        rowsById = compacted;
+        nextId = id;
+        staleIds = 0;
+    }
+
+    /**
+     * Renumbers the specified postings, removing the postings left empty.
+     */
+    private static void renumber(Iterator<Postings> p, int[] newIds) {
+        while(p.hasNext()) {
+            final Postings renumbered = p.next();
+            renumbered.renumber(newIds);
+            if(renumbered.size == 0) p.remove();
+        }
+    }
+
+    /**
+     * Returns the first row, or <code>null</code> if there are no rows.
+     */
+    private Element<Integer> first() {
+        return rows.size() == 0 ? null : rows.get(0);
+    }
+
+    /**
+     * Adds the trigrams of the filter strings of the specified element to the
+     * postings of the specified id.
+     */
+    private void indexRow(int id, E element) {
+        filterStrings.clear();
+        if(filterator == null) {
+            ((TextFilterable)element).getFilterStrings(filterStrings);
+        } else {
+            filterator.getFilterStrings(filterStrings, element);
+        }
+        for(int s = 0, n = filterStrings.size(); s < n; s++) {
+            indexFilterString(id, filterStrings.get(s));
+        }
+    }
+
+    /**
+     * Adds the trigrams or the prefix of a single filter string, which may be
+     * any object as described in {@link TextMatchers}.
+     */
+    private void indexFilterString(int id, Object filterString) {
+        if(filterString == null) return;
+        final CharSequence text = filterString instanceof CharSequence ? (CharSequence)filterString : filterString.toString();
+
+        if(mode == TextMatcherEditor.STARTS_WITH) {
+            final char[] folded = new char[Math.min(text.length(), MAXIMUM_PREFIX_LENGTH)];
+            for(int c = 0; c < folded.length; c++) {
+                folded[c] = foldCase(map(text.charAt(c)));
+            }
+            final String prefix = new String(folded);
+            Postings prefixPostings = prefixes.get(prefix);
+            if(prefixPostings == null) {
+                prefixPostings = new Postings();
+                prefixes.put(prefix, prefixPostings);
+            }
+            prefixPostings.add(id);
+            return;
+        }
+
+        long key = 0;
+        for(int c = 0; c < text.length(); c++) {
+            key = gram(key, foldCase(map(text.charAt(c))));
+            if(c < GRAM_LENGTH - 1) continue;
+
+            final Long gramKey = Long.valueOf(key);
+            Postings gramPostings = postings.get(gramKey);
+            if(gramPostings == null) {
+                gramPostings = new Postings();
+                postings.put(gramKey, gramPostings);
+            }
+            gramPostings.add(id);
+        }
+    }
+
+    /**
+     * Returns the key of the trigram that ends with the specified character,
+     * following the trigram with the specified key.
+     */
+    private static long gram(long previousKey, char c) {
+        return ((previousKey << 16) | c) & 0xFFFFFFFFFFFFL;
+    }
+
+    /**
+     * Maps the specified character of a filter string with the character map
+     * of the strategy, if it has one.
+     */
+    private char map(char c) {
+        return characterMap != null && c < characterMap.length ? characterMap[c] : c;
+    }
+
+    /**
+     * Folds the specified character to a single case.
+     */
+    private static char foldCase(char c) {
+        return Character.toLowerCase(Character.toUpperCase(c));
+    }
+
+    /**
+     * The ids of the rows that contain a trigram or prefix, in increasing order.
+     */
+    private static final class Postings {
+        private int[] ids = new int[2];
+        private int size = 0;
+
+        /**
+         * Adds the specified id, which is no smaller than any id already added.
+         */
+        void add(int id) {
+            // a row may contain the same trigram more than once
+            if(size > 0 && ids[size - 1] == id) return;
+            if(size == ids.length) ids = Arrays.copyOf(ids, size + (size >> 1) + 2);
+            ids[size++] = id;
+        }
+
+        /**
+         * Appends the ids of the specified postings, in any order.
+         */
+        void addAll(Postings other) {
+            if(size + other.size > ids.length) ids = Arrays.copyOf(ids, Math.max(size + other.size, size + (size >> 1) + 2));
+            System.arraycopy(other.ids, 0, ids, size, other.size);
+            size += other.size;
+        }
+
+        /**
+         * Sorts the ids into increasing order and removes duplicates.
+         */
+        void sortDistinct() {
+            Arrays.sort(ids, 0, size);
+            int distinct = 0;
+            for(int i = 0; i < size; i++) {
+                if(distinct == 0 || ids[distinct - 1] != ids[i]) ids[distinct++] = ids[i];
+            }
+            size = distinct;
+        }
+
+        /**
+         * Removes the ids that aren't in these postings from the first
+         * <code>count</code> of the specified sorted ids.
+         *
+         * @return the number of ids that remain
+         */
+        int retainAll(int[] candidates, int count) {
+            int retained = 0;
+            int from = 0;
+            for(int c = 0; c < count && from < size; c++) {
+                final int found = Arrays.binarySearch(ids, from, size, candidates[c]);
+                if(found >= 0) {
+                    candidates[retained++] = candidates[c];
+                    from = found + 1;
+                } else {
+                    from = -found - 1;
+                }
+            }
+            return retained;
+        }
+
+        /**
+         * Replaces each id with its new id, dropping the ids without one.
+         */
+        void renumber(int[] newIds) {
+            int renumbered = 0;
+            for(int i = 0; i < size; i++) {
+                final int newId = newIds[ids[i]];
+                if(newId != -1) ids[renumbered++] = newId;
+            }
+            size = renumbered;
+            Arrays.sort(ids, 0, size);
+            if(ids.length > size * 2 + 2) ids = Arrays.copyOf(ids, size + 2);
+        }
+    }
+}
@@ -33,8 +33,13 @@ public class TextMatcher<E> implements Matcher<E> {
     /** a parallel array to locate filter substrings in arbitrary text */
     private final TextSearchStrategy[] filterStrategies;
 
-    /** a heavily recycled list of filter Strings, call clear() before use */
-    private final List<String> filterStrings = new ArrayList<String>();
+    /** heavily recycled lists of filter Strings, one set per matching thread */
+    private final ThreadLocal<FilterStrings> filterStrings = new ThreadLocal<FilterStrings>() {
+        @Override
+        protected FilterStrings initialValue() {
+            return new FilterStrings(filterStrategies.length);
+        }
+    };
 
     /**
      * @param searchTerms an array of search terms to be matched
@@ -65,6 +70,14 @@ public class TextMatcher<E> implements Matcher<E> {
         }
     }
 
+    /**
+     * Returns the object that extracts filter Strings from each object to be
+     * matched, or <code>null</code> if the objects implement {@link TextFilterable}.
+     */
+    public TextFilterator<? super E> getFilterator() {
+        return filterator;
+    }
+
     /**
      * Returns the behaviour mode which indicates where to locate the search
      * terms for a successful match.
@@ -108,7 +121,8 @@ public class TextMatcher<E> implements Matcher<E> {
     /** {@inheritDoc} */
     @Override
     public boolean matches(E element) {
-        return TextMatchers.matches(filterStrings, filterator, searchTerms, filterStrategies, element);
+        final FilterStrings strings = filterStrings.get();
+        return TextMatchers.matches(strings.filterStrings, strings.fieldFilterStrings, filterator, searchTerms, filterStrategies, element);
     }
 
     /**
@@ -185,4 +199,24 @@ public class TextMatcher<E> implements Matcher<E> {
         result = 31 * result + new HashSet<SearchTerm>(Arrays.asList(searchTerms)).hashCode();
         return result;
     }
-}
\ No newline at end of file
+
+    /**
+     * The recyclable Lists used by one thread to collect the filter Strings
+     * of an element, call clear() before use. Keeping these per thread allows
+     * a single {@link TextMatcher} to be evaluated concurrently.
+     */
+    private static final class FilterStrings {
+        /** the filter Strings extracted by the TextMatcher's filterator */
+        private final List<String> filterStrings = new ArrayList<String>();
+
+        /** the filter Strings extracted by the Field of each SearchTerm */
+        private final List<List<String>> fieldFilterStrings;
+
+        FilterStrings(int searchTermCount) {
+            fieldFilterStrings = new ArrayList<List<String>>(searchTermCount);
+            for(int i = 0; i < searchTermCount; i++) {
+                fieldFilterStrings.add(new ArrayList<String>());
+            }
+        }
+    }
+}
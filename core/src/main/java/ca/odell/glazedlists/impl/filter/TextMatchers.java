@@ -45,6 +45,12 @@ public final class TextMatchers {
      * to avoid reallocating a new List object each time this method is called.
      * The caller may and should recycle the <code>filterStrings</code> List.
      *
+     * <p>The filter strings of {@link SearchTerm}s with a field are collected
+     * in lists owned by the {@link SearchTerm}s, so this method must not be
+     * called concurrently for the same <code>searchTerms</code>. Use
+     * {@link #matches(List, List, TextFilterator, SearchTerm[], TextSearchStrategy[], Object)}
+     * to match from multiple threads.
+     *
      * @param filterStrings a recyclable List into which the filter Strings can stored
      * @param filterator the logic capable of extracting filtering Strings from the <code>element</code>
      * @param searchTerms SearchTerm objects defining each piece of search text as well as metadata about the text
@@ -55,6 +61,33 @@ public final class TextMatchers {
      *      the given <code>element</code>
      */
     public static <E> boolean matches(List<String> filterStrings, TextFilterator<? super E> filterator, SearchTerm<E>[] searchTerms, TextSearchStrategy[] filterStrategies, E element) {
+        final List<List<String>> fieldFilterStrings = new ArrayList<List<String>>(searchTerms.length);
+        for(int f = 0; f < searchTerms.length; f++) {
+            fieldFilterStrings.add(searchTerms[f].getFieldFilterStrings());
+        }
+        return matches(filterStrings, fieldFilterStrings, filterator, searchTerms, filterStrategies, element);
+    }
+
+    /**
+     * Execute the logic that determines whether the given <code>element</code>
+     * is matched by all of the given <code>filterStrategies</code>. This
+     * method does not modify any shared state, so it may be called from
+     * multiple threads at once as long as each thread passes in its own
+     * recyclable Lists.
+     *
+     * @param filterStrings a recyclable List into which the filter Strings can stored
+     * @param fieldFilterStrings recyclable Lists, parallel to <code>searchTerms</code>,
+     *      into which the filter Strings of the {@link SearchTerm}s with a
+     *      field can be stored
+     * @param filterator the logic capable of extracting filtering Strings from the <code>element</code>
+     * @param searchTerms SearchTerm objects defining each piece of search text as well as metadata about the text
+     * @param filterStrategies the optimized logic for locating given search text within the <code>filterStrings</code>
+     * @param element the list element on which we are text filtering
+     * @return <tt>true</tt> if all <code>filterStrategies</code> located
+     *      matching text within the <code>filterStrings</code> extracted from
+     *      the given <code>element</code>
+     */
+    public static <E> boolean matches(List<String> filterStrings, List<List<String>> fieldFilterStrings, TextFilterator<? super E> filterator, SearchTerm<E>[] searchTerms, TextSearchStrategy[] filterStrategies, E element) {
         boolean filterStringsPopulated = false;
 
         // ensure each filter matches at least one field
@@ -63,12 +96,12 @@ public final class TextMatchers {
             // get the text search strategy for the current filter
             TextSearchStrategy textSearchStrategy = filterStrategies[f];
             SearchTerm<E> searchTerm = searchTerms[f];
-            final SearchEngineTextMatcherEditor.Field searchTermField = searchTerm.getField();
+            final SearchEngineTextMatcherEditor.Field<E> searchTermField = searchTerm.getField();
 
             // if the SearchTerm has a Field, use its TextFilterator to extract the filterStrings
             final List<String> strings;
             if (searchTermField != null) {
-                strings = searchTerm.getFieldFilterStrings();
+                strings = fieldFilterStrings.get(f);
                 // populate the strings for this object using the SearchTerm's TextFilterator
                 strings.clear();
                 searchTermField.getTextFilterator().getFilterStrings(strings, element);
@@ -89,13 +122,8 @@ public final class TextMatchers {
             if(searchTerm.isNegated()) {
                 // search through all fields for the current filter
                 for(int i = 0, n = strings.size(); i < n; i++) {
-                    Object filterString = strings.get(i);
-                    // the call to .toString() appears redundant, but is not, since we
-                    // are backwards compatible with old behaviour which allows arbitrary
-                    // objects in the filterStrings list
-
                     // if a match was found, then we have violated the negated search term
-                    if(filterString != null && textSearchStrategy.indexOf(filterString.toString()) != -1)
+                    if(indexOf(textSearchStrategy, strings.get(i)) != -1)
                         return false;
                 }
 
@@ -104,13 +132,8 @@ public final class TextMatchers {
             } else {
                 // search through all fields for the current filter
                 for(int i = 0, n = strings.size(); i < n; i++) {
-                    Object filterString = strings.get(i);
-                    // the call to .toString() appears redundant, but is not, since we
-                    // are backwards compatible with old behaviour which allows arbitrary
-                    // objects in the filterStrings list
-
                     // if a match was found, then proceed to the next filter string
-                    if(filterString != null && textSearchStrategy.indexOf(filterString.toString()) != -1)
+                    if(indexOf(textSearchStrategy, strings.get(i)) != -1)
                         continue filters;
                 }
 
@@ -123,6 +146,25 @@ public final class TextMatchers {
         return true;
     }
 
+    /**
+     * Locate the subtext of <code>textSearchStrategy</code> within a single
+     * filter string.
+     *
+     * <p>We are backwards compatible with old behaviour which allows arbitrary
+     * objects in the filterStrings list, so the filter string may be any
+     * object. {@link CharSequence}s, including {@link String}s, are searched
+     * directly, anything else is searched via its <code>toString()</code>.
+     *
+     * @return the index of the subtext within <code>filterString</code>, or
+     *      <code>-1</code> if it wasn't found or <code>filterString</code> is
+     *      <code>null</code>
+     */
+    private static int indexOf(TextSearchStrategy textSearchStrategy, Object filterString) {
+        if(filterString == null) return -1;
+        if(filterString instanceof CharSequence) return textSearchStrategy.indexOf((CharSequence) filterString);
+        return textSearchStrategy.indexOf(filterString.toString());
+    }
+
     /**
      * This convenience method returns a copy of the <code>searchTerms</code>
      * with null and <code>""</code> values removed. It also removes irrelevant
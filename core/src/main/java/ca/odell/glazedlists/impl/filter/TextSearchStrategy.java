@@ -11,6 +11,10 @@ package ca.odell.glazedlists.impl.filter;
  * {@link #indexOf(String)} or indexOf will throw an
  * {@link IllegalStateException}.
  *
+ * <p>Once the subtext has been set, implementations must not modify their
+ * state in {@link #indexOf(String)}, so that a single instance can search
+ * texts from multiple threads at once.
+ *
  * @author James Lemieux
  */
 public interface TextSearchStrategy {
@@ -48,6 +52,24 @@ public interface TextSearchStrategy {
      */
     public int indexOf(String text);
 
+    /**
+     * Returns the index of the first occurrence of <code>subtext</code> within
+     * the given character sequence; or <code>-1</code> if <code>subtext</code>
+     * does not occur within <code>text</code>. This allows texts that are
+     * not {@link String}s to be searched without copying them.
+     *
+     * <p>The default implementation converts <code>text</code> to a
+     * {@link String} and calls {@link #indexOf(String)}.
+     *
+     * @param text the characters in which to locate <code>subtext</code>
+     * @return the index of the first occurrence of <code>subtext</code> within
+     *      <code>text</code>; or <code>-1</code>
+     * @throws IllegalStateException if no subtext has been set
+     */
+    public default int indexOf(CharSequence text) {
+        return indexOf(text.toString());
+    }
+
     /**
      * The factory for building implementations of {@link TextSearchStrategy}
      * which is used as an identifier for the strategy itself.
@@ -9,11 +9,17 @@ import ca.odell.glazedlists.TransformedList;
 import ca.odell.glazedlists.event.ListEvent;
 import ca.odell.glazedlists.event.ListEventAssembler;
 import ca.odell.glazedlists.event.ListEventListener;
+import ca.odell.glazedlists.impl.adt.barcode2.SimpleTree;
+import ca.odell.glazedlists.impl.adt.barcode2.SimpleTreeIterator;
 
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
 import java.util.RandomAccess;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 
 /**
  * An {@link EventList} that only forwards its events on a proxy thread,
@@ -53,7 +59,22 @@ import java.util.RandomAccess;
  *
  * <p>The {@link ThreadProxyEventList} keeps a private copy of the elements of the
  * source {@link EventList}. This enables interested classes to read a consistent
- * (albeit potentially out of date) view of the data at all times.
+ * (albeit potentially out of date) view of the data at all times. The copy is
+ * a tree, so that each proxied event only changes the elements that it
+ * changes, in O(log N) time each. A large event, such as a reordering, rebuilds
+ * the copy in O(N) time instead. Reading an element with {@link #get} also
+ * takes O(log N) time. This list is still marked {@link RandomAccess}
+ * because its iterators read by index too, so indexed loops are no slower
+ * than iterating.
+ *
+ * <p>By default the proxy thread is scheduled as soon as the first change
+ * arrives. A fast changing source can instead be flushed at a bounded rate
+ * with a {@link #setMinimumFlushInterval minimum flush interval}: the changes
+ * that arrive between flushes are combined into a single event, so listeners
+ * such as tables repaint once per flush. The interval is ignored once the
+ * number of pending changes reaches the
+ * {@link #setMaximumPendingChanges maximum}, and producers can wait for the
+ * proxy thread to catch up with {@link #awaitCapacity}.
  *
  * <p><strong><font color="#FF0000">Important:</font></strong> ThreadProxyEventList
  * relies heavily on its ability to pause changes to its source EventList
@@ -67,8 +88,14 @@ import java.util.RandomAccess;
  */
 public abstract class ThreadProxyEventList<E> extends TransformedList<E, E> implements RandomAccess {
 
+    /**
+     * the local cache is rebuilt rather than changed in place when an event
+     * changes at least one element in this many
+     */
+    private static final int REBUILD_RATIO = 8;
+
     /** a local cache of the source list */
-    private List<E> localCache = new ArrayList<E>();
+    private final SimpleTree<E> localCache = new SimpleTree<E>();
 
     /** propagates events on the proxy thread */
     private UpdateRunner updateRunner = new UpdateRunner();
@@ -79,6 +106,36 @@ public abstract class ThreadProxyEventList<E> extends TransformedList<E, E> impl
     /** whether the proxy thread has been scheduled */
     private volatile boolean scheduled = false;
 
+    /** whether the proxy thread has been scheduled without waiting for the minimum flush interval */
+    private boolean flushImmediately = false;
+
+    /** the least time between the starts of two flushes, in nanoseconds */
+    private volatile long minimumFlushInterval = 0;
+
+    /** the number of pending changes at which to flush regardless of the minimum flush interval */
+    private volatile int maximumPendingChanges = Integer.MAX_VALUE;
+
+    /** when the last flush started, from {@link System#nanoTime}, or {@link #NEVER} */
+    private long lastFlushTime = NEVER;
+    private static final long NEVER = Long.MIN_VALUE;
+
+    /** when the first of the pending changes arrived, from {@link System#nanoTime} */
+    private long batchStartTime;
+
+    /** the number of changes waiting to be flushed, guarded by {@link #backlog} */
+    private int pendingChanges = 0;
+
+    /** notified whenever the pending changes are flushed */
+    private final Object backlog = new Object();
+
+    /** schedules the proxy thread once the minimum flush interval has passed */
+    private final Runnable delayedSchedule = new Runnable() {
+        @Override
+        public void run() {
+            schedule(updateRunner);
+        }
+    };
+
     /**
      * Create a {@link ThreadProxyEventList} which delivers changes to the
      * given <code>source</code> on a particular {@link Thread}, called the
@@ -91,7 +148,7 @@ public abstract class ThreadProxyEventList<E> extends TransformedList<E, E> impl
         super(source);
 
         // populate the initial cache value
-        localCache.addAll(source);
+        localCache.bulkLoad(source);
 
         // handle my own events to update the internal state
         cacheUpdates.addListEventListener(updateRunner);
@@ -105,6 +162,7 @@ public abstract class ThreadProxyEventList<E> extends TransformedList<E, E> impl
     public final void listChanged(ListEvent<E> listChanges) {
         // if we've haven't scheduled a commit, we need to begin a new event
         if(!scheduled) {
+            batchStartTime = System.nanoTime();
             updates.beginEvent(true);
             cacheUpdates.beginEvent(true);
         }
@@ -113,13 +171,136 @@ public abstract class ThreadProxyEventList<E> extends TransformedList<E, E> impl
         updates.forwardEvent(listChanges);
         cacheUpdates.forwardEvent(listChanges);
 
-        // commit the event on the appropriate thread
+        // count the pending changes, so that a large backlog is flushed sooner
+        int changes = 0;
+        while(listChanges.nextBlock()) {
+            changes += listChanges.getBlockEndIndex() - listChanges.getBlockStartIndex() + 1;
+        }
+        listChanges.reset();
+        final int pending;
+        synchronized(backlog) {
+            pendingChanges += changes;
+            pending = pendingChanges;
+        }
+
+        // commit the event on the appropriate thread, after the minimum flush
+        // interval unless the backlog is already too large
         if(!scheduled) {
             scheduled = true;
+            final long delay = lastFlushTime == NEVER ? 0 : lastFlushTime + minimumFlushInterval - System.nanoTime();
+            if(delay > 0 && pending < maximumPendingChanges) {
+                FlushTimer.INSTANCE.schedule(delayedSchedule, delay, TimeUnit.NANOSECONDS);
+            } else {
+                flushImmediately = true;
+                schedule(updateRunner);
+            }
+        } else if(!flushImmediately && pending >= maximumPendingChanges) {
+            flushImmediately = true;
             schedule(updateRunner);
         }
     }
 
+    /**
+     * Sets the least time between the starts of two flushes of the changes to
+     * the source on the proxy thread, which limits the number of flushes per
+     * second. The changes that arrive in the meantime are combined into a
+     * single event. The default is zero, which schedules the proxy thread as
+     * soon as a change arrives.
+     */
+    public void setMinimumFlushInterval(long interval, TimeUnit unit) {
+        if(interval < 0) throw new IllegalArgumentException("interval may not be negative");
+        this.minimumFlushInterval = unit.toNanos(interval);
+    }
+
+    /**
+     * Gets the least time between the starts of two flushes of the changes to
+     * the source on the proxy thread.
+     */
+    public long getMinimumFlushInterval(TimeUnit unit) {
+        return unit.convert(minimumFlushInterval, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Sets the number of changes to the source at which they're flushed
+     * without waiting for the minimum flush interval, and at which
+     * {@link #awaitCapacity} blocks. The default is unlimited.
+     */
+    public void setMaximumPendingChanges(int maximumPendingChanges) {
+        if(maximumPendingChanges < 1) throw new IllegalArgumentException("maximumPendingChanges must be positive");
+        this.maximumPendingChanges = maximumPendingChanges;
+        synchronized(backlog) {
+            backlog.notifyAll();
+        }
+    }
+
+    /**
+     * Gets the number of changes to the source at which they're flushed
+     * without waiting for the minimum flush interval.
+     */
+    public int getMaximumPendingChanges() {
+        return maximumPendingChanges;
+    }
+
+    /**
+     * Waits until fewer than the {@link #setMaximumPendingChanges maximum}
+     * number of changes are waiting to be flushed on the proxy thread. A
+     * producer that changes the source faster than the proxy thread can keep
+     * up calls this before each change, so that the backlog stays bounded.
+     *
+     * <p>This must not be called while holding the lock of the source's
+     * pipeline, or by the proxy thread, since a flush requires them both.
+     */
+    public void awaitCapacity() throws InterruptedException {
+        synchronized(backlog) {
+            while(pendingChanges >= maximumPendingChanges) {
+                backlog.wait();
+            }
+        }
+    }
+
+    /**
+     * Waits up to the specified time until fewer than the
+     * {@link #setMaximumPendingChanges maximum} number of changes are waiting
+     * to be flushed on the proxy thread.
+     *
+     * @return <code>true</code> if there is capacity for more changes, or
+     *      <code>false</code> if the time elapsed first
+     * @see #awaitCapacity()
+     */
+    public boolean awaitCapacity(long timeout, TimeUnit unit) throws InterruptedException {
+        final long deadline = System.nanoTime() + unit.toNanos(timeout);
+        synchronized(backlog) {
+            while(pendingChanges >= maximumPendingChanges) {
+                final long remaining = deadline - System.nanoTime();
+                if(remaining <= 0) return false;
+                TimeUnit.NANOSECONDS.timedWait(backlog, remaining);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Gets the number of changes to the source that are waiting to be flushed
+     * on the proxy thread.
+     */
+    public int getPendingChanges() {
+        synchronized(backlog) {
+            return pendingChanges;
+        }
+    }
+
+    /**
+     * Called on the proxy thread after each flush, once the lock of the
+     * pipeline has been released. This does nothing by default.
+     *
+     * @param changes the number of changes to the source that were flushed
+     * @param latency the time from the first of these changes arriving until
+     *      the flush completed, in nanoseconds
+     */
+    protected void flushed(int changes, long latency) {
+        // do nothing
+    }
+
     /**
      * Schedule the specified runnable to be executed on the proxy thread.
      *
@@ -133,10 +314,16 @@ public abstract class ThreadProxyEventList<E> extends TransformedList<E, E> impl
         return localCache.size();
     }
 
-    /** {@inheritDoc} */
+    /**
+     * {@inheritDoc}
+     *
+     * <p>This takes O(log N) time in the private copy of the source.
+     */
     @Override
     public final E get(int index) {
-        return localCache.get(index);
+        // the tree doesn't check the index itself
+        if(index < 0 || index >= localCache.size()) throw new IndexOutOfBoundsException("Cannot get at " + index + " on list of size " + localCache.size());
+        return localCache.get(index).get();
     }
 
     /** {@inheritDoc} */
@@ -146,20 +333,55 @@ public abstract class ThreadProxyEventList<E> extends TransformedList<E, E> impl
     }
 
     /**
-     * Apply the {@link ListEvent} to the {@link List}.
+     * Apply the {@link ListEvent} to the local cache, either by changing just
+     * the changed elements, or by rebuilding it if most elements changed.
      *
      * @param source the EventList whose changes are being proxied to another thread
      * @param listChanges the list of changes from the <code>source</code> to be applied
-     * @param localCache a private snapshot of the <code>source</code> which
-     *      is now out of sync with that source list and will be repaired
-     * @return a new List to serve as the up-to-date local cache
      */
-    private List<E> applyChangeToCache(EventList<E> source, ListEvent<E> listChanges, List<E> localCache) {
-        List<E> result = new ArrayList<E>(source.size());
+    private void applyChangeToCache(EventList<E> source, ListEvent<E> listChanges) {
+        // count the changed elements
+        int changed = 0;
+        while(listChanges.nextBlock()) {
+            changed += listChanges.getBlockEndIndex() - listChanges.getBlockStartIndex() + 1;
+        }
+        listChanges.reset();
 
-        // cacheOffset is the running index delta between localCache and result
+        if((long)changed * REBUILD_RATIO >= Math.max(localCache.size(), source.size())) {
+            rebuildCache(source, listChanges);
+            return;
+        }
+
+        while(listChanges.nextBlock()) {
+            final int startIndex = listChanges.getBlockStartIndex();
+            final int endIndex = listChanges.getBlockEndIndex();
+            final int changeType = listChanges.getType();
+
+            if(changeType == ListEvent.DELETE) {
+                localCache.remove(startIndex, endIndex - startIndex + 1);
+            } else if(changeType == ListEvent.UPDATE) {
+                for(int i = startIndex; i <= endIndex; i++) {
+                    localCache.set(i, source.get(i), 1);
+                }
+            } else if(changeType == ListEvent.INSERT) {
+                for(int i = startIndex; i <= endIndex; i++) {
+                    localCache.add(i, source.get(i), 1);
+                }
+            }
+        }
+    }
+
+    /**
+     * Rebuild the local cache by merging its unchanged elements with the
+     * changed elements of the <code>source</code>, in a single pass.
+     *
+     * @param source the EventList whose changes are being proxied to another thread
+     * @param listChanges the list of changes from the <code>source</code> to be applied
+     */
+    private void rebuildCache(EventList<E> source, ListEvent<E> listChanges) {
+        final List<E> result = new ArrayList<E>(source.size());
+        final SimpleTreeIterator<E> cached = new SimpleTreeIterator<E>(localCache);
         int resultIndex = 0;
-        int cacheOffset = 0;
 
         while(true) {
 
@@ -174,27 +396,29 @@ public abstract class ThreadProxyEventList<E> extends TransformedList<E, E> impl
                 changeType = -1;
             }
 
-            // perform all the updates before this change
+            // keep all the unchanged elements before this change
             for(; resultIndex < changeIndex; resultIndex++) {
-                result.add(resultIndex, localCache.get(resultIndex + cacheOffset));
+                cached.next();
+                result.add(cached.value());
             }
 
             // perform this change
             if(changeType == ListEvent.DELETE) {
-                cacheOffset++;
+                cached.next();
             } else if(changeType == ListEvent.UPDATE) {
-                result.add(resultIndex, source.get(changeIndex));
+                cached.next();
+                result.add(source.get(changeIndex));
                 resultIndex++;
             } else if(changeType == ListEvent.INSERT) {
-                result.add(resultIndex, source.get(changeIndex));
+                result.add(source.get(changeIndex));
                 resultIndex++;
-                cacheOffset--;
             } else if(changeType == -1) {
                 break;
             }
         }
 
-        return result;
+        localCache.clear();
+        localCache.bulkLoad(result);
     }
 
     /** {@inheritDoc} */
@@ -221,8 +445,14 @@ public abstract class ThreadProxyEventList<E> extends TransformedList<E, E> impl
          */
         @Override
         public void run() {
+            int flushedChanges = 0;
+            long latency = -1;
             getReadWriteLock().writeLock().lock();
             try {
+                // a delayed flush may find its changes already flushed
+                if(!scheduled) return;
+                lastFlushTime = System.nanoTime();
+
                 // We need to apply the changes to the local cache immediately,
                 // before forwarding the event downstream to other listeners.
                 // This is necessary so that intermediate states in this list
@@ -230,10 +460,21 @@ public abstract class ThreadProxyEventList<E> extends TransformedList<E, E> impl
                 // see bug 447)
                 cacheUpdates.commitEvent();
                 updates.commitEvent();
+                latency = System.nanoTime() - batchStartTime;
             } finally {
                 scheduled = false;
+                flushImmediately = false;
+                synchronized(backlog) {
+                    flushedChanges = pendingChanges;
+                    pendingChanges = 0;
+                    backlog.notifyAll();
+                }
                 getReadWriteLock().writeLock().unlock();
             }
+
+            // report the flush outside of the lock, so that the report
+            // doesn't block changes to the source
+            if(latency >= 0) flushed(flushedChanges, latency);
         }
 
         /**
@@ -241,7 +482,22 @@ public abstract class ThreadProxyEventList<E> extends TransformedList<E, E> impl
          */
         @Override
         public void listChanged(ListEvent<E> listChanges) {
-            localCache = applyChangeToCache(source, listChanges, localCache);
+            applyChangeToCache(source, listChanges);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * The daemon thread that waits out the minimum flush intervals of all
+     * {@link ThreadProxyEventList}s, created when it's first needed.
+     */
+    private static final class FlushTimer {
+        private static final ScheduledExecutorService INSTANCE = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                final Thread thread = new Thread(runnable, "ThreadProxyEventList flush timer");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+}
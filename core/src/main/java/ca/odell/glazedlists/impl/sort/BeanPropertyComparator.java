@@ -14,7 +14,7 @@ import java.util.Comparator;
  *
  * @author <a href="mailto:kevin@swank.ca">Kevin Maltby</a>
  */
-public final class BeanPropertyComparator<T> implements Comparator<T> {
+public final class BeanPropertyComparator<T> implements KeyComparator<T,Object> {
 
     /** the comparator to use on the JavaBean property */
     private Comparator propertyComparator;
@@ -33,20 +33,29 @@ public final class BeanPropertyComparator<T> implements Comparator<T> {
     }
 
     /**
-     * Compares the specified objects by the JavaBean property.
+     * Gets the JavaBean property of the specified object, or <code>null</code>
+     * if the object is <code>null</code>.
      */
     @Override
-    public int compare(T alpha, T beta) {
-        // Inspect alpha
-        Object alphaProperty = null;
-        if(alpha != null) alphaProperty = beanProperty.get(alpha);
+    public Object getKey(T object) {
+        if(object == null) return null;
+        return beanProperty.get(object);
+    }
 
-        // Inspect beta
-        Object betaProperty = null;
-        if(beta != null) betaProperty = beanProperty.get(beta);
+    /** {@inheritDoc} */
+    @Override
+    @SuppressWarnings("unchecked")
+    public Comparator<Object> getKeyComparator() {
+        return propertyComparator;
+    }
 
+    /**
+     * Compares the specified objects by the JavaBean property.
+     */
+    @Override
+    public int compare(T alpha, T beta) {
         // Compare the property values
-        return propertyComparator.compare(alphaProperty, betaProperty);
+        return propertyComparator.compare(getKey(alpha), getKey(beta));
     }
 
     /** {@inheritDoc} */
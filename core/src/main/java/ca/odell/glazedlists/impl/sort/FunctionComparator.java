@@ -0,0 +1,76 @@
+/* Glazed Lists                                                 (c) 2003-2006 */
+/* http://publicobject.com/glazedlists/                      publicobject.com,*/
+/*                                                     O'Dell Engineering Ltd.*/
+package ca.odell.glazedlists.impl.sort;
+
+import ca.odell.glazedlists.FunctionList;
+
+import java.util.Comparator;
+
+/**
+ * A {@link KeyComparator} that extracts keys with a
+ * {@link FunctionList.Function}.
+ */
+public final class FunctionComparator<T,K> implements KeyComparator<T,K> {
+
+    /** extracts the key of each object */
+    private final FunctionList.Function<? super T, ? extends K> keyFunction;
+
+    /** compares the keys */
+    private final Comparator<? super K> keyComparator;
+
+    /**
+     * Create a new comparator that compares the keys produced by the
+     * specified {@link FunctionList.Function}. This should be accessed from
+     * the {@link ca.odell.glazedlists.GlazedLists GlazedLists} tool factory.
+     */
+    public FunctionComparator(FunctionList.Function<? super T, ? extends K> keyFunction, Comparator<? super K> keyComparator) {
+        if(keyFunction == null) throw new IllegalArgumentException("keyFunction may not be null");
+        if(keyComparator == null) throw new IllegalArgumentException("keyComparator may not be null");
+        this.keyFunction = keyFunction;
+        this.keyComparator = keyComparator;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public K getKey(T object) {
+        return keyFunction.evaluate(object);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Comparator<? super K> getKeyComparator() {
+        return keyComparator;
+    }
+
+    /**
+     * Compares the keys of the specified objects.
+     */
+    @Override
+    public int compare(T alpha, T beta) {
+        return keyComparator.compare(getKey(alpha), getKey(beta));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean equals(Object o) {
+        if(this == o) return true;
+        if(o == null || getClass() != o.getClass()) return false;
+
+        final FunctionComparator<?,?> that = (FunctionComparator<?,?>) o;
+
+        if(!keyFunction.equals(that.keyFunction)) return false;
+        if(!keyComparator.equals(that.keyComparator)) return false;
+
+        return true;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int hashCode() {
+        int result;
+        result = keyFunction.hashCode();
+        result = 29 * result + keyComparator.hashCode();
+        return result;
+    }
+}
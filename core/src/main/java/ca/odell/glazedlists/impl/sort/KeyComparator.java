@@ -0,0 +1,29 @@
+/* Glazed Lists                                                 (c) 2003-2006 */
+/* http://publicobject.com/glazedlists/                      publicobject.com,*/
+/*                                                     O'Dell Engineering Ltd.*/
+package ca.odell.glazedlists.impl.sort;
+
+import java.util.Comparator;
+
+/**
+ * A {@link Comparator} that compares objects by a key extracted from each of
+ * them. Comparing two objects must give the same result as comparing their
+ * keys with the {@link #getKeyComparator() key comparator}.
+ *
+ * <p>This allows a {@link ca.odell.glazedlists.SortedList SortedList} to
+ * extract the key of each element once and compare the cached keys, rather
+ * than extracting keys on every comparison. See
+ * {@link ca.odell.glazedlists.SortedList#setSortKeysCached SortedList.setSortKeysCached}.
+ */
+public interface KeyComparator<T,K> extends Comparator<T> {
+
+    /**
+     * Extracts the key of the specified object.
+     */
+    public K getKey(T object);
+
+    /**
+     * Gets the {@link Comparator} that compares the keys.
+     */
+    public Comparator<? super K> getKeyComparator();
+}
@@ -0,0 +1,143 @@
+/* Glazed Lists                                                 (c) 2003-2006 */
+/* http://publicobject.com/glazedlists/                      publicobject.com,*/
+/*                                                     O'Dell Engineering Ltd.*/
+package ca.odell.glazedlists.impl.sort;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Views {@link Comparator}s as {@link KeyComparator}s where possible, so that
+ * their keys can be cached.
+ */
+public final class KeyComparators {
+
+    /**
+     * A dummy constructor to prevent instantiation of this class
+     */
+    private KeyComparators() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Gets a {@link KeyComparator} that orders objects in the same way as the
+     * specified {@link Comparator}, or <code>null</code> if its keys can't be
+     * extracted. This is the {@link Comparator} itself if it's a
+     * {@link KeyComparator}. A {@link ReverseComparator} or a
+     * {@link ComparatorChain} of {@link KeyComparator}s compares the same keys
+     * as the comparators it's made of.
+     */
+    public static <T> KeyComparator<T,?> forComparator(Comparator<T> comparator) {
+        if(comparator instanceof KeyComparator) {
+            return (KeyComparator<T,?>)comparator;
+
+        } else if(comparator instanceof ReverseComparator) {
+            final KeyComparator<T,?> source = forComparator(((ReverseComparator<T>)comparator).getSourceComparator());
+            if(source == null) return null;
+            return reverse(source);
+
+        } else if(comparator instanceof ComparatorChain) {
+            final Comparator<T>[] comparators = ((ComparatorChain<T>)comparator).getComparators();
+            final List<KeyComparator<T,?>> keyComparators = new ArrayList<KeyComparator<T,?>>(comparators.length);
+            for(int i = 0; i < comparators.length; i++) {
+                final KeyComparator<T,?> keyComparator = forComparator(comparators[i]);
+                if(keyComparator == null) return null;
+                keyComparators.add(keyComparator);
+            }
+            return new ChainKeyComparator<T>(keyComparators);
+        }
+
+        return null;
+    }
+
+    /**
+     * Reverses a {@link KeyComparator}, naming the type of its keys.
+     */
+    private static <T,K> KeyComparator<T,K> reverse(KeyComparator<T,K> source) {
+        return new ReverseKeyComparator<T,K>(source);
+    }
+
+    /**
+     * Compares two keys of the specified {@link KeyComparator}, which are
+     * held where their type is unknown, such as in an array with the keys of
+     * other types.
+     */
+    @SuppressWarnings("unchecked")
+    public static <K> int compareKey(KeyComparator<?,K> keyComparator, Object alpha, Object beta) {
+        return keyComparator.getKeyComparator().compare((K)alpha, (K)beta);
+    }
+
+    /**
+     * Compares the keys of a {@link KeyComparator} in the reverse order.
+     */
+    private static final class ReverseKeyComparator<T,K> implements KeyComparator<T,K> {
+        private final KeyComparator<T,K> source;
+        private final Comparator<K> keyComparator;
+
+        public ReverseKeyComparator(KeyComparator<T,K> source) {
+            final Comparator<? super K> sourceKeyComparator = source.getKeyComparator();
+            this.source = source;
+            this.keyComparator = (alpha, beta) -> sourceKeyComparator.compare(beta, alpha);
+        }
+
+        @Override
+        public K getKey(T object) {
+            return source.getKey(object);
+        }
+
+        @Override
+        public Comparator<? super K> getKeyComparator() {
+            return keyComparator;
+        }
+
+        @Override
+        public int compare(T alpha, T beta) {
+            return source.compare(beta, alpha);
+        }
+    }
+
+    /**
+     * Compares arrays holding the key of each {@link KeyComparator} in a
+     * {@link ComparatorChain}.
+     */
+    private static final class ChainKeyComparator<T> implements KeyComparator<T,Object[]> {
+        private final List<KeyComparator<T,?>> keyComparators;
+        private final Comparator<Object[]> keysComparator = (alpha, beta) -> compareKeys(alpha, beta);
+
+        public ChainKeyComparator(List<KeyComparator<T,?>> keyComparators) {
+            this.keyComparators = keyComparators;
+        }
+
+        @Override
+        public Object[] getKey(T object) {
+            final Object[] keys = new Object[keyComparators.size()];
+            for(int i = 0; i < keys.length; i++) {
+                keys[i] = keyComparators.get(i).getKey(object);
+            }
+            return keys;
+        }
+
+        @Override
+        public Comparator<? super Object[]> getKeyComparator() {
+            return keysComparator;
+        }
+
+        private int compareKeys(Object[] alpha, Object[] beta) {
+            for(int i = 0; i < alpha.length; i++) {
+                final int result = compareKey(keyComparators.get(i), alpha[i], beta[i]);
+                if(result != 0) return result;
+            }
+            return 0;
+        }
+
+        @Override
+        public int compare(T alpha, T beta) {
+            for(int i = 0; i < keyComparators.size(); i++) {
+                final int result = keyComparators.get(i).compare(alpha, beta);
+                if(result != 0) return result;
+            }
+            return 0;
+        }
+    }
+}
@@ -11,7 +11,7 @@ import java.util.Comparator;
 /**
  * A comparator that sorts a table by the column that was clicked.
  */
-public class TableColumnComparator<E> implements Comparator<E> {
+public class TableColumnComparator<E> implements KeyComparator<E,Object> {
 
     /** the table format knows to map objects to their fields */
     private TableFormat<? super E> tableFormat;
@@ -22,6 +22,9 @@ public class TableColumnComparator<E> implements Comparator<E> {
     /** comparison is delegated to a ComparableComparator */
     private Comparator comparator = null;
 
+    /** compares the column values */
+    private final Comparator<Object> columnValueComparator = (alpha, beta) -> compareColumnValues(alpha, beta);
+
     /**
      * Creates a new TableColumnComparator that sorts objects by the specified
      * column using the specified table format.
@@ -40,13 +43,33 @@ public class TableColumnComparator<E> implements Comparator<E> {
         this.comparator = comparator;
     }
 
+    /**
+     * Gets the value of the column for the specified object.
+     */
+    @Override
+    public Object getKey(E object) {
+        return tableFormat.getColumnValue(object, column);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Comparator<Object> getKeyComparator() {
+        return columnValueComparator;
+    }
+
     /**
      * Compares the two objects, returning a result based on how they compare.
      */
     @Override
     public int compare(E alpha, E beta) {
-        final Object alphaField = tableFormat.getColumnValue(alpha, column);
-        final Object betaField = tableFormat.getColumnValue(beta, column);
+        return compareColumnValues(getKey(alpha), getKey(beta));
+    }
+
+    /**
+     * Compares the two column values, returning a result based on how they
+     * compare.
+     */
+    private int compareColumnValues(Object alphaField, Object betaField) {
         try {
             return comparator.compare(alphaField, betaField);
         // throw a 'nicer' exception if the class does not implement Comparable
@@ -145,5 +145,31 @@ public interface MatcherEditor<E> {
         public int getType() {
             return this.type;
         }
+
+        /**
+         * Returns <code>true</code> if a later event has already replaced this
+         * one, so that listeners may abandon handling this event partway
+         * through. A listener that does so must leave its state as it was
+         * before this event, and handle the event that replaces it as a
+         * combination of both, since the type of that event is relative to
+         * the {@link Matcher} of this one. This always returns
+         * <code>false</code> unless overridden, as it is by the events of a
+         * {@link ThreadedMatcherEditor}.
+         */
+        public boolean isSuperseded() {
+            return false;
+        }
+
+        /**
+         * Returns <code>true</code> if this event may be
+         * {@link #isSuperseded() superseded} while it's being handled. Only
+         * then is it worth a listener's while to do its work before changing
+         * anything, so that it can abandon the event. This always returns
+         * <code>false</code> unless overridden, as it is by the events of a
+         * {@link ThreadedMatcherEditor}.
+         */
+        public boolean isSupersedable() {
+            return false;
+        }
     }
 }
\ No newline at end of file
@@ -8,6 +8,8 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
 
 /**
  * A MatcherEditor which decorates a source MatcherEditor with functionality.
@@ -36,6 +38,14 @@ import java.util.concurrent.ExecutorService;
  *        to processing all MatcherEvents sequentially.
  * </ol>
  *
+ * The MatcherEvents fired by a {@link ThreadedMatcherEditor} are
+ * {@link MatcherEditor.Event#isSuperseded() superseded} as soon as a newer
+ * MatcherEvent arrives from the source MatcherEditor. Listeners such as
+ * {@link ca.odell.glazedlists.FilterList} may then abandon their work on the
+ * superseded MatcherEvent and move on to the coalesced newer MatcherEvents.
+ * This keeps filtering responsive while the user types, even when a single
+ * refilter takes a long time. <p>
+ *
  * Typical usage patterns of ThreadedMatcherEditor resemble:
  *
  * <pre>
@@ -48,13 +58,16 @@ import java.util.concurrent.ExecutorService;
  */
 public class ThreadedMatcherEditor<E> extends AbstractMatcherEditorListenerSupport<E> {
 
-    private static final Executor DEFAULT_EXECUTOR = new Executor() {
+    /** reuses idle daemon threads for the drains of all ThreadedMatcherEditors without an executor */
+    private static final Executor DEFAULT_EXECUTOR = Executors.newCachedThreadPool(new ThreadFactory() {
         @Override
-        public void execute(Runnable runnable) {
-            new Thread(runnable, "MatcherQueueThread").start();
+        public Thread newThread(Runnable runnable) {
+            final Thread thread = new Thread(runnable, "MatcherQueueThread");
+            thread.setDaemon(true);
+            return thread;
         }
-    };
-    
+    });
+
     /** The underlying MatcherEditor whose MatcherEvents are being queued and fired on an alternate Thread. */
     private final MatcherEditor<E> source;
 
@@ -65,6 +78,12 @@ public class ThreadedMatcherEditor<E> extends AbstractMatcherEditorListenerSuppo
      */
     private final List<MatcherEditor.Event<E>> matcherEventQueue = new LinkedList<MatcherEditor.Event<E>>();
 
+    /**
+     * The number of MatcherEvents received from {@link #source} so far. It is
+     * only changed while holding the monitor of the {@link #matcherEventQueue}.
+     */
+    private volatile long receivedMatcherEventCount = 0;
+
     /**
      * The MatcherEditorListener which reacts to MatcherEvents from the {@link #source}
      * by enqueuing them for firing on another Thread at some later time.
@@ -91,7 +110,7 @@ public class ThreadedMatcherEditor<E> extends AbstractMatcherEditorListenerSuppo
      * MatcherEvents fired from the <code>source</code> will be enqueued within
      * this MatcherEditor until they are processed on an alternate Thread.
      * The Thread selection strategy is encapsulated by a default executor,
-     * which always starts a new thread (for backward compatibility).
+     * which reuses idle daemon threads named <code>MatcherQueueThread</code>.
      * Another constructor is provided for specifying a custom executor.
      *
      * @param source the MatcherEditor to wrap with buffering functionality
@@ -228,9 +247,9 @@ public class ThreadedMatcherEditor<E> extends AbstractMatcherEditorListenerSuppo
      * This method executes the given <code>runnable</code> on a Thread.
      * The particular Thread chosen to execute the Runnable is left to the 
      * executor provided as constructor argument. When no executor is provided,
-     * a default executor will be used, which constructs a new Thread named
-     * <code>MatcherQueueThread</code> to execute the <code>runnable</code>
-     * each time this method is called. Subclasses may override this method
+     * a default executor will be used, which executes the <code>runnable</code>
+     * on an idle daemon Thread named <code>MatcherQueueThread</code>, and only
+     * starts a new Thread if none is idle. Subclasses may override this method
      * to use any Thread selection strategy they wish, but providing a custom
      * executor is now the preferred way.
      *
@@ -251,6 +270,7 @@ public class ThreadedMatcherEditor<E> extends AbstractMatcherEditorListenerSuppo
         public void changedMatcher(Event<E> matcherEvent) {
             synchronized(matcherEventQueue) {
                 matcherEventQueue.add(matcherEvent);
+                receivedMatcherEventCount++;
 
                 // if necessary, start a Thread to drain the queue
                 if (!isDrainingQueue) {
@@ -288,7 +308,7 @@ public class ThreadedMatcherEditor<E> extends AbstractMatcherEditorListenerSuppo
                     }
 
                     // fetch a copy of all MatcherEvents currently in the queue
-                    matcherEvent = coalesceMatcherEvents(matcherEventQueue);
+                    matcherEvent = new SupersedableEvent(coalesceMatcherEvents(matcherEventQueue), receivedMatcherEventCount);
                     matcherEventQueue.clear();
                 }
 
@@ -307,4 +327,31 @@ public class ThreadedMatcherEditor<E> extends AbstractMatcherEditorListenerSuppo
             }
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * A coalesced MatcherEvent, which is superseded as soon as another
+     * MatcherEvent is received from the {@link #source}.
+     */
+    private class SupersedableEvent extends MatcherEditor.Event<E> {
+        /** For versioning as a {@link java.io.Serializable} */
+        private static final long serialVersionUID = -4186371582201435236L;
+
+        /** the number of MatcherEvents received when this one was coalesced */
+        private final long receivedCount;
+
+        SupersedableEvent(Event<E> coalesced, long receivedCount) {
+            super(coalesced.getMatcherEditor() != null ? coalesced.getMatcherEditor() : ThreadedMatcherEditor.this, coalesced.getType(), coalesced.getMatcher());
+            this.receivedCount = receivedCount;
+        }
+
+        @Override
+        public boolean isSuperseded() {
+            return receivedMatcherEventCount != receivedCount;
+        }
+
+        @Override
+        public boolean isSupersedable() {
+            return true;
+        }
+    }
+}
@@ -162,6 +162,7 @@ import javax.swing.text.*;
  *   <li> {@link #setSelectsTextOnFocusGain(boolean)}
  *   <li> {@link #setHidesPopupOnFocusLost(boolean)}
  *   <li> {@link #setFilterMode(int)}
+ *   <li> {@link #setTextIndexed(boolean)}
  *   <li> {@link #setFirstItem(Object)}
  *   <li> {@link #removeFirstItem()}
  * </ul>
@@ -1096,6 +1097,40 @@ public final class AutoCompleteSupport<E> {
         return filterMatcherEditor.getStrategy();
     }
 
+    /**
+     * Sets whether the contents of the {@link ComboBoxModel} are filtered
+     * using an index of the filter strings of the items. Each keystroke
+     * refilters the items, so with a large list of items the index finds
+     * the items that may match the typed text much faster than checking
+     * every item. The index costs memory that grows with the total length of
+     * the filter strings, so it is off by default.
+     *
+     * <p><strong><font color="#FF0000">Warning:</font></strong> the filter
+     * strings of an item must not change without an update event for that
+     * item, or the index may miss it.
+     *
+     * @throws IllegalStateException if this method is called from any Thread
+     *      other than the Swing Event Dispatch Thread
+     *
+     * @see FilterList#setTextIndexed(boolean)
+     * @see #isTextIndexed()
+     */
+    public void setTextIndexed(boolean textIndexed) {
+        checkAccessThread();
+
+        filteredItems.setTextIndexed(textIndexed);
+    }
+
+    /**
+     * Returns <tt>true</tt> if the contents of the {@link ComboBoxModel} are
+     * filtered using an index of the filter strings of the items.
+     *
+     * @see #setTextIndexed(boolean)
+     */
+    public boolean isTextIndexed() {
+        return filteredItems.isTextIndexed();
+    }
+
     /**
      * This method set a single optional value to be used as the first element
      * in the {@link ComboBoxModel}. This value typically represents
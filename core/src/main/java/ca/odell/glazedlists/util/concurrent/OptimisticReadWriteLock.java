@@ -0,0 +1,48 @@
+/* Glazed Lists                                                 (c) 2003-2006 */
+/* http://publicobject.com/glazedlists/                      publicobject.com,*/
+/*                                                     O'Dell Engineering Ltd.*/
+package ca.odell.glazedlists.util.concurrent;
+
+/**
+ * A {@link ReadWriteLock} that also supports optimistic reads, which don't
+ * block writers and don't contend with other readers.
+ *
+ * <p>An optimistic read gets a stamp, reads, and then validates the stamp.
+ * If the write lock was acquired in the meantime the stamp is invalid, and
+ * the values read must be discarded and read again with the read lock:
+ * <pre>
+ * long stamp = lock.tryOptimisticRead();
+ * int size = list.size();
+ * if(!lock.validate(stamp)) {
+ *    lock.readLock().lock();
+ *    try {
+ *       size = list.size();
+ *    } finally {
+ *       lock.readLock().unlock();
+ *    }
+ * }
+ * </pre>
+ *
+ * <p><strong><font color="#FF0000">Warning:</font></strong> the values read
+ * optimistically may be inconsistent until the stamp is validated, so the
+ * read must not have side effects, and must not follow references that a
+ * concurrent writer may be changing. It is only suitable for short reads of
+ * simple fields, such as the size of a list.
+ *
+ * @see java.util.concurrent.locks.StampedLock
+ */
+public interface OptimisticReadWriteLock extends ReadWriteLock {
+
+    /**
+     * Returns a stamp that can later be validated, or zero if the write lock
+     * is held.
+     */
+    public long tryOptimisticRead();
+
+    /**
+     * Returns <code>true</code> if the write lock has not been acquired since
+     * the specified stamp was issued. This is always <code>false</code> for a
+     * stamp of zero.
+     */
+    public boolean validate(long stamp);
+}
@@ -0,0 +1,208 @@
+/* Glazed Lists                                                 (c) 2003-2006 */
+/* http://publicobject.com/glazedlists/                      publicobject.com,*/
+/*                                                     O'Dell Engineering Ltd.*/
+package ca.odell.glazedlists.util.concurrent;
+
+import java.io.ObjectStreamException;
+import java.io.Serializable;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * An implementation of {@link LockFactory} whose {@link ReadWriteLock}s are
+ * {@link OptimisticReadWriteLock}s derived from
+ * {@link StampedLock JDK 1.8 StampedLocks}.
+ *
+ * <p>Short reads that validate an optimistic stamp don't write to any shared
+ * state, so unlike the read lock of the {@link LockFactory#DEFAULT default}
+ * locks, many threads can do them at once without contending for the same
+ * cache line.
+ *
+ * <p>The read and write locks are reentrant, like those of the
+ * {@link LockFactory#DEFAULT default} locks: a thread that holds the write
+ * lock may acquire the read lock, and a thread that releases the write lock
+ * while holding the read lock keeps the read lock. As with the default locks,
+ * a thread that holds the read lock must not acquire the write lock.
+ *
+ * <p>To use these locks for a pipeline, create its root list with one:
+ * <pre>
+ * EventList source = new BasicEventList(new StampedLockFactory().createReadWriteLock());
+ * </pre>
+ */
+public class StampedLockFactory implements LockFactory {
+    @Override
+    public ReadWriteLock createReadWriteLock() {
+        return new StampedReadWriteLock();
+    }
+
+    @Override
+    public Lock createLock() {
+        return new ReentrantLockAdapter(new ReentrantLock());
+    }
+
+    /**
+     * Adapts a {@link ReentrantLock} to the Glazed Lists {@link Lock}.
+     */
+    private static final class ReentrantLockAdapter implements Lock {
+
+        private final ReentrantLock delegate;
+
+        ReentrantLockAdapter(ReentrantLock delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void lock() {
+            delegate.lock();
+        }
+
+        @Override
+        public boolean tryLock() {
+            return delegate.tryLock();
+        }
+
+        @Override
+        public void unlock() {
+            delegate.unlock();
+        }
+    }
+}
+
+/**
+ * A reentrant {@link OptimisticReadWriteLock} backed by a {@link StampedLock}.
+ * Only the outermost acquisition of each thread acquires the
+ * {@link StampedLock}, and reads by the thread that holds the write lock
+ * don't acquire it at all.
+ */
+final class StampedReadWriteLock implements OptimisticReadWriteLock, Serializable {
+
+    /** For versioning as a {@link Serializable} */
+    private static final long serialVersionUID = -1563021474236474416L;
+
+    private transient final StampedLock delegate = new StampedLock();
+
+    /** the number of times each thread holds the read lock */
+    private transient final ThreadLocal<int[]> readHolds = new ThreadLocal<int[]>() {
+        @Override
+        protected int[] initialValue() {
+            return new int[1];
+        }
+    };
+
+    /** the thread that holds the write lock, only read by that thread */
+    private transient Thread writer;
+
+    /** the number of times the writer holds the write lock */
+    private transient int writeHolds;
+
+    /** the stamp of the write lock held by the writer */
+    private transient long writeStamp;
+
+    private transient final Lock readLock = new ReadLock();
+    private transient final Lock writeLock = new WriteLock();
+
+    /** Use a {@link SerializedReadWriteLock} as a placeholder in the serialization stream. */
+    private Object writeReplace() throws ObjectStreamException {
+        return new SerializedReadWriteLock();
+    }
+
+    /**
+     * Return the lock used for reading.
+     */
+    @Override
+    public Lock readLock() {
+        return readLock;
+    }
+
+    /**
+     * Return the lock used for writing.
+     */
+    @Override
+    public Lock writeLock() {
+        return writeLock;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public long tryOptimisticRead() {
+        return delegate.tryOptimisticRead();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean validate(long stamp) {
+        return delegate.validate(stamp);
+    }
+
+    /**
+     * Acquires the {@link StampedLock} for reading on the outermost
+     * acquisition of a thread that doesn't hold the write lock.
+     */
+    private final class ReadLock implements Lock {
+        @Override
+        public void lock() {
+            final int[] holds = readHolds.get();
+            if(holds[0] == 0 && writer != Thread.currentThread()) delegate.readLock();
+            holds[0]++;
+        }
+
+        @Override
+        public boolean tryLock() {
+            final int[] holds = readHolds.get();
+            if(holds[0] == 0 && writer != Thread.currentThread()) {
+                if(delegate.tryReadLock() == 0L) return false;
+            }
+            holds[0]++;
+            return true;
+        }
+
+        @Override
+        public void unlock() {
+            final int[] holds = readHolds.get();
+            if(holds[0] == 0) throw new IllegalMonitorStateException();
+            holds[0]--;
+            if(holds[0] == 0 && writer != Thread.currentThread()) delegate.tryUnlockRead();
+        }
+    }
+
+    /**
+     * Acquires the {@link StampedLock} for writing on the outermost
+     * acquisition, and downgrades it to a read lock on the outermost release
+     * if the thread is still reading.
+     */
+    private final class WriteLock implements Lock {
+        @Override
+        public void lock() {
+            final Thread current = Thread.currentThread();
+            if(writer != current) {
+                writeStamp = delegate.writeLock();
+                writer = current;
+            }
+            writeHolds++;
+        }
+
+        @Override
+        public boolean tryLock() {
+            final Thread current = Thread.currentThread();
+            if(writer != current) {
+                final long stamp = delegate.tryWriteLock();
+                if(stamp == 0L) return false;
+                writeStamp = stamp;
+                writer = current;
+            }
+            writeHolds++;
+            return true;
+        }
+
+        @Override
+        public void unlock() {
+            if(writer != Thread.currentThread()) throw new IllegalMonitorStateException();
+            writeHolds--;
+            if(writeHolds > 0) return;
+
+            writer = null;
+            if(readHolds.get()[0] > 0) delegate.tryConvertToReadLock(writeStamp);
+            else delegate.unlockWrite(writeStamp);
+        }
+    }
+}
@@ -3,11 +3,14 @@
 /*                                                     O'Dell Engineering Ltd.*/
 package ca.odell.glazedlists;
 
+import ca.odell.glazedlists.event.ListEvent;
 import ca.odell.glazedlists.event.ListEventAssembler;
+import ca.odell.glazedlists.event.ListEventListener;
 import ca.odell.glazedlists.event.ListEventPublisher;
 import ca.odell.glazedlists.impl.testing.GlazedListsTests;
 import ca.odell.glazedlists.impl.testing.GlazedListsTests.SerializableListener;
 import ca.odell.glazedlists.impl.testing.GlazedListsTests.UnserializableListener;
+import ca.odell.glazedlists.impl.testing.ListConsistencyListener;
 import ca.odell.glazedlists.util.concurrent.LockFactory;
 import ca.odell.glazedlists.util.concurrent.ReadWriteLock;
 
@@ -15,7 +18,10 @@ import java.io.IOException;
 import java.io.ObjectStreamClass;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.TreeSet;
 
 import org.junit.Test;
 
@@ -197,4 +203,118 @@ public class BasicEventListTest {
             compositeList.addMemberList(eventList);
         }
     }
+
+    @Test
+    public void testAddAllIsSingleBlock() {
+        final BasicEventList<Integer> list = new BasicEventList<Integer>();
+        list.addAll(Arrays.asList(0, 1, 2, 3));
+        final ListConsistencyListener<Integer> consistency = ListConsistencyListener.install(list);
+        final BlockCounter<Integer> blocks = new BlockCounter<Integer>();
+        list.addListEventListener(blocks);
+
+        final List<Integer> values = new ArrayList<Integer>();
+        for(int i = 0; i < 1000; i++) values.add(Integer.valueOf(100 + i));
+        list.addAll(2, values);
+        assertEquals(1, blocks.blocks);
+        assertEquals(1004, list.size());
+        assertEquals(Integer.valueOf(100), list.get(2));
+        assertEquals(Integer.valueOf(2), list.get(1002));
+        consistency.assertConsistent();
+
+        // adding a list to itself uses a snapshot of its values
+        list.addAll(list);
+        assertEquals(2008, list.size());
+        consistency.assertConsistent();
+
+        list.clear();
+        assertEquals(1, blocks.blocks);
+        assertEquals(2008, blocks.oldValues.size());
+        consistency.assertConsistent();
+    }
+
+    @Test
+    public void testRemoveAllAndRetainAll() {
+        final BasicEventList<String> list = new BasicEventList<String>();
+        list.addAll(GlazedListsTests.stringToList("ABCABCDDDEAF"));
+        final ListConsistencyListener<String> consistency = ListConsistencyListener.install(list);
+        final BlockCounter<String> blocks = new BlockCounter<String>();
+        list.addListEventListener(blocks);
+
+        assertTrue(list.removeAll(Arrays.asList("A", "D")));
+        assertEquals(GlazedListsTests.stringToList("BCBCEF"), list);
+        // the runs "A", "A", "DDD" and "A"
+        assertEquals(4, blocks.blocks);
+        assertEquals(GlazedListsTests.stringToList("AADDDA"), blocks.oldValues);
+        consistency.assertConsistent();
+
+        assertFalse(list.removeAll(Arrays.asList("X")));
+        assertFalse(list.retainAll(GlazedListsTests.stringToList("BCEF")));
+
+        assertTrue(list.retainAll(new HashSet<String>(Arrays.asList("C", "F"))));
+        assertEquals(GlazedListsTests.stringToList("CCF"), list);
+        consistency.assertConsistent();
+
+        // a collection that isn't a List decides what it contains itself
+        final TreeSet<String> caseInsensitive = new TreeSet<String>(String.CASE_INSENSITIVE_ORDER);
+        caseInsensitive.add("c");
+        assertTrue(list.removeAll(caseInsensitive));
+        assertEquals(GlazedListsTests.stringToList("F"), list);
+        consistency.assertConsistent();
+    }
+
+    /**
+     * Snapshots are views of the list until it next changes, which copies it,
+     * and they never change themselves.
+     */
+    @Test
+    public void testSnapshot() {
+        final BasicEventList<String> list = new BasicEventList<String>();
+        list.addAll(GlazedListsTests.stringToList("ABCD"));
+
+        final List<String> first = list.snapshot();
+        assertSame(first, list.snapshot());
+        assertEquals(GlazedListsTests.stringToList("ABCD"), first);
+
+        list.set(0, "X");
+        list.add("E");
+        final List<String> second = list.snapshot();
+        assertNotSame(first, second);
+        list.removeAll(Arrays.asList("B", "C"));
+        final List<String> third = list.snapshot();
+        list.clear();
+        list.add("Y");
+
+        assertEquals(GlazedListsTests.stringToList("ABCD"), first);
+        assertEquals(GlazedListsTests.stringToList("XBCDE"), second);
+        assertEquals(GlazedListsTests.stringToList("XDE"), third);
+        assertEquals(GlazedListsTests.stringToList("Y"), list.snapshot());
+
+        try {
+            first.add("Z");
+            fail("snapshots are unmodifiable");
+        } catch(UnsupportedOperationException e) {
+            // expected
+        }
+    }
+
+    /**
+     * Counts the blocks of each event and records the removed values.
+     */
+    private static class BlockCounter<E> implements ListEventListener<E> {
+        private int blocks;
+        private final List<E> oldValues = new ArrayList<E>();
+
+        @Override
+        public void listChanged(ListEvent<E> listChanges) {
+            blocks = 0;
+            oldValues.clear();
+            while(listChanges.nextBlock()) {
+                blocks++;
+            }
+            listChanges.reset();
+            while(listChanges.next()) {
+                if(listChanges.getType() == ListEvent.DELETE) oldValues.add(listChanges.getOldValue());
+            }
+        }
+    }
 }
@@ -0,0 +1,172 @@
+/* Glazed Lists                                                 (c) 2003-2006 */
+/* http://publicobject.com/glazedlists/                      publicobject.com,*/
+/*                                                     O'Dell Engineering Ltd.*/
+package ca.odell.glazedlists;
+
+import ca.odell.glazedlists.event.ListEvent;
+import ca.odell.glazedlists.event.ListEventListener;
+import ca.odell.glazedlists.impl.testing.GlazedListsTests;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests {@link ExecutorThreadProxyEventList}.
+ */
+public class ExecutorThreadProxyEventListTest {
+
+    /**
+     * Changes are forwarded on the executor, and flush listeners can read the
+     * proxy there without the lock while the writer holds it.
+     */
+    @Test
+    public void testChangesForwardedOnExecutor() throws InterruptedException {
+        final Thread[] consumer = new Thread[1];
+        ExecutorService executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                consumer[0] = new Thread(runnable, "consumer");
+                return consumer[0];
+            }
+        });
+        EventList<String> source = new BasicEventList<String>();
+        source.add("A");
+        final ExecutorThreadProxyEventList<String> proxy = GlazedLists.threadProxyList(source, executor);
+        try {
+            final List<Thread> listenerThreads = new ArrayList<Thread>();
+            proxy.addListEventListener(new ListEventListener<String>() {
+                @Override
+                public void listChanged(ListEvent<String> listChanges) {
+                    listenerThreads.add(Thread.currentThread());
+                }
+            });
+            final List<List<String>> flushed = new ArrayList<List<String>>();
+            final Semaphore flushes = new Semaphore(0);
+            proxy.addFlushListener(new Runnable() {
+                @Override
+                public void run() {
+                    flushed.add(new ArrayList<String>(proxy));
+                    flushes.release();
+                }
+            });
+            assertEquals(GlazedListsTests.stringToList("A"), proxy);
+
+            // the flush waits for the writer to release the lock
+            source.getReadWriteLock().writeLock().lock();
+            try {
+                source.add("B");
+                source.add("C");
+                source.set(0, "D");
+                assertEquals(3, proxy.getQueueDepth());
+                assertEquals(1, proxy.size());
+            } finally {
+                source.getReadWriteLock().writeLock().unlock();
+            }
+            assertTrue(flushes.tryAcquire(10, TimeUnit.SECONDS));
+            assertEquals(GlazedListsTests.stringToList("DBC"), flushed.get(0));
+            assertEquals(1, listenerThreads.size());
+            assertSame(consumer[0], listenerThreads.get(0));
+
+            // a flush listener can read the proxy while the writer holds the lock
+            final Semaphore reading = new Semaphore(0);
+            final Semaphore written = new Semaphore(0);
+            final Semaphore read = new Semaphore(0);
+            final List<String> slowCopy = new ArrayList<String>();
+            Runnable slowListener = new Runnable() {
+                @Override
+                public void run() {
+                    reading.release();
+                    written.acquireUninterruptibly();
+                    slowCopy.addAll(proxy);
+                    read.release();
+                }
+            };
+            proxy.addFlushListener(slowListener);
+            source.add("E");
+            assertTrue(reading.tryAcquire(10, TimeUnit.SECONDS));
+            source.getReadWriteLock().writeLock().lock();
+            try {
+                source.add("F");
+                written.release();
+                assertTrue(read.tryAcquire(10, TimeUnit.SECONDS));
+                proxy.removeFlushListener(slowListener);
+            } finally {
+                source.getReadWriteLock().writeLock().unlock();
+            }
+            assertEquals(GlazedListsTests.stringToList("DBCE"), slowCopy);
+            assertTrue(flushes.tryAcquire(2, 10, TimeUnit.SECONDS));
+            assertEquals(GlazedListsTests.stringToList("DBCE"), flushed.get(1));
+            assertEquals(GlazedListsTests.stringToList("DBCEF"), flushed.get(2));
+            assertEquals(source, proxy);
+
+            // the metrics cover every flush
+            assertEquals(3, proxy.getFlushCount());
+            assertEquals(5, proxy.getFlushedChangeCount());
+            assertEquals(0, proxy.getQueueDepth());
+            assertTrue(proxy.getMaximumFlushLatency(TimeUnit.NANOSECONDS) >= proxy.getLastFlushLatency(TimeUnit.NANOSECONDS));
+            assertTrue(proxy.getMaximumFlushLatency(TimeUnit.NANOSECONDS) >= proxy.getMeanFlushLatency(TimeUnit.NANOSECONDS));
+            assertTrue(proxy.getMeanFlushLatency(TimeUnit.NANOSECONDS) > 0);
+        } finally {
+            proxy.dispose();
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * On an executor with many threads, the flushes still run one at a time.
+     */
+    @Test
+    public void testFlushesAreSerial() throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        EventList<Integer> source = new BasicEventList<Integer>();
+        final ExecutorThreadProxyEventList<Integer> proxy = new ExecutorThreadProxyEventList<Integer>(source, executor);
+        try {
+            final AtomicInteger running = new AtomicInteger();
+            final AtomicInteger overlaps = new AtomicInteger();
+            proxy.addListEventListener(new ListEventListener<Integer>() {
+                @Override
+                public void listChanged(ListEvent<Integer> listChanges) {
+                    if (running.incrementAndGet() > 1) overlaps.incrementAndGet();
+                    Thread.yield();
+                    running.decrementAndGet();
+                }
+            });
+            proxy.addFlushListener(new Runnable() {
+                @Override
+                public void run() {
+                    if (running.incrementAndGet() > 1) overlaps.incrementAndGet();
+                    Thread.yield();
+                    running.decrementAndGet();
+                }
+            });
+
+            for (int i = 0; i < 500; i++) {
+                source.getReadWriteLock().writeLock().lock();
+                try {
+                    source.add(new Integer(i));
+                } finally {
+                    source.getReadWriteLock().writeLock().unlock();
+                }
+            }
+            for (int i = 0; i < 1000 && proxy.getFlushedChangeCount() < 500; i++) {
+                Thread.sleep(10);
+            }
+            assertEquals(500, proxy.getFlushedChangeCount());
+            assertEquals(0, overlaps.get());
+            assertEquals(source, proxy);
+        } finally {
+            proxy.dispose();
+            executor.shutdown();
+        }
+    }
+}
@@ -12,7 +12,9 @@ import ca.odell.glazedlists.matchers.MatcherEditor;
 import ca.odell.glazedlists.matchers.Matchers;
 import ca.odell.glazedlists.matchers.TextMatcherEditor;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
 
 import org.junit.Test;
 
@@ -225,6 +227,94 @@ public class FilterListTest {
 		assertEquals(5, filterList.size());
 	}
 
+    /**
+     * Refiltering concurrently must fire exactly the same events as the
+     * sequential refilter.
+     */
+    @Test
+    public void testParallelRefilter() {
+        EventList<Integer> original = new BasicEventList<Integer>();
+        Random dice = new Random(17);
+        for(int i = 0; i < 20000; i++) {
+            original.add(new Integer(dice.nextInt(100)));
+        }
+
+        AtLeastMatcherEditor editor = new AtLeastMatcherEditor();
+        FilterList<Integer> sequential = new FilterList<Integer>(original, editor);
+        FilterList<Integer> parallel = new FilterList<Integer>(original, editor);
+        parallel.setParallelism(4);
+        assertEquals(4, parallel.getParallelism());
+        ListConsistencyListener.install(parallel).setPreviousElementTracked(true);
+
+        final List<String> sequentialEvents = new ArrayList<String>();
+        final List<String> parallelEvents = new ArrayList<String>();
+        sequential.addListEventListener(listChanges -> sequentialEvents.add(listChanges.toString()));
+        parallel.addListEventListener(listChanges -> parallelEvents.add(listChanges.toString()));
+
+        // constrain, relax and change
+        editor.setMinimum(50);
+        editor.setMinimum(75);
+        editor.setMinimum(25);
+        parallel.setMatcher(GlazedListsTests.matchAtLeast(60));
+        sequential.setMatcher(GlazedListsTests.matchAtLeast(60));
+        assertEquals(Matchers.select(original, GlazedListsTests.matchAtLeast(60)), parallel);
+        assertEquals(sequential, parallel);
+        assertEquals(sequentialEvents, parallelEvents);
+    }
+
+    /**
+     * Tracking matches in a bit vector must fire the same events as tracking
+     * them in a tree, for both source changes and refilters.
+     */
+    @Test
+    public void testBitVector() {
+        EventList<Integer> original = new BasicEventList<Integer>();
+        Random dice = new Random(23);
+        for(int i = 0; i < 3000; i++) {
+            original.add(new Integer(dice.nextInt(100)));
+        }
+
+        AtLeastMatcherEditor editor = new AtLeastMatcherEditor();
+        SortedList<Integer> sorted = new SortedList<Integer>(original, null);
+        FilterList<Integer> tree = new FilterList<Integer>(sorted, editor);
+        FilterList<Integer> bits = new FilterList<Integer>(sorted, editor);
+        editor.setMinimum(50);
+        bits.setBitVector(true);
+        assertTrue(bits.isBitVector());
+        ListConsistencyListener.install(bits).setPreviousElementTracked(true);
+
+        final List<String> treeEvents = new ArrayList<String>();
+        final List<String> bitsEvents = new ArrayList<String>();
+        tree.addListEventListener(listChanges -> treeEvents.add(listChanges.toString()));
+        bits.addListEventListener(listChanges -> bitsEvents.add(listChanges.toString()));
+
+        for(int i = 0; i < 500; i++) {
+            int index = dice.nextInt(original.size());
+            int operation = dice.nextInt(3);
+            if(operation == 0) original.add(index, new Integer(dice.nextInt(100)));
+            else if(operation == 1) original.set(index, new Integer(dice.nextInt(100)));
+            else original.remove(index);
+        }
+        editor.setMinimum(75);
+        editor.setMinimum(25);
+        sorted.setComparator(GlazedLists.comparableComparator());
+        tree.setMatcher(GlazedListsTests.matchAtLeast(60));
+        bits.setMatcher(GlazedListsTests.matchAtLeast(60));
+
+        assertEquals(Matchers.select(sorted, GlazedListsTests.matchAtLeast(60)), bits);
+        assertEquals(tree, bits);
+        assertEquals(treeEvents, bitsEvents);
+
+        // switching back keeps the current matches
+        bits.setBitVector(false);
+        assertEquals(tree, bits);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParallelismMustBePositive() {
+        new FilterList<Integer>(new BasicEventList<Integer>()).setParallelism(0);
+    }
+
     @Test
     public void testDispose() {
         EventList<String> baseList = GlazedLists.eventListOf("A", "B", "C", "C", "B", "A");
@@ -3,7 +3,14 @@ package ca.odell.glazedlists;
 import ca.odell.glazedlists.impl.testing.ListConsistencyListener;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.junit.Test;
 
@@ -176,6 +183,212 @@ public class FunctionListTest {
         assertEquals(1, ((AdvancedIntegerToString) intsToStrings.getForwardFunction()).getDisposeCount());
     }
 
+    @Test
+    public void testLazy() {
+        final int[] evaluations = new int[1];
+        final List<String> disposed = new ArrayList<String>();
+        final FunctionList.AdvancedFunction<Integer,String> countingIntegerToString = new AdvancedIntegerToString() {
+            @Override
+            public String evaluate(Integer value) {
+                evaluations[0]++;
+                return super.evaluate(value);
+            }
+            @Override
+            public void dispose(Integer sourceValue, String transformedValue) {
+                disposed.add(transformedValue);
+            }
+        };
+
+        SortedList<Integer> source = new SortedList<Integer>(new BasicEventList<Integer>(), null);
+        for (int i = 0; i < 1000; i++) {
+            source.add(new Integer(i));
+        }
+        FunctionList<Integer, String> intsToStrings = FunctionList.createLazy(source, countingIntegerToString, new StringToInteger(), 10);
+        assertTrue(intsToStrings.isLazy());
+        assertEquals(0, evaluations[0]);
+
+        // elements are only evaluated once while they're cached
+        assertEquals("500", intsToStrings.get(500));
+        assertEquals("500", intsToStrings.get(500));
+        assertEquals(1, evaluations[0]);
+
+        // the least recently read results are evicted and disposed
+        for (int i = 0; i < 10; i++) {
+            assertEquals(String.valueOf(i), intsToStrings.get(i));
+        }
+        assertEquals(11, evaluations[0]);
+        assertEquals(1, disposed.size());
+        assertEquals("500", disposed.get(0));
+
+        // cached results follow inserts, deletes, updates and reorders
+        source.add(0, new Integer(-1));
+        source.remove(5);
+        source.set(2, new Integer(2000));
+        assertEquals("0", intsToStrings.get(1));
+        assertEquals("2000", intsToStrings.get(2));
+        assertEquals(12, evaluations[0]);
+        source.setComparator(GlazedLists.reverseComparator());
+        assertEquals("2000", intsToStrings.get(0));
+        assertEquals("0", intsToStrings.get(intsToStrings.size() - 2));
+        assertEquals(12, evaluations[0]);
+
+        final List<String> expected = new ArrayList<String>();
+        for (int i = 0; i < source.size(); i++) {
+            expected.add(source.get(i).toString());
+        }
+        assertEquals(expected, intsToStrings);
+
+        // writes still map back through the reverse function
+        intsToStrings.set(0, "3000");
+        assertEquals(new Integer(3000), source.get(0));
+
+        // shrinking the cache disposes of the extra results
+        disposed.clear();
+        intsToStrings.setMaximumCacheSize(3);
+        assertEquals(7, disposed.size());
+        assertEquals(3, intsToStrings.getMaximumCacheSize());
+
+        // nothing is cached with a maximum size of zero
+        intsToStrings.setMaximumCacheSize(0);
+        evaluations[0] = 0;
+        disposed.clear();
+        assertEquals("3000", intsToStrings.get(0));
+        assertEquals("3000", intsToStrings.get(0));
+        assertEquals(2, evaluations[0]);
+        assertEquals(0, disposed.size());
+    }
+
+    @Test
+    public void testLazyWithoutCache() {
+        // results that are never cached are never disposed of
+        final List<String> disposed = new ArrayList<String>();
+        FunctionList.AdvancedFunction<Integer,String> disposingIntegerToString = new AdvancedIntegerToString() {
+            @Override
+            public void dispose(Integer sourceValue, String transformedValue) {
+                disposed.add(transformedValue);
+            }
+        };
+
+        EventList<Integer> source = new BasicEventList<Integer>();
+        source.addAll(Arrays.asList(new Integer(1), new Integer(2), new Integer(3)));
+        FunctionList<Integer, String> intsToStrings = FunctionList.createLazy(source, disposingIntegerToString, null, 0);
+        assertEquals(0, intsToStrings.getMaximumCacheSize());
+        assertEquals("2", intsToStrings.get(1));
+        assertEquals(Arrays.asList("1", "2", "3"), intsToStrings);
+        assertEquals(0, disposed.size());
+
+        source.set(1, new Integer(20));
+        source.remove(0);
+        assertEquals(Arrays.asList("20", "3"), intsToStrings);
+        assertEquals(0, disposed.size());
+    }
+
+    @Test
+    public void testLazyConsistency() {
+        // interned results are identical each time they're evaluated
+        FunctionList.Function<Integer,String> internedIntegerToString = new IntegerToString() {
+            @Override
+            public String evaluate(Integer value) {
+                return super.evaluate(value).intern();
+            }
+        };
+        EventList<Integer> source = new BasicEventList<Integer>();
+        FunctionList<Integer, String> eager = new FunctionList<Integer, String>(source, new IntegerToString());
+        FunctionList<Integer, String> lazy = FunctionList.createLazy(source, internedIntegerToString, null, 5);
+        ListConsistencyListener.install(lazy).setPreviousElementTracked(false);
+
+        Random dice = new Random(5);
+        for (int i = 0; i < 500; i++) {
+            int operation = dice.nextInt(4);
+            if (operation == 0 || source.isEmpty()) {
+                source.add(dice.nextInt(source.size() + 1), new Integer(dice.nextInt(100)));
+            } else if (operation == 1) {
+                source.remove(dice.nextInt(source.size()));
+            } else if (operation == 2) {
+                source.set(dice.nextInt(source.size()), new Integer(dice.nextInt(100)));
+            } else {
+                int index = dice.nextInt(source.size());
+                assertEquals(eager.get(index), lazy.get(index));
+            }
+        }
+        assertEquals(eager, lazy);
+    }
+
+    @Test
+    public void testParallelEvaluation() {
+        final Set<Thread> threads = Collections.synchronizedSet(new HashSet<Thread>());
+        final FunctionList.Function<Integer,String> recordingIntegerToString = new IntegerToString() {
+            @Override
+            public String evaluate(Integer value) {
+                threads.add(Thread.currentThread());
+                if (value.intValue() < 0) throw new IllegalArgumentException("negative");
+                return super.evaluate(value);
+            }
+        };
+
+        final ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            EventList<Integer> source = new BasicEventList<Integer>();
+            TransactionList<Integer> transactions = new TransactionList<Integer>(source);
+            FunctionList<Integer, String> serial = new FunctionList<Integer, String>(transactions, new IntegerToString());
+            FunctionList<Integer, String> parallel = new FunctionList<Integer, String>(transactions, recordingIntegerToString);
+            parallel.setEvaluationExecutor(executor);
+            assertSame(executor, parallel.getEvaluationExecutor());
+            ListConsistencyListener.install(parallel);
+
+            // small changes are evaluated on this thread
+            transactions.add(ZERO);
+            assertEquals(Collections.singleton(Thread.currentThread()), threads);
+
+            // large batches are split among the executor's threads
+            List<Integer> values = new ArrayList<Integer>();
+            for (int i = 0; i < 20000; i++) {
+                values.add(new Integer(i));
+            }
+            transactions.addAll(values);
+            assertTrue(threads.size() > 1);
+            assertEquals(serial, parallel);
+
+            // inserts, updates and deletes in the same event are reported in order
+            Random dice = new Random(17);
+            transactions.beginEvent(true);
+            for (int i = 0; i < 5000; i++) {
+                int operation = dice.nextInt(3);
+                if (operation == 0) {
+                    transactions.add(dice.nextInt(transactions.size() + 1), new Integer(dice.nextInt(100)));
+                } else if (operation == 1) {
+                    transactions.remove(dice.nextInt(transactions.size()));
+                } else {
+                    transactions.set(dice.nextInt(transactions.size()), new Integer(dice.nextInt(100)));
+                }
+            }
+            transactions.commitEvent();
+            assertEquals(serial, parallel);
+
+            FunctionList.Function<Integer,String> negatedIntegerToString = new IntegerToString() {
+                @Override
+                public String evaluate(Integer value) {
+                    return super.evaluate(new Integer(-value.intValue()));
+                }
+            };
+            parallel.setForwardFunction(negatedIntegerToString);
+            serial.setForwardFunction(negatedIntegerToString);
+            assertEquals(serial, parallel);
+
+            // failures are rethrown on this thread
+            parallel.setForwardFunction(recordingIntegerToString);
+            values.set(15000, new Integer(-1));
+            try {
+                transactions.addAll(values);
+                fail("failed to rethrow the forward function's exception");
+            } catch (IllegalArgumentException e) {
+                // expected
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
     private static class StringToInteger implements FunctionList.Function<String,Integer> {
         @Override
         public Integer evaluate(String value) {
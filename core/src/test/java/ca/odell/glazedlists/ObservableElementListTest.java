@@ -3,6 +3,7 @@
 /*                                                     O'Dell Engineering Ltd.*/
 package ca.odell.glazedlists;
 
+import ca.odell.glazedlists.event.ListEvent;
 import ca.odell.glazedlists.impl.beans.BeanConnector;
 import ca.odell.glazedlists.impl.testing.ListConsistencyListener;
 import ca.odell.glazedlists.matchers.Matcher;
@@ -13,6 +14,7 @@ import java.awt.Component;
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.EventListener;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -331,6 +333,86 @@ public class ObservableElementListTest {
         assertEquals(false, connector.isExitDueToException());
     }
 
+    /**
+     * An element that is in the list more than once is updated at each of its
+     * current locations, as they move with inserts, deletes and reorders.
+     */
+    @Test
+    public void testDuplicateElementsAcrossChanges() {
+        final BasicEventList<JLabel> source = new BasicEventList<JLabel>();
+        final SortedList<JLabel> sorted = new SortedList<JLabel>(source, null);
+        final ObservableElementList<JLabel> list = new ObservableElementList<JLabel>(sorted, GlazedLists.beanConnector(JLabel.class));
+        final ListConsistencyListener<JLabel> consistency = ListConsistencyListener.install(list);
+        final List<Integer> updated = new ArrayList<Integer>();
+        list.addListEventListener(listChanges -> {
+            updated.clear();
+            while(listChanges.next()) {
+                if(listChanges.getType() == ListEvent.UPDATE) updated.add(new Integer(listChanges.getIndex()));
+            }
+        });
+
+        final JLabel b = new JLabel("B");
+        source.add(new JLabel("C"));
+        source.add(b);
+        source.add(new JLabel("A"));
+        source.add(b);
+
+        b.setForeground(Color.RED);
+        assertEquals(Arrays.asList(new Integer(1), new Integer(3)), updated);
+
+        source.add(0, new JLabel("D"));
+        source.remove(2);
+        b.setForeground(Color.BLUE);
+        assertEquals(Arrays.asList(new Integer(3)), updated);
+
+        sorted.setComparator(GlazedLists.beanPropertyComparator(JLabel.class, "text"));
+        b.setForeground(Color.GREEN);
+        assertEquals(Arrays.asList(new Integer(1)), updated);
+
+        source.set(source.indexOf(b), new JLabel("E"));
+        final int eventCount = consistency.getEventCount();
+        b.setForeground(Color.RED);
+        assertEquals(eventCount, consistency.getEventCount());
+    }
+
+    /**
+     * In batch mode, changes are fired together by the next flush.
+     */
+    @Test
+    public void testBatchElementChanges() {
+        final JLabel first = new JLabel("first");
+        final JLabel second = new JLabel("second");
+        labels.add(first);
+        labels.add(new JLabel("other"));
+        labels.add(second);
+        labels.setBatchElementChanges(true);
+        assertTrue(labels.isBatchElementChanges());
+        final int eventCount = counter.getEventCount();
+
+        second.setText("2nd");
+        first.setText("1st");
+        second.setText("two");
+        assertEquals(eventCount, counter.getEventCount());
+
+        labels.flushElementChanges();
+        assertEquals(eventCount + 1, counter.getEventCount());
+        assertEquals(2, counter.getChangeCount(eventCount));
+
+        // flushing with no changes fires nothing, and removed elements are skipped
+        labels.flushElementChanges();
+        first.setText("one");
+        labels.remove(first);
+        labels.flushElementChanges();
+        assertEquals(eventCount + 2, counter.getEventCount());
+
+        // turning batch mode off flushes pending changes
+        second.setText("2");
+        labels.setBatchElementChanges(false);
+        assertEquals(eventCount + 3, counter.getEventCount());
+        second.setText("II");
+        assertEquals(eventCount + 4, counter.getEventCount());
+    }
+
     @Test
     public void testGenerics() {
         // should be able to use an EventList<JLabel> and a Connector<Component>, for example
@@ -0,0 +1,183 @@
+/* Glazed Lists                                                 (c) 2003-2006 */
+/* http://publicobject.com/glazedlists/                      publicobject.com,*/
+/*                                                     O'Dell Engineering Ltd.*/
+package ca.odell.glazedlists;
+
+import ca.odell.glazedlists.event.ListEvent;
+import ca.odell.glazedlists.event.ListEventListener;
+import ca.odell.glazedlists.impl.testing.ListConsistencyListener;
+import ca.odell.glazedlists.matchers.Matcher;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests {@link IntEventList}, {@link LongEventList} and {@link DoubleEventList}.
+ */
+public class PrimitiveEventListTest {
+
+    /**
+     * The primitive lists behave like a {@link BasicEventList} of the same
+     * values, and report the same previous values in their events. They box
+     * a new object for each read, so they're checked by equality rather than
+     * with a {@link ListConsistencyListener}.
+     */
+    @Test
+    public void testAgainstBasicEventList() {
+        IntEventList ints = new IntEventList();
+        EventList<Integer> control = new BasicEventList<Integer>();
+        OldValueListener<Integer> oldValues = new OldValueListener<Integer>(ints);
+
+        Random dice = new Random(11);
+        for (int i = 0; i < 2000; i++) {
+            int operation = dice.nextInt(5);
+            int value = dice.nextInt(100000) - 50000;
+            if (operation == 0 || ints.isEmpty()) {
+                int index = dice.nextInt(ints.size() + 1);
+                ints.addInt(index, value);
+                control.add(index, new Integer(value));
+            } else if (operation == 1) {
+                int index = dice.nextInt(ints.size());
+                assertEquals(control.remove(index).intValue(), ints.removeInt(index));
+            } else if (operation == 2) {
+                int index = dice.nextInt(ints.size());
+                assertEquals(control.set(index, new Integer(value)).intValue(), ints.setInt(index, value));
+            } else if (operation == 3) {
+                int index = dice.nextInt(ints.size() + 1);
+                int[] values = { value, value + 1, value + 2 };
+                ints.addAll(index, values);
+                control.addAll(index, Arrays.asList(new Integer(value), new Integer(value + 1), new Integer(value + 2)));
+            } else {
+                assertEquals(control.get(0), ints.get(0));
+            }
+            assertEquals(oldValues.expected, oldValues.reported);
+        }
+        assertEquals(control, ints);
+        assertEquals(control, oldValues.copy);
+
+        long sum = 0;
+        for (int i = 0; i < control.size(); i++) {
+            sum += control.get(i).intValue();
+        }
+        assertEquals(sum, ints.sum());
+        assertEquals(control.size(), ints.toIntArray().length);
+
+        ints.clear();
+        assertEquals(0, ints.size());
+        assertEquals(oldValues.expected, oldValues.reported);
+        ints.addInt(5);
+        assertEquals(5, ints.getInt(0));
+    }
+
+    /**
+     * Sorting fires a single reordering event, keeping equal values in their
+     * relative order.
+     */
+    @Test
+    public void testSort() {
+        DoubleEventList doubles = new DoubleEventList();
+        doubles.addAll(new double[] { 3.5, -1.0, Double.NaN, 0.0, 3.5, -0.0, 2.25 });
+        FunctionList<Double, String> strings = new FunctionList<Double, String>(doubles, new FunctionList.Function<Double, String>() {
+            @Override
+            public String evaluate(Double value) {
+                return value.toString();
+            }
+        });
+        ListConsistencyListener<String> listener = ListConsistencyListener.install(strings);
+        String firstThreeAndAHalf = strings.get(0);
+
+        doubles.sort();
+        assertEquals(1, listener.getEventCount());
+        assertTrue(listener.isReordering(0));
+        assertEquals(Arrays.asList(new Double(-1.0), new Double(-0.0), new Double(0.0), new Double(2.25), new Double(3.5), new Double(3.5), new Double(Double.NaN)), doubles);
+        assertSame(firstThreeAndAHalf, strings.get(4));
+
+        // an already sorted list doesn't fire an event
+        doubles.sort();
+        assertEquals(1, listener.getEventCount());
+        assertTrue(Double.isNaN(doubles.sum()));
+        doubles.removeDouble(6);
+        assertEquals(3.5 + 3.5 + 2.25 - 1.0, doubles.sum(), 0.0);
+    }
+
+    /**
+     * Other lists can consume the primitive lists like any other source.
+     */
+    @Test
+    public void testPipeline() {
+        LongEventList longs = new LongEventList();
+        SortedList<Long> sorted = new SortedList<Long>(longs);
+        FilterList<Long> positive = new FilterList<Long>(sorted, new Matcher<Long>() {
+            @Override
+            public boolean matches(Long value) {
+                return value.longValue() > 0;
+            }
+        });
+        OldValueListener<Long> positiveCopy = new OldValueListener<Long>(positive);
+
+        long[] values = new long[1000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (i * 7919L) % 1001 - 500L;
+        }
+        longs.addAll(values);
+        longs.setLong(0, Long.MAX_VALUE);
+        longs.removeLong(1);
+        longs.add(new Long(-1L));
+
+        List<Long> expected = new ArrayList<Long>(longs);
+        Collections.sort(expected);
+        assertEquals(expected, sorted);
+        for (int i = 0; i < positive.size(); i++) {
+            assertTrue(positive.get(i).longValue() > 0);
+        }
+        assertEquals(Long.MAX_VALUE, positive.get(positive.size() - 1).longValue());
+        assertEquals(positive, positiveCopy.copy);
+
+        try {
+            longs.getLong(longs.size());
+            fail("failed to receive an IndexOutOfBoundsException");
+        } catch (IndexOutOfBoundsException e) {
+            // expected
+        }
+    }
+
+    /**
+     * Keeps a copy of its source by equality, and records the previous values
+     * reported for deletes and updates along with the values that were
+     * expected.
+     */
+    private static class OldValueListener<E> implements ListEventListener<E> {
+        private final List<E> copy;
+        private final List<E> expected = new ArrayList<E>();
+        private final List<E> reported = new ArrayList<E>();
+
+        OldValueListener(EventList<E> source) {
+            this.copy = new ArrayList<E>(source);
+            source.addListEventListener(this);
+        }
+
+        @Override
+        public void listChanged(ListEvent<E> listChanges) {
+            while (listChanges.next()) {
+                int index = listChanges.getIndex();
+                int type = listChanges.getType();
+                if (type == ListEvent.INSERT) {
+                    copy.add(index, listChanges.getSourceList().get(index));
+                } else if (type == ListEvent.DELETE) {
+                    expected.add(copy.remove(index));
+                    reported.add(listChanges.getOldValue());
+                } else {
+                    expected.add(copy.set(index, listChanges.getSourceList().get(index)));
+                    reported.add(listChanges.getOldValue());
+                }
+            }
+        }
+    }
+}
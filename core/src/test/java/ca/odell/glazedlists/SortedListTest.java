@@ -1145,6 +1145,170 @@ public class SortedListTest {
         assertEquals(GlazedListsTests.stringToList("aaabbccde"), sortedList);
     }
 
+    /**
+     * Changing the comparator sorts equal elements by their source order and
+     * fires a consistent reorder, for each kind of comparator.
+     */
+    @Test
+    public void testSetComparatorReorder() {
+        final EventList<Integer> source = new BasicEventList<Integer>();
+        final Random dice = new Random(7);
+        for(int i = 0; i < 1000; i++) {
+            source.add(new Integer(dice.nextInt(50)));
+        }
+        final SortedList<Integer> sorted = SortedList.create(source);
+        ListConsistencyListener.install(sorted).setPreviousElementTracked(true);
+        final List<Comparator<Integer>> comparators = Arrays.asList(
+                GlazedLists.reverseComparator(GlazedLists.comparableComparator()),
+                null,
+                (alpha, beta) -> alpha.intValue() % 7 - beta.intValue() % 7,
+                GlazedLists.comparableComparator());
+
+        for(Comparator<Integer> comparator : comparators) {
+            sorted.setComparator(comparator);
+            final List<Integer> expected = new ArrayList<Integer>(source);
+            if(comparator != null) Collections.sort(expected, comparator);
+            assertEquals(expected, sorted);
+
+            // the rebuilt trees still accept changes
+            source.add(new Integer(dice.nextInt(50)));
+            source.remove(dice.nextInt(source.size()));
+        }
+        assertEquals(new SortedList<Integer>(source), sorted);
+    }
+
+    /**
+     * Tests that events with many inserts, which are merged into the sorted
+     * tree at once, are sorted and fire consistent events, for each kind of
+     * comparator.
+     */
+    @Test
+    public void testMergeManyInserts() {
+        final Random dice = new Random(11);
+        final List<Comparator<Integer>> comparators = Arrays.asList(
+                GlazedLists.comparableComparator(),
+                null,
+                (alpha, beta) -> alpha.intValue() % 7 - beta.intValue() % 7);
+
+        for(Comparator<Integer> comparator : comparators) {
+            final TransactionList<Integer> source = new TransactionList<Integer>(new BasicEventList<Integer>());
+            final SortedList<Integer> sorted = new SortedList<Integer>(source, comparator);
+            ListConsistencyListener.install(sorted).setPreviousElementTracked(true);
+
+            for(int round = 0; round < 5; round++) {
+                // inserts mixed with deletes and updates in one event
+                source.beginEvent();
+                for(int i = 0; i < 500; i++) {
+                    source.add(dice.nextInt(source.size() + 1), new Integer(dice.nextInt(100)));
+                }
+                for(int i = 0; i < 20; i++) {
+                    source.set(dice.nextInt(source.size()), new Integer(dice.nextInt(100)));
+                    source.remove(dice.nextInt(source.size()));
+                }
+                source.commitEvent();
+
+                final List<Integer> expected = new ArrayList<Integer>(source);
+                if(comparator != null) Collections.sort(expected, comparator);
+                assertEquals(expected, sorted);
+            }
+
+            // the rebuilt tree still accepts single changes
+            source.add(new Integer(dice.nextInt(100)));
+            source.remove(dice.nextInt(source.size()));
+            assertEquals(new SortedList<Integer>(source, comparator), sorted);
+        }
+    }
+
+    /**
+     * Tests that a key comparator extracts the key of each element only when
+     * it's inserted or updated, and keeps the cached keys in step with the
+     * source.
+     */
+    @Test
+    public void testKeyComparator() {
+        final int[] extractions = new int[1];
+        final FunctionList.Function<Integer,Integer> lastDigit = new FunctionList.Function<Integer,Integer>() {
+            @Override
+            public Integer evaluate(Integer value) {
+                extractions[0]++;
+                return new Integer(value.intValue() % 10);
+            }
+        };
+        final Comparator<Integer> comparator = GlazedLists.keyComparator(lastDigit, GlazedLists.comparableComparator());
+        final Random dice = new Random(13);
+
+        final EventList<Integer> base = new BasicEventList<Integer>();
+        for(int i = 0; i < 300; i++) {
+            base.add(new Integer(dice.nextInt(1000)));
+        }
+        final SortedList<Integer> source = new SortedList<Integer>(base, null);
+        final SortedList<Integer> sorted = new SortedList<Integer>(source, comparator);
+        ListConsistencyListener.install(sorted).setPreviousElementTracked(true);
+        assertFalse(sorted.isSortKeysCached());
+
+        // keys are cached only on request
+        extractions[0] = 0;
+        sorted.setSortKeysCached(true);
+        assertTrue(sorted.isSortKeysCached());
+        assertEquals(300, extractions[0]);
+
+        final List<Integer> expected = new ArrayList<Integer>(source);
+        Collections.sort(expected, comparator);
+        assertEquals(expected, sorted);
+        for(int i = 0; i < 20; i++) {
+            Integer value = new Integer(dice.nextInt(1000));
+            assertEquals(expected.indexOf(value), sorted.indexOf(value));
+            assertEquals(expected.lastIndexOf(value), sorted.lastIndexOf(value));
+        }
+
+        // inserts and updates extract only the new keys
+        extractions[0] = 0;
+        base.add(new Integer(dice.nextInt(1000)));
+        base.set(dice.nextInt(base.size()), new Integer(dice.nextInt(1000)));
+        base.remove(dice.nextInt(base.size()));
+        assertEquals(2, extractions[0]);
+        source.setComparator(GlazedLists.comparableComparator());
+        base.addAll(base.subList(0, 100));
+        assertEquals(2 + 100, extractions[0]);
+
+        expected.clear();
+        expected.addAll(source);
+        Collections.sort(expected, comparator);
+        assertEquals(expected, sorted);
+
+        // the keys stay cached when elements aren't moved
+        sorted.setMode(SortedList.AVOID_MOVING_ELEMENTS);
+        for(int i = 0; i < 20; i++) {
+            base.set(dice.nextInt(base.size()), new Integer(dice.nextInt(1000)));
+        }
+        sorted.setMode(SortedList.STRICT_SORT_ORDER);
+        expected.clear();
+        expected.addAll(source);
+        Collections.sort(expected, comparator);
+        assertEquals(expected, sorted);
+
+        // chains and reverses of key comparators cache all of their keys
+        final Comparator<Integer> chain = GlazedLists.chainComparators(
+                GlazedLists.reverseComparator(comparator),
+                GlazedLists.<Integer>comparableComparator());
+        sorted.setComparator(chain);
+        Collections.sort(expected, chain);
+        assertEquals(expected, sorted);
+        sorted.setComparator(null);
+        assertEquals(source, sorted);
+
+        // without the cache, the keys are extracted for each comparison
+        sorted.setComparator(comparator);
+        sorted.setSortKeysCached(false);
+        extractions[0] = 0;
+        base.add(new Integer(dice.nextInt(1000)));
+        assertTrue(extractions[0] > 1);
+        expected.clear();
+        expected.addAll(source);
+        Collections.sort(expected, comparator);
+        assertEquals(expected, sorted);
+    }
+
     /**
      * This test ensures that the SortedList sorts by its own
      * order, then by the order in the source list.
@@ -5,6 +5,9 @@ package ca.odell.glazedlists.event;
 
 import ca.odell.glazedlists.impl.event.BlockSequence;
 
+import java.util.Arrays;
+import java.util.List;
+
 import org.junit.Test;
 
 import static org.junit.Assert.*;
@@ -165,6 +168,49 @@ public class ListBlocksLinearTest {
         assertEquals(false, iterator.hasNextBlock());
     }
 
+    /**
+     * Test that single changes with distinct values keep their own blocks,
+     * while those with the same values are combined.
+     */
+    @Test
+    public void testChangesWithDistinctValues() {
+        BlockSequence<String> listBlocks = new BlockSequence<String>();
+        listBlocks.addChange(ListEvent.DELETE, 2, 3, "A", ListEvent.<String>unknownValue());
+        listBlocks.addChange(ListEvent.DELETE, 2, 3, "B", ListEvent.<String>unknownValue());
+        listBlocks.addChange(ListEvent.INSERT, 2, 3, ListEvent.<String>unknownValue(), "H");
+        listBlocks.addChange(ListEvent.INSERT, 3, 4, ListEvent.<String>unknownValue(), "H");
+
+        BlockSequence<String>.Iterator iterator = listBlocks.iterator();
+        assertNextBlock(2, 3, ListEvent.DELETE, iterator);
+        assertEquals("A", iterator.getOldValue());
+        assertNextBlock(2, 3, ListEvent.DELETE, iterator);
+        assertEquals("B", iterator.getOldValue());
+        assertNextBlock(2, 4, ListEvent.INSERT, iterator);
+        assertEquals(false, iterator.hasValuePerElement());
+        assertEquals("H", iterator.getNewValue());
+        assertEquals(false, iterator.hasNextBlock());
+    }
+
+    /**
+     * Test that ranges of values are referenced and not extended.
+     */
+    @Test
+    public void testChangeRanges() {
+        BlockSequence<String> listBlocks = new BlockSequence<String>();
+        List<String> removed = Arrays.asList("A", "B", "C");
+        listBlocks.addChangeRange(ListEvent.DELETE, 1, 4, removed, null);
+        listBlocks.addChange(ListEvent.DELETE, 1, 2, "D", ListEvent.<String>unknownValue());
+
+        BlockSequence<String>.Iterator iterator = listBlocks.iterator();
+        assertNextBlock(1, 4, ListEvent.DELETE, iterator);
+        assertEquals(true, iterator.hasValuePerElement());
+        assertEquals("B", iterator.getOldValue(1));
+        assertNextBlock(1, 2, ListEvent.DELETE, iterator);
+        assertEquals("D", iterator.getOldValue());
+        assertEquals(false, iterator.hasNextBlock());
+        assertEquals(Arrays.asList("A", "B", "C"), removed);
+    }
+
     public static final void assertNext(int index, int type, BlockSequence.Iterator iterator) {
         assertEquals(true, iterator.hasNext());
         assertEquals(true, iterator.next());
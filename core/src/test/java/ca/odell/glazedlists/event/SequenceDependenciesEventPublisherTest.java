@@ -224,6 +224,84 @@ public class SequenceDependenciesEventPublisherTest {
 
 
 
+    /**
+     * Make sure that an event reaches exactly the listeners downstream of its
+     * subject when many independent chains share one publisher.
+     */
+    @Test
+    public void testManyIndependentChains() {
+        SequenceDependenciesEventPublisher publisher = new SequenceDependenciesEventPublisher();
+        DependentSubjectListener[][] chains = new DependentSubjectListener[50][3];
+        for(int c = 0; c < chains.length; c++) {
+            for(int i = 0; i < chains[c].length; i++) {
+                chains[c][i] = new DependentSubjectListener(c + "." + i, publisher);
+                if(i > 0) chains[c][i-1].addListener(chains[c][i]);
+            }
+        }
+        // a diamond across two of the chains
+        chains[10][0].addListener(chains[20][2]);
+
+        chains[10][0].increment(7);
+        for(int c = 0; c < chains.length; c++) {
+            for(int i = 0; i < chains[c].length; i++) {
+                boolean downstream = c == 10 || (c == 20 && i == 2);
+                assertEquals(chains[c][i].toString(), downstream ? 7 : 0, chains[c][i].latestRevision);
+            }
+        }
+
+        chains[20][0].increment(9);
+        assertEquals(9, chains[20][1].latestRevision);
+        assertEquals(9, chains[20][2].latestRevision);
+        assertEquals(7, chains[10][2].latestRevision);
+
+        // the listeners are indexed by subject
+        assertEquals(2, publisher.getListeners(chains[10][0]).size());
+        assertEquals(0, publisher.getListeners(chains[10][2]).size());
+        publisher.removeListener(chains[10][0], chains[20][2]);
+        assertEquals(1, publisher.getListeners(chains[10][0]).size());
+        chains[10][0].increment(1);
+        assertEquals(8, chains[10][2].latestRevision);
+        assertEquals(9, chains[20][2].latestRevision);
+    }
+
+    /**
+     * Make sure that the notification order is repaired when listeners are
+     * added in an order that contradicts the current order of the subjects.
+     */
+    @Test
+    public void testDependenciesAddedInReverse() {
+        SequenceDependenciesEventPublisher publisher = new SequenceDependenciesEventPublisher();
+        DependentSubjectListener[] subjects = new DependentSubjectListener[20];
+        for(int i = 0; i < subjects.length; i++) {
+            subjects[i] = new DependentSubjectListener("" + i, publisher);
+        }
+        // every subject is listened to by all later ones, wired from the end
+        for(int i = subjects.length - 2; i >= 0; i--) {
+            for(int j = subjects.length - 1; j > i; j--) {
+                subjects[i].addListener(subjects[j]);
+            }
+        }
+
+        subjects[0].increment(3);
+        for(int i = 0; i < subjects.length; i++) {
+            assertEquals(3, subjects[i].latestRevision);
+        }
+
+        // closing the loop is still detected and leaves the order intact
+        try {
+            subjects[subjects.length - 1].addListener(subjects[5]);
+            fail("Cycle not detected");
+        } catch(IllegalStateException e) {
+            // expected
+        }
+        subjects[5].upstreamSubjects.remove(subjects[subjects.length - 1]);
+        subjects[1].increment(2);
+        assertEquals(3, subjects[0].latestRevision);
+        for(int i = 1; i < subjects.length; i++) {
+            assertEquals(5, subjects[i].latestRevision);
+        }
+    }
+
     /**
      * The publisher should throw an IllegalStateException when a cycle in the
      * listener graph is created.
@@ -535,6 +613,49 @@ public class SequenceDependenciesEventPublisherTest {
         assertEquals(10, e.latestRevision);
     }
 
+    /**
+     * Test that a related subject set after its listener was added rewires
+     * the dependencies, and that one creating a cycle is rejected.
+     */
+    @Test
+    public void testRelatedSubjectsSetAfterAdding() {
+        SequenceDependenciesEventPublisher publisher = new SequenceDependenciesEventPublisher();
+        DetachedSubject a = new DetachedSubject("A", publisher);
+        DetachedSubject b = new DetachedSubject("B", publisher);
+        DetachedSubject c = new DetachedSubject("C", publisher);
+        DetachedSubject d = new DetachedSubject("D", publisher);
+        DetachedSubject e = new DetachedSubject("E", publisher);
+
+        b.addListenerAndRelate(e);
+        a.addListenerAndRelate(b);
+
+        c.addListenerAndRelate(e);
+        a.addListenerAndRelate(c);
+
+        d.addListenerAndRelate(e);
+        a.addListenerAndRelate(d);
+
+        // changing a should impact e, but only after b, c, and d
+        a.increment(10);
+        assertEquals(10, b.latestRevision);
+        assertEquals(10, c.latestRevision);
+        assertEquals(10, d.latestRevision);
+        assertEquals(10, e.latestRevision);
+
+        // a listener of e can't be related to a, since e depends on a
+        DetachedSubject.Listener listener = new DetachedSubject.Listener(a);
+        publisher.addListener(e, listener, DetachedSubjectAndListenerEventFormat.INSTANCE);
+        try {
+            publisher.setRelatedSubject(listener, a);
+            fail("Cycle not detected");
+        } catch(IllegalStateException expected) {
+            // expected
+        }
+        publisher.removeListener(e, listener);
+        a.increment(5);
+        assertEquals(15, e.latestRevision);
+    }
+
     /**
      * A subject that listens to another subject via an inner listener class.
      * This is used to test that listener identity is not required.
@@ -559,6 +680,15 @@ public class SequenceDependenciesEventPublisherTest {
             publisher.setRelatedSubject(innerListener, innerListener.subject);
             publisher.addListener(this, innerListener, DetachedSubjectAndListenerEventFormat.INSTANCE);
         }
+        /**
+         * Add the listener first and relate it to its subject afterwards.
+         */
+        public void addListenerAndRelate(DetachedSubject listener) {
+            listener.upstreamSubjects.add(this);
+            Listener innerListener = new Listener(listener);
+            publisher.addListener(this, innerListener, DetachedSubjectAndListenerEventFormat.INSTANCE);
+            publisher.setRelatedSubject(innerListener, innerListener.subject);
+        }
         public void increment(int amount) {
             this.latestRevision += amount;
             publisher.fireEvent(this, new Integer(this.latestRevision), DetachedSubjectAndListenerEventFormat.INSTANCE);
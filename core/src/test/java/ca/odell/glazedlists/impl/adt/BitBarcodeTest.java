@@ -0,0 +1,162 @@
+/* Glazed Lists                                                 (c) 2003-2006 */
+/* http://publicobject.com/glazedlists/                      publicobject.com,*/
+/*                                                     O'Dell Engineering Ltd.*/
+package ca.odell.glazedlists.impl.adt;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * This test verifies that the {@link BitBarcode} behaves like a simple
+ * {@link List} of colours.
+ */
+public class BitBarcodeTest {
+
+    /** for randomly choosing list indices */
+    private Random random = new Random(101);
+
+    /**
+     * Tests inserts, sets and removes of random ranges, including across
+     * word and block boundaries.
+     */
+    @Test
+    public void testRandomRanges() {
+        List<Object> expected = new ArrayList<Object>();
+        BitBarcode actual = new BitBarcode();
+
+        for(int i = 0; i < 2000; i++) {
+            int operation = random.nextInt(4);
+            int length = 1 + random.nextInt(random.nextBoolean() ? 3 : 200);
+            Object colour = random.nextBoolean() ? Barcode.BLACK : Barcode.WHITE;
+
+            if(operation <= 1 || expected.size() < length) {
+                int index = random.nextInt(expected.size() + 1);
+                expected.addAll(index, Collections.nCopies(length, colour));
+                actual.add(index, colour, length);
+            } else if(operation == 2) {
+                int index = random.nextInt(expected.size() - length + 1);
+                Collections.fill(expected.subList(index, index + length), colour);
+                actual.set(index, colour, length);
+            } else {
+                int index = random.nextInt(expected.size() - length + 1);
+                expected.subList(index, index + length).clear();
+                actual.remove(index, length);
+            }
+
+            if(i % 50 == 0) assertBarcodesEqual(expected, actual);
+        }
+        assertBarcodesEqual(expected, actual);
+
+        actual.clear();
+        assertEquals(0, actual.size());
+        assertEquals(0, actual.blackSize());
+        actual.addWhite(0, 100);
+        assertEquals(0, actual.blackSize());
+        assertEquals(-1, actual.getBlackIndex(99));
+    }
+
+    /**
+     * Tests that the iterator walks and modifies the elements, keeping
+     * track of the colour-based indices.
+     */
+    @Test
+    public void testIterator() {
+        List<Object> expected = new ArrayList<Object>();
+        BitBarcode actual = new BitBarcode();
+        for(int i = 0; i < 3000; i++) {
+            Object colour = random.nextInt(3) == 0 ? Barcode.BLACK : Barcode.WHITE;
+            expected.add(colour);
+            actual.add(i, colour, 1);
+        }
+
+        BlackWhiteIterator iterator = actual.iterator();
+        int index = -1;
+        while(true) {
+            int operation = random.nextInt(5);
+            Object colour = random.nextBoolean() ? Barcode.BLACK : Barcode.WHITE;
+            int next = expected.subList(index + 1, expected.size()).indexOf(colour);
+            assertEquals(next != -1, iterator.hasNextColour(colour));
+            assertEquals(index + 1 < expected.size(), iterator.hasNext());
+            if(next == -1) break;
+
+            if(operation == 0) {
+                index++;
+                assertEquals(expected.get(index), iterator.next());
+            } else {
+                index += next + 1;
+                assertEquals(colour, iterator.nextColour(colour));
+            }
+            assertEquals(index, iterator.getIndex());
+            assertEquals(colourIndex(expected, index, Barcode.BLACK), iterator.getBlackIndex());
+            assertEquals(colourIndex(expected, index, Barcode.WHITE), iterator.getWhiteIndex());
+
+            if(operation == 2) {
+                expected.set(index, Barcode.BLACK);
+                assertEquals(colourIndex(expected, index, Barcode.BLACK), iterator.setBlack());
+            } else if(operation == 3) {
+                expected.set(index, Barcode.WHITE);
+                assertEquals(colourIndex(expected, index, Barcode.WHITE), iterator.setWhite());
+            } else if(operation == 4 && random.nextInt(4) == 0) {
+                expected.remove(index);
+                iterator.remove();
+                index--;
+            }
+        }
+        assertBarcodesEqual(expected, actual);
+    }
+
+    /**
+     * Tests that moving past the end of the barcode fails.
+     */
+    @Test(expected = NoSuchElementException.class)
+    public void testNextBlackPastEnd() {
+        BitBarcode barcode = new BitBarcode();
+        barcode.addBlack(0, 1);
+        barcode.addWhite(1, 70);
+        BlackWhiteIterator iterator = barcode.iterator();
+        assertEquals(Barcode.BLACK, iterator.nextBlack());
+        assertFalse(iterator.hasNextBlack());
+        iterator.nextBlack();
+    }
+
+    /**
+     * Asserts that the barcode holds the expected colours, and agrees on all
+     * of the index conversions.
+     */
+    private static void assertBarcodesEqual(List<Object> expected, BitBarcode actual) {
+        int blackSize = Collections.frequency(expected, Barcode.BLACK);
+        assertEquals(expected.size(), actual.size());
+        assertEquals(blackSize, actual.blackSize());
+        assertEquals(expected.size() - blackSize, actual.whiteSize());
+
+        int blackCount = 0;
+        for(int i = 0; i < expected.size(); i++) {
+            Object colour = expected.get(i);
+            assertEquals(colour, actual.get(i));
+            assertEquals(colourIndex(expected, i, Barcode.BLACK), actual.getBlackIndex(i));
+            assertEquals(colourIndex(expected, i, Barcode.WHITE), actual.getWhiteIndex(i));
+            if(colour == Barcode.BLACK) {
+                assertEquals(i, actual.getIndex(blackCount, Barcode.BLACK));
+                blackCount++;
+            } else {
+                assertEquals(i, actual.getIndex(i - blackCount, Barcode.WHITE));
+            }
+        }
+    }
+
+    /**
+     * The number of elements of the colour before index, or -1 if the
+     * element at index is of the other colour.
+     */
+    private static int colourIndex(List<Object> expected, int index, Object colour) {
+        if(expected.get(index) != colour) return -1;
+        return Collections.frequency(expected.subList(0, index), colour);
+    }
+}
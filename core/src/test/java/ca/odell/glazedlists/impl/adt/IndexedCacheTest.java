@@ -0,0 +1,107 @@
+/* Glazed Lists                                                 (c) 2003-2006 */
+/* http://publicobject.com/glazedlists/                      publicobject.com,*/
+/*                                                     O'Dell Engineering Ltd.*/
+package ca.odell.glazedlists.impl.adt;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * This test verifies that the {@link IndexedCache} keeps its values at the
+ * right indices and evicts the least recently used ones.
+ */
+public class IndexedCacheTest {
+
+    /** for randomly choosing list indices */
+    private Random random = new Random(17);
+
+    /**
+     * Tests random changes against a list of the expected values, with
+     * <code>null</code> for indices without a value.
+     */
+    @Test
+    public void testRandomChanges() {
+        List<Integer> expected = new ArrayList<Integer>();
+        LinkedList<Integer> recentlyUsed = new LinkedList<Integer>();
+        IndexedCache<Integer> cache = new IndexedCache<Integer>(20);
+
+        for(int i = 0; i < 3000; i++) {
+            int operation = random.nextInt(6);
+            if(operation == 0 || expected.isEmpty()) {
+                int index = random.nextInt(expected.size() + 1);
+                int count = 1 + random.nextInt(20);
+                expected.addAll(index, Collections.<Integer>nCopies(count, null));
+                cache.addUncached(index, count);
+
+            } else if(operation == 1) {
+                int index = random.nextInt(expected.size());
+                Integer removed = expected.remove(index);
+                recentlyUsed.remove(removed);
+                assertEquals(removed, cache.remove(index));
+
+            } else if(operation == 2) {
+                int index = random.nextInt(expected.size());
+                Integer value = expected.get(index);
+                assertEquals(value, cache.get(index));
+                if(value != null) {
+                    recentlyUsed.remove(value);
+                    recentlyUsed.addFirst(value);
+                }
+
+            } else if(operation == 3) {
+                int index = random.nextInt(expected.size());
+                Integer uncached = expected.set(index, null);
+                recentlyUsed.remove(uncached);
+                assertEquals(uncached, cache.uncache(index));
+
+            } else if(operation == 4) {
+                int[] reorderMap = new int[expected.size()];
+                for(int r = 0; r < reorderMap.length; r++) reorderMap[r] = r;
+                for(int r = reorderMap.length - 1; r > 0; r--) {
+                    int swap = random.nextInt(r + 1);
+                    int temp = reorderMap[r];
+                    reorderMap[r] = reorderMap[swap];
+                    reorderMap[swap] = temp;
+                }
+                List<Integer> reordered = new ArrayList<Integer>();
+                for(int r = 0; r < reorderMap.length; r++) reordered.add(expected.get(reorderMap[r]));
+                expected = reordered;
+                cache.reorder(reorderMap);
+
+            } else {
+                int index = random.nextInt(expected.size());
+                if(expected.get(index) != null) continue;
+                Integer value = new Integer(i);
+                expected.set(index, value);
+                recentlyUsed.addFirst(value);
+                Integer evicted = cache.put(index, value);
+                if(recentlyUsed.size() > 20) {
+                    Integer leastRecent = recentlyUsed.removeLast();
+                    assertEquals(leastRecent, evicted);
+                    expected.set(expected.indexOf(leastRecent), null);
+                } else {
+                    assertNull(evicted);
+                }
+            }
+
+            assertEquals(expected.size(), cache.size());
+            assertEquals(recentlyUsed.size(), cache.cachedSize());
+        }
+
+        // shrinking evicts the least recently used values
+        List<Integer> evicted = cache.setMaximumSize(5);
+        Collections.reverse(evicted);
+        assertEquals(recentlyUsed.subList(5, recentlyUsed.size()), evicted);
+        assertEquals(5, cache.cachedSize());
+        assertEquals(5, cache.uncacheAll().size());
+        assertEquals(0, cache.cachedSize());
+        assertEquals(expected.size(), cache.size());
+    }
+}
@@ -7,6 +7,7 @@ import ca.odell.glazedlists.GlazedLists;
 import ca.odell.glazedlists.impl.testing.GlazedListsTests;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Random;
 
@@ -50,6 +51,39 @@ public class Tree1Test {
     }
 
 
+    /**
+     * A bulk loaded tree holds the values in order, and stays consistent
+     * through further changes.
+     */
+    @Test
+    public void testBulkLoad() {
+        SimpleTree<String> tree = new SimpleTree<String>(GlazedLists.comparableComparator());
+        List<String> values = GlazedListsTests.stringToList("ABCDEFGHIJKLM");
+        Element<String>[] nodes = tree.bulkLoad(values);
+
+        assertEquals(GlazedListsTests.stringToList("ABCDEFGHIJKLM"), new SimpleTreeAsList<String>(tree));
+        for(int i = 0; i < nodes.length; i++) {
+            assertEquals(values.get(i), nodes[i].get());
+            assertEquals(i, tree.indexOfNode(nodes[i], allColors));
+        }
+
+        tree.addInSortedOrder(allColors, "DD", 1);
+        tree.remove(nodes[0]);
+        tree.remove(nodes[12]);
+        assertEquals(4, tree.indexOfValue("E", true, false, allColors));
+
+        try {
+            tree.bulkLoad(values);
+            fail("only empty trees can be bulk loaded");
+        } catch(IllegalStateException e) {
+            // expected
+        }
+
+        tree.clear();
+        assertEquals(0, tree.bulkLoad(Collections.<String>emptyList()).length);
+        assertEquals(0, tree.size());
+    }
+
     /**
      * Tests to verify that the SimpleTree is consistent after a long
      * series of list operations.
@@ -36,6 +36,29 @@ public class Tree4Test {
     private static final String april = "April";
     private static final String may = "May";
 
+    /**
+     * Bulk loaded nodes all have the given color, and are counted in that
+     * color only.
+     */
+    @Test
+    public void testBulkLoad() {
+        FourColorTree<String> tree = new FourColorTree<String>(Tree4Test.coder);
+        List<String> values = GlazedListsTests.stringToList("ABCDEFG");
+        Element<String>[] nodes = tree.bulkLoad(Tree4Test.b, values);
+
+        assertEquals(7, tree.size(Tree4Test.b));
+        assertEquals(0, tree.size(Tree4Test.aOrC));
+        for(int i = 0; i < nodes.length; i++) {
+            assertEquals(values.get(i), nodes[i].get());
+            assertEquals(i, tree.indexOfNode(nodes[i], Tree4Test.allColors));
+        }
+
+        tree.add(3, Tree4Test.allColors, Tree4Test.a, Tree4Test.march, 2);
+        assertEquals(9, tree.size(Tree4Test.allColors));
+        assertEquals(5, tree.indexOfNode(nodes[3], Tree4Test.allColors));
+        assertEquals(3, tree.indexOfNode(nodes[3], Tree4Test.b));
+    }
+
     @Test
     public void testThreeColorInserts() {
         FourColorTree<String> tree = new FourColorTree<String>(Tree4Test.coder);
@@ -4,6 +4,7 @@
 package ca.odell.glazedlists.impl.beans;
 
 import java.awt.Color;
+import java.lang.reflect.UndeclaredThrowableException;
 
 import org.junit.Test;
 
@@ -116,6 +117,36 @@ public class BeanPropertyTest {
         }
     }
 
+    /**
+     * Tests that compiled getters stop at null values and report exceptions
+     * the same way that reflection did.
+     */
+    @Test
+    public void testCompiledGetters() {
+        BeanProperty<Truck> towedColor = new BeanProperty<Truck>(Truck.class, "towedVehicle.color", true, false);
+        BeanProperty<Truck> sameTowedColor = new BeanProperty<Truck>(Truck.class, "towedVehicle.color", true, false);
+        Truck truck = new Truck(2);
+        assertNull(towedColor.get(truck));
+        truck.setTowedVehicle(new Automobile(true));
+        assertEquals(Color.BLACK, towedColor.get(truck));
+        assertEquals(Color.BLACK, sameTowedColor.get(truck));
+
+        try {
+            towedColor.get(null);
+            fail("failed to throw an exception when getting a property of null");
+        } catch (NullPointerException e) {
+            // expected
+        }
+
+        BeanProperty<FaultyEngine> spark = new BeanProperty<FaultyEngine>(FaultyEngine.class, "spark", true, false);
+        try {
+            spark.get(new FaultyEngine());
+            fail("failed to throw an exception when the getter failed");
+        } catch (UndeclaredThrowableException e) {
+            assertEquals("no spark", e.getCause().getMessage());
+        }
+    }
+
     @Test
     public void testThisProperty() {
         try {
@@ -274,3 +305,7 @@ class Cattle implements Passenger {
     @Override
 	public int getNumLegs() { return 4; }
 }
+
+class FaultyEngine {
+    public int getSpark() { throw new IllegalStateException("no spark"); }
+}
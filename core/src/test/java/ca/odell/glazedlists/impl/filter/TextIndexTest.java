@@ -0,0 +1,175 @@
+/* Glazed Lists                                                 (c) 2003-2006 */
+/* http://publicobject.com/glazedlists/                      publicobject.com,*/
+/*                                                     O'Dell Engineering Ltd.*/
+package ca.odell.glazedlists.impl.filter;
+
+import ca.odell.glazedlists.BasicEventList;
+import ca.odell.glazedlists.EventList;
+import ca.odell.glazedlists.FilterList;
+import ca.odell.glazedlists.GlazedLists;
+import ca.odell.glazedlists.SortedList;
+import ca.odell.glazedlists.event.ListEvent;
+import ca.odell.glazedlists.event.ListEventListener;
+import ca.odell.glazedlists.impl.testing.ListConsistencyListener;
+import ca.odell.glazedlists.matchers.TextMatcherEditor;
+
+import java.util.BitSet;
+import java.util.Random;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests {@link TextIndex}, and that a {@link FilterList} that uses one
+ * matches the same elements as one that doesn't.
+ */
+public class TextIndexTest {
+
+    /** letters that differ only by case or by diacritics */
+    private static final String LETTERS = "abcABCéÉèàÀüßı";
+
+    /**
+     * The candidates include every matching element, and exclude elements
+     * without the trigrams of the search terms.
+     */
+    @Test
+    public void testCandidates() {
+        EventList<String> source = GlazedLists.eventListOf("Apple", "pineapple", "PEAR", "grape", "Éclair", "eclairs");
+        TextMatcherEditor<String> editor = new TextMatcherEditor<String>(GlazedLists.toStringTextFilterator());
+        TextIndex<String> index = new TextIndex<String>(source, GlazedLists.toStringTextFilterator(), TextMatcherEditor.CONTAINS, TextMatcherEditor.IDENTICAL_STRATEGY);
+
+        editor.setFilterText(new String[] {"APP"});
+        assertEquals(bits(0, 1), index.candidates((TextMatcher<String>) editor.getMatcher()));
+        editor.setFilterText(new String[] {"ap", "le"});
+        assertNull(index.candidates((TextMatcher<String>) editor.getMatcher()));
+        editor.setFilterText(new String[] {"kiwi"});
+        assertEquals(bits(), index.candidates((TextMatcher<String>) editor.getMatcher()));
+
+        // the diacritics are stripped by the normalized strategy only
+        editor.setFilterText(new String[] {"ecla"});
+        assertEquals(bits(5), index.candidates((TextMatcher<String>) editor.getMatcher()));
+        editor.setStrategy(TextMatcherEditor.NORMALIZED_STRATEGY);
+        assertFalse(index.isIndexed((TextMatcher<String>) editor.getMatcher()));
+        index = new TextIndex<String>(source, GlazedLists.toStringTextFilterator(), TextMatcherEditor.CONTAINS, TextMatcherEditor.NORMALIZED_STRATEGY);
+        assertEquals(bits(4, 5), index.candidates((TextMatcher<String>) editor.getMatcher()));
+
+        // changes to the source are followed
+        final TextIndex<String> listeningIndex = index;
+        source.addListEventListener(new ListEventListener<String>() {
+            @Override
+            public void listChanged(ListEvent<String> listChanges) {
+                listeningIndex.listChanged(listChanges);
+            }
+        });
+        source.set(2, "apples");
+        source.remove(0);
+        source.add(0, "crab apple");
+        editor.setFilterText(new String[] {"apple"});
+        assertEquals(bits(0, 1, 2), listeningIndex.candidates((TextMatcher<String>) editor.getMatcher()));
+    }
+
+    /**
+     * The candidates of a prefix are the rows with a filter string that starts
+     * with it, in any case.
+     */
+    @Test
+    public void testPrefixCandidates() {
+        EventList<String> source = GlazedLists.eventListOf("Apple", "apricot", "PEAR", "pineapple", "Éclair", "eclairs", "aPPLE");
+        TextMatcherEditor<String> editor = new TextMatcherEditor<String>(GlazedLists.toStringTextFilterator());
+        editor.setMode(TextMatcherEditor.STARTS_WITH);
+        TextIndex<String> index = new TextIndex<String>(source, GlazedLists.toStringTextFilterator(), TextMatcherEditor.STARTS_WITH, TextMatcherEditor.IDENTICAL_STRATEGY);
+
+        editor.setFilterText(new String[] {"a"});
+        assertEquals(bits(0, 1, 6), index.candidates((TextMatcher<String>) editor.getMatcher()));
+        editor.setFilterText(new String[] {"Ap"});
+        assertEquals(bits(0, 1, 6), index.candidates((TextMatcher<String>) editor.getMatcher()));
+        editor.setFilterText(new String[] {"APP"});
+        assertEquals(bits(0, 6), index.candidates((TextMatcher<String>) editor.getMatcher()));
+        editor.setFilterText(new String[] {"apples"});
+        assertEquals(bits(), index.candidates((TextMatcher<String>) editor.getMatcher()));
+        editor.setFilterText(new String[] {"e"});
+        assertEquals(bits(5), index.candidates((TextMatcher<String>) editor.getMatcher()));
+
+        // the same index doesn't serve other modes
+        editor.setMode(TextMatcherEditor.CONTAINS);
+        assertFalse(index.isIndexed((TextMatcher<String>) editor.getMatcher()));
+    }
+
+    /**
+     * Random changes to the source and the filter give the same results with
+     * and without the index.
+     */
+    @Test
+    public void testIndexedFilterMatchesUnindexed() {
+        Random dice = new Random(7);
+        for (int configuration = 0; configuration < 4; configuration++) {
+            Object strategy = configuration % 2 == 0 ? TextMatcherEditor.IDENTICAL_STRATEGY : TextMatcherEditor.NORMALIZED_STRATEGY;
+            EventList<String> source = new BasicEventList<String>();
+            for (int i = 0; i < 2000; i++) {
+                source.add(randomString(dice, 12));
+            }
+            SortedList<String> sorted = new SortedList<String>(source, null);
+            TextMatcherEditor<String> editor = new TextMatcherEditor<String>(GlazedLists.toStringTextFilterator());
+            editor.setStrategy(strategy);
+            editor.setMode(configuration < 2 ? TextMatcherEditor.CONTAINS : TextMatcherEditor.STARTS_WITH);
+            FilterList<String> unindexed = new FilterList<String>(sorted, editor);
+            FilterList<String> indexed = new FilterList<String>(sorted);
+            indexed.setTextIndexed(true);
+            assertTrue(indexed.isTextIndexed());
+            indexed.setMatcherEditor(editor);
+            ListConsistencyListener.install(indexed);
+
+            for (int round = 0; round < 300; round++) {
+                for (int c = dice.nextInt(20); c > 0; c--) {
+                    int operation = dice.nextInt(3);
+                    if (operation == 0) {
+                        source.add(dice.nextInt(source.size() + 1), randomString(dice, 12));
+                    } else if (operation == 1) {
+                        source.remove(dice.nextInt(source.size()));
+                    } else {
+                        source.set(dice.nextInt(source.size()), randomString(dice, 12));
+                    }
+                }
+                if (round % 40 == 0) {
+                    sorted.setComparator(round % 80 == 0 ? GlazedLists.<String>comparableComparator() : null);
+                }
+                String[] filter = new String[1 + dice.nextInt(2)];
+                for (int f = 0; f < filter.length; f++) {
+                    filter[f] = randomString(dice, 5);
+                }
+                editor.setFilterText(filter);
+                assertEquals(unindexed, indexed);
+
+                // narrow the filter a character at a time, like typing
+                for (int typed = dice.nextInt(4); typed > 0; typed--) {
+                    filter[0] = filter[0] + randomString(dice, 1);
+                    editor.setFilterText(filter);
+                    assertEquals(unindexed, indexed);
+                }
+            }
+
+            indexed.setTextIndexed(false);
+            editor.setFilterText(new String[] {randomString(dice, 4)});
+            assertEquals(unindexed, indexed);
+            indexed.dispose();
+            unindexed.dispose();
+        }
+    }
+
+    private static String randomString(Random dice, int maxLength) {
+        StringBuilder result = new StringBuilder();
+        for (int length = 1 + dice.nextInt(maxLength); length > 0; length--) {
+            result.append(LETTERS.charAt(dice.nextInt(LETTERS.length())));
+        }
+        return result.toString();
+    }
+
+    private static BitSet bits(int... indices) {
+        BitSet result = new BitSet();
+        for (int i = 0; i < indices.length; i++) {
+            result.set(indices[i]);
+        }
+        return result;
+    }
+}
@@ -4,13 +4,18 @@
 package ca.odell.glazedlists.impl.filter;
 
 import ca.odell.glazedlists.GlazedLists;
+import ca.odell.glazedlists.TextFilterator;
 import ca.odell.glazedlists.matchers.SearchEngineTextMatcherEditor;
 import ca.odell.glazedlists.matchers.TextMatcherEditor;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 
 import org.junit.Test;
 
@@ -453,6 +458,47 @@ public class TextMatchersTest {
         }
     }
 
+    @Test
+    public void testConcurrentMatching() {
+        final List<String> elements = new ArrayList<String>();
+        final Random random = new Random(7);
+        for(int i = 0; i < 20000; i++) {
+            elements.add(Integer.toString(random.nextInt(100000), 36));
+        }
+
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            final int[] modes = {TextMatcherEditor.CONTAINS, TextMatcherEditor.STARTS_WITH, TextMatcherEditor.REGULAR_EXPRESSION, TextMatcherEditor.EXACT};
+            for(int m = 0; m < modes.length; m++) {
+                final TextMatcher<String> matcher = new TextMatcher<String>(TextMatchers.parse("a -z"), GlazedLists.toStringTextFilterator(), modes[m], TextMatcherEditor.IDENTICAL_STRATEGY);
+                final boolean[] expected = new boolean[elements.size()];
+                for(int i = 0; i < expected.length; i++) {
+                    expected[i] = matcher.matches(elements.get(i));
+                }
+                assertTrue(Arrays.equals(expected, ParallelMatching.matches(matcher, elements, null, 4, pool)));
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testCharSequenceFilterStrings() {
+        final TextFilterator<String> filterator = new TextFilterator<String>() {
+            @Override
+            public void getFilterStrings(List baseList, String element) {
+                baseList.add(new StringBuilder(element));
+            }
+        };
+        final TextMatcher<String> contains = new TextMatcher<String>(TextMatchers.parse("bc"), filterator, TextMatcherEditor.CONTAINS, TextMatcherEditor.IDENTICAL_STRATEGY);
+        assertTrue(contains.matches("abcd"));
+        assertFalse(contains.matches("acbd"));
+
+        final TextMatcher<String> regex = new TextMatcher<String>(TextMatchers.parse("a.c."), filterator, TextMatcherEditor.REGULAR_EXPRESSION, TextMatcherEditor.IDENTICAL_STRATEGY);
+        assertTrue(regex.matches("abcd"));
+        assertFalse(regex.matches("abdc"));
+    }
+
     private SearchTerm[] normalizedSearchTerms(String text) {
         return TextMatchers.normalizeSearchTerms(searchTerms(text), (TextSearchStrategy.Factory) TextMatcherEditor.IDENTICAL_STRATEGY);
     }
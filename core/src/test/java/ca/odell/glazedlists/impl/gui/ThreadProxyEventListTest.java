@@ -0,0 +1,152 @@
+/* Glazed Lists                                                 (c) 2003-2006 */
+/* http://publicobject.com/glazedlists/                      publicobject.com,*/
+/*                                                     O'Dell Engineering Ltd.*/
+package ca.odell.glazedlists.impl.gui;
+
+import ca.odell.glazedlists.BasicEventList;
+import ca.odell.glazedlists.EventList;
+import ca.odell.glazedlists.GlazedLists;
+import ca.odell.glazedlists.SortedList;
+import ca.odell.glazedlists.impl.testing.ListConsistencyListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests the local cache of {@link ThreadProxyEventList}, using a proxy
+ * "thread" that runs when the test flushes it.
+ */
+public class ThreadProxyEventListTest {
+
+    /**
+     * Small batches change the cache in place and large ones rebuild it, and
+     * either way the proxy matches its source after each flush.
+     */
+    @Test
+    public void testCacheFollowsSource() {
+        EventList<Integer> source = new BasicEventList<Integer>();
+        for (int i = 0; i < 200; i++) {
+            source.add(new Integer(i));
+        }
+        SortedList<Integer> sorted = new SortedList<Integer>(source, null);
+        ManualThreadProxyEventList<Integer> proxy = new ManualThreadProxyEventList<Integer>(sorted);
+        // the old values of combined events aren't always exact
+        ListConsistencyListener.install(proxy).setPreviousElementTracked(false);
+        assertEquals(sorted, proxy);
+
+        Random dice = new Random(3);
+        for (int round = 0; round < 200; round++) {
+            // anywhere from a single change to a change of most elements
+            int changes = round % 10 == 0 ? 150 : 1 + dice.nextInt(5);
+            for (int c = 0; c < changes; c++) {
+                int operation = dice.nextInt(3);
+                if (operation == 0 || source.isEmpty()) {
+                    source.add(dice.nextInt(source.size() + 1), new Integer(dice.nextInt(1000)));
+                } else if (operation == 1) {
+                    source.remove(dice.nextInt(source.size()));
+                } else {
+                    source.set(dice.nextInt(source.size()), new Integer(dice.nextInt(1000)));
+                }
+            }
+            if (round % 25 == 0) {
+                sorted.setComparator(round % 50 == 0 ? GlazedLists.<Integer>comparableComparator() : null);
+            }
+
+            // the proxy is unchanged until it's flushed
+            List<Integer> before = new ArrayList<Integer>(proxy);
+            assertEquals(before, proxy);
+            proxy.flush();
+            assertEquals(sorted, proxy);
+        }
+
+        source.clear();
+        proxy.flush();
+        assertEquals(0, proxy.size());
+    }
+
+    /**
+     * With a minimum flush interval, changes are combined into one event until
+     * the interval passes or too many changes are pending.
+     */
+    @Test
+    public void testFlushPolicy() throws InterruptedException {
+        EventList<Integer> source = new BasicEventList<Integer>();
+        ManualThreadProxyEventList<Integer> proxy = new ManualThreadProxyEventList<Integer>(source);
+        ListConsistencyListener<Integer> listener = ListConsistencyListener.install(proxy);
+        proxy.setMinimumFlushInterval(1, TimeUnit.HOURS);
+        proxy.setMaximumPendingChanges(5);
+        assertEquals(60, proxy.getMinimumFlushInterval(TimeUnit.MINUTES));
+
+        // the first change is flushed straight away
+        source.add(new Integer(0));
+        assertEquals(1, proxy.flush());
+        assertEquals(1, listener.getEventCount());
+
+        // later changes wait for the interval
+        for (int i = 1; i < 5; i++) {
+            source.add(new Integer(i));
+        }
+        assertEquals(0, proxy.flush());
+        assertEquals(1, proxy.size());
+        assertTrue(proxy.awaitCapacity(0, TimeUnit.SECONDS));
+
+        // until too many are pending, and then they're flushed in one event
+        source.add(new Integer(5));
+        assertFalse(proxy.awaitCapacity(10, TimeUnit.MILLISECONDS));
+        source.add(new Integer(6));
+        assertEquals(1, proxy.flush());
+        assertEquals(2, listener.getEventCount());
+        assertEquals(6, listener.getChangeCount(1));
+        assertEquals(source, proxy);
+        assertTrue(proxy.awaitCapacity(0, TimeUnit.SECONDS));
+
+        // a short interval is waited out on another thread
+        proxy.setMinimumFlushInterval(20, TimeUnit.MILLISECONDS);
+        source.add(new Integer(7));
+        for (int i = 0; i < 200 && proxy.flush() == 0; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(source, proxy);
+        assertEquals(3, listener.getEventCount());
+    }
+
+    /**
+     * A {@link ThreadProxyEventList} whose scheduled updates only run when
+     * it's {@link #flush flushed}.
+     */
+    private static class ManualThreadProxyEventList<E> extends ThreadProxyEventList<E> {
+        private final List<Runnable> scheduled = new ArrayList<Runnable>();
+
+        ManualThreadProxyEventList(EventList<E> source) {
+            super(source);
+        }
+
+        @Override
+        protected synchronized void schedule(Runnable runnable) {
+            scheduled.add(runnable);
+        }
+
+        /**
+         * Runs the scheduled updates.
+         *
+         * @return the number of updates that were run
+         */
+        int flush() {
+            final List<Runnable> toRun;
+            synchronized (this) {
+                toRun = new ArrayList<Runnable>(scheduled);
+                scheduled.clear();
+            }
+            for (int i = 0; i < toRun.size(); i++) {
+                toRun.get(i).run();
+            }
+            return toRun.size();
+        }
+    }
+}
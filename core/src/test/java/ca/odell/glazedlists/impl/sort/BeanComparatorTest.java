@@ -73,6 +73,32 @@ public class BeanComparatorTest {
         assertEquals(sorted1, sorted2);
     }
 
+    /**
+     * Tests that chains and reverses of property comparators can compare
+     * extracted keys instead, with the same results.
+     */
+    @Test
+    public void testKeyComparator() {
+        Comparator<Color> comparator = GlazedLists.chainComparators(
+                GlazedLists.beanPropertyComparator(Color.class, "red"),
+                GlazedLists.reverseComparator(GlazedLists.beanPropertyComparator(Color.class, "blue")));
+        KeyComparator<Color,Object> keyComparator = (KeyComparator<Color,Object>)KeyComparators.forComparator(comparator);
+        Comparator<Object> keysComparator = (Comparator<Object>)keyComparator.getKeyComparator();
+
+        Color[] colors = { new Color(1, 2, 3), new Color(1, 2, 4), new Color(0, 9, 9), new Color(1, 5, 3) };
+        for(int i = 0; i < colors.length; i++) {
+            for(int j = 0; j < colors.length; j++) {
+                int expected = Integer.signum(comparator.compare(colors[i], colors[j]));
+                assertEquals(expected, Integer.signum(keyComparator.compare(colors[i], colors[j])));
+                assertEquals(expected, Integer.signum(keysComparator.compare(keyComparator.getKey(colors[i]), keyComparator.getKey(colors[j]))));
+            }
+        }
+
+        // keys can't be extracted for other comparators
+        Comparator<Color> green = (alpha, beta) -> alpha.getGreen() - beta.getGreen();
+        assertNull(KeyComparators.forComparator(GlazedLists.chainComparators(GlazedLists.beanPropertyComparator(Color.class, "red"), green)));
+    }
+
     /**
      * Simple class that sorts in the same order as its position value.
      */
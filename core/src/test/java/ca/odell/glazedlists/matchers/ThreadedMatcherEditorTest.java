@@ -1,12 +1,18 @@
 package ca.odell.glazedlists.matchers;
 
 import ca.odell.glazedlists.BasicEventList;
+import ca.odell.glazedlists.EventList;
 import ca.odell.glazedlists.FilterList;
 import ca.odell.glazedlists.GlazedLists;
+import ca.odell.glazedlists.event.ListEvent;
+import ca.odell.glazedlists.event.ListEventListener;
 
 import java.util.Arrays;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.After;
 import org.junit.Before;
@@ -308,4 +314,96 @@ public class ThreadedMatcherEditorTest {
         ThreadedMatcherEditor<String> threadedMatcherEditor = new ThreadedMatcherEditor<>(matcherEditor, executor);
         assertEquals(executor, threadedMatcherEditor.getExecutor());
     }
+
+    /**
+     * A {@link FilterList} abandons the refilter of a superseded event, and
+     * combines it with the event that superseded it.
+     */
+    @Test
+    public void testSupersededRefilter() throws Exception {
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        final Runnable finishDrain = new Runnable() {
+            @Override
+            public void run() {
+                // the queue is drained by an earlier task on the same thread
+            }
+        };
+        try {
+            final ManualMatcherEditor<Integer> source = new ManualMatcherEditor<Integer>();
+            final EventList<Integer> numbers = new BasicEventList<Integer>();
+            for (int i = 0; i < 5000; i++) {
+                numbers.add(new Integer(i));
+            }
+            final FilterList<Integer> filtered = new FilterList<Integer>(numbers, new ThreadedMatcherEditor<Integer>(source, executor));
+            final AtomicInteger events = new AtomicInteger();
+            filtered.addListEventListener(new ListEventListener<Integer>() {
+                @Override
+                public void listChanged(ListEvent<Integer> listChanges) {
+                    events.incrementAndGet();
+                }
+            });
+            source.change(new MultipleOf(3));
+            executor.submit(finishDrain).get();
+            assertEquals(1667, filtered.size());
+            assertEquals(1, events.get());
+
+            // refilter to the even numbers, which is superseded while it's in progress
+            final Semaphore started = new Semaphore(0);
+            final Semaphore proceed = new Semaphore(0);
+            final AtomicInteger evaluated = new AtomicInteger();
+            source.change(new Matcher<Integer>() {
+                @Override
+                public boolean matches(Integer item) {
+                    if (evaluated.getAndIncrement() == 0) {
+                        started.release();
+                        proceed.acquireUninterruptibly();
+                    }
+                    return item.intValue() % 2 == 0;
+                }
+            });
+            assertTrue(started.tryAcquire(10, TimeUnit.SECONDS));
+            source.constrain(new MultipleOf(4));
+            proceed.release();
+            executor.submit(finishDrain).get();
+
+            // the constraint applies to the even numbers, not the multiples of three
+            assertTrue(evaluated.get() < numbers.size());
+            assertEquals(1250, filtered.size());
+            for (int i = 0; i < filtered.size(); i++) {
+                assertEquals(0, filtered.get(i).intValue() % 4);
+            }
+            assertEquals(2, events.get());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Matches the multiples of a number.
+     */
+    private static class MultipleOf implements Matcher<Integer> {
+        private final int divisor;
+
+        MultipleOf(int divisor) {
+            this.divisor = divisor;
+        }
+
+        @Override
+        public boolean matches(Integer item) {
+            return item.intValue() % divisor == 0;
+        }
+    }
+
+    /**
+     * A {@link MatcherEditor} whose events are fired by the test.
+     */
+    private static class ManualMatcherEditor<E> extends AbstractMatcherEditor<E> {
+        void change(Matcher<E> matcher) {
+            fireChanged(matcher);
+        }
+
+        void constrain(Matcher<E> matcher) {
+            fireConstrained(matcher);
+        }
+    }
 }
@@ -420,10 +420,19 @@ public class DefaultEventTableModelTest extends SwingTestCase {
         selModel.setSelectionInterval(1, 1);
         assertEquals(GlazedListsTests.stringToList("B"), selModel.getSelected());
         assertEquals(GlazedListsTests.delimitedStringToList("A C D E F"), selModel.getDeselected());
-        list.removeAll(GlazedListsTests.delimitedStringToList("E F"));
+        // BasicEventList reports a run of adjacent removed elements as a
+        // single block, so removing "C" and "E" yields two blocks, while
+        // removing the adjacent "E" and "F" yields one
+        list.removeAll(GlazedListsTests.delimitedStringToList("C E"));
         assertEquals(2, counter.getCountAndReset());
         assertEquals(GlazedListsTests.stringToList("B"), selModel.getSelected());
-        assertEquals(GlazedListsTests.delimitedStringToList("A C D"), selModel.getDeselected());
+        assertEquals(GlazedListsTests.delimitedStringToList("A D F"), selModel.getDeselected());
+        list.add("E");
+        counter.getCountAndReset();
+        list.removeAll(GlazedListsTests.delimitedStringToList("F E"));
+        assertEquals(1, counter.getCountAndReset());
+        assertEquals(GlazedListsTests.stringToList("B"), selModel.getSelected());
+        assertEquals(GlazedListsTests.delimitedStringToList("A D"), selModel.getDeselected());
     }
 
 
@@ -0,0 +1,143 @@
+/* Glazed Lists                                                 (c) 2003-2006 */
+/* http://publicobject.com/glazedlists/                      publicobject.com,*/
+/*                                                     O'Dell Engineering Ltd.*/
+package ca.odell.glazedlists.util.concurrent;
+
+import ca.odell.glazedlists.BasicEventList;
+import ca.odell.glazedlists.EventList;
+import ca.odell.glazedlists.SortedList;
+import ca.odell.glazedlists.impl.ThreadSafeList;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests the locks created by the {@link StampedLockFactory}.
+ */
+public class StampedLockFactoryTest {
+
+    private final OptimisticReadWriteLock lock = (OptimisticReadWriteLock)new StampedLockFactory().createReadWriteLock();
+
+    /**
+     * The write lock can be reacquired, and the read lock acquired while
+     * holding it, by the same thread.
+     */
+    @Test
+    public void testReentrant() throws InterruptedException {
+        lock.writeLock().lock();
+        lock.writeLock().lock();
+        lock.readLock().lock();
+        lock.readLock().unlock();
+        lock.writeLock().unlock();
+        assertFalse(tryLockOnOtherThread(lock.readLock()));
+        lock.writeLock().unlock();
+        assertTrue(tryLockOnOtherThread(lock.readLock()));
+
+        lock.readLock().lock();
+        lock.readLock().lock();
+        lock.readLock().unlock();
+        assertFalse(tryLockOnOtherThread(lock.writeLock()));
+        assertTrue(tryLockOnOtherThread(lock.readLock()));
+        lock.readLock().unlock();
+        assertTrue(tryLockOnOtherThread(lock.writeLock()));
+    }
+
+    /**
+     * Releasing the write lock while holding the read lock keeps the read lock.
+     */
+    @Test
+    public void testDowngrade() throws InterruptedException {
+        lock.writeLock().lock();
+        lock.readLock().lock();
+        lock.writeLock().unlock();
+        assertTrue(tryLockOnOtherThread(lock.readLock()));
+        assertFalse(tryLockOnOtherThread(lock.writeLock()));
+        lock.readLock().unlock();
+        assertTrue(tryLockOnOtherThread(lock.writeLock()));
+    }
+
+    @Test(expected = IllegalMonitorStateException.class)
+    public void testUnlockWithoutLock() {
+        lock.readLock().unlock();
+    }
+
+    /**
+     * Optimistic stamps are invalidated by writers, but not by readers.
+     */
+    @Test
+    public void testOptimisticRead() {
+        long stamp = lock.tryOptimisticRead();
+        lock.readLock().lock();
+        lock.readLock().unlock();
+        assertTrue(lock.validate(stamp));
+
+        lock.writeLock().lock();
+        assertFalse(lock.validate(stamp));
+        assertEquals(0L, lock.tryOptimisticRead());
+        lock.writeLock().unlock();
+        assertFalse(lock.validate(stamp));
+        assertTrue(lock.validate(lock.tryOptimisticRead()));
+    }
+
+    /**
+     * A pipeline runs with these locks, and snapshots can be read while
+     * another thread changes the source.
+     */
+    @Test
+    public void testPipeline() throws InterruptedException {
+        final EventList<Integer> source = new BasicEventList<Integer>(new StampedLockFactory().createReadWriteLock());
+        final SortedList<Integer> sorted = new SortedList<Integer>(source);
+        final ThreadSafeList<Integer> threadSafe = new ThreadSafeList<Integer>(sorted);
+
+        final Thread writer = new Thread() {
+            @Override
+            public void run() {
+                for(int i = 0; i < 2000; i++) {
+                    source.getReadWriteLock().writeLock().lock();
+                    try {
+                        source.add(new Integer(i % 100));
+                        if(i % 3 == 0) source.remove(0);
+                    } finally {
+                        source.getReadWriteLock().writeLock().unlock();
+                    }
+                }
+            }
+        };
+        writer.start();
+        while(writer.isAlive()) {
+            final List<Integer> snapshot = sorted.snapshot();
+            for(int i = 1; i < snapshot.size(); i++) {
+                assertTrue(snapshot.get(i - 1).intValue() <= snapshot.get(i).intValue());
+            }
+            assertTrue(threadSafe.size() >= 0);
+        }
+        writer.join();
+
+        assertEquals(1333, threadSafe.size());
+        assertEquals(1333, source.snapshot().size());
+    }
+
+    /**
+     * Attempts to acquire the lock on another thread, and releases it if
+     * that succeeds.
+     */
+    private static boolean tryLockOnOtherThread(final Lock lock) throws InterruptedException {
+        final AtomicBoolean acquired = new AtomicBoolean();
+        final Thread thread = new Thread() {
+            @Override
+            public void run() {
+                if(lock.tryLock()) {
+                    acquired.set(true);
+                    lock.unlock();
+                }
+            }
+        };
+        thread.start();
+        thread.join();
+        return acquired.get();
+    }
+}
@@ -30,7 +30,14 @@ public abstract class AbstractEventListCalculation<N, E> extends AbstractCalcula
     /** the List of elements from which this calculation is derived */
     private final EventList<E> source;
 
-    /** a snapshot of the {@link #source} after the last ListEvent; used to retrieve deleted elements */
+    /** the value of this Calculation for an empty {@link #source} */
+    private final N initialValue;
+
+    /**
+     * a snapshot of the {@link #source} after the last ListEvent; used to
+     * retrieve deleted elements, or null if they're retrieved from each
+     * ListEvent
+     */
     private final List<E> snapshot;
 
     /**
@@ -39,14 +46,34 @@ public abstract class AbstractEventListCalculation<N, E> extends AbstractCalcula
      * @param source the List of elements from which this calculation is derived
      */
     protected AbstractEventListCalculation(N initialValue, EventList<E> source) {
+        this(initialValue, source, true);
+    }
+
+    /**
+     * Creates a Calculation that either keeps a snapshot of the source to
+     * retrieve the deleted and updated elements, or retrieves them from the
+     * {@link ListEvent#getOldValue() old values} reported by each ListEvent.
+     * Without a snapshot, a Calculation takes no memory per element, but it
+     * must not depend upon the order of the elements, since reorderings are
+     * ignored. If the source doesn't report the old values of an event, the
+     * Calculation is {@link #reset} and all of the elements are inserted
+     * again.
+     *
+     * @param initialValue the value that should immediately be reported as the
+     *      value of this Calculation
+     * @param source the List of elements from which this calculation is derived
+     * @param snapshot <code>true</code> to keep a snapshot of the source
+     */
+    protected AbstractEventListCalculation(N initialValue, EventList<E> source, boolean snapshot) {
         super(initialValue);
 
+        this.initialValue = initialValue;
         this.source = source;
-        this.snapshot = new ArrayList<E>(source);
+        this.snapshot = snapshot ? new ArrayList<E>(source) : null;
 
         // compute the first value of this Calculation by simulating the entry
         // of all existing elements
-        for (E element : this.snapshot)
+        for (E element : source)
             inserted(element);
 
         // begin listening to the source for changes
@@ -96,6 +123,17 @@ public abstract class AbstractEventListCalculation<N, E> extends AbstractCalcula
      */
     protected abstract void updated(E oldElement, E newElement);
 
+    /**
+     * Restores this Calculation to its value for an empty source, before its
+     * elements are inserted again. This is only called for Calculations that
+     * don't keep a snapshot of their source. It sets the initial value, so
+     * subclasses that keep any other state must override it to reset that
+     * state too.
+     */
+    protected void reset() {
+        setValue(initialValue);
+    }
+
     /**
      * Updates the value of this Calculation in response to the
      * <code>listChanges</code>.
@@ -109,7 +147,12 @@ public abstract class AbstractEventListCalculation<N, E> extends AbstractCalcula
 
         final List<E> source = listChanges.getSourceList();
 
-        if (listChanges.isReordering()) {
+        if (snapshot == null) {
+            // without a snapshot, the old values must come from the event
+            if (!listChanges.isReordering())
+                oldValuesChanged(listChanges, source);
+
+        } else if (listChanges.isReordering()) {
             final int[] reorderMap = listChanges.getReorderMap();
             for (int i = 0; i < reorderMap.length; i++) {
                 final int oldIndex = reorderMap[i];
@@ -155,4 +198,47 @@ public abstract class AbstractEventListCalculation<N, E> extends AbstractCalcula
         final N newValue = getValue();
         fireValueChange(oldValue, newValue);
     }
+
+    /**
+     * Updates the value of this Calculation using the old values reported by
+     * the <code>listChanges</code>, or by inserting all of the elements again
+     * if they aren't reported.
+     */
+    private void oldValuesChanged(ListEvent<E> listChanges, List<E> source) {
+        final E unknown = ListEvent.unknownValue();
+        boolean oldValuesKnown = true;
+        while (oldValuesKnown && listChanges.next()) {
+            if (listChanges.getType() != ListEvent.INSERT)
+                oldValuesKnown = listChanges.getOldValue() != unknown;
+        }
+        listChanges.reset();
+
+        if (!oldValuesKnown) {
+            reset();
+            for (E element : source)
+                inserted(element);
+            return;
+        }
+
+        while (listChanges.next()) {
+            final int index = listChanges.getIndex();
+
+            switch (listChanges.getType()) {
+                case ListEvent.INSERT: {
+                    inserted(source.get(index));
+                    break;
+                }
+
+                case ListEvent.DELETE: {
+                    deleted(listChanges.getOldValue());
+                    break;
+                }
+
+                case ListEvent.UPDATE: {
+                    updated(listChanges.getOldValue(), source.get(index));
+                    break;
+                }
+            }
+        }
+    }
 }
\ No newline at end of file
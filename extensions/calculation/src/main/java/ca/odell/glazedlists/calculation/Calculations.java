@@ -42,6 +42,9 @@ public final class Calculations {
     /** A Calculation that sums the given <code>numbers</code> as a Double. */
     public static Calculation<Double> sumDoubles(EventList<? extends Number> numbers) { return new Sum.SumDouble(numbers); }
 
+    /** A Calculation that sums the given <code>numbers</code> as a Double, optionally compensating for rounding errors with Kahan summation. */
+    public static Calculation<Double> sumDoubles(EventList<? extends Number> numbers, boolean compensated) { return compensated ? new Sum.CompensatedSumDouble(numbers) : new Sum.SumDouble(numbers); }
+
     /** A Calculation that sums the given <code>numbers</code> as an Integer. */
     public static Calculation<Integer> sumIntegers(EventList<? extends Number> numbers) { return new Sum.SumInteger(numbers); }
 
@@ -9,59 +9,159 @@ import ca.odell.glazedlists.EventList;
  * Reports the sum total of the numeric elements within the backing EventList
  * as the value of these Calculations.
  *
+ * <p>Each sum is accumulated in a primitive field, and only boxed when its
+ * value is read, which is once per ListEvent rather than once per element.
+ * The sums don't keep a snapshot of the backing EventList, since they read
+ * the deleted and updated elements from each ListEvent.
+ *
  * @author James Lemieux
  */
 final class Sum {
 
-    static final class SumFloat<N extends Number> extends AbstractEventListCalculation<Float, N> {
+    /**
+     * A sum accumulated in primitive fields by subclasses, which call
+     * {@link #changed} whenever they change them.
+     *
+     * <p>Note that the subclasses' fields are first changed by the constructor
+     * of {@link AbstractEventListCalculation}, so they must not have
+     * initializers.
+     */
+    private abstract static class PrimitiveSum<V, N extends Number> extends AbstractEventListCalculation<V, N> {
+        /** the boxed sum, or null if the sum has changed since it was boxed */
+        private V value;
+
+        PrimitiveSum(EventList<N> source) {
+            super(null, source, false);
+        }
+
+        /**
+         * Returns the primitive sum in a new box.
+         */
+        protected abstract V box();
+
+        /**
+         * Discards the boxed sum, so it's boxed again when it's next read.
+         */
+        protected final void changed() {
+            value = null;
+        }
+
+        @Override
+        public V getValue() {
+            if (value == null) value = box();
+            return value;
+        }
+    }
+
+    static final class SumFloat<N extends Number> extends PrimitiveSum<Float, N> {
+        private float sum;
+
         public SumFloat(EventList<N> source) {
-            super(new Float(0), source);
+            super(source);
         }
 
         @Override
-        protected void inserted(Number element) { setValue(new Float(getValue().floatValue() + element.floatValue())); }
+        protected void inserted(Number element) { sum += element.floatValue(); changed(); }
+        @Override
+        protected void deleted(Number element) { sum -= element.floatValue(); changed(); }
+        @Override
+        protected void updated(Number oldElement, Number newElement) { sum = sum - oldElement.floatValue() + newElement.floatValue(); changed(); }
         @Override
-        protected void deleted(Number element) { setValue(new Float(getValue().floatValue() - element.floatValue())); }
+        protected void reset() { sum = 0; changed(); }
         @Override
-        protected void updated(Number oldElement, Number newElement) { setValue(new Float(getValue().floatValue() - oldElement.floatValue() + newElement.floatValue())); }
+        protected Float box() { return new Float(sum); }
     }
 
-    static final class SumDouble<N extends Number> extends AbstractEventListCalculation<Double, N> {
+    static final class SumDouble<N extends Number> extends PrimitiveSum<Double, N> {
+        private double sum;
+
         public SumDouble(EventList<N> source) {
-            super(new Double(0), source);
+            super(source);
+        }
+
+        @Override
+        protected void inserted(Number element) { sum += element.doubleValue(); changed(); }
+        @Override
+        protected void deleted(Number element) { sum -= element.doubleValue(); changed(); }
+        @Override
+        protected void updated(Number oldElement, Number newElement) { sum = sum - oldElement.doubleValue() + newElement.doubleValue(); changed(); }
+        @Override
+        protected void reset() { sum = 0; changed(); }
+        @Override
+        protected Double box() { return new Double(sum); }
+    }
+
+    /**
+     * A sum of doubles that keeps the rounding error of each addition and
+     * subtraction, using Neumaier's variant of Kahan summation. The error of
+     * the sum doesn't grow with the number of changes, so it stays accurate
+     * over a long lived list with many updates.
+     */
+    static final class CompensatedSumDouble<N extends Number> extends PrimitiveSum<Double, N> {
+        private double sum;
+
+        /** the rounding error lost from {@link #sum} so far */
+        private double compensation;
+
+        public CompensatedSumDouble(EventList<N> source) {
+            super(source);
+        }
+
+        private void add(double value) {
+            final double total = sum + value;
+            if (Math.abs(sum) >= Math.abs(value)) compensation += (sum - total) + value;
+            else compensation += (value - total) + sum;
+            sum = total;
+            changed();
         }
 
         @Override
-        protected void inserted(Number element) { setValue(new Double(getValue().doubleValue() + element.doubleValue())); }
+        protected void inserted(Number element) { add(element.doubleValue()); }
+        @Override
+        protected void deleted(Number element) { add(-element.doubleValue()); }
+        @Override
+        protected void updated(Number oldElement, Number newElement) { add(-oldElement.doubleValue()); add(newElement.doubleValue()); }
         @Override
-        protected void deleted(Number element) { setValue(new Double(getValue().doubleValue() - element.doubleValue())); }
+        protected void reset() { sum = 0; compensation = 0; changed(); }
         @Override
-        protected void updated(Number oldElement, Number newElement) { setValue(new Double(getValue().doubleValue() - oldElement.doubleValue() + newElement.doubleValue())); }
+        protected Double box() { return new Double(sum + compensation); }
     }
 
-    static final class SumInteger<N extends Number> extends AbstractEventListCalculation<Integer, N> {
+    static final class SumInteger<N extends Number> extends PrimitiveSum<Integer, N> {
+        private int sum;
+
         public SumInteger(EventList<N> source) {
-            super(new Integer(0), source);
+            super(source);
         }
 
         @Override
-        protected void inserted(Number element) { setValue(new Integer(getValue().intValue() + element.intValue())); }
+        protected void inserted(Number element) { sum += element.intValue(); changed(); }
+        @Override
+        protected void deleted(Number element) { sum -= element.intValue(); changed(); }
         @Override
-        protected void deleted(Number element) { setValue(new Integer(getValue().intValue() - element.intValue())); }
+        protected void updated(Number oldElement, Number newElement) { sum = sum - oldElement.intValue() + newElement.intValue(); changed(); }
         @Override
-        protected void updated(Number oldElement, Number newElement) { setValue(new Integer(getValue().intValue() - oldElement.intValue() + newElement.intValue())); }
+        protected void reset() { sum = 0; changed(); }
+        @Override
+        protected Integer box() { return new Integer(sum); }
     }
 
-    static final class SumLong<N extends Number> extends AbstractEventListCalculation<Long, N> {
+    static final class SumLong<N extends Number> extends PrimitiveSum<Long, N> {
+        private long sum;
+
         public SumLong(EventList<N> source) {
-            super(new Long(0), source);
+            super(source);
         }
 
         @Override
-        protected void inserted(Number element) { setValue(new Long(getValue().longValue() + element.longValue())); }
+        protected void inserted(Number element) { sum += element.longValue(); changed(); }
+        @Override
+        protected void deleted(Number element) { sum -= element.longValue(); changed(); }
+        @Override
+        protected void updated(Number oldElement, Number newElement) { sum = sum - oldElement.longValue() + newElement.longValue(); changed(); }
         @Override
-        protected void deleted(Number element) { setValue(new Long(getValue().longValue() - element.longValue())); }
+        protected void reset() { sum = 0; changed(); }
         @Override
-        protected void updated(Number oldElement, Number newElement) { setValue(new Long(getValue().longValue() - oldElement.longValue() + newElement.longValue())); }
+        protected Long box() { return new Long(sum); }
     }
-}
\ No newline at end of file
+}
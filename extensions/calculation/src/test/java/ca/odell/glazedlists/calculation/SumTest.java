@@ -4,7 +4,9 @@
 package ca.odell.glazedlists.calculation;
 
 import ca.odell.glazedlists.BasicEventList;
+import ca.odell.glazedlists.DoubleEventList;
 import ca.odell.glazedlists.EventList;
+import ca.odell.glazedlists.FunctionList;
 import ca.odell.glazedlists.GlazedLists;
 import ca.odell.glazedlists.SortedList;
 
@@ -187,4 +189,75 @@ public final class SumTest {
         assertEquals(13L, sum.getValue().longValue());
         assertEquals(1, counter.getCountAndReset());
     }
+
+    @Test
+    public void testBulkChanges() {
+        final DoubleEventList source = new DoubleEventList();
+        final PropertyChangeCounter counter = new PropertyChangeCounter();
+        final Calculation<Double> sum = Calculations.sumDoubles(source);
+        sum.addPropertyChangeListener(counter);
+
+        // a bulk insert is a single change, boxed once
+        final double[] values = new double[10000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = i;
+        }
+        source.addAll(values);
+        assertEquals(49995000.0, sum.getValue().doubleValue(), 0.0);
+        assertSame(sum.getValue(), sum.getValue());
+        assertEquals(1, counter.getCountAndReset());
+
+        source.clear();
+        assertEquals(0.0, sum.getValue().doubleValue(), 0.0);
+        assertEquals(1, counter.getCountAndReset());
+    }
+
+    @Test
+    public void testUnknownOldValues() {
+        // a lazy FunctionList doesn't report the old values of elements it hasn't read
+        final EventList<Integer> source = new BasicEventList<Integer>();
+        source.addAll(Arrays.asList(new Integer(1), new Integer(2), new Integer(3)));
+        final FunctionList<Integer, Long> longs = FunctionList.createLazy(source, new FunctionList.Function<Integer, Long>() {
+            @Override
+            public Long evaluate(Integer value) {
+                return new Long(value.longValue());
+            }
+        }, null, 0);
+
+        final PropertyChangeCounter counter = new PropertyChangeCounter();
+        final Calculation<Long> sum = Calculations.sumLongs(longs);
+        sum.addPropertyChangeListener(counter);
+        assertEquals(6L, sum.getValue().longValue());
+
+        source.set(1, new Integer(20));
+        assertEquals(24L, sum.getValue().longValue());
+        assertEquals(1, counter.getCountAndReset());
+
+        source.remove(0);
+        assertEquals(23L, sum.getValue().longValue());
+        assertEquals(1, counter.getCountAndReset());
+
+        source.add(new Integer(4));
+        assertEquals(27L, sum.getValue().longValue());
+        assertEquals(1, counter.getCountAndReset());
+    }
+
+    @Test
+    public void testCompensatedSumDouble() {
+        final EventList<Double> source = new BasicEventList<Double>();
+        final Calculation<Double> plain = Calculations.sumDoubles(source);
+        final Calculation<Double> compensated = Calculations.sumDoubles(source, true);
+
+        // the rounding errors of adding and removing a large value accumulate
+        for (int i = 0; i < 1000; i++) {
+            source.add(new Double(0.1));
+            source.add(new Double(1e16));
+            source.remove(source.size() - 1);
+        }
+        assertEquals(100.0, compensated.getValue().doubleValue(), 1e-9);
+        assertTrue(Math.abs(plain.getValue().doubleValue() - 100.0) > 1.0);
+
+        source.set(0, new Double(1.1));
+        assertEquals(101.0, compensated.getValue().doubleValue(), 1e-9);
+    }
 }
@@ -42,6 +42,9 @@ public class UnicodeCaseInsensitiveTextSearchStrategy implements TextSearchStrat
         // used to denote differences between base characters. We use it to
         // make the StringSearch case insensitive.
         COLLATOR.setStrength(Collator.PRIMARY);
+        // the collator is shared by every StringSearch, so make it immutable
+        // and thereby safe to use from multiple threads
+        COLLATOR.freeze();
     }
 
     /** The string to locate within a larger text. */
@@ -0,0 +1,158 @@
+package ca.odell.glazedlists;
+
+import ca.odell.glazedlists.event.ListEvent;
+import ca.odell.glazedlists.event.ListEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Base class for benchmarks that measure how fast a change to a
+ * {@link BasicEventList} travels through a pipeline of
+ * {@link TransformedList}s.
+ *
+ * <p>Every invocation of {@link #edit()} performs exactly one change
+ * to the source, so the throughput figures are ListEvents per time unit and
+ * the sample-time percentiles (p0.99 etc.) are the latency of a single
+ * ListEvent. Run with <code>-prof gc</code> (the default of
+ * {@link BenchmarkMain}) to also get the allocation rate per event.
+ *
+ * <p>Subclasses only have to build the pipeline under test in
+ * {@link #createPipeline(EventList)}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public abstract class AbstractPipelineBenchmark {
+
+    /** the number of elements in the source list */
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    public int size;
+
+    /** the kind of changes applied to the source list */
+    @Param({"SEQUENTIAL", "RANDOM", "BULK"})
+    public EditMix editMix;
+
+    /** the list that is edited */
+    protected BasicEventList<Integer> source;
+
+    /** the last list of the pipeline */
+    protected EventList<?> pipeline;
+
+    /** forwards each ListEvent at the end of the pipeline to JMH */
+    private EventConsumer consumer;
+
+    /** seeded for reproducible edits */
+    protected Random random;
+
+    /** alternates between the kinds of edits of an {@link EditMix} */
+    private int invocation;
+
+    @Setup(Level.Trial)
+    public void setUp(Blackhole blackhole) {
+        random = new Random(42);
+        invocation = 0;
+
+        final List<Integer> values = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            values.add(Integer.valueOf(random.nextInt(valueRange())));
+        }
+        source = new BasicEventList<>(size + EditMix.BULK_SIZE, null, null);
+        source.addAll(values);
+
+        pipeline = createPipeline(source);
+        consumer = new EventConsumer(blackhole);
+        pipeline.addListEventListener(consumer);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pipeline.removeListEventListener(consumer);
+        disposePipeline();
+    }
+
+    /**
+     * Applies a single change to the source list.
+     */
+    @Benchmark
+    public void edit() {
+        // hold the write lock, pipelines with a thread proxy rely on it
+        source.getReadWriteLock().writeLock().lock();
+        try {
+            editMix.apply(source, random, invocation++, valueRange());
+        } finally {
+            source.getReadWriteLock().writeLock().unlock();
+        }
+        afterEdit();
+    }
+
+    /**
+     * Build the pipeline under test on top of <code>source</code>.
+     *
+     * @return the last list of the pipeline
+     */
+    protected abstract EventList<?> createPipeline(EventList<Integer> source);
+
+    /**
+     * Dispose the lists created by {@link #createPipeline(EventList)}. The
+     * default implementation disposes the last list only.
+     */
+    protected void disposePipeline() {
+        pipeline.dispose();
+    }
+
+    /**
+     * Called after each change to the source list, within the measured
+     * time. Subclasses override this to deliver events that the pipeline
+     * has deferred.
+     */
+    protected void afterEdit() {
+    }
+
+    /**
+     * The exclusive upper bound of the values in the source list. Subclasses
+     * override this to control the number of duplicates.
+     */
+    protected int valueRange() {
+        return Integer.MAX_VALUE;
+    }
+
+    /**
+     * Makes sure the events at the end of the pipeline are consumed, so
+     * that lazy work is not eliminated.
+     */
+    private static final class EventConsumer implements ListEventListener<Object> {
+        private final Blackhole blackhole;
+
+        EventConsumer(Blackhole blackhole) {
+            this.blackhole = blackhole;
+        }
+
+        @Override
+        public void listChanged(ListEvent<Object> listChanges) {
+            while (listChanges.next()) {
+                blackhole.consume(listChanges.getIndex());
+            }
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package ca.odell.glazedlists;
 
 import java.io.IOException;
+import java.util.Arrays;
 
 import org.openjdk.jmh.Main;
 import org.openjdk.jmh.runner.RunnerException;
@@ -9,9 +10,23 @@ public class BenchmarkMain {
 
     public static void main(String[] args) {
         try {
-            Main.main(args);
+            Main.main(withDefaultProfilers(args));
         } catch (RunnerException | IOException e) {
             throw new RuntimeException(e);
         }
     }
+
+    /**
+     * Adds the GC profiler, which reports the allocation rate per operation,
+     * unless profilers have been chosen explicitly.
+     */
+    private static String[] withDefaultProfilers(String[] args) {
+        if (Arrays.asList(args).contains("-prof")) {
+            return args;
+        }
+        final String[] result = Arrays.copyOf(args, args.length + 2);
+        result[args.length] = "-prof";
+        result[args.length + 1] = "gc";
+        return result;
+    }
 }
@@ -0,0 +1,16 @@
+package ca.odell.glazedlists;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+/**
+ * Measures edits through a {@link CollectionList} that expands every source
+ * element into two children.
+ */
+public class CollectionListBenchmark extends AbstractPipelineBenchmark {
+
+    @Override
+    protected EventList<?> createPipeline(EventList<Integer> source) {
+        return new CollectionList<Integer, Integer>(source, parent -> Collections.nCopies(2, parent));
+    }
+}
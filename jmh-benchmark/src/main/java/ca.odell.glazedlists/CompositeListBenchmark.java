@@ -0,0 +1,23 @@
+package ca.odell.glazedlists;
+
+/**
+ * Measures edits through a {@link CompositeList} whose edited member is
+ * surrounded by two other members of the same size.
+ */
+public class CompositeListBenchmark extends AbstractPipelineBenchmark {
+
+    private CompositeList<Integer> compositeList;
+
+    @Override
+    protected EventList<?> createPipeline(EventList<Integer> source) {
+        compositeList = new CompositeList<>(source.getPublisher(), source.getReadWriteLock());
+        final EventList<Integer> before = compositeList.createMemberList();
+        final EventList<Integer> after = compositeList.createMemberList();
+        before.addAll(source);
+        after.addAll(source);
+        compositeList.addMemberList(before);
+        compositeList.addMemberList(source);
+        compositeList.addMemberList(after);
+        return compositeList;
+    }
+}
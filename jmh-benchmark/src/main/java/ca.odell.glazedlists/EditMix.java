@@ -0,0 +1,82 @@
+package ca.odell.glazedlists;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * The kinds of edits that the pipeline benchmarks apply to their source list.
+ *
+ * <p>Each call to {@link #apply} performs exactly one change to the source,
+ * which results in exactly one {@link ca.odell.glazedlists.event.ListEvent}
+ * traveling down the pipeline. Inserts and deletes alternate so that the
+ * size of the source stays stable across a measurement.
+ */
+public enum EditMix {
+
+    /** appends to and removes from the end of the list */
+    SEQUENTIAL {
+        @Override
+        void apply(EventList<Integer> source, Random random, int invocation, int valueRange) {
+            if (invocation % 2 == 0) {
+                source.add(Integer.valueOf(random.nextInt(valueRange)));
+            } else {
+                source.remove(source.size() - 1);
+            }
+        }
+    },
+
+    /** inserts, updates and removes single elements at random locations */
+    RANDOM {
+        @Override
+        void apply(EventList<Integer> source, Random random, int invocation, int valueRange) {
+            final Integer value = Integer.valueOf(random.nextInt(valueRange));
+            switch (invocation % 3) {
+                case 0: source.add(random.nextInt(source.size() + 1), value); break;
+                case 1: source.set(random.nextInt(source.size()), value); break;
+                default: source.remove(random.nextInt(source.size())); break;
+            }
+        }
+    },
+
+    /**
+     * inserts a block of {@link #BULK_SIZE} distinct values at a random
+     * location, then removes the same block again
+     */
+    BULK {
+        @Override
+        void apply(EventList<Integer> source, Random random, int invocation, int valueRange) {
+            if (invocation % 2 == 0) {
+                source.addAll(random.nextInt(source.size() + 1), bulkBlock(invocation));
+            } else {
+                source.removeAll(bulkBlock(invocation - 1));
+            }
+        }
+    };
+
+    /** the number of elements inserted or removed by a single {@link #BULK} edit */
+    public static final int BULK_SIZE = 1000;
+
+    /**
+     * Creates the values inserted by the {@link #BULK} edit with the given
+     * invocation number. These are negative, so they never collide with the
+     * values of the initial list nor with those of other invocations.
+     */
+    private static List<Integer> bulkBlock(int invocation) {
+        final List<Integer> block = new ArrayList<>(BULK_SIZE);
+        for (int i = 0; i < BULK_SIZE; i++) {
+            block.add(Integer.valueOf(-(invocation % 1000000) * BULK_SIZE - i - 1));
+        }
+        return block;
+    }
+
+    /**
+     * Apply a single change to the <code>source</code> list.
+     *
+     * @param source the non-empty list to edit
+     * @param random the source of randomness for indices and values
+     * @param invocation a running counter used to alternate between edit kinds
+     * @param valueRange the exclusive upper bound of inserted values
+     */
+    abstract void apply(EventList<Integer> source, Random random, int invocation, int valueRange);
+}
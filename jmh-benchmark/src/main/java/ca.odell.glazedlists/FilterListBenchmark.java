@@ -0,0 +1,37 @@
+package ca.odell.glazedlists;
+
+import ca.odell.glazedlists.matchers.Matcher;
+
+import org.openjdk.jmh.annotations.Benchmark;
+
+/**
+ * Measures edits through a {@link FilterList} and complete refilters caused
+ * by matcher changes.
+ */
+public class FilterListBenchmark extends AbstractPipelineBenchmark {
+
+    private static final Matcher<Integer> EVEN = value -> (value.intValue() & 1) == 0;
+    private static final Matcher<Integer> DIVISIBLE_BY_THREE = value -> value.intValue() % 3 == 0;
+
+    private FilterList<Integer> filterList;
+
+    /** whether the {@link #EVEN} matcher is currently installed */
+    private boolean even;
+
+    @Override
+    protected EventList<?> createPipeline(EventList<Integer> source) {
+        filterList = new FilterList<>(source, EVEN);
+        even = true;
+        return filterList;
+    }
+
+    /**
+     * Switches between two unrelated matchers, each of which forces the
+     * whole source to be refiltered.
+     */
+    @Benchmark
+    public void changeMatcher() {
+        even = !even;
+        filterList.setMatcher(even ? EVEN : DIVISIBLE_BY_THREE);
+    }
+}
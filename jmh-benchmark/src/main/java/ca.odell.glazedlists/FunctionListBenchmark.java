@@ -0,0 +1,13 @@
+package ca.odell.glazedlists;
+
+/**
+ * Measures edits through a {@link FunctionList} with a cheap function, so
+ * that the bookkeeping of the list itself dominates.
+ */
+public class FunctionListBenchmark extends AbstractPipelineBenchmark {
+
+    @Override
+    protected EventList<?> createPipeline(EventList<Integer> source) {
+        return new FunctionList<Integer, Long>(source, value -> Long.valueOf(value.longValue() * 31));
+    }
+}
@@ -0,0 +1,18 @@
+package ca.odell.glazedlists;
+
+/**
+ * Measures edits through a {@link GroupingList} over a source where every
+ * group has about ten members.
+ */
+public class GroupingListBenchmark extends AbstractPipelineBenchmark {
+
+    @Override
+    protected EventList<?> createPipeline(EventList<Integer> source) {
+        return new GroupingList<>(source);
+    }
+
+    @Override
+    protected int valueRange() {
+        return Math.max(1, size / 10);
+    }
+}
@@ -0,0 +1,53 @@
+package ca.odell.glazedlists;
+
+import java.util.EventListener;
+
+import org.openjdk.jmh.annotations.Benchmark;
+
+/**
+ * Measures edits through an {@link ObservableElementList} and the cost of a
+ * single element reporting a change.
+ */
+public class ObservableElementListBenchmark extends AbstractPipelineBenchmark {
+
+    private Connector connector;
+
+    @Override
+    protected EventList<?> createPipeline(EventList<Integer> source) {
+        connector = new Connector();
+        return new ObservableElementList<>(source, connector);
+    }
+
+    /**
+     * Reports a change of a random element, as a property change of an
+     * observed bean does.
+     */
+    @Benchmark
+    public void elementChanged() {
+        connector.handler.elementChanged(source.get(random.nextInt(source.size())));
+    }
+
+    /**
+     * A connector that installs no listeners at all, but gives access to
+     * the list it is connected to.
+     */
+    private static final class Connector implements ObservableElementList.Connector<Integer> {
+        private static final EventListener LISTENER = new EventListener() { };
+
+        private ObservableElementChangeHandler<? extends Integer> handler;
+
+        @Override
+        public EventListener installListener(Integer element) {
+            return LISTENER;
+        }
+
+        @Override
+        public void uninstallListener(Integer element, EventListener listener) {
+        }
+
+        @Override
+        public void setObservableElementList(ObservableElementChangeHandler<? extends Integer> list) {
+            handler = list;
+        }
+    }
+}
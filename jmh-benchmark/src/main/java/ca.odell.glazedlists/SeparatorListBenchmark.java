@@ -0,0 +1,17 @@
+package ca.odell.glazedlists;
+
+import java.util.Comparator;
+
+/**
+ * Measures edits through a {@link SeparatorList} that groups the source by
+ * the value modulo 1000.
+ */
+public class SeparatorListBenchmark extends AbstractPipelineBenchmark {
+
+    private static final Comparator<Integer> BY_REMAINDER = (a, b) -> Integer.compare(a.intValue() % 1000, b.intValue() % 1000);
+
+    @Override
+    protected EventList<?> createPipeline(EventList<Integer> source) {
+        return new SeparatorList<>(source, BY_REMAINDER, 1, Integer.MAX_VALUE);
+    }
+}
@@ -0,0 +1,113 @@
+package ca.odell.glazedlists;
+
+import ca.odell.glazedlists.event.ListEvent;
+import ca.odell.glazedlists.event.ListEventAssembler;
+import ca.odell.glazedlists.event.ListEventListener;
+import ca.odell.glazedlists.event.ListEventPublisher;
+import ca.odell.glazedlists.util.concurrent.LockFactory;
+import ca.odell.glazedlists.util.concurrent.ReadWriteLock;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures the cost of a single change when many independent pipelines share
+ * one {@link ListEventPublisher}, as is common when all lists of a screen
+ * share one lock and publisher.
+ *
+ * <p>Only the first pipeline is edited, so the cost of the change itself is
+ * the same for any number of <code>pipelines</code>. Any growth in the time
+ * per change is overhead of the publisher dispatching to the listeners that
+ * are not affected.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SharedPublisherBenchmark {
+
+    /** the number of independent pipelines sharing the publisher */
+    @Param({"1", "10", "100", "1000"})
+    public int pipelines;
+
+    /** the number of elements in the source list of each pipeline */
+    @Param({"100"})
+    public int size;
+
+    /** the source list of the first pipeline, which is edited */
+    private EventList<Integer> source;
+
+    /** alternates between adding and removing an element */
+    private int invocation;
+
+    @Setup(Level.Trial)
+    public void setUp(Blackhole blackhole) {
+        final ListEventPublisher publisher = ListEventAssembler.createListEventPublisher();
+        final ReadWriteLock lock = LockFactory.DEFAULT.createReadWriteLock();
+        final EventConsumer consumer = new EventConsumer(blackhole);
+
+        for (int p = 0; p < pipelines; p++) {
+            final EventList<Integer> pipelineSource = new BasicEventList<>(publisher, lock);
+            for (int i = 0; i < size; i++) {
+                pipelineSource.add(Integer.valueOf(i));
+            }
+            final FilterList<Integer> filtered = new FilterList<>(pipelineSource, element -> element.intValue() % 2 == 0);
+            final SortedList<Integer> sorted = new SortedList<>(filtered, GlazedLists.reverseComparator());
+            sorted.addListEventListener(consumer);
+            if (p == 0) {
+                source = pipelineSource;
+            }
+        }
+        invocation = 0;
+    }
+
+    /**
+     * Applies a single change to the first pipeline.
+     */
+    @Benchmark
+    public void edit() {
+        source.getReadWriteLock().writeLock().lock();
+        try {
+            if ((invocation++ & 1) == 0) {
+                source.add(Integer.valueOf(size));
+            } else {
+                source.remove(source.size() - 1);
+            }
+        } finally {
+            source.getReadWriteLock().writeLock().unlock();
+        }
+    }
+
+    /**
+     * Makes sure the events at the end of each pipeline are consumed.
+     */
+    private static final class EventConsumer implements ListEventListener<Integer> {
+        private final Blackhole blackhole;
+
+        EventConsumer(Blackhole blackhole) {
+            this.blackhole = blackhole;
+        }
+
+        @Override
+        public void listChanged(ListEvent<Integer> listChanges) {
+            while (listChanges.next()) {
+                blackhole.consume(listChanges.getIndex());
+            }
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package ca.odell.glazedlists;
+
+import java.util.Comparator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+
+/**
+ * Measures edits through a {@link SortedList} and complete resorts caused
+ * by comparator changes.
+ */
+public class SortedListBenchmark extends AbstractPipelineBenchmark {
+
+    private static final Comparator<Integer> ASCENDING = GlazedLists.comparableComparator();
+    private static final Comparator<Integer> DESCENDING = GlazedLists.reverseComparator();
+
+    private SortedList<Integer> sortedList;
+
+    /** whether the {@link #ASCENDING} comparator is currently installed */
+    private boolean ascending;
+
+    @Override
+    protected EventList<?> createPipeline(EventList<Integer> source) {
+        sortedList = new SortedList<>(source, ASCENDING);
+        ascending = true;
+        return sortedList;
+    }
+
+    /**
+     * Switches between ascending and descending order, as a click on a
+     * table header does.
+     */
+    @Benchmark
+    public void changeComparator() {
+        ascending = !ascending;
+        sortedList.setComparator(ascending ? ASCENDING : DESCENDING);
+    }
+}
@@ -0,0 +1,75 @@
+package ca.odell.glazedlists;
+
+import ca.odell.glazedlists.gui.TableFormat;
+import ca.odell.glazedlists.matchers.Matcher;
+import ca.odell.glazedlists.swing.AdvancedTableModel;
+import ca.odell.glazedlists.swing.GlazedListsSwing;
+
+import java.lang.reflect.InvocationTargetException;
+
+import javax.swing.SwingUtilities;
+
+/**
+ * Measures edits through the typical multi-stage chain of a Swing table:
+ * BasicEventList, FilterList, SortedList, a Swing thread proxy and a table
+ * model.
+ *
+ * <p>Each measured edit includes the delivery of its event on the event
+ * dispatch thread.
+ */
+public class SwingPipelineBenchmark extends AbstractPipelineBenchmark {
+
+    private static final Matcher<Integer> EVEN = value -> (value.intValue() & 1) == 0;
+
+    private FilterList<Integer> filterList;
+    private SortedList<Integer> sortedList;
+    private TransformedList<Integer, Integer> swingList;
+    private AdvancedTableModel<Integer> tableModel;
+
+    @Override
+    protected EventList<?> createPipeline(EventList<Integer> source) {
+        filterList = new FilterList<>(source, EVEN);
+        sortedList = new SortedList<>(filterList, GlazedLists.comparableComparator());
+        swingList = GlazedListsSwing.swingThreadProxyList(sortedList);
+        tableModel = GlazedListsSwing.eventTableModel(swingList, new IntegerTableFormat());
+        return swingList;
+    }
+
+    @Override
+    protected void disposePipeline() {
+        tableModel.dispose();
+        swingList.dispose();
+        sortedList.dispose();
+        filterList.dispose();
+    }
+
+    @Override
+    protected void afterEdit() {
+        try {
+            // wait until the event dispatch thread has processed the flush
+            SwingUtilities.invokeAndWait(() -> { });
+        } catch (InterruptedException | InvocationTargetException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Shows an Integer in two columns.
+     */
+    private static final class IntegerTableFormat implements TableFormat<Integer> {
+        @Override
+        public int getColumnCount() {
+            return 2;
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            return column == 0 ? "Value" : "Hex";
+        }
+
+        @Override
+        public Object getColumnValue(Integer baseObject, int column) {
+            return column == 0 ? baseObject : Integer.toHexString(baseObject.intValue());
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package ca.odell.glazedlists;
+
+import ca.odell.glazedlists.impl.gui.ThreadProxyEventList;
+
+/**
+ * Measures edits through a {@link ThreadProxyEventList}, including the
+ * flush on the proxy thread that updates its local cache.
+ *
+ * <p>The proxy thread is simulated by running the scheduled flush right
+ * after each edit on the benchmark thread.
+ */
+public class ThreadProxyEventListBenchmark extends AbstractPipelineBenchmark {
+
+    private DeferredThreadProxyEventList<Integer> proxy;
+
+    @Override
+    protected EventList<?> createPipeline(EventList<Integer> source) {
+        proxy = new DeferredThreadProxyEventList<>(source);
+        return proxy;
+    }
+
+    @Override
+    protected void afterEdit() {
+        proxy.flush();
+    }
+
+    /**
+     * A {@link ThreadProxyEventList} whose proxy thread is whichever thread
+     * calls {@link #flush()}.
+     */
+    private static final class DeferredThreadProxyEventList<E> extends ThreadProxyEventList<E> {
+        private Runnable pending;
+
+        DeferredThreadProxyEventList(EventList<E> source) {
+            super(source);
+        }
+
+        @Override
+        protected void schedule(Runnable runnable) {
+            pending = runnable;
+        }
+
+        void flush() {
+            final Runnable runnable = pending;
+            pending = null;
+            if (runnable != null) {
+                runnable.run();
+            }
+        }
+    }
+}
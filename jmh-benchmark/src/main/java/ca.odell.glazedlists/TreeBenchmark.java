@@ -0,0 +1,134 @@
+package ca.odell.glazedlists;
+
+import ca.odell.glazedlists.btree.FourColorBTree;
+import ca.odell.glazedlists.impl.adt.barcode2.Element;
+import ca.odell.glazedlists.impl.adt.barcode2.FourColorTree;
+import ca.odell.glazedlists.impl.adt.barcode2.ListToByteCoder;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the AVL {@link FourColorTree} with the array-backed B+-tree
+ * {@link FourColorBTree} for the operations that the lists perform most:
+ * finding an element by index, finding the index of an element, and
+ * inserting and removing single elements.
+ *
+ * <p>Both trees hold <code>size</code> elements of two colors in a random
+ * order, and the indices are relative to one of those colors, as they are
+ * in a {@link FilterList} or {@link SortedList}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TreeBenchmark {
+
+    private static final ListToByteCoder<String> CODER = new ListToByteCoder<>(Arrays.asList("A", "B"));
+    private static final byte A = CODER.colorToByte("A");
+    private static final byte B = CODER.colorToByte("B");
+    private static final byte ALL = CODER.colorsToByte(Arrays.asList("A", "B"));
+
+    /** the number of elements in each tree */
+    @Param({"10000", "1000000"})
+    public int size;
+
+    private FourColorTree<Integer> avlTree;
+    private FourColorBTree<Integer> bTree;
+    private Element<Integer>[] avlElements;
+    private Element<Integer>[] bTreeElements;
+
+    /** random indices into the elements of color A, used round-robin */
+    private int[] indices;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        avlTree = new FourColorTree<>(CODER);
+        bTree = new FourColorBTree<>(CODER);
+        avlElements = newElements(size);
+        bTreeElements = newElements(size);
+
+        Random dice = new Random(0);
+        for (int i = 0; i < size; i++) {
+            final int index = dice.nextInt(i + 1);
+            final byte color = dice.nextBoolean() ? A : B;
+            avlElements[i] = avlTree.add(index, ALL, color, null, 1);
+            bTreeElements[i] = bTree.add(index, ALL, color, null, 1);
+        }
+
+        indices = new int[4096];
+        for (int i = 0; i < indices.length; i++) {
+            indices[i] = dice.nextInt(avlTree.size(A));
+        }
+        next = 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Element<Integer>[] newElements(int size) {
+        return (Element<Integer>[]) new Element<?>[size];
+    }
+
+    private int nextIndex() {
+        next = (next + 1) & (indices.length - 1);
+        return indices[next];
+    }
+
+    @Benchmark
+    public Element<Integer> getAvl() {
+        return avlTree.get(nextIndex(), A);
+    }
+
+    @Benchmark
+    public Element<Integer> getBTree() {
+        return bTree.get(nextIndex(), A);
+    }
+
+    @Benchmark
+    public int indexOfNodeAvl() {
+        return avlTree.indexOfNode(avlElements[nextIndex()], A);
+    }
+
+    @Benchmark
+    public int indexOfNodeBTree() {
+        return bTree.indexOfNode(bTreeElements[nextIndex()], A);
+    }
+
+    @Benchmark
+    public int convertIndexColorAvl() {
+        return avlTree.convertIndexColor(nextIndex(), A, ALL);
+    }
+
+    @Benchmark
+    public int convertIndexColorBTree() {
+        return bTree.convertIndexColor(nextIndex(), A, ALL);
+    }
+
+    @Benchmark
+    public void insertAndRemoveAvl() {
+        final Element<Integer> element = avlTree.add(nextIndex(), A, B, null, 1);
+        avlTree.remove(element);
+    }
+
+    @Benchmark
+    public void insertAndRemoveBTree() {
+        final Element<Integer> element = bTree.add(nextIndex(), A, B, null, 1);
+        bTree.remove(element);
+    }
+}
@@ -0,0 +1,18 @@
+package ca.odell.glazedlists;
+
+/**
+ * Measures edits through a {@link UniqueList} over a source where every
+ * value occurs about four times.
+ */
+public class UniqueListBenchmark extends AbstractPipelineBenchmark {
+
+    @Override
+    protected EventList<?> createPipeline(EventList<Integer> source) {
+        return new UniqueList<>(source);
+    }
+
+    @Override
+    protected int valueRange() {
+        return Math.max(1, size / 4);
+    }
+}
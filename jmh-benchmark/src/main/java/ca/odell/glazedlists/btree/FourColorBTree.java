@@ -0,0 +1,880 @@
+/* Glazed Lists                                                 (c) 2003-2006 */
+/* http://publicobject.com/glazedlists/                      publicobject.com,*/
+/*                                                     O'Dell Engineering Ltd.*/
+package ca.odell.glazedlists.btree;
+
+import ca.odell.glazedlists.GlazedLists;
+import ca.odell.glazedlists.impl.adt.barcode2.Element;
+import ca.odell.glazedlists.impl.adt.barcode2.FourColorTree;
+import ca.odell.glazedlists.impl.adt.barcode2.ListToByteCoder;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * A variant of {@link FourColorTree} that stores its elements in a B+-tree of
+ * wide, array-backed nodes rather than in a binary tree with one node per
+ * element.
+ *
+ * <p>Each leaf holds up to {@link #CAPACITY} elements, keeping their sizes and
+ * colors in parallel arrays. Each branch keeps the color counts of all of its
+ * children in a single array. Finding an index therefore scans a few
+ * contiguous arrays per level instead of following a pointer per level, and
+ * even a tree of millions of elements is only a handful of levels deep. The
+ * {@link Element}s handed out are small handles that know their position in
+ * their leaf.
+ *
+ * <p>The API and its semantics are the same as that of {@link FourColorTree}.
+ * The exception is the structure of the nodes, which is not exposed: adjacent
+ * elements of the same color and value may be merged at different times than
+ * in {@link FourColorTree}.
+ * Sorted operations like {@link #addInSortedOrder} and {@link #indexOfValue}
+ * binary search by index, so they take <code>O(log<sup>2</sup> n)</code>
+ * rather than <code>O(log n)</code> time.
+ *
+ * <p>This tree is an experiment for the benchmarks, which compare it to
+ * {@link FourColorTree}. No list can use it, because the lists depend on the
+ * concrete generated trees and their iterators.
+ */
+public class FourColorBTree<T0> {
+
+    /** the maximum number of elements in a leaf, or children in a branch */
+    static final int CAPACITY = 64;
+
+    /** nodes with fewer entries than this are merged with a neighbour where possible */
+    private static final int MINIMUM = CAPACITY / 4;
+
+    /** all four colors ORed together */
+    private static final byte ALL_COLORS = 15;
+
+    /** the colors in the tree, used for printing purposes only */
+    private final ListToByteCoder<?> coder;
+
+    /**
+     * The comparator to use when performing ordering operations on the tree.
+     * Sometimes this tree will not be sorted, so in such situations this
+     * comparator will not be used.
+     */
+    private final Comparator<? super T0> comparator;
+
+    /** the tree's root, which is an empty leaf for an empty tree */
+    private Node<T0> root = new Leaf<T0>();
+
+    /** the number of elements of each color in the tree */
+    private final int[] counts = new int[4];
+
+    /** the offset into the element returned by the most recent call to {@link #find} */
+    private int foundOffset;
+
+    /**
+     * @param coder specifies the node colors
+     * @param comparator the comparator to use when ordering values within the
+     *      tree. If this tree is unsorted, use the one-argument constructor.
+     */
+    public FourColorBTree(ListToByteCoder<?> coder, Comparator<? super T0> comparator) {
+        if(coder == null) throw new NullPointerException("Coder cannot be null.");
+        if(comparator == null) throw new NullPointerException("Comparator cannot be null.");
+
+        this.coder = coder;
+        this.comparator = comparator;
+    }
+
+    /**
+     * @param coder specifies the node colors
+     */
+    @SuppressWarnings("unchecked")
+    public FourColorBTree(ListToByteCoder<?> coder) {
+        this(coder, (Comparator<? super T0>) (Comparator<?>) GlazedLists.comparableComparator());
+    }
+
+    public ListToByteCoder<?> getCoder() {
+        return coder;
+    }
+
+    public Comparator<? super T0> getComparator() {
+        return comparator;
+    }
+
+    /**
+     * Get the tree element at the specified index relative to the specified index
+     * colors.
+     */
+    public Element<T0> get(int index, byte indexColors) {
+        if(index < 0 || index >= size(indexColors)) throw new IndexOutOfBoundsException();
+        return find(index, indexColors);
+    }
+
+    /**
+     * Find the entry at the specified index, which must be in range, and
+     * remember the offset of the index into that entry in {@link #foundOffset}.
+     */
+    private Entry<T0> find(int index, byte indexColors) {
+        Node<T0> node = root;
+        while(node instanceof Branch) {
+            Branch<T0> branch = (Branch<T0>)node;
+            int child = 0;
+            for( ; true; child++) {
+                int childSize = size(branch.counts, child, indexColors);
+                if(index < childSize) break;
+                index -= childSize;
+            }
+            node = branch.children[child];
+        }
+
+        Leaf<T0> leaf = (Leaf<T0>)node;
+        for(int slot = 0; true; slot++) {
+            int entrySize = (leaf.colors[slot] & indexColors) != 0 ? leaf.sizes[slot] : 0;
+            if(index < entrySize) {
+                foundOffset = index;
+                return leaf.entries[slot];
+            }
+            index -= entrySize;
+        }
+    }
+
+    /**
+     * Add a tree node at the specified index relative to the specified index
+     * colors. The inserted nodes' color, value and size are specified.
+     *
+     * <p><strong>Note that nodes with <code>null</code> values will never be
+     * merged together to allow those nodes to be assigned other values later.
+     *
+     * @param size the size of the node to insert.
+     * @param index the location into this tree to insert at
+     * @param indexColors the colors that index is relative to. This should be
+     *      all colors in the tree ORed together for the entire tree.
+     * @param value the node value. If non-<code>null</code>, the node may be
+     *      combined with other nodes of the same color and value. <code>null</code>
+     *      valued nodes will never be combined with each other.
+     * @return the element the specified value was inserted into. This is non-null
+     *      unless the size parameter is 0, in which case the result is always
+     *      <code>null</code>.
+     */
+    public Element<T0> add(int index, byte indexColors, byte color, T0 value, int size) {
+        if(index < 0 || index > size(indexColors)) throw new IndexOutOfBoundsException();
+        assert(size >= 0);
+        if(size == 0) return null;
+
+        // find the leftmost leaf that the index is in
+        Node<T0> node = root;
+        while(node instanceof Branch) {
+            Branch<T0> branch = (Branch<T0>)node;
+            int child = 0;
+            for(int last = branch.length - 1; child < last; child++) {
+                int childSize = size(branch.counts, child, indexColors);
+                if(index <= childSize) break;
+                index -= childSize;
+            }
+            node = branch.children[child];
+        }
+
+        // find the slot in that leaf, or the entry that the index splits
+        Leaf<T0> leaf = (Leaf<T0>)node;
+        int slot = 0;
+        for( ; slot < leaf.length && index > 0; slot++) {
+            int entrySize = (leaf.colors[slot] & indexColors) != 0 ? leaf.sizes[slot] : 0;
+            if(index < entrySize) break;
+            index -= entrySize;
+        }
+
+        // the first thing we want to try is to merge this value into an
+        // existing entry, since that's the cheapest thing to do
+        if(value != null) {
+            Entry<T0> merge = null;
+            if(index > 0) {
+                merge = leaf.entries[slot];
+            } else {
+                Entry<T0> before = slot > 0 ? leaf.entries[slot - 1] : (leaf.previous != null ? leaf.previous.entries[leaf.previous.length - 1] : null);
+                Entry<T0> after = slot < leaf.length ? leaf.entries[slot] : (leaf.next != null ? leaf.next.entries[0] : null);
+                if(before != null && before.value == value && before.getColor() == color) merge = before;
+                else merge = after;
+            }
+            if(merge != null && merge.value == value && merge.getColor() == color) {
+                merge.leaf.sizes[merge.slot] += size;
+                fixCountsThruRoot(merge.leaf, color, size);
+                assert(valid());
+                return merge;
+            }
+        }
+
+        // we need to insert in the centre of an entry. This works by
+        // splitting the entry, and inserting the value after its first half
+        Entry<T0> inserted = new Entry<T0>(value);
+        if(index > 0) {
+            Entry<T0> split = leaf.entries[slot];
+            byte splitColor = leaf.colors[slot];
+            int rightHalfSize = leaf.sizes[slot] - index;
+            leaf.sizes[slot] = index;
+            fixCountsThruRoot(leaf, splitColor, -rightHalfSize);
+            insertEntry(leaf, slot + 1, new Entry<T0>(split.value), splitColor, rightHalfSize);
+            insertEntry(split.leaf, split.slot + 1, inserted, color, size);
+        } else {
+            insertEntry(leaf, slot, inserted, color, size);
+        }
+
+        assert(valid());
+        return inserted;
+    }
+
+    /**
+     * Add a tree node in sorted order.
+     *
+     * @param size the size of the node to insert.
+     * @param value the node value. If non-<code>null</code>, the node may be
+     *      combined with other nodes of the same color and value. <code>null</code>
+     *      valued nodes will never be combined with each other.
+     * @return the element the specified value was inserted into. This is non-null
+     *      unless the size parameter is 0, in which case the result is always
+     *      <code>null</code>.
+     */
+    public Element<T0> addInSortedOrder(byte color, T0 value, int size) {
+        // binary search for the first element that sorts after the value.
+        // Unsorted elements are compared using the next sorted element
+        int low = 0;
+        int high = size(ALL_COLORS);
+        while(low < high) {
+            int middle = (low + high) >>> 1;
+            Element<T0> follower = find(middle, ALL_COLORS);
+            while(follower != null && follower.getSorted() != Element.SORTED) {
+                follower = follower.next();
+            }
+            if(follower == null || comparator.compare(value, follower.get()) < 0) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+
+        return add(low, ALL_COLORS, color, value, size);
+    }
+
+    /**
+     * Insert the specified entry into a leaf, splitting the leaf if it is full.
+     */
+    private void insertEntry(Leaf<T0> leaf, int slot, Entry<T0> entry, byte color, int size) {
+        if(leaf.length == CAPACITY) {
+            Leaf<T0> right = splitLeaf(leaf);
+            if(slot > leaf.length) {
+                slot -= leaf.length;
+                leaf = right;
+            }
+        }
+
+        int moved = leaf.length - slot;
+        System.arraycopy(leaf.entries, slot, leaf.entries, slot + 1, moved);
+        System.arraycopy(leaf.sizes, slot, leaf.sizes, slot + 1, moved);
+        System.arraycopy(leaf.colors, slot, leaf.colors, slot + 1, moved);
+        for(int i = slot + 1; i <= leaf.length; i++) leaf.entries[i].slot = i;
+
+        leaf.entries[slot] = entry;
+        leaf.sizes[slot] = size;
+        leaf.colors[slot] = color;
+        leaf.length++;
+        entry.leaf = leaf;
+        entry.slot = slot;
+        fixCountsThruRoot(leaf, color, size);
+    }
+
+    /**
+     * Move the second half of a full leaf into a new leaf that follows it.
+     *
+     * @return the new leaf
+     */
+    private Leaf<T0> splitLeaf(Leaf<T0> leaf) {
+        Leaf<T0> right = new Leaf<T0>();
+        int half = leaf.length / 2;
+        int moved = leaf.length - half;
+        int[] movedCounts = new int[4];
+
+        System.arraycopy(leaf.entries, half, right.entries, 0, moved);
+        System.arraycopy(leaf.sizes, half, right.sizes, 0, moved);
+        System.arraycopy(leaf.colors, half, right.colors, 0, moved);
+        Arrays.fill(leaf.entries, half, leaf.length, null);
+        for(int i = 0; i < moved; i++) {
+            Entry<T0> entry = right.entries[i];
+            entry.leaf = right;
+            entry.slot = i;
+            movedCounts[colorAsIndex(right.colors[i])] += right.sizes[i];
+        }
+        right.length = moved;
+        leaf.length = half;
+
+        right.next = leaf.next;
+        if(right.next != null) right.next.previous = right;
+        right.previous = leaf;
+        leaf.next = right;
+
+        insertChild(leaf, right, movedCounts);
+        return right;
+    }
+
+    /**
+     * Move the second half of a full branch into a new branch that follows it.
+     *
+     * @return the new branch
+     */
+    private Branch<T0> splitBranch(Branch<T0> branch) {
+        Branch<T0> right = new Branch<T0>();
+        int half = branch.length / 2;
+        int moved = branch.length - half;
+        int[] movedCounts = new int[4];
+
+        System.arraycopy(branch.children, half, right.children, 0, moved);
+        System.arraycopy(branch.counts, half * 4, right.counts, 0, moved * 4);
+        Arrays.fill(branch.children, half, branch.length, null);
+        for(int i = 0; i < moved; i++) {
+            Node<T0> child = right.children[i];
+            child.parent = right;
+            child.slot = i;
+            for(int c = 0; c < 4; c++) movedCounts[c] += right.counts[i * 4 + c];
+        }
+        right.length = moved;
+        branch.length = half;
+
+        insertChild(branch, right, movedCounts);
+        return right;
+    }
+
+    /**
+     * Insert a node that was split off from <code>left</code> into the parent
+     * of <code>left</code>, right after it.
+     *
+     * @param rightCounts the number of elements of each color that moved
+     *      from <code>left</code> into <code>right</code>
+     */
+    private void insertChild(Node<T0> left, Node<T0> right, int[] rightCounts) {
+        // grow the tree by one level
+        if(left.parent == null) {
+            Branch<T0> newRoot = new Branch<T0>();
+            newRoot.children[0] = left;
+            System.arraycopy(counts, 0, newRoot.counts, 0, 4);
+            newRoot.length = 1;
+            left.parent = newRoot;
+            left.slot = 0;
+            root = newRoot;
+        }
+
+        if(left.parent.length == CAPACITY) splitBranch(left.parent);
+        Branch<T0> parent = left.parent;
+
+        int slot = left.slot + 1;
+        int moved = parent.length - slot;
+        System.arraycopy(parent.children, slot, parent.children, slot + 1, moved);
+        System.arraycopy(parent.counts, slot * 4, parent.counts, (slot + 1) * 4, moved * 4);
+        for(int i = slot + 1; i <= parent.length; i++) parent.children[i].slot = i;
+
+        parent.children[slot] = right;
+        for(int c = 0; c < 4; c++) {
+            parent.counts[slot * 4 + c] = rightCounts[c];
+            parent.counts[left.slot * 4 + c] -= rightCounts[c];
+        }
+        parent.length++;
+        right.parent = parent;
+        right.slot = slot;
+    }
+
+    /**
+     * Adjust counts for all nodes (including the specified node) up the tree
+     * to the root. The counts of the specified color are adjusted by delta
+     * (which may be positive or negative).
+     */
+    private void fixCountsThruRoot(Node<T0> node, byte color, int delta) {
+        int colorIndex = colorAsIndex(color);
+        for(Branch<T0> parent = node.parent; parent != null; node = parent, parent = parent.parent) {
+            parent.counts[node.slot * 4 + colorIndex] += delta;
+        }
+        counts[colorIndex] += delta;
+    }
+
+    /**
+     * Change the color of the specified element.
+     */
+    public final void setColor(Element<T0> element, byte color) {
+        Entry<T0> entry = (Entry<T0>)element;
+        Leaf<T0> leaf = entry.leaf;
+        byte oldColor = leaf.colors[entry.slot];
+        if(oldColor == color) return;
+
+        int size = leaf.sizes[entry.slot];
+        fixCountsThruRoot(leaf, oldColor, -size);
+        leaf.colors[entry.slot] = color;
+        fixCountsThruRoot(leaf, color, size);
+    }
+
+    /**
+     * Remove the specified element from the tree outright.
+     */
+    public void remove(Element<T0> element) {
+        Entry<T0> entry = (Entry<T0>)element;
+        Leaf<T0> leaf = entry.leaf;
+        fixCountsThruRoot(leaf, leaf.colors[entry.slot], -leaf.sizes[entry.slot]);
+        removeEntry(entry);
+
+        assert(valid());
+    }
+
+    /**
+     * Remove size values at the specified index. Only values of the type
+     * specified in indexColors will be removed.
+     *
+     * <p>Note that if the two nodes on either side of the removed node could
+     * be merged, they probably will not be merged by this implementation.
+     */
+    public void remove(int index, byte indexColors, int size) {
+        if(size == 0) return;
+        if(index < 0 || index + size > size(indexColors)) throw new IndexOutOfBoundsException();
+
+        while(size > 0) {
+            Entry<T0> entry = find(index, indexColors);
+            Leaf<T0> leaf = entry.leaf;
+            int removed = Math.min(leaf.sizes[entry.slot] - foundOffset, size);
+            leaf.sizes[entry.slot] -= removed;
+            fixCountsThruRoot(leaf, leaf.colors[entry.slot], -removed);
+            if(leaf.sizes[entry.slot] == 0) removeEntry(entry);
+            size -= removed;
+        }
+
+        assert(valid());
+    }
+
+    /**
+     * Remove an entry whose counts have already been subtracted from the tree.
+     */
+    private void removeEntry(Entry<T0> entry) {
+        Leaf<T0> leaf = entry.leaf;
+        int slot = entry.slot;
+        int moved = leaf.length - slot - 1;
+        System.arraycopy(leaf.entries, slot + 1, leaf.entries, slot, moved);
+        System.arraycopy(leaf.sizes, slot + 1, leaf.sizes, slot, moved);
+        System.arraycopy(leaf.colors, slot + 1, leaf.colors, slot, moved);
+        leaf.length--;
+        leaf.entries[leaf.length] = null;
+        for(int i = slot; i < leaf.length; i++) leaf.entries[i].slot = i;
+        entry.leaf = null;
+
+        rebalance(leaf);
+    }
+
+    /**
+     * Restore the shape of the tree after entries or children have been
+     * removed from the specified node, by removing it if it is empty or
+     * merging it into a neighbour if it is small.
+     */
+    private void rebalance(Node<T0> node) {
+        Branch<T0> parent = node.parent;
+
+        // shrink the tree by one level if the root has only one child
+        if(parent == null) {
+            if(node instanceof Branch && node.length <= 1) {
+                if(node.length == 0) {
+                    root = new Leaf<T0>();
+                } else {
+                    root = ((Branch<T0>)node).children[0];
+                    root.parent = null;
+                    root.slot = 0;
+                    rebalance(root);
+                }
+            }
+            return;
+        }
+
+        // remove empty nodes outright
+        if(node.length == 0) {
+            if(node instanceof Leaf) {
+                Leaf<T0> leaf = (Leaf<T0>)node;
+                if(leaf.previous != null) leaf.previous.next = leaf.next;
+                if(leaf.next != null) leaf.next.previous = leaf.previous;
+            }
+            removeChild(parent, node.slot);
+            rebalance(parent);
+            return;
+        }
+
+        // merge small nodes with a neighbour
+        if(node.length >= MINIMUM) return;
+        if(node.slot > 0 && parent.children[node.slot - 1].length + node.length <= CAPACITY) {
+            merge(parent.children[node.slot - 1], node);
+        } else if(node.slot + 1 < parent.length && parent.children[node.slot + 1].length + node.length <= CAPACITY) {
+            merge(node, parent.children[node.slot + 1]);
+        }
+    }
+
+    /**
+     * Move the contents of <code>right</code> into its predecessor <code>left</code>.
+     */
+    private void merge(Node<T0> left, Node<T0> right) {
+        Branch<T0> parent = left.parent;
+        int moved = right.length;
+
+        if(left instanceof Leaf) {
+            Leaf<T0> leftLeaf = (Leaf<T0>)left;
+            Leaf<T0> rightLeaf = (Leaf<T0>)right;
+            System.arraycopy(rightLeaf.entries, 0, leftLeaf.entries, leftLeaf.length, moved);
+            System.arraycopy(rightLeaf.sizes, 0, leftLeaf.sizes, leftLeaf.length, moved);
+            System.arraycopy(rightLeaf.colors, 0, leftLeaf.colors, leftLeaf.length, moved);
+            for(int i = leftLeaf.length; i < leftLeaf.length + moved; i++) {
+                leftLeaf.entries[i].leaf = leftLeaf;
+                leftLeaf.entries[i].slot = i;
+            }
+            leftLeaf.next = rightLeaf.next;
+            if(leftLeaf.next != null) leftLeaf.next.previous = leftLeaf;
+        } else {
+            Branch<T0> leftBranch = (Branch<T0>)left;
+            Branch<T0> rightBranch = (Branch<T0>)right;
+            System.arraycopy(rightBranch.children, 0, leftBranch.children, leftBranch.length, moved);
+            System.arraycopy(rightBranch.counts, 0, leftBranch.counts, leftBranch.length * 4, moved * 4);
+            for(int i = leftBranch.length; i < leftBranch.length + moved; i++) {
+                leftBranch.children[i].parent = leftBranch;
+                leftBranch.children[i].slot = i;
+            }
+        }
+        left.length += moved;
+
+        for(int c = 0; c < 4; c++) {
+            parent.counts[left.slot * 4 + c] += parent.counts[right.slot * 4 + c];
+        }
+        removeChild(parent, right.slot);
+        rebalance(parent);
+    }
+
+    /**
+     * Remove the child at the specified slot from a branch.
+     */
+    private void removeChild(Branch<T0> branch, int slot) {
+        int moved = branch.length - slot - 1;
+        System.arraycopy(branch.children, slot + 1, branch.children, slot, moved);
+        System.arraycopy(branch.counts, (slot + 1) * 4, branch.counts, slot * 4, moved * 4);
+        branch.length--;
+        branch.children[branch.length] = null;
+        Arrays.fill(branch.counts, branch.length * 4, branch.length * 4 + 4, 0);
+        for(int i = slot; i < branch.length; i++) branch.children[i].slot = i;
+    }
+
+    /**
+     * Replace all values at the specified index with the specified new value.
+     *
+     * @return the element that was updated. This is non-null unless the size
+     *      parameter is 0, in which case the result is always <code>null</code>.
+     */
+    public Element<T0> set(int index, byte indexColors, byte color, T0 value, int size) {
+        remove(index, indexColors, size);
+        return add(index, indexColors, color, value, size);
+    }
+
+    /**
+     * Remove all nodes from the tree.
+     */
+    public void clear() {
+        root = new Leaf<T0>();
+        Arrays.fill(counts, 0);
+    }
+
+    /**
+     * Get the index of the specified element, counting only the colors
+     * specified.
+     */
+    public int indexOfNode(Element<T0> element, byte colorsOut) {
+        Entry<T0> entry = (Entry<T0>)element;
+        Leaf<T0> leaf = entry.leaf;
+
+        // count all elements left of this entry in its leaf
+        int index = 0;
+        for(int slot = 0; slot < entry.slot; slot++) {
+            if((leaf.colors[slot] & colorsOut) != 0) index += leaf.sizes[slot];
+        }
+
+        // add all elements on the left, all the way to the root
+        for(Node<T0> node = leaf; node.parent != null; node = node.parent) {
+            for(int child = 0; child < node.slot; child++) {
+                index += size(node.parent.counts, child, colorsOut);
+            }
+        }
+
+        return index;
+    }
+
+    /**
+     * Find the index of the specified element
+     *
+     * @param firstIndex true to return the index of the first occurrence of the
+     *     specified element,  or false for the last index.
+     * @param simulated true to return an index value even if the element is not
+     *     found. Otherwise -1 is returned.
+     * @return an index, or -1 if simulated is false and there exists no
+     *     element x in this tree such that
+     *     <code>FourColorBTree.getComparator().compare(x, element) == 0</code>.
+     */
+    public int indexOfValue(T0 element, boolean firstIndex, boolean simulated, byte colorsOut) {
+        // binary search for the first element that is not before the value
+        // (firstIndex) or that is after the value (last index)
+        int size = size(ALL_COLORS);
+        int low = 0;
+        int high = size;
+        while(low < high) {
+            int middle = (low + high) >>> 1;
+            int comparison = comparator.compare(element, find(middle, ALL_COLORS).value);
+            if(comparison < 0 || (comparison == 0 && firstIndex)) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+
+        boolean found;
+        if(firstIndex) found = low < size && comparator.compare(element, find(low, ALL_COLORS).value) == 0;
+        else found = low > 0 && comparator.compare(element, find(low - 1, ALL_COLORS).value) == 0;
+        if(!found && !simulated) return -1;
+
+        // all values of an element are equal, so low is where an element starts
+        int result = low < size ? indexOfNode(find(low, ALL_COLORS), colorsOut) : size(colorsOut);
+        if(found && !firstIndex) result--;
+        return result;
+    }
+
+    /**
+     * Convert one index into another.
+     */
+    public int convertIndexColor(int index, byte indexColors, byte colorsOut) {
+        if(index == 0 && size(ALL_COLORS) == 0) return 0;
+        if(index < 0 || index >= size(indexColors)) throw new IndexOutOfBoundsException();
+
+        int result = 0;
+
+        // go deep, counting the elements left of our node of interest
+        Node<T0> node = root;
+        while(node instanceof Branch) {
+            Branch<T0> branch = (Branch<T0>)node;
+            int child = 0;
+            for( ; true; child++) {
+                int childSize = size(branch.counts, child, indexColors);
+                if(index < childSize) break;
+                index -= childSize;
+                result += size(branch.counts, child, colorsOut);
+            }
+            node = branch.children[child];
+        }
+
+        Leaf<T0> leaf = (Leaf<T0>)node;
+        for(int slot = 0; true; slot++) {
+            byte color = leaf.colors[slot];
+            int entrySize = (color & indexColors) != 0 ? leaf.sizes[slot] : 0;
+            if(index < entrySize) {
+                // we're on an element of the same color, return the adjusted index
+                if((colorsOut & color) != 0) return result + index;
+                // we're on an element of a different color, return the previous element of the requested color
+                else return result - 1;
+            }
+            index -= entrySize;
+            if((color & colorsOut) != 0) result += leaf.sizes[slot];
+        }
+    }
+
+    /**
+     * The size of the tree for the specified colors.
+     */
+    public int size(byte colors) {
+        return size(counts, 0, colors);
+    }
+
+    /**
+     * Total the counts of the specified colors in the four counts of the
+     * specified child.
+     */
+    private static int size(int[] counts, int child, byte colors) {
+        int base = child * 4;
+        int result = 0;
+        if((colors & 1) != 0) result += counts[base];
+        if((colors & 2) != 0) result += counts[base + 1];
+        if((colors & 4) != 0) result += counts[base + 2];
+        if((colors & 8) != 0) result += counts[base + 3];
+        return result;
+    }
+
+    /**
+     * Print this tree as a list of values.
+     */
+    @Override
+    public String toString() {
+        StringBuffer result = new StringBuffer();
+        for(Entry<T0> entry = firstEntry(); entry != null; entry = entry.next()) {
+            if(result.length() > 0) result.append(", ");
+            result.append(coder.getColors().get(colorAsIndex(entry.getColor())));
+            result.append(" * ").append(entry.leaf.sizes[entry.slot]);
+            result.append(" ").append(entry.value);
+        }
+        return result.toString();
+    }
+
+    /**
+     * Print this tree as a list of colors, removing all hierarchy.
+     */
+    public String asSequenceOfColors() {
+        StringBuffer result = new StringBuffer();
+        for(Entry<T0> entry = firstEntry(); entry != null; entry = entry.next()) {
+            Object color = coder.getColors().get(colorAsIndex(entry.getColor()));
+            for(int i = 0; i < entry.leaf.sizes[entry.slot]; i++) {
+                result.append(color);
+            }
+        }
+        return result.toString();
+    }
+
+    /**
+     * Find the leftmost element in this tree.
+     */
+    Entry<T0> firstEntry() {
+        Node<T0> node = root;
+        while(node instanceof Branch) node = ((Branch<T0>)node).children[0];
+        Leaf<T0> leaf = (Leaf<T0>)node;
+        return leaf.length > 0 ? leaf.entries[0] : null;
+    }
+
+    /**
+     * @return true if this tree is structurally valid
+     */
+    private boolean valid() {
+        int[] actual = validCounts(root);
+        assert(Arrays.equals(actual, counts)) : "Incorrect counts " + Arrays.toString(counts) + ", expected " + Arrays.toString(actual);
+        return true;
+    }
+
+    /**
+     * Validate the links and counts of the specified subtree.
+     *
+     * @return the number of elements of each color in the subtree
+     */
+    private int[] validCounts(Node<T0> node) {
+        int[] result = new int[4];
+        assert(node == root || node.length > 0) : "Empty node";
+        if(node instanceof Leaf) {
+            Leaf<T0> leaf = (Leaf<T0>)node;
+            for(int slot = 0; slot < leaf.length; slot++) {
+                assert(leaf.entries[slot].leaf == leaf && leaf.entries[slot].slot == slot);
+                assert(leaf.sizes[slot] > 0);
+                result[colorAsIndex(leaf.colors[slot])] += leaf.sizes[slot];
+            }
+            assert(leaf.next == null || leaf.next.previous == leaf);
+        } else {
+            Branch<T0> branch = (Branch<T0>)node;
+            for(int child = 0; child < branch.length; child++) {
+                Node<T0> childNode = branch.children[child];
+                assert(childNode.parent == branch && childNode.slot == child);
+                int[] childCounts = validCounts(childNode);
+                for(int c = 0; c < 4; c++) {
+                    assert(childCounts[c] == branch.counts[child * 4 + c]) : "Incorrect count " + c + " of child " + child;
+                    result[c] += childCounts[c];
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Convert the specified color value (such as 1, 2, 4 or 8) into an
+     * index value (such as 0, 1, 2 or 3).
+     */
+    private static int colorAsIndex(byte color) {
+        switch(color) {
+            case 1: return 0;
+            case 2: return 1;
+            case 4: return 2;
+            case 8: return 3;
+        }
+        throw new IllegalArgumentException();
+    }
+
+    /**
+     * A node of the tree, which is either a {@link Leaf} or a {@link Branch}.
+     * The counts of a node are kept by its parent.
+     */
+    private static abstract class Node<T0> {
+        /** the branch containing this node, or <code>null</code> for the root */
+        Branch<T0> parent;
+        /** the position of this node within its parent */
+        int slot;
+        /** the number of entries or children in this node */
+        int length;
+    }
+
+    /**
+     * A node holding the elements of the tree.
+     */
+    private static final class Leaf<T0> extends Node<T0> {
+        @SuppressWarnings("unchecked")
+        final Entry<T0>[] entries = (Entry<T0>[]) new Entry<?>[CAPACITY];
+        final int[] sizes = new int[CAPACITY];
+        final byte[] colors = new byte[CAPACITY];
+        /** the neighbouring leaves, for iteration */
+        Leaf<T0> previous, next;
+    }
+
+    /**
+     * A node holding other nodes.
+     */
+    private static final class Branch<T0> extends Node<T0> {
+        @SuppressWarnings("unchecked")
+        final Node<T0>[] children = (Node<T0>[]) new Node<?>[CAPACITY];
+        /** the number of elements of each color in each child, four per child */
+        final int[] counts = new int[CAPACITY * 4];
+    }
+
+    /**
+     * The element handle. Its size and color are kept by its leaf.
+     */
+    private static final class Entry<T0> implements Element<T0> {
+        /** the leaf containing this entry, or <code>null</code> once removed */
+        Leaf<T0> leaf;
+        /** the position of this entry within its leaf */
+        int slot;
+        /** the entry's value */
+        T0 value;
+        /** whether this entry is consistent with the sorting order */
+        int sorted = Element.SORTED;
+
+        Entry(T0 value) {
+            this.value = value;
+        }
+
+        @Override
+        public T0 get() {
+            return value;
+        }
+
+        @Override
+        public void set(T0 value) {
+            this.value = value;
+        }
+
+        @Override
+        public byte getColor() {
+            return leaf.colors[slot];
+        }
+
+        @Override
+        public void setSorted(int sorted) {
+            this.sorted = sorted;
+        }
+
+        @Override
+        public int getSorted() {
+            return sorted;
+        }
+
+        @Override
+        public Entry<T0> next() {
+            if(slot + 1 < leaf.length) return leaf.entries[slot + 1];
+            return leaf.next != null ? leaf.next.entries[0] : null;
+        }
+
+        @Override
+        public Entry<T0> previous() {
+            if(slot > 0) return leaf.entries[slot - 1];
+            return leaf.previous != null ? leaf.previous.entries[leaf.previous.length - 1] : null;
+        }
+
+        @Override
+        public String toString() {
+            return "[ " + leaf.sizes[slot] + " * " + value + " ]";
+        }
+    }
+}
@@ -0,0 +1,279 @@
+/* Glazed Lists                                                 (c) 2003-2006 */
+/* http://publicobject.com/glazedlists/                      publicobject.com,*/
+/*                                                     O'Dell Engineering Ltd.*/
+package ca.odell.glazedlists.btree;
+
+import ca.odell.glazedlists.impl.adt.barcode2.Element;
+import ca.odell.glazedlists.impl.adt.barcode2.FourColorTree;
+import ca.odell.glazedlists.impl.adt.barcode2.ListToByteCoder;
+import ca.odell.glazedlists.impl.testing.GlazedListsTests;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Makes sure that {@link FourColorBTree} behaves like {@link FourColorTree}.
+ */
+public class FourColorBTreeTest {
+
+    /** test values */
+    private static List<String> colors = GlazedListsTests.stringToList("ABC");
+    private static ListToByteCoder<String> coder = new ListToByteCoder<String>(colors);
+    private static byte allColors = coder.colorsToByte(GlazedListsTests.stringToList("ABC"));
+    private static byte a = coder.colorToByte("A");
+    private static byte b = coder.colorToByte("B");
+    private static byte c = coder.colorToByte("C");
+    private static byte aOrB = (byte) (a | b);
+    private static byte bOrC = (byte) (b | c);
+    private static byte aOrC = (byte) (a | c);
+    private static byte[] colorSets = { a, b, c, aOrB, bOrC, aOrC, allColors };
+
+    @Test
+    public void testThreeColorInserts() {
+        FourColorBTree<String> tree = new FourColorBTree<String>(coder);
+
+        Element<String> nodeB1 = tree.add(0, allColors, b, "January", 5);
+        Element<String> nodeA1 = tree.add(0, allColors, a, "March", 5);
+        Element<String> nodeC1 = tree.add(10, allColors, c, "April", 5);
+        Element<String> nodeB2 = tree.add(12, allColors, b, "February", 3);
+
+        assertEquals(5, tree.size(a));
+        assertEquals(8, tree.size(b));
+        assertEquals(18, tree.size(allColors));
+        assertEquals(10, tree.size(aOrC));
+
+        assertEquals(0, tree.indexOfNode(nodeA1, allColors));
+        assertEquals(5, tree.indexOfNode(nodeB1, allColors));
+        assertEquals(12, tree.indexOfNode(nodeB2, allColors));
+        assertEquals(5, tree.indexOfNode(nodeC1, b));
+        assertEquals(7, tree.indexOfNode(nodeB2, aOrC));
+
+        assertSame(nodeC1, tree.add(12, allColors, c, "April", 3));
+        assertSame(nodeA1, tree.add(5, allColors, a, "March", 1));
+        assertSame(nodeA1, tree.add(0, allColors, a, "March", 4));
+        assertNotSame(nodeB1, tree.add(12, allColors, b, "February", 5));
+        assertEquals("AAAAAAAAAABBBBBBBBBBCCCCCBBBCCC", tree.asSequenceOfColors());
+
+        tree.add(4, allColors, b, "May", 2);
+        tree.add(7, allColors, b, "May", 2);
+        tree.add(10, allColors, b, "May", 2);
+        assertEquals("AAAABBABBABBAAAABBBBBBBBBBCCCCCBBBCCC", tree.asSequenceOfColors());
+
+        assertEquals(4, tree.convertIndexColor(0, b, allColors));
+        assertEquals(0, tree.convertIndexColor(4, allColors, b));
+        assertEquals(31, tree.convertIndexColor(16, b, allColors));
+        assertEquals(4, tree.convertIndexColor(3, b, a));
+        assertEquals(18, tree.convertIndexColor(5, c, b));
+        assertEquals(9, tree.convertIndexColor(19, bOrC, a));
+        assertEquals(36, tree.convertIndexColor(7, c, allColors));
+    }
+
+    @Test
+    public void testRemoves() {
+        FourColorBTree<String> tree = new FourColorBTree<String>(coder);
+        tree.add(0, allColors, b, "January", 2);
+        tree.add(1, allColors, a, "February", 4);
+        tree.add(5, allColors, b, "January", 3);
+        tree.add(1, allColors, b, "January", 3);
+        assertEquals("BBBBAAAABBBB", tree.asSequenceOfColors());
+
+        tree.remove(4, b, 4);
+        assertEquals("BBBBAAAA", tree.asSequenceOfColors());
+
+        tree.remove(2, aOrB, 4);
+        assertEquals("BBAA", tree.asSequenceOfColors());
+
+        tree.remove(0, aOrB, 4);
+        assertEquals("", tree.asSequenceOfColors());
+    }
+
+    /**
+     * Apply the same random operations to both trees, with enough elements
+     * that the B+-tree has several levels.
+     */
+    @Test
+    public void testRandomOperationsMatchFourColorTree() {
+        FourColorTree<String> expected = new FourColorTree<String>(coder);
+        FourColorBTree<String> tree = new FourColorBTree<String>(coder);
+        String[] values = { "January", "February", "March", null };
+
+        Random dice = new Random(0);
+        for(int i = 0; i < 20000; i++) {
+            int operation = dice.nextInt(10);
+            int size = expected.size(allColors);
+            byte indexColors = colorSets[dice.nextInt(colorSets.length)];
+            int indexSize = expected.size(indexColors);
+
+            if(size < 2000 && operation <= 4 || size == 0) {
+                String value = values[dice.nextInt(values.length)];
+                // an index relative to some colors only is ambiguous if there
+                // are elements of other colors, so either tree may merge a
+                // value with a different neighbour
+                if(value != null) {
+                    indexColors = allColors;
+                    indexSize = size;
+                }
+                int index = dice.nextInt(indexSize + 1);
+                byte color = coder.colorToByte(colors.get(dice.nextInt(colors.size())));
+                int length = 1 + dice.nextInt(3);
+                Element<String> expectedElement = expected.add(index, indexColors, color, value, length);
+                Element<String> element = tree.add(index, indexColors, color, value, length);
+
+                // elements with null values are never merged, so they start at the same index
+                if(value == null) {
+                    for(byte colorsOut : colorSets) {
+                        assertEquals(expected.indexOfNode(expectedElement, colorsOut), tree.indexOfNode(element, colorsOut));
+                    }
+                }
+
+            } else if(operation <= 6 && indexSize > 0) {
+                int index = dice.nextInt(indexSize);
+                int length = 1 + dice.nextInt(Math.min(indexSize - index, 5));
+                expected.remove(index, indexColors, length);
+                tree.remove(index, indexColors, length);
+
+            // elements with non-null values may be merged differently, so
+            // only change elements with null values outright
+            } else if(operation == 7 && indexSize > 0 && expected.get(index(dice, indexSize), indexColors).get() == null) {
+                byte color = coder.colorToByte(colors.get(dice.nextInt(colors.size())));
+                expected.setColor(expected.get(lastIndex, indexColors), color);
+                tree.setColor(tree.get(lastIndex, indexColors), color);
+
+            } else if(operation == 8 && indexSize > 0 && expected.get(index(dice, indexSize), indexColors).get() == null) {
+                expected.remove(expected.get(lastIndex, indexColors));
+                tree.remove(tree.get(lastIndex, indexColors));
+
+            } else if(indexSize > 0) {
+                int index = dice.nextInt(indexSize);
+                byte colorsOut = colorSets[dice.nextInt(colorSets.length)];
+                assertEquals(expected.convertIndexColor(index, indexColors, colorsOut), tree.convertIndexColor(index, indexColors, colorsOut));
+            }
+
+            assertEquals(expected.asSequenceOfColors(), tree.asSequenceOfColors());
+        }
+
+        // compare the values of all elements
+        for(byte colorsOut : colorSets) {
+            assertEquals(expected.size(colorsOut), tree.size(colorsOut));
+            for(int i = 0; i < tree.size(colorsOut); i++) {
+                assertSame(expected.get(i, colorsOut).get(), tree.get(i, colorsOut).get());
+            }
+        }
+
+        // iterate the elements in both directions
+        List<Element<String>> forwards = new ArrayList<Element<String>>();
+        for(Element<String> element = tree.get(0, allColors); element != null; element = element.next()) {
+            assertTrue(forwards.isEmpty() || tree.indexOfNode(element, allColors) > tree.indexOfNode(forwards.get(forwards.size() - 1), allColors));
+            forwards.add(element);
+        }
+        for(Element<String> element = forwards.get(forwards.size() - 1); element != null; element = element.previous()) {
+            assertSame(forwards.remove(forwards.size() - 1), element);
+        }
+        assertTrue(forwards.isEmpty());
+    }
+
+    /**
+     * Grow and shrink a tree that is several levels deep.
+     */
+    @Test
+    public void testManyElements() {
+        FourColorTree<Integer> expected = new FourColorTree<Integer>(coder);
+        FourColorBTree<Integer> tree = new FourColorBTree<Integer>(coder);
+
+        Random dice = new Random(0);
+        for(int i = 0; i < 6000; i++) {
+            int index = dice.nextInt(expected.size(allColors) + 1);
+            byte color = coder.colorToByte(colors.get(dice.nextInt(colors.size())));
+            Integer value = Integer.valueOf(i);
+            expected.add(index, allColors, color, value, 1);
+            tree.add(index, allColors, color, value, 1);
+        }
+        for(int i = 0; i < 5000; i++) {
+            byte indexColors = colorSets[dice.nextInt(colorSets.length)];
+            int indexSize = expected.size(indexColors);
+            if(indexSize == 0) continue;
+            int index = dice.nextInt(indexSize);
+            expected.remove(index, indexColors, 1);
+            tree.remove(index, indexColors, 1);
+        }
+
+        for(byte colors : colorSets) {
+            assertEquals(expected.size(colors), tree.size(colors));
+            for(int i = 0; i < tree.size(colors); i += 7) {
+                Element<Integer> element = tree.get(i, colors);
+                assertSame(expected.get(i, colors).get(), element.get());
+                assertEquals(i, tree.indexOfNode(element, colors));
+            }
+        }
+
+        tree.remove(0, allColors, tree.size(allColors));
+        assertEquals("", tree.asSequenceOfColors());
+        assertEquals(0, tree.size(allColors));
+    }
+
+    /** the index returned by the most recent call to {@link #index} */
+    private int lastIndex;
+
+    private int index(Random dice, int size) {
+        lastIndex = dice.nextInt(size);
+        return lastIndex;
+    }
+
+    @Test
+    public void testSortedTree() {
+        FourColorTree<Integer> expected = new FourColorTree<Integer>(coder);
+        FourColorBTree<Integer> tree = new FourColorBTree<Integer>(coder);
+
+        Random dice = new Random(0);
+        for(int i = 0; i < 5000; i++) {
+            Integer value = Integer.valueOf(dice.nextInt(1000));
+            byte color = coder.colorToByte(colors.get(dice.nextInt(colors.size())));
+            expected.addInSortedOrder(color, value, 1);
+            tree.addInSortedOrder(color, value, 1);
+        }
+        assertEquals(expected.asSequenceOfColors().length(), tree.size(allColors));
+
+        Integer previous = null;
+        for(int i = 0; i < tree.size(allColors); i++) {
+            Integer value = tree.get(i, allColors).get();
+            assertTrue(previous == null || previous.compareTo(value) <= 0);
+            previous = value;
+        }
+
+        for(int i = -1; i < 1001; i++) {
+            Integer value = Integer.valueOf(i);
+            for(byte colorsOut : colorSets) {
+                assertEquals(expected.indexOfValue(value, true, false, colorsOut) >= 0, tree.indexOfValue(value, true, false, colorsOut) >= 0);
+                assertEquals(expected.indexOfValue(value, true, true, colorsOut), tree.indexOfValue(value, true, true, colorsOut));
+                assertEquals(expected.indexOfValue(value, false, true, colorsOut), tree.indexOfValue(value, false, true, colorsOut));
+            }
+        }
+    }
+
+    @Test
+    public void testSortedTreeIndexOf() {
+        FourColorBTree<String> tree = new FourColorBTree<String>(coder);
+        for(String value : GlazedListsTests.stringToList("BBCEFFGGG")) {
+            tree.addInSortedOrder(a, value, 1);
+        }
+
+        assertExpectedIndices(tree, "A", -1, -1, 0, 0);
+        assertExpectedIndices(tree, "B", 0, 1, 0, 1);
+        assertExpectedIndices(tree, "C", 2, 2, 2, 2);
+        assertExpectedIndices(tree, "D", -1, -1, 3, 3);
+        assertExpectedIndices(tree, "F", 4, 5, 4, 5);
+        assertExpectedIndices(tree, "G", 6, 8, 6, 8);
+    }
+
+    private static <V> void assertExpectedIndices(FourColorBTree<V> tree, V value, int first, int last, int firstSimulated, int lastSimulated) {
+        assertEquals("" + value, first, tree.indexOfValue(value, true, false, allColors));
+        assertEquals("" + value, last, tree.indexOfValue(value, false, false, allColors));
+        assertEquals("" + value, firstSimulated, tree.indexOfValue(value, true, true, allColors));
+        assertEquals("" + value, lastSimulated, tree.indexOfValue(value, false, true, allColors));
+    }
+}